@@ -16,6 +16,8 @@
 
 package io.opencensus.common;
 
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
@@ -30,6 +32,9 @@ import java.nio.ByteOrder;
  *
  * <p>Use {@code ServerStatsEncoding.parseBytes(byte[] serialized)} to decode.
  *
+ * <p>The {@link ByteBuffer} overloads encode into and decode from caller-provided buffers, which
+ * can be reused across calls.
+ *
  * @since 0.16
  */
 public final class ServerStatsEncoding {
@@ -43,6 +48,9 @@ public final class ServerStatsEncoding {
    */
   public static final byte CURRENT_VERSION = (byte) 0;
 
+  // Version byte followed by all the fields.
+  private static final int ENCODED_SIZE = ServerStatsFieldEnums.getTotalSize() + 1;
+
   /**
    * Encodes the {@link ServerStats} as per the Opencensus Summary Span specification.
    *
@@ -51,23 +59,59 @@ public final class ServerStatsEncoding {
    * @since 0.16
    */
   public static byte[] toBytes(ServerStats stats) {
-    // Should this be optimized to not include invalid values?
+    byte[] serialized = new byte[ENCODED_SIZE];
+    toBytes(stats, ByteBuffer.wrap(serialized));
+    return serialized;
+  }
 
-    ByteBuffer bb = ByteBuffer.allocate(ServerStatsFieldEnums.getTotalSize() + 1);
-    bb.order(ByteOrder.LITTLE_ENDIAN);
+  /**
+   * Encodes the {@link ServerStats} as per the Opencensus Summary Span specification, writing it
+   * into the given buffer starting at its current position. The position of the buffer is advanced
+   * by {@link #getEncodedSize()} bytes, and its byte order is left unchanged.
+   *
+   * <p>This lets a caller reuse one buffer for all the responses instead of allocating an array per
+   * response.
+   *
+   * @param stats {@code ServerStats} to encode.
+   * @param buffer the buffer to write the encoded {@code ServerStats} into.
+   * @throws java.nio.BufferOverflowException if there are fewer than {@link #getEncodedSize()}
+   *     bytes remaining in the buffer, in which case nothing is written.
+   * @throws java.nio.ReadOnlyBufferException if the buffer is read-only.
+   * @since 0.16
+   */
+  public static void toBytes(ServerStats stats, ByteBuffer buffer) {
+    if (buffer.remaining() < ENCODED_SIZE) {
+      throw new BufferOverflowException();
+    }
+    // Should this be optimized to not include invalid values?
+    ByteOrder order = buffer.order();
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    try {
+      // put version
+      buffer.put(CURRENT_VERSION);
 
-    // put version
-    bb.put(CURRENT_VERSION);
+      buffer.put((byte) ServerStatsFieldEnums.Id.SERVER_STATS_LB_LATENCY_ID.value());
+      buffer.putLong(stats.getLbLatencyNs());
 
-    bb.put((byte) ServerStatsFieldEnums.Id.SERVER_STATS_LB_LATENCY_ID.value());
-    bb.putLong(stats.getLbLatencyNs());
+      buffer.put((byte) ServerStatsFieldEnums.Id.SERVER_STATS_SERVICE_LATENCY_ID.value());
+      buffer.putLong(stats.getServiceLatencyNs());
 
-    bb.put((byte) ServerStatsFieldEnums.Id.SERVER_STATS_SERVICE_LATENCY_ID.value());
-    bb.putLong(stats.getServiceLatencyNs());
+      buffer.put((byte) ServerStatsFieldEnums.Id.SERVER_STATS_TRACE_OPTION_ID.value());
+      buffer.put(stats.getTraceOption());
+    } finally {
+      buffer.order(order);
+    }
+  }
 
-    bb.put((byte) ServerStatsFieldEnums.Id.SERVER_STATS_TRACE_OPTION_ID.value());
-    bb.put(stats.getTraceOption());
-    return bb.array();
+  /**
+   * Returns the number of bytes of an encoded {@link ServerStats}, which can be used to size the
+   * buffer passed to {@link #toBytes(ServerStats, ByteBuffer)}.
+   *
+   * @return the number of bytes of an encoded {@code ServerStats}.
+   * @since 0.16
+   */
+  public static int getEncodedSize() {
+    return ENCODED_SIZE;
   }
 
   /**
@@ -80,8 +124,36 @@ public final class ServerStatsEncoding {
    */
   public static ServerStats parseBytes(byte[] serialized)
       throws ServerStatsDeserializationException {
-    final ByteBuffer bb = ByteBuffer.wrap(serialized);
-    bb.order(ByteOrder.LITTLE_ENDIAN);
+    return parseBytes(ByteBuffer.wrap(serialized));
+  }
+
+  /**
+   * Decodes the bytes between the position and the limit of the given buffer to create {@link
+   * ServerStats} as per Opencensus Summary Span specification. The position of the buffer is
+   * advanced to its limit, and its byte order is left unchanged.
+   *
+   * @param buffer the buffer containing the encoded {@code ServerStats}.
+   * @return decoded {@code ServerStats}.
+   * @throws ServerStatsDeserializationException if the version is not supported, a field is
+   *     truncated or the decoded values are invalid.
+   * @since 0.16
+   */
+  public static ServerStats parseBytes(ByteBuffer buffer)
+      throws ServerStatsDeserializationException {
+    ByteOrder order = buffer.order();
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    try {
+      return parseLittleEndian(buffer);
+    } catch (BufferUnderflowException e) {
+      buffer.position(buffer.limit());
+      throw new ServerStatsDeserializationException("Serialized ServerStats buffer is truncated");
+    } finally {
+      buffer.order(order);
+    }
+  }
+
+  private static ServerStats parseLittleEndian(ByteBuffer bb)
+      throws ServerStatsDeserializationException {
     long serviceLatencyNs = 0L;
     long lbLatencyNs = 0L;
     byte traceOption = (byte) 0;
@@ -93,6 +165,7 @@ public final class ServerStatsEncoding {
     byte version = bb.get();
 
     if (version > CURRENT_VERSION || version < 0) {
+      bb.position(bb.limit());
       throw new ServerStatsDeserializationException("Invalid ServerStats version: " + version);
     }
 
@@ -16,8 +16,6 @@
 
 package io.opencensus.common;
 
-import java.util.TreeMap;
-
 /**
  * A Enum representation for Ids and Size for attributes of {@code ServerStats}.
  *
@@ -70,12 +68,19 @@ public final class ServerStatsFieldEnums {
       return value;
     }
 
-    private static final TreeMap<Integer, Id> map = new TreeMap<Integer, Id>();
+    // Indexed by the value of the id; the values are small and dense.
+    private static final Id[] valuesById = buildValuesById();
 
-    static {
+    private static Id[] buildValuesById() {
+      int size = 0;
+      for (Id id : Id.values()) {
+        size = Math.max(size, id.value + 1);
+      }
+      Id[] valuesById = new Id[size];
       for (Id id : Id.values()) {
-        map.put(id.value, id);
+        valuesById[id.value] = id;
       }
+      return valuesById;
     }
 
     /**
@@ -86,7 +91,7 @@ public final class ServerStatsFieldEnums {
      * @since 0.16
      */
     public static Id valueOf(int value) {
-      return (Id) map.get(value);
+      return value >= 0 && value < valuesById.length ? valuesById[value] : null;
     }
   }
 
@@ -51,6 +51,15 @@ public final class Stats {
     return statsComponent.getViewManager();
   }
 
+  /**
+   * Returns the default {@link ViewDataExporter}.
+   *
+   * @since 0.16
+   */
+  public static ViewDataExporter getViewDataExporter() {
+    return statsComponent.getViewDataExporter();
+  }
+
   /**
    * Returns the current {@code StatsCollectionState}.
    *
@@ -39,6 +39,18 @@ public abstract class StatsComponent {
    */
   public abstract StatsRecorder getStatsRecorder();
 
+  /**
+   * Returns the default {@link ViewDataExporter}.
+   *
+   * <p>The default implementation returns a no-op {@code ViewDataExporter}.
+   *
+   * @return the default {@code ViewDataExporter}.
+   * @since 0.16
+   */
+  public ViewDataExporter getViewDataExporter() {
+    return ViewDataExporter.getNoopViewDataExporter();
+  }
+
   /**
    * Returns the current {@code StatsCollectionState}.
    *
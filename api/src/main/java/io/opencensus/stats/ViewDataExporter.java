@@ -0,0 +1,107 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.stats;
+
+import io.opencensus.common.Duration;
+import java.util.Collection;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A service that periodically takes a snapshot of all the exported views (see {@link
+ * ViewManager#getAllExportedViews()}) and passes it to the registered stats exporters.
+ *
+ * <p>All the exporters that are due at the same time share a single snapshot, so enabling several
+ * stats exporters does not multiply the cost of collecting the {@link ViewData}.
+ *
+ * @since 0.16
+ */
+@ThreadSafe
+public abstract class ViewDataExporter {
+  private static final ViewDataExporter NOOP_VIEW_DATA_EXPORTER = new NoopViewDataExporter();
+
+  /**
+   * Returns the no-op implementation of the {@code ViewDataExporter}.
+   *
+   * @return the no-op implementation of the {@code ViewDataExporter}.
+   * @since 0.16
+   */
+  public static ViewDataExporter getNoopViewDataExporter() {
+    return NOOP_VIEW_DATA_EXPORTER;
+  }
+
+  /**
+   * Registers a new service handler that is called with a snapshot of the exported views every
+   * {@code exportInterval}.
+   *
+   * <p>If {@code aligned} is {@code true}, the handler is called at the multiples of {@code
+   * exportInterval} since the Unix epoch, e.g. at the start of every minute for a one minute
+   * interval. Aligned handlers with the same interval, or with intervals that are multiples of each
+   * other, are then called with the same snapshot. Otherwise the handler is called every {@code
+   * exportInterval} starting from its registration.
+   *
+   * <p>Registering a handler with the name of an already registered handler replaces it.
+   *
+   * @param name the name of the service handler. Must be unique for each service.
+   * @param handler the service handler that is called with the snapshots.
+   * @param exportInterval the interval between two calls of the handler. Must be positive.
+   * @param aligned whether the calls are aligned to the multiples of the interval.
+   * @since 0.16
+   */
+  public abstract void registerHandler(
+      String name, Handler handler, Duration exportInterval, boolean aligned);
+
+  /**
+   * Unregisters the service handler with the provided name.
+   *
+   * @param name the name of the service handler that will be unregistered.
+   * @since 0.16
+   */
+  public abstract void unregisterHandler(String name);
+
+  /**
+   * An abstract class that allows different stats services to export a snapshot of the exported
+   * views in their own format.
+   *
+   * <p>To export data this MUST be registered to the {@code ViewDataExporter} using {@link
+   * #registerHandler(String, Handler, Duration, boolean)}.
+   *
+   * @since 0.16
+   */
+  public abstract static class Handler {
+
+    /**
+     * Exports a snapshot of the exported views.
+     *
+     * <p>This is called from a thread owned by the {@code ViewDataExporter}, that is shared by all
+     * the handlers. Implementations SHOULD not block the calling thread for long.
+     *
+     * @param viewDataList the {@code ViewData} of all the exported views, taken at the same time.
+     * @since 0.16
+     */
+    public abstract void export(Collection<ViewData> viewDataList);
+  }
+
+  private static final class NoopViewDataExporter extends ViewDataExporter {
+
+    @Override
+    public void registerHandler(
+        String name, Handler handler, Duration exportInterval, boolean aligned) {}
+
+    @Override
+    public void unregisterHandler(String name) {}
+  }
+}
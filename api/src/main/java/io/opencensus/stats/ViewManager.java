@@ -48,6 +48,55 @@ public abstract class ViewManager {
   @Nullable
   public abstract ViewData getView(View.Name view);
 
+  /**
+   * Returns the current stats data, {@link ViewData}, associated with the given view name, keeping
+   * only the rows that were updated after the given generation was returned by {@link
+   * #getGeneration()}.
+   *
+   * <p>This allows exporters that poll views periodically to only process the rows that changed
+   * since the previous poll, e.g.
+   *
+   * <pre>{@code
+   * long nextGeneration = viewManager.getGeneration();
+   * for (View view : viewManager.getAllExportedViews()) {
+   *   ViewData updated = viewManager.getViewUpdatedSince(view.getName(), lastGeneration);
+   *   ...
+   * }
+   * lastGeneration = nextGeneration;
+   * }</pre>
+   *
+   * <p>Rows of {@link View.AggregationWindow.Interval} views change as time passes, so all of their
+   * rows are always returned. Rows removed from the view are not reported. The default
+   * implementation returns all the rows, like {@link #getView(View.Name)}.
+   *
+   * <p>Returns {@code null} if the {@code View} is not registered.
+   *
+   * @param view the name of {@code View} for the current stats.
+   * @param generation a generation returned by {@link #getGeneration()}, or {@code 0} to get all
+   *     the rows.
+   * @return {@code ViewData} for the {@code View} with the updated rows, or {@code null} if the
+   *     {@code View} is not registered.
+   * @since 0.16
+   */
+  @Nullable
+  public ViewData getViewUpdatedSince(View.Name view, long generation) {
+    return getView(view);
+  }
+
+  /**
+   * Returns a new generation, to be used with {@link #getViewUpdatedSince(View.Name, long)}.
+   *
+   * <p>All the rows updated after this method returns are considered to be updated after the
+   * returned generation. Rows updated concurrently with this call may be considered to be updated
+   * after the returned generation too, so they could be returned by two consecutive polls.
+   *
+   * @return a new generation.
+   * @since 0.16
+   */
+  public long getGeneration() {
+    return 0;
+  }
+
   /**
    * Returns all registered views that should be exported.
    *
@@ -21,6 +21,7 @@ import io.opencensus.internal.NoopScope;
 import io.opencensus.internal.Utils;
 import io.opencensus.tags.propagation.TagContextBinarySerializer;
 import io.opencensus.tags.propagation.TagPropagationComponent;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.Iterator;
 import javax.annotation.concurrent.Immutable;
@@ -210,5 +211,24 @@ final class NoopTags {
       Utils.checkNotNull(bytes, "bytes");
       return getNoopTagContext();
     }
+
+    @Override
+    public int getSerializedSize(TagContext tags) {
+      Utils.checkNotNull(tags, "tags");
+      return 0;
+    }
+
+    @Override
+    public void toByteBuffer(TagContext tags, ByteBuffer buffer) {
+      Utils.checkNotNull(tags, "tags");
+      Utils.checkNotNull(buffer, "buffer");
+    }
+
+    @Override
+    public TagContext fromByteBuffer(ByteBuffer buffer) {
+      Utils.checkNotNull(buffer, "buffer");
+      buffer.position(buffer.limit());
+      return getNoopTagContext();
+    }
   }
 }
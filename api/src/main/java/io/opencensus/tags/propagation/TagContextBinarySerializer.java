@@ -17,6 +17,7 @@
 package io.opencensus.tags.propagation;
 
 import io.opencensus.tags.TagContext;
+import java.nio.ByteBuffer;
 
 /**
  * Object for serializing and deserializing {@link TagContext}s with the binary format.
@@ -54,4 +55,58 @@ public abstract class TagContextBinarySerializer {
    * @since 0.8
    */
   public abstract TagContext fromByteArray(byte[] bytes) throws TagContextDeserializationException;
+
+  /**
+   * Returns the size in bytes of the on-the-wire representation of the {@code TagContext}. This is
+   * the number of bytes written by {@link #toByteBuffer}, and can be used to size the buffer.
+   *
+   * @param tags the {@code TagContext} to serialize.
+   * @return the size in bytes of the on-the-wire representation of the {@code TagContext}.
+   * @throws TagContextSerializationException if the result would be larger than the maximum allowed
+   *     serialized size.
+   * @since 0.16
+   */
+  public int getSerializedSize(TagContext tags) throws TagContextSerializationException {
+    return toByteArray(tags).length;
+  }
+
+  /**
+   * Serializes the {@code TagContext} into the on-the-wire representation, writing it into the
+   * given buffer starting at its current position. The position of the buffer is advanced by the
+   * number of bytes written.
+   *
+   * <p>This method should be the inverse of {@link #fromByteBuffer}.
+   *
+   * @param tags the {@code TagContext} to serialize.
+   * @param buffer the buffer to write the on-the-wire representation into.
+   * @throws TagContextSerializationException if the result would be larger than the maximum allowed
+   *     serialized size.
+   * @throws java.nio.BufferOverflowException if there is insufficient space remaining in the
+   *     buffer, in which case nothing is written.
+   * @throws java.nio.ReadOnlyBufferException if the buffer is read-only.
+   * @since 0.16
+   */
+  public void toByteBuffer(TagContext tags, ByteBuffer buffer)
+      throws TagContextSerializationException {
+    buffer.put(toByteArray(tags));
+  }
+
+  /**
+   * Creates a {@code TagContext} from the on-the-wire encoded representation contained between the
+   * position and the limit of the given buffer. The position of the buffer is advanced to its
+   * limit.
+   *
+   * <p>This method should be the inverse of {@link #toByteBuffer}.
+   *
+   * @param buffer the buffer containing the on-the-wire representation of a {@code TagContext}.
+   * @return a {@code TagContext} deserialized from {@code buffer}.
+   * @throws TagContextDeserializationException if there is a parse error, the input contains
+   *     invalid tags, or the input is larger than the maximum allowed serialized size.
+   * @since 0.16
+   */
+  public TagContext fromByteBuffer(ByteBuffer buffer) throws TagContextDeserializationException {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return fromByteArray(bytes);
+  }
 }
@@ -47,6 +47,9 @@ public final class SpanId implements Comparable<SpanId> {
 
   // The internal representation of the SpanId.
   private final byte[] bytes;
+  // Lazily computed lowercase base16 encoding. Races are benign because every thread computes the
+  // same immutable String, so repeated propagation of the same SpanId does not re-encode it.
+  @Nullable private String lowerBase16;
 
   private SpanId(byte[] bytes) {
     this.bytes = bytes;
@@ -177,7 +180,12 @@ public final class SpanId implements Comparable<SpanId> {
    * @since 0.11
    */
   public String toLowerBase16() {
-    return toLowerBase16(bytes);
+    String result = lowerBase16;
+    if (result == null) {
+      result = toLowerBase16(bytes);
+      lowerBase16 = result;
+    }
+    return result;
   }
 
   private static String toLowerBase16(byte[] bytes) {
@@ -205,7 +213,7 @@ public final class SpanId implements Comparable<SpanId> {
 
   @Override
   public String toString() {
-    return "SpanId{spanId=" + toLowerBase16(bytes) + "}";
+    return "SpanId{spanId=" + toLowerBase16() + "}";
   }
 
   @Override
@@ -48,6 +48,9 @@ public final class TraceId implements Comparable<TraceId> {
 
   // The internal representation of the TraceId.
   private final byte[] bytes;
+  // Lazily computed lowercase base16 encoding. Races are benign because every thread computes the
+  // same immutable String, so repeated propagation of the same TraceId does not re-encode it.
+  @Nullable private String lowerBase16;
 
   private TraceId(byte[] bytes) {
     this.bytes = bytes;
@@ -178,7 +181,12 @@ public final class TraceId implements Comparable<TraceId> {
    * @since 0.11
    */
   public String toLowerBase16() {
-    return toLowerBase16(bytes);
+    String result = lowerBase16;
+    if (result == null) {
+      result = toLowerBase16(bytes);
+      lowerBase16 = result;
+    }
+    return result;
   }
 
   private static String toLowerBase16(byte[] bytes) {
@@ -227,7 +235,7 @@ public final class TraceId implements Comparable<TraceId> {
 
   @Override
   public String toString() {
-    return "TraceId{traceId=" + toLowerBase16(bytes) + "}";
+    return "TraceId{traceId=" + toLowerBase16() + "}";
   }
 
   @Override
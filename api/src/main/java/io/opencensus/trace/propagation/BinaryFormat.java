@@ -18,6 +18,7 @@ package io.opencensus.trace.propagation;
 
 import io.opencensus.internal.Utils;
 import io.opencensus.trace.SpanContext;
+import java.nio.ByteBuffer;
 import java.text.ParseException;
 
 /**
@@ -125,6 +126,43 @@ public abstract class BinaryFormat {
     }
   }
 
+  /**
+   * Serializes a {@link SpanContext} using the binary format, writing it into the given buffer
+   * starting at its current position. The position of the buffer is advanced by the number of bytes
+   * written.
+   *
+   * <p>This lets RPC frameworks encode the context directly into their outbound frames, and works
+   * with both heap and direct buffers.
+   *
+   * @param spanContext the {@code SpanContext} to serialize.
+   * @param buffer the buffer to write the serialized binary value into.
+   * @throws NullPointerException if the {@code spanContext} or the {@code buffer} is {@code null}.
+   * @throws java.nio.BufferOverflowException if there is insufficient space remaining in the
+   *     buffer, in which case nothing is written.
+   * @throws java.nio.ReadOnlyBufferException if the buffer is read-only.
+   * @since 0.16
+   */
+  public void toByteBuffer(SpanContext spanContext, ByteBuffer buffer) {
+    Utils.checkNotNull(buffer, "buffer");
+    buffer.put(toByteArray(spanContext));
+  }
+
+  /**
+   * Parses the {@link SpanContext} using the binary format from the bytes between the position and
+   * the limit of the given buffer. The position of the buffer is advanced to its limit.
+   *
+   * @param buffer the buffer from which the {@code SpanContext} will be parsed.
+   * @return the parsed {@code SpanContext}.
+   * @throws NullPointerException if the {@code buffer} is {@code null}.
+   * @throws SpanContextParseException if the version is not supported or the input is invalid
+   * @since 0.16
+   */
+  public SpanContext fromByteBuffer(ByteBuffer buffer) throws SpanContextParseException {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return fromByteArray(bytes);
+  }
+
   /**
    * Returns the no-op implementation of the {@code BinaryFormat}.
    *
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.trace.propagation;
+
+import io.opencensus.internal.Utils;
+import io.opencensus.trace.SpanContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/*>>>
+import org.checkerframework.checker.nullness.qual.NonNull;
+*/
+
+/**
+ * A {@link TextFormat} that injects with all the given formats and extracts with the first format
+ * that finds a valid span context in the carrier.
+ *
+ * <p>Extraction calls {@link TextFormat#tryExtract} of each format in turn, so a format whose
+ * optional fields alone are present (e.g. only {@code tracestate}) does not hide a valid context
+ * propagated with a later format.
+ */
+final class CompositeTextFormat extends TextFormat {
+  private final TextFormat[] textFormats;
+  private final List<String> fields;
+
+  CompositeTextFormat(List<TextFormat> textFormats) {
+    Utils.checkNotNull(textFormats, "textFormats");
+    this.textFormats = new TextFormat[textFormats.size()];
+    LinkedHashSet<String> allFields = new LinkedHashSet<String>();
+    for (int i = 0; i < textFormats.size(); i++) {
+      TextFormat textFormat = Utils.checkNotNull(textFormats.get(i), "textFormat");
+      this.textFormats[i] = textFormat;
+      allFields.addAll(textFormat.fields());
+    }
+    this.fields = Collections.unmodifiableList(new ArrayList<String>(allFields));
+  }
+
+  @Override
+  public List<String> fields() {
+    return fields;
+  }
+
+  @Override
+  public <C /*>>> extends @NonNull Object*/> void inject(
+      SpanContext spanContext, C carrier, Setter<C> setter) {
+    Utils.checkNotNull(spanContext, "spanContext");
+    Utils.checkNotNull(carrier, "carrier");
+    Utils.checkNotNull(setter, "setter");
+    for (TextFormat textFormat : textFormats) {
+      textFormat.inject(spanContext, carrier, setter);
+    }
+  }
+
+  @Override
+  public <C /*>>> extends @NonNull Object*/> SpanContext extract(C carrier, Getter<C> getter)
+      throws SpanContextParseException {
+    SpanContext spanContext = tryExtract(carrier, getter);
+    if (spanContext == null) {
+      throw new SpanContextParseException("Missing or invalid span context.");
+    }
+    return spanContext;
+  }
+
+  @Nullable
+  @Override
+  public <C /*>>> extends @NonNull Object*/> SpanContext tryExtract(C carrier, Getter<C> getter) {
+    Utils.checkNotNull(carrier, "carrier");
+    Utils.checkNotNull(getter, "getter");
+    for (TextFormat textFormat : textFormats) {
+      SpanContext spanContext = textFormat.tryExtract(carrier, getter);
+      if (spanContext != null) {
+        return spanContext;
+      }
+    }
+    return null;
+  }
+}
@@ -17,11 +17,13 @@
 package io.opencensus.trace.propagation;
 
 import io.opencensus.common.ExperimentalApi;
+import io.opencensus.internal.Utils;
+import java.util.List;
 
 /**
- * Container class for all the supported propagation formats. Currently supports only Binary format
- * (see {@link BinaryFormat}) and B3 Text format (see {@link TextFormat}) but more formats will be
- * added.
+ * Container class for all the supported propagation formats. Currently supports the Binary format
+ * (see {@link BinaryFormat}) and the B3 and W3C Trace Context Text formats (see {@link TextFormat})
+ * but more formats will be added.
  *
  * @since 0.5
  */
@@ -49,6 +51,41 @@ public abstract class PropagationComponent {
   @ExperimentalApi
   public abstract TextFormat getB3Format();
 
+  /**
+   * Returns the W3C Trace Context {@link TextFormat} with the provided implementations. See <a
+   * href="https://github.com/w3c/distributed-tracing">w3c/distributed-tracing</a> for more
+   * information. If no implementation is provided then no-op implementation will be used.
+   *
+   * <p>The default implementation returns the no-op {@code TextFormat}.
+   *
+   * @since 0.16
+   * @return the W3C Trace Context {@code TextFormat} implementation.
+   */
+  @ExperimentalApi
+  public TextFormat getTraceContextFormat() {
+    return TextFormat.getNoopTextFormat();
+  }
+
+  /**
+   * Returns a {@link TextFormat} that combines the given formats, for services that receive
+   * requests propagated with any of them.
+   *
+   * <p>The returned format injects the span context with every format. On extraction it calls
+   * {@link TextFormat#tryExtract(Object, TextFormat.Getter)} of each format in order and returns
+   * the first span context found, so a format with only optional fields present in the carrier does
+   * not hide a later format. Its {@code tryExtract} reports a missing or invalid context by
+   * returning {@code null}, without throwing.
+   *
+   * @param textFormats the formats to combine, in order of precedence.
+   * @return a {@code TextFormat} that combines the given formats.
+   * @throws NullPointerException if {@code textFormats} or any of its elements is null.
+   * @since 0.16
+   */
+  @ExperimentalApi
+  public TextFormat newCompositeTextFormat(List<TextFormat> textFormats) {
+    return new CompositeTextFormat(textFormats);
+  }
+
   /**
    * Returns an instance that contains no-op implementations for all the instances.
    *
@@ -69,5 +106,14 @@ public abstract class PropagationComponent {
     public TextFormat getB3Format() {
       return TextFormat.getNoopTextFormat();
     }
+
+    @Override
+    public TextFormat newCompositeTextFormat(List<TextFormat> textFormats) {
+      Utils.checkNotNull(textFormats, "textFormats");
+      for (TextFormat textFormat : textFormats) {
+        Utils.checkNotNull(textFormat, "textFormat");
+      }
+      return TextFormat.getNoopTextFormat();
+    }
   }
 }
@@ -145,6 +145,38 @@ public abstract class TextFormat {
   public abstract <C /*>>> extends @NonNull Object*/> SpanContext extract(
       C carrier, Getter<C> getter) throws SpanContextParseException;
 
+  /**
+   * Extracts the span context from upstream like {@link #extract(Object, Getter)}, but returns
+   * {@code null} instead of throwing when the propagation fields are absent or invalid.
+   *
+   * <p>This is meant for servers that accept requests with and without a propagated context, for
+   * which a missing context is the common case rather than an error. The default implementation
+   * returns {@code null} without calling {@code extract} when none of the {@link #fields()} is
+   * present; implementations are encouraged to override it to avoid exceptions for invalid input
+   * too.
+   *
+   * @param carrier holds propagation fields. For example, an outgoing message or http request.
+   * @param getter invoked for each propagation key to get.
+   * @return the extracted span context, or {@code null} if absent or invalid.
+   * @since 0.16
+   */
+  @Nullable
+  public <C /*>>> extends @NonNull Object*/> SpanContext tryExtract(C carrier, Getter<C> getter) {
+    Utils.checkNotNull(carrier, "carrier");
+    Utils.checkNotNull(getter, "getter");
+    List<String> fields = fields();
+    for (int i = 0; i < fields.size(); i++) {
+      if (getter.get(carrier, fields.get(i)) != null) {
+        try {
+          return extract(carrier, getter);
+        } catch (SpanContextParseException e) {
+          return null;
+        }
+      }
+    }
+    return null;
+  }
+
   /**
    * Class that allows a {@code TextFormat} to read propagated fields from a carrier.
    *
@@ -200,5 +232,13 @@ public abstract class TextFormat {
       Utils.checkNotNull(getter, "getter");
       return SpanContext.INVALID;
     }
+
+    @Nullable
+    @Override
+    public <C /*>>> extends @NonNull Object*/> SpanContext tryExtract(C carrier, Getter<C> getter) {
+      Utils.checkNotNull(carrier, "carrier");
+      Utils.checkNotNull(getter, "getter");
+      return null;
+    }
   }
 }
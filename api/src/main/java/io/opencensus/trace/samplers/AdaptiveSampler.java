@@ -0,0 +1,184 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.trace.samplers;
+
+import io.opencensus.common.Clock;
+import io.opencensus.internal.Utils;
+import io.opencensus.trace.Sampler;
+import io.opencensus.trace.Span;
+import io.opencensus.trace.SpanContext;
+import io.opencensus.trace.SpanId;
+import io.opencensus.trace.TraceId;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Sampler that adjusts, independently for every span name, the sampling probability such that
+ * approximately a given number of traces per second are sampled.
+ *
+ * <p>Every adaptation period the sampler computes the rate of requests seen for each span name
+ * during the previous period, and sets the probability for the next period to {@code
+ * targetTracesPerSecond / requestsPerSecond}. The decision within a period is made using the
+ * traceId, similar to the {@link ProbabilitySampler}. To protect against spikes within a period, at
+ * most {@code targetTracesPerSecond} traces are sampled for every span name and second of the
+ * period.
+ *
+ * <p>To bound the memory usage only the first {@link #MAX_NUMBER_OF_SPAN_NAMES} span names are
+ * tracked independently, all the other span names share the same state.
+ */
+@ThreadSafe
+final class AdaptiveSampler extends Sampler {
+  private static final long NANOS_PER_SECOND = 1000L * 1000 * 1000;
+  private static final long ADAPTATION_PERIOD_NANOS = NANOS_PER_SECOND;
+  static final int MAX_NUMBER_OF_SPAN_NAMES = 1000;
+
+  private final double targetTracesPerSecond;
+  private final long maxSampledPerPeriod;
+  private final Clock clock;
+  private final ConcurrentMap<String, SpanNameState> spanNameStates =
+      new ConcurrentHashMap<String, SpanNameState>();
+  private final SpanNameState overflowState;
+
+  private AdaptiveSampler(double targetTracesPerSecond, Clock clock) {
+    this.targetTracesPerSecond = targetTracesPerSecond;
+    this.maxSampledPerPeriod =
+        (long) Math.ceil(targetTracesPerSecond * ADAPTATION_PERIOD_NANOS / NANOS_PER_SECOND);
+    this.clock = clock;
+    this.overflowState = new SpanNameState(clock.nowNanos());
+  }
+
+  /**
+   * Returns a new {@link AdaptiveSampler}.
+   *
+   * @param targetTracesPerSecond the number of traces per second and span name that should be
+   *     sampled. Must be positive.
+   * @param clock the clock used to measure the elapsed time.
+   * @return a new {@link AdaptiveSampler}.
+   * @throws IllegalArgumentException if {@code targetTracesPerSecond} is not positive.
+   */
+  static AdaptiveSampler create(double targetTracesPerSecond, Clock clock) {
+    Utils.checkArgument(targetTracesPerSecond > 0.0, "targetTracesPerSecond must be positive");
+    Utils.checkNotNull(clock, "clock");
+    return new AdaptiveSampler(targetTracesPerSecond, clock);
+  }
+
+  @Override
+  public boolean shouldSample(
+      @Nullable SpanContext parentContext,
+      @Nullable Boolean hasRemoteParent,
+      TraceId traceId,
+      SpanId spanId,
+      String name,
+      @Nullable List<Span> parentLinks) {
+    // If the parent is sampled keep the sampling decision.
+    if (parentContext != null && parentContext.getTraceOptions().isSampled()) {
+      return true;
+    }
+    if (parentLinks != null) {
+      // If any parent link is sampled keep the sampling decision.
+      for (Span parentLink : parentLinks) {
+        if (parentLink.getContext().getTraceOptions().isSampled()) {
+          return true;
+        }
+      }
+    }
+    long nowNanos = clock.nowNanos();
+    return getSpanNameState(name, nowNanos).shouldSample(traceId, nowNanos);
+  }
+
+  /**
+   * Returns the current sampling probability for the given span name.
+   *
+   * @param name the name of the {@code Span}.
+   * @return the current sampling probability for the given span name.
+   */
+  double getProbability(String name) {
+    SpanNameState state = spanNameStates.get(name);
+    return (state != null ? state : overflowState).probabilitySampler.getProbability();
+  }
+
+  private SpanNameState getSpanNameState(String name, long nowNanos) {
+    SpanNameState state = spanNameStates.get(name);
+    if (state != null) {
+      return state;
+    }
+    // The size check is racy, so the limit may be exceeded by the number of concurrent threads.
+    if (spanNameStates.size() >= MAX_NUMBER_OF_SPAN_NAMES) {
+      return overflowState;
+    }
+    SpanNameState newState = new SpanNameState(nowNanos);
+    state = spanNameStates.putIfAbsent(name, newState);
+    return state != null ? state : newState;
+  }
+
+  @Override
+  public String getDescription() {
+    return String.format("AdaptiveSampler{%.6f}", targetTracesPerSecond);
+  }
+
+  @Override
+  public String toString() {
+    return getDescription();
+  }
+
+  // The sampling state for one span name. Counters are reset at the end of every adaptation period
+  // without synchronization with the threads that increment them, so the statistics are
+  // approximate.
+  @ThreadSafe
+  private final class SpanNameState {
+    private final AtomicLong periodStartNanos;
+    private final AtomicLong numRequests = new AtomicLong();
+    private final AtomicLong numSampled = new AtomicLong();
+    // Start by sampling everything, the per period limit takes care of the spikes.
+    private volatile ProbabilitySampler probabilitySampler = ProbabilitySampler.create(1.0);
+
+    private SpanNameState(long nowNanos) {
+      periodStartNanos = new AtomicLong(nowNanos);
+    }
+
+    private boolean shouldSample(TraceId traceId, long nowNanos) {
+      maybeAdapt(nowNanos);
+      numRequests.incrementAndGet();
+      if (Math.abs(traceId.getLowerLong()) >= probabilitySampler.getIdUpperBound()) {
+        return false;
+      }
+      return numSampled.incrementAndGet() <= maxSampledPerPeriod;
+    }
+
+    private void maybeAdapt(long nowNanos) {
+      long periodStart = periodStartNanos.get();
+      long elapsedNanos = nowNanos - periodStart;
+      // Only one thread wins the race to end the current period.
+      if (elapsedNanos < ADAPTATION_PERIOD_NANOS
+          || !periodStartNanos.compareAndSet(periodStart, nowNanos)) {
+        return;
+      }
+      long requests = numRequests.getAndSet(0);
+      numSampled.set(0);
+      double probability = 1.0;
+      if (requests > 0) {
+        double requestsPerSecond = (double) requests * NANOS_PER_SECOND / elapsedNanos;
+        probability = Math.min(1.0, targetTracesPerSecond / requestsPerSecond);
+      }
+      probabilitySampler = ProbabilitySampler.create(probability);
+    }
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.trace.samplers;
+
+import io.opencensus.common.Clock;
+import io.opencensus.internal.Utils;
+import io.opencensus.trace.Sampler;
+import io.opencensus.trace.Span;
+import io.opencensus.trace.SpanContext;
+import io.opencensus.trace.SpanId;
+import io.opencensus.trace.TraceId;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Sampler that makes a "yes" decision for at most a given number of traces per second.
+ *
+ * <p>The implementation is a lock-free token bucket: instead of storing the number of available
+ * tokens we store the time up to which the tokens were already consumed. Each sampled trace moves
+ * that time forward by the cost of one token, and a trace can be sampled only if the moved time
+ * does not exceed the current time. The bucket holds at most one second worth of tokens, which
+ * allows short bursts up to the configured rate.
+ */
+@ThreadSafe
+final class RateLimitingSampler extends Sampler {
+  private static final long NANOS_PER_SECOND = 1000L * 1000 * 1000;
+
+  private final double tracesPerSecond;
+  private final Clock clock;
+  // The cost of one sampled trace, in nanoseconds.
+  private final long tokenCostNanos;
+  // The maximum credit that can be accumulated, in nanoseconds.
+  private final long maxBalanceNanos;
+  // Time (as returned by clock.nowNanos()) up to which the credit was already consumed.
+  private final AtomicLong consumedUntilNanos;
+
+  private RateLimitingSampler(double tracesPerSecond, Clock clock) {
+    this.tracesPerSecond = tracesPerSecond;
+    this.clock = clock;
+    this.tokenCostNanos = Math.max(1L, (long) (NANOS_PER_SECOND / tracesPerSecond));
+    this.maxBalanceNanos = Math.max(NANOS_PER_SECOND, tokenCostNanos);
+    // Start with a full bucket.
+    this.consumedUntilNanos = new AtomicLong(clock.nowNanos() - maxBalanceNanos);
+  }
+
+  /**
+   * Returns a new {@link RateLimitingSampler}.
+   *
+   * @param tracesPerSecond the maximum number of traces sampled per second. Must be positive.
+   * @param clock the clock used to measure the elapsed time.
+   * @return a new {@link RateLimitingSampler}.
+   * @throws IllegalArgumentException if {@code tracesPerSecond} is not positive.
+   */
+  static RateLimitingSampler create(double tracesPerSecond, Clock clock) {
+    Utils.checkArgument(tracesPerSecond > 0.0, "tracesPerSecond must be positive");
+    Utils.checkNotNull(clock, "clock");
+    return new RateLimitingSampler(tracesPerSecond, clock);
+  }
+
+  @Override
+  public boolean shouldSample(
+      @Nullable SpanContext parentContext,
+      @Nullable Boolean hasRemoteParent,
+      TraceId traceId,
+      SpanId spanId,
+      String name,
+      @Nullable List<Span> parentLinks) {
+    // If the parent is sampled keep the sampling decision, without consuming a token.
+    if (parentContext != null && parentContext.getTraceOptions().isSampled()) {
+      return true;
+    }
+    if (parentLinks != null) {
+      // If any parent link is sampled keep the sampling decision.
+      for (Span parentLink : parentLinks) {
+        if (parentLink.getContext().getTraceOptions().isSampled()) {
+          return true;
+        }
+      }
+    }
+    return tryAcquire();
+  }
+
+  private boolean tryAcquire() {
+    long nowNanos = clock.nowNanos();
+    while (true) {
+      long consumedUntil = consumedUntilNanos.get();
+      // Unused credit older than maxBalanceNanos is lost. Use subtraction to stay correct if
+      // nowNanos overflows.
+      long base =
+          nowNanos - consumedUntil > maxBalanceNanos ? nowNanos - maxBalanceNanos : consumedUntil;
+      long newConsumedUntil = base + tokenCostNanos;
+      if (newConsumedUntil - nowNanos > 0) {
+        return false;
+      }
+      if (consumedUntilNanos.compareAndSet(consumedUntil, newConsumedUntil)) {
+        return true;
+      }
+    }
+  }
+
+  @Override
+  public String getDescription() {
+    return String.format("RateLimitingSampler{%.6f}", tracesPerSecond);
+  }
+
+  @Override
+  public String toString() {
+    return getDescription();
+  }
+}
@@ -16,8 +16,10 @@
 
 package io.opencensus.trace.samplers;
 
+import io.opencensus.internal.SystemClock;
 import io.opencensus.trace.Sampler;
 import io.opencensus.trace.Span;
+import java.util.Map;
 
 /**
  * Static class to access a set of pre-defined {@link Sampler Samplers}.
@@ -62,4 +64,82 @@ public final class Samplers {
   public static Sampler probabilitySampler(double probability) {
     return ProbabilitySampler.create(probability);
   }
+
+  /**
+   * Returns a {@link Sampler} that makes a "yes" decision for at most a given number of traces per
+   * second. Spans with a sampled parent or parent link are always sampled and are not counted.
+   *
+   * <p>This sampler is useful to bound the load on the exporters under traffic spikes, when a fixed
+   * probability would sample too many traces.
+   *
+   * @param tracesPerSecond the maximum number of traces sampled per second. Must be positive.
+   * @return a {@code Sampler} that makes a "yes" decision for at most a given number of traces per
+   *     second.
+   * @throws IllegalArgumentException if {@code tracesPerSecond} is not positive.
+   * @since 0.16
+   */
+  public static Sampler rateLimitingSampler(double tracesPerSecond) {
+    return RateLimitingSampler.create(tracesPerSecond, SystemClock.getInstance());
+  }
+
+  /**
+   * Returns a {@link Sampler} that adjusts, independently for every {@link Span} name, the sampling
+   * probability such that approximately a given number of traces per second are sampled. Spans with
+   * a sampled parent or parent link are always sampled and are not counted.
+   *
+   * <p>Unlike {@link #rateLimitingSampler(double)}, rarely used span names are still sampled when
+   * other span names are very frequent.
+   *
+   * @param tracesPerSecond the number of traces sampled per second for every span name. Must be
+   *     positive.
+   * @return a {@code Sampler} that samples approximately a given number of traces per second for
+   *     every span name.
+   * @throws IllegalArgumentException if {@code tracesPerSecond} is not positive.
+   * @since 0.16
+   */
+  public static Sampler adaptiveSampler(double tracesPerSecond) {
+    return AdaptiveSampler.create(tracesPerSecond, SystemClock.getInstance());
+  }
+
+  /**
+   * Returns a {@link Sampler} that delegates the decision to a {@code Sampler} selected by the
+   * {@link Span} name.
+   *
+   * <p>A {@code Sampler} registered for the exact span name has priority, then the {@code Sampler}
+   * registered for the longest prefix of the span name, then the default {@code Sampler}. Selecting
+   * the {@code Sampler} takes time linear in the length of the span name.
+   *
+   * <p>Example: never sample health checks and always sample payments:
+   *
+   * <pre>{@code
+   * Map<String, Sampler> exactNameSamplers = new HashMap<String, Sampler>();
+   * exactNameSamplers.put("/healthz", Samplers.neverSample());
+   * Map<String, Sampler> namePrefixSamplers = new HashMap<String, Sampler>();
+   * namePrefixSamplers.put("Sent.payments.", Samplers.alwaysSample());
+   * traceConfig.updateActiveTraceParams(
+   *     traceConfig
+   *         .getActiveTraceParams()
+   *         .toBuilder()
+   *         .setSampler(
+   *             Samplers.spanNameSampler(
+   *                 Samplers.probabilitySampler(0.0001), exactNameSamplers, namePrefixSamplers))
+   *         .build());
+   * }</pre>
+   *
+   * @param defaultSampler the {@code Sampler} used when no span name or prefix matches.
+   * @param exactNameSamplers the {@code Sampler}s used for the given span names.
+   * @param namePrefixSamplers the {@code Sampler}s used for the span names that start with the
+   *     given prefixes.
+   * @return a {@code Sampler} that delegates the decision to a {@code Sampler} selected by the
+   *     {@code Span} name.
+   * @throws NullPointerException if any of the arguments, or any of the map keys or values is
+   *     {@code null}.
+   * @since 0.16
+   */
+  public static Sampler spanNameSampler(
+      Sampler defaultSampler,
+      Map<String, Sampler> exactNameSamplers,
+      Map<String, Sampler> namePrefixSamplers) {
+    return SpanNameSampler.create(defaultSampler, exactNameSamplers, namePrefixSamplers);
+  }
 }
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.trace.samplers;
+
+import io.opencensus.internal.Utils;
+import io.opencensus.trace.Sampler;
+import io.opencensus.trace.Span;
+import io.opencensus.trace.SpanContext;
+import io.opencensus.trace.SpanId;
+import io.opencensus.trace.TraceId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Sampler that delegates the decision to a {@link Sampler} selected by the name of the {@link
+ * Span}.
+ *
+ * <p>A sampler registered for the exact span name has priority, then the sampler registered for the
+ * longest prefix of the span name, then the default sampler. The names and prefixes are compiled
+ * into a trie when the sampler is created, so selecting the sampler takes time linear in the length
+ * of the span name and does not allocate.
+ */
+@Immutable
+final class SpanNameSampler extends Sampler {
+  private final Sampler defaultSampler;
+  private final Map<String, Sampler> exactNameSamplers;
+  private final Map<String, Sampler> namePrefixSamplers;
+  private final TrieNode root;
+
+  private SpanNameSampler(
+      Sampler defaultSampler,
+      Map<String, Sampler> exactNameSamplers,
+      Map<String, Sampler> namePrefixSamplers) {
+    this.defaultSampler = defaultSampler;
+    this.exactNameSamplers = exactNameSamplers;
+    this.namePrefixSamplers = namePrefixSamplers;
+    MutableTrieNode mutableRoot = new MutableTrieNode();
+    for (Map.Entry<String, Sampler> entry : namePrefixSamplers.entrySet()) {
+      mutableRoot.getOrAddNode(entry.getKey()).prefixSampler = entry.getValue();
+    }
+    for (Map.Entry<String, Sampler> entry : exactNameSamplers.entrySet()) {
+      mutableRoot.getOrAddNode(entry.getKey()).exactSampler = entry.getValue();
+    }
+    this.root = mutableRoot.toTrieNode();
+  }
+
+  /**
+   * Returns a new {@link SpanNameSampler}.
+   *
+   * @param defaultSampler the {@code Sampler} used when no exact name or prefix matches.
+   * @param exactNameSamplers the {@code Sampler}s used for the given span names.
+   * @param namePrefixSamplers the {@code Sampler}s used for the span names that start with the
+   *     given prefixes.
+   * @return a new {@link SpanNameSampler}.
+   * @throws NullPointerException if any of the arguments, keys or values is null.
+   */
+  static SpanNameSampler create(
+      Sampler defaultSampler,
+      Map<String, Sampler> exactNameSamplers,
+      Map<String, Sampler> namePrefixSamplers) {
+    Utils.checkNotNull(defaultSampler, "defaultSampler");
+    return new SpanNameSampler(
+        defaultSampler,
+        copyOf(Utils.checkNotNull(exactNameSamplers, "exactNameSamplers")),
+        copyOf(Utils.checkNotNull(namePrefixSamplers, "namePrefixSamplers")));
+  }
+
+  private static Map<String, Sampler> copyOf(Map<String, Sampler> samplers) {
+    Map<String, Sampler> copy = new LinkedHashMap<String, Sampler>(samplers);
+    for (Map.Entry<String, Sampler> entry : copy.entrySet()) {
+      Utils.checkNotNull(entry.getKey(), "span name");
+      Utils.checkNotNull(entry.getValue(), "sampler");
+    }
+    return Collections.unmodifiableMap(copy);
+  }
+
+  @Override
+  public boolean shouldSample(
+      @Nullable SpanContext parentContext,
+      @Nullable Boolean hasRemoteParent,
+      TraceId traceId,
+      SpanId spanId,
+      String name,
+      @Nullable List<Span> parentLinks) {
+    return getSampler(name)
+        .shouldSample(parentContext, hasRemoteParent, traceId, spanId, name, parentLinks);
+  }
+
+  // Returns the sampler that is used for the given span name.
+  Sampler getSampler(String name) {
+    Sampler sampler = defaultSampler;
+    TrieNode node = root;
+    for (int i = 0; ; i++) {
+      if (node.prefixSampler != null) {
+        sampler = node.prefixSampler;
+      }
+      if (i == name.length()) {
+        return node.exactSampler != null ? node.exactSampler : sampler;
+      }
+      node = node.getChild(name.charAt(i));
+      if (node == null) {
+        return sampler;
+      }
+    }
+  }
+
+  @Override
+  public String getDescription() {
+    StringBuilder builder = new StringBuilder("SpanNameSampler{default=");
+    builder.append(defaultSampler.getDescription());
+    appendDescriptions(builder, ", exact={", exactNameSamplers);
+    appendDescriptions(builder, ", prefix={", namePrefixSamplers);
+    return builder.append('}').toString();
+  }
+
+  private static void appendDescriptions(
+      StringBuilder builder, String title, Map<String, Sampler> samplers) {
+    builder.append(title);
+    boolean first = true;
+    for (Map.Entry<String, Sampler> entry : samplers.entrySet()) {
+      if (!first) {
+        builder.append(", ");
+      }
+      first = false;
+      builder.append(entry.getKey()).append('=').append(entry.getValue().getDescription());
+    }
+    builder.append('}');
+  }
+
+  @Override
+  public String toString() {
+    return getDescription();
+  }
+
+  // Immutable trie node. The children are sorted by label to allow binary search.
+  @Immutable
+  private static final class TrieNode {
+    private final char[] labels;
+    private final TrieNode[] children;
+    @Nullable private final Sampler exactSampler;
+    @Nullable private final Sampler prefixSampler;
+
+    private TrieNode(
+        char[] labels,
+        TrieNode[] children,
+        @Nullable Sampler exactSampler,
+        @Nullable Sampler prefixSampler) {
+      this.labels = labels;
+      this.children = children;
+      this.exactSampler = exactSampler;
+      this.prefixSampler = prefixSampler;
+    }
+
+    @Nullable
+    private TrieNode getChild(char label) {
+      int index = Arrays.binarySearch(labels, label);
+      return index >= 0 ? children[index] : null;
+    }
+  }
+
+  // Trie node used only while the trie is built.
+  private static final class MutableTrieNode {
+    private final TreeMap<Character, MutableTrieNode> children =
+        new TreeMap<Character, MutableTrieNode>();
+    @Nullable private Sampler exactSampler;
+    @Nullable private Sampler prefixSampler;
+
+    private MutableTrieNode getOrAddNode(String name) {
+      MutableTrieNode node = this;
+      for (int i = 0; i < name.length(); i++) {
+        Character label = name.charAt(i);
+        MutableTrieNode child = node.children.get(label);
+        if (child == null) {
+          child = new MutableTrieNode();
+          node.children.put(label, child);
+        }
+        node = child;
+      }
+      return node;
+    }
+
+    private TrieNode toTrieNode() {
+      char[] labels = new char[children.size()];
+      TrieNode[] trieNodes = new TrieNode[children.size()];
+      int i = 0;
+      for (Map.Entry<Character, MutableTrieNode> entry : children.entrySet()) {
+        labels[i] = entry.getKey();
+        trieNodes[i] = entry.getValue().toTrieNode();
+        i++;
+      }
+      return new TrieNode(labels, trieNodes, exactSampler, prefixSampler);
+    }
+  }
+}
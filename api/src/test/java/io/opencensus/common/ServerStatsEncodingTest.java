@@ -18,6 +18,7 @@ package io.opencensus.common;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import org.junit.Rule;
@@ -152,4 +153,60 @@ public class ServerStatsEncodingTest {
         "Invalid ServerStats version: " + (ServerStatsEncoding.CURRENT_VERSION + 1));
     ServerStatsEncoding.parseBytes(newSerialized);
   }
+
+  @Test
+  public void encodeDecodeByteBufferTest() throws ServerStatsDeserializationException {
+    ServerStats serverStats = ServerStats.create(31, 22, (byte) 1);
+    ByteBuffer buffer = ByteBuffer.allocate(ServerStatsEncoding.getEncodedSize() + 2);
+    buffer.position(2);
+    ServerStatsEncoding.toBytes(serverStats, buffer);
+    assertThat(buffer.hasRemaining()).isFalse();
+    assertThat(buffer.order()).isEqualTo(ByteOrder.BIG_ENDIAN);
+    buffer.position(2);
+    assertThat(ServerStatsEncoding.parseBytes(buffer)).isEqualTo(serverStats);
+    assertThat(buffer.hasRemaining()).isFalse();
+    assertThat(buffer.order()).isEqualTo(ByteOrder.BIG_ENDIAN);
+  }
+
+  @Test
+  public void encodeByteBufferMatchesByteArray() {
+    ServerStats serverStats = ServerStats.create(450, 22, (byte) 1);
+    ByteBuffer buffer = ByteBuffer.allocateDirect(ServerStatsEncoding.getEncodedSize());
+    ServerStatsEncoding.toBytes(serverStats, buffer);
+    buffer.flip();
+    byte[] serialized = new byte[buffer.remaining()];
+    buffer.get(serialized);
+    assertThat(serialized).isEqualTo(ServerStatsEncoding.toBytes(serverStats));
+  }
+
+  @Test
+  public void encodeByteBufferReusedTest() throws ServerStatsDeserializationException {
+    ByteBuffer buffer = ByteBuffer.allocate(ServerStatsEncoding.getEncodedSize());
+    ServerStatsEncoding.toBytes(ServerStats.create(31, 22, (byte) 1), buffer);
+    buffer.clear();
+    ServerStatsEncoding.toBytes(ServerStats.create(0, 450, (byte) 0), buffer);
+    buffer.flip();
+    assertThat(ServerStatsEncoding.parseBytes(buffer))
+        .isEqualTo(ServerStats.create(0, 450, (byte) 0));
+  }
+
+  @Test
+  public void encodeByteBufferInsufficientSpace() {
+    ByteBuffer buffer = ByteBuffer.allocate(ServerStatsEncoding.getEncodedSize() - 1);
+    thrown.expect(BufferOverflowException.class);
+    try {
+      ServerStatsEncoding.toBytes(ServerStats.create(31, 22, (byte) 1), buffer);
+    } finally {
+      assertThat(buffer.position()).isEqualTo(0);
+    }
+  }
+
+  @Test
+  public void truncatedField() throws ServerStatsDeserializationException {
+    byte[] serialized = ServerStatsEncoding.toBytes(ServerStats.create(31, 22, (byte) 1));
+    ByteBuffer buffer = ByteBuffer.wrap(serialized, 0, 5);
+    thrown.expect(ServerStatsDeserializationException.class);
+    thrown.expectMessage("Serialized ServerStats buffer is truncated");
+    ServerStatsEncoding.parseBytes(buffer);
+  }
 }
@@ -58,6 +58,8 @@ public final class NoopStatsTest {
         .isSameAs(NoopStats.getNoopStatsRecorder());
     assertThat(NoopStats.newNoopStatsComponent().getViewManager())
         .isInstanceOf(NoopStats.newNoopViewManager().getClass());
+    assertThat(NoopStats.newNoopStatsComponent().getViewDataExporter())
+        .isSameAs(ViewDataExporter.getNoopViewDataExporter());
   }
 
   @Test
@@ -111,6 +111,20 @@ public final class NoopViewManagerTest {
         .isEqualTo(CumulativeData.create(Timestamp.create(0, 0), Timestamp.create(0, 0)));
   }
 
+  @Test
+  public void noopViewManager_GetViewUpdatedSince() {
+    View view =
+        View.create(
+            VIEW_NAME, VIEW_DESCRIPTION, MEASURE, AGGREGATION, Arrays.asList(KEY), CUMULATIVE);
+    ViewManager viewManager = NoopStats.newNoopViewManager();
+    viewManager.registerView(view);
+
+    long generation = viewManager.getGeneration();
+    assertThat(viewManager.getViewUpdatedSince(VIEW_NAME, generation))
+        .isEqualTo(viewManager.getView(VIEW_NAME));
+    assertThat(viewManager.getViewUpdatedSince(Name.create("other"), generation)).isNull();
+  }
+
   @Test
   public void noopViewManager_GetView_Interval() {
     View view =
@@ -23,6 +23,7 @@ import io.opencensus.internal.NoopScope;
 import io.opencensus.tags.propagation.TagContextBinarySerializer;
 import io.opencensus.tags.propagation.TagContextDeserializationException;
 import io.opencensus.tags.propagation.TagContextSerializationException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Iterator;
 import org.junit.Rule;
@@ -176,4 +177,32 @@ public final class NoopTagsTest {
     thrown.expect(NullPointerException.class);
     noopSerializer.fromByteArray(null);
   }
+
+  @Test
+  public void noopTagContextBinarySerializer_ByteBuffer()
+      throws TagContextDeserializationException, TagContextSerializationException {
+    TagContextBinarySerializer noopSerializer = NoopTags.getNoopTagContextBinarySerializer();
+    assertThat(noopSerializer.getSerializedSize(TAG_CONTEXT)).isEqualTo(0);
+    ByteBuffer buffer = ByteBuffer.allocate(5);
+    noopSerializer.toByteBuffer(TAG_CONTEXT, buffer);
+    assertThat(buffer.position()).isEqualTo(0);
+    assertThat(noopSerializer.fromByteBuffer(buffer)).isEqualTo(NoopTags.getNoopTagContext());
+    assertThat(buffer.hasRemaining()).isFalse();
+  }
+
+  @Test
+  public void noopTagContextBinarySerializer_ToByteBuffer_DisallowsNull()
+      throws TagContextSerializationException {
+    TagContextBinarySerializer noopSerializer = NoopTags.getNoopTagContextBinarySerializer();
+    thrown.expect(NullPointerException.class);
+    noopSerializer.toByteBuffer(TAG_CONTEXT, null);
+  }
+
+  @Test
+  public void noopTagContextBinarySerializer_FromByteBuffer_DisallowsNull()
+      throws TagContextDeserializationException {
+    TagContextBinarySerializer noopSerializer = NoopTags.getNoopTagContextBinarySerializer();
+    thrown.expect(NullPointerException.class);
+    noopSerializer.fromByteBuffer(null);
+  }
 }
@@ -58,6 +58,11 @@ public class SpanIdTest {
     assertThat(second.toLowerBase16()).isEqualTo("ff00000000000041");
   }
 
+  @Test
+  public void toLowerBase16_IsCached() {
+    assertThat(first.toLowerBase16()).isSameAs(first.toLowerBase16());
+  }
+
   @Test
   public void getBytes() {
     assertThat(first.getBytes()).isEqualTo(firstBytes);
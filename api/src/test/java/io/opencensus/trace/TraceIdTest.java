@@ -67,6 +67,11 @@ public class TraceIdTest {
     assertThat(second.toLowerBase16()).isEqualTo("ff000000000000000000000000000041");
   }
 
+  @Test
+  public void toLowerBase16_IsCached() {
+    assertThat(first.toLowerBase16()).isSameAs(first.toLowerBase16());
+  }
+
   @Test
   public void traceId_CompareTo() {
     assertThat(first.compareTo(second)).isGreaterThan(0);
@@ -19,6 +19,7 @@ package io.opencensus.trace.propagation;
 import static com.google.common.truth.Truth.assertThat;
 
 import io.opencensus.trace.SpanContext;
+import java.nio.ByteBuffer;
 import java.text.ParseException;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -68,4 +69,28 @@ public class BinaryFormatTest {
   public void fromByteArray_NotNullInput() throws SpanContextParseException {
     assertThat(binaryFormat.fromByteArray(new byte[0])).isEqualTo(SpanContext.INVALID);
   }
+
+  @Test(expected = NullPointerException.class)
+  public void toByteBuffer_NullSpanContext() {
+    binaryFormat.toByteBuffer(null, ByteBuffer.allocate(1));
+  }
+
+  @Test
+  public void toByteBuffer_NotNullSpanContext() {
+    ByteBuffer buffer = ByteBuffer.allocate(1);
+    binaryFormat.toByteBuffer(SpanContext.INVALID, buffer);
+    assertThat(buffer.position()).isEqualTo(0);
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void fromByteBuffer_NullInput() throws SpanContextParseException {
+    binaryFormat.fromByteBuffer(null);
+  }
+
+  @Test
+  public void fromByteBuffer_NotNullInput() throws SpanContextParseException {
+    ByteBuffer buffer = ByteBuffer.allocate(2);
+    assertThat(binaryFormat.fromByteBuffer(buffer)).isEqualTo(SpanContext.INVALID);
+    assertThat(buffer.hasRemaining()).isFalse();
+  }
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.trace.propagation;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.opencensus.trace.SpanContext;
+import io.opencensus.trace.SpanId;
+import io.opencensus.trace.TraceId;
+import io.opencensus.trace.TraceOptions;
+import io.opencensus.trace.propagation.TextFormat.Getter;
+import io.opencensus.trace.propagation.TextFormat.Setter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link CompositeTextFormat}. */
+@RunWith(JUnit4.class)
+public class CompositeTextFormatTest {
+  private static final String SPAN_ID_A = "ff00000000000041";
+  private static final String SPAN_ID_B = "ff00000000000042";
+  private static final TraceId TRACE_ID =
+      TraceId.fromLowerBase16("ff000000000000000000000000000041");
+  private static final Setter<Map<String, String>> MAP_SETTER =
+      new Setter<Map<String, String>>() {
+        @Override
+        public void put(Map<String, String> carrier, String key, String value) {
+          carrier.put(key, value);
+        }
+      };
+  private static final Getter<Map<String, String>> MAP_GETTER =
+      new Getter<Map<String, String>>() {
+        @Nullable
+        @Override
+        public String get(Map<String, String> carrier, String key) {
+          return carrier.get(key);
+        }
+      };
+
+  private final TextFormat compositeTextFormat =
+      new CompositeTextFormat(
+          Arrays.<TextFormat>asList(
+              new FakeTextFormat("a-span", "a-state"), new FakeTextFormat("b-span", "b-flags")));
+  @Rule public ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void fieldsList() {
+    assertThat(compositeTextFormat.fields())
+        .containsExactly("a-span", "a-state", "b-span", "b-flags")
+        .inOrder();
+  }
+
+  @Test
+  public void inject_AllFormats() {
+    Map<String, String> carrier = new HashMap<String, String>();
+    compositeTextFormat.inject(spanContext(SPAN_ID_A), carrier, MAP_SETTER);
+    assertThat(carrier).containsExactly("a-span", SPAN_ID_A, "b-span", SPAN_ID_A);
+  }
+
+  @Test
+  public void extract_FirstValidFormat() throws SpanContextParseException {
+    Map<String, String> carrier = new HashMap<String, String>();
+    carrier.put("a-span", SPAN_ID_A);
+    carrier.put("b-span", SPAN_ID_B);
+    assertThat(compositeTextFormat.extract(carrier, MAP_GETTER)).isEqualTo(spanContext(SPAN_ID_A));
+  }
+
+  @Test
+  public void extract_PartialFirstFormat() throws SpanContextParseException {
+    Map<String, String> carrier = new HashMap<String, String>();
+    carrier.put("a-state", "state");
+    carrier.put("b-span", SPAN_ID_B);
+    assertThat(compositeTextFormat.extract(carrier, MAP_GETTER)).isEqualTo(spanContext(SPAN_ID_B));
+  }
+
+  @Test
+  public void extract_InvalidFirstFormat() throws SpanContextParseException {
+    Map<String, String> carrier = new HashMap<String, String>();
+    carrier.put("a-span", "invalid");
+    carrier.put("b-span", SPAN_ID_B);
+    assertThat(compositeTextFormat.extract(carrier, MAP_GETTER)).isEqualTo(spanContext(SPAN_ID_B));
+  }
+
+  @Test
+  public void extract_Missing() throws SpanContextParseException {
+    Map<String, String> carrier = new HashMap<String, String>();
+    carrier.put("a-state", "state");
+    thrown.expect(SpanContextParseException.class);
+    thrown.expectMessage("Missing or invalid span context.");
+    compositeTextFormat.extract(carrier, MAP_GETTER);
+  }
+
+  @Test
+  public void tryExtract_PartialFirstFormat() {
+    Map<String, String> carrier = new HashMap<String, String>();
+    carrier.put("a-state", "state");
+    carrier.put("b-span", SPAN_ID_B);
+    assertThat(compositeTextFormat.tryExtract(carrier, MAP_GETTER))
+        .isEqualTo(spanContext(SPAN_ID_B));
+  }
+
+  @Test
+  public void tryExtract_Missing() {
+    assertThat(compositeTextFormat.tryExtract(new HashMap<String, String>(), MAP_GETTER)).isNull();
+  }
+
+  @Test
+  public void tryExtract_Invalid() {
+    Map<String, String> carrier = new HashMap<String, String>();
+    carrier.put("a-span", "invalid");
+    carrier.put("b-span", "invalid");
+    assertThat(compositeTextFormat.tryExtract(carrier, MAP_GETTER)).isNull();
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void create_NullTextFormat() {
+    new CompositeTextFormat(Arrays.<TextFormat>asList(new FakeTextFormat("span", "state"), null));
+  }
+
+  private static SpanContext spanContext(String spanId) {
+    return SpanContext.create(TRACE_ID, SpanId.fromLowerBase16(spanId), TraceOptions.DEFAULT);
+  }
+
+  // Propagates the span id in a required field, next to an optional field that is never parsed.
+  private static final class FakeTextFormat extends TextFormat {
+    private final String spanIdField;
+    private final List<String> fields;
+
+    private FakeTextFormat(String spanIdField, String optionalField) {
+      this.spanIdField = spanIdField;
+      this.fields = Arrays.asList(spanIdField, optionalField);
+    }
+
+    @Override
+    public List<String> fields() {
+      return fields;
+    }
+
+    @Override
+    public <C> void inject(SpanContext spanContext, C carrier, Setter<C> setter) {
+      setter.put(carrier, spanIdField, spanContext.getSpanId().toLowerBase16());
+    }
+
+    @Override
+    public <C> SpanContext extract(C carrier, Getter<C> getter) throws SpanContextParseException {
+      String spanId = getter.get(carrier, spanIdField);
+      if (spanId == null) {
+        throw new SpanContextParseException("Missing span id.");
+      }
+      try {
+        return SpanContext.create(TRACE_ID, SpanId.fromLowerBase16(spanId), TraceOptions.DEFAULT);
+      } catch (IllegalArgumentException e) {
+        throw new SpanContextParseException("Invalid span id.", e);
+      }
+    }
+  }
+}
@@ -18,6 +18,7 @@ package io.opencensus.trace.propagation;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import java.util.Collections;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -33,4 +34,50 @@ public class PropagationComponentTest {
     assertThat(propagationComponent.getBinaryFormat())
         .isEqualTo(BinaryFormat.getNoopBinaryFormat());
   }
+
+  @Test
+  public void implementationOfTraceContextFormat() {
+    assertThat(propagationComponent.getTraceContextFormat())
+        .isEqualTo(TextFormat.getNoopTextFormat());
+  }
+
+  @Test
+  public void implementationOfCompositeTextFormat() {
+    assertThat(
+            propagationComponent.newCompositeTextFormat(
+                Collections.singletonList(TextFormat.getNoopTextFormat())))
+        .isEqualTo(TextFormat.getNoopTextFormat());
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void compositeTextFormat_NullTextFormat() {
+    propagationComponent.newCompositeTextFormat(Collections.<TextFormat>singletonList(null));
+  }
+
+  @Test
+  public void defaultTraceContextFormat() {
+    assertThat(new MinimalPropagationComponent().getTraceContextFormat())
+        .isEqualTo(TextFormat.getNoopTextFormat());
+  }
+
+  @Test
+  public void defaultCompositeTextFormat() {
+    assertThat(
+            new MinimalPropagationComponent()
+                .newCompositeTextFormat(Collections.singletonList(TextFormat.getNoopTextFormat())))
+        .isInstanceOf(CompositeTextFormat.class);
+  }
+
+  // Implements only the abstract methods, as components written before 0.16 do.
+  private static final class MinimalPropagationComponent extends PropagationComponent {
+    @Override
+    public BinaryFormat getBinaryFormat() {
+      return BinaryFormat.getNoopBinaryFormat();
+    }
+
+    @Override
+    public TextFormat getB3Format() {
+      return TextFormat.getNoopTextFormat();
+    }
+  }
 }
@@ -21,6 +21,10 @@ import static com.google.common.truth.Truth.assertThat;
 import io.opencensus.trace.SpanContext;
 import io.opencensus.trace.propagation.TextFormat.Getter;
 import io.opencensus.trace.propagation.TextFormat.Setter;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import javax.annotation.Nullable;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -30,6 +34,14 @@ import org.junit.runners.JUnit4;
 @RunWith(JUnit4.class)
 public class TextFormatTest {
   private static final TextFormat textFormat = TextFormat.getNoopTextFormat();
+  private static final Getter<Map<String, String>> MAP_GETTER =
+      new Getter<Map<String, String>>() {
+        @Nullable
+        @Override
+        public String get(Map<String, String> carrier, String key) {
+          return carrier.get(key);
+        }
+      };
 
   @Test(expected = NullPointerException.class)
   public void inject_NullSpanContext() {
@@ -72,4 +84,58 @@ public class TextFormatTest {
                 }))
         .isSameAs(SpanContext.INVALID);
   }
+
+  @Test
+  public void tryExtract_NotNullGetter() {
+    assertThat(
+            textFormat.tryExtract(
+                new Object(),
+                new Getter<Object>() {
+                  @Nullable
+                  @Override
+                  public String get(Object carrier, String key) {
+                    return null;
+                  }
+                }))
+        .isNull();
+  }
+
+  @Test
+  public void defaultTryExtract_MissingFields() {
+    assertThat(new FakeTextFormat().tryExtract(new HashMap<String, String>(), MAP_GETTER)).isNull();
+  }
+
+  @Test
+  public void defaultTryExtract_ValidFields() {
+    Map<String, String> carrier = new HashMap<String, String>();
+    carrier.put(FakeTextFormat.FIELD, "valid");
+    assertThat(new FakeTextFormat().tryExtract(carrier, MAP_GETTER)).isSameAs(SpanContext.INVALID);
+  }
+
+  @Test
+  public void defaultTryExtract_InvalidFields() {
+    Map<String, String> carrier = new HashMap<String, String>();
+    carrier.put(FakeTextFormat.FIELD, "invalid");
+    assertThat(new FakeTextFormat().tryExtract(carrier, MAP_GETTER)).isNull();
+  }
+
+  private static final class FakeTextFormat extends TextFormat {
+    private static final String FIELD = "fake";
+
+    @Override
+    public List<String> fields() {
+      return Collections.singletonList(FIELD);
+    }
+
+    @Override
+    public <C> void inject(SpanContext spanContext, C carrier, Setter<C> setter) {}
+
+    @Override
+    public <C> SpanContext extract(C carrier, Getter<C> getter) throws SpanContextParseException {
+      if (!"valid".equals(getter.get(carrier, FIELD))) {
+        throw new SpanContextParseException("Invalid input.");
+      }
+      return SpanContext.INVALID;
+    }
+  }
 }
@@ -18,6 +18,8 @@ package io.opencensus.trace.samplers;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import io.opencensus.common.Clock;
+import io.opencensus.common.Timestamp;
 import io.opencensus.trace.NoopSpan;
 import io.opencensus.trace.Sampler;
 import io.opencensus.trace.Span;
@@ -28,7 +30,9 @@ import io.opencensus.trace.TraceOptions;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -39,6 +43,7 @@ import org.junit.runners.JUnit4;
 public class SamplersTest {
   private static final String SPAN_NAME = "MySpanName";
   private static final int NUM_SAMPLE_TRIES = 1000;
+  private static final long NANOS_PER_MILLI = 1000 * 1000;
   private final Random random = new Random(1234);
   private final TraceId traceId = TraceId.generateRandomId(random);
   private final SpanId parentSpanId = SpanId.generateRandomId(random);
@@ -278,4 +283,204 @@ public class SamplersTest {
   public void probabilitySampler_ToString() {
     assertThat((Samplers.probabilitySampler(0.5)).toString()).contains("0.5");
   }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rateLimitingSampler_nonPositiveRate() {
+    Samplers.rateLimitingSampler(0.0);
+  }
+
+  // Counts how many of the given number of root spans are sampled.
+  private int countSampled(Sampler sampler, String name, int numSpans) {
+    int count = 0;
+    for (int i = 0; i < numSpans; i++) {
+      if (sampler.shouldSample(
+          null,
+          null,
+          TraceId.generateRandomId(random),
+          SpanId.generateRandomId(random),
+          name,
+          Collections.<Span>emptyList())) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Test
+  public void rateLimitingSampler_LimitsNumberOfSampledTracesPerSecond() {
+    FakeClock clock = new FakeClock();
+    Sampler sampler = RateLimitingSampler.create(10, clock);
+    // The bucket starts full.
+    assertThat(countSampled(sampler, SPAN_NAME, 100)).isEqualTo(10);
+    assertThat(countSampled(sampler, SPAN_NAME, 100)).isEqualTo(0);
+    // Half a second later half of the bucket is refilled.
+    clock.advanceNanos(500 * NANOS_PER_MILLI);
+    assertThat(countSampled(sampler, SPAN_NAME, 100)).isEqualTo(5);
+    // The bucket never holds more than one second worth of tokens.
+    clock.advanceNanos(10 * 1000 * NANOS_PER_MILLI);
+    assertThat(countSampled(sampler, SPAN_NAME, 100)).isEqualTo(10);
+  }
+
+  @Test
+  public void rateLimitingSampler_RateLowerThanOnePerSecond() {
+    FakeClock clock = new FakeClock();
+    Sampler sampler = RateLimitingSampler.create(0.5, clock);
+    assertThat(countSampled(sampler, SPAN_NAME, 10)).isEqualTo(1);
+    clock.advanceNanos(1000 * NANOS_PER_MILLI);
+    assertThat(countSampled(sampler, SPAN_NAME, 10)).isEqualTo(0);
+    clock.advanceNanos(1000 * NANOS_PER_MILLI);
+    assertThat(countSampled(sampler, SPAN_NAME, 10)).isEqualTo(1);
+  }
+
+  @Test
+  public void rateLimitingSampler_SampledParent() {
+    Sampler sampler = RateLimitingSampler.create(1, new FakeClock());
+    assertSamplerSamplesWithProbability(
+        sampler, sampledSpanContext, Collections.<Span>emptyList(), 1.0);
+    assertSamplerSamplesWithProbability(
+        sampler, notSampledSpanContext, Arrays.asList(sampledSpan), 1.0);
+  }
+
+  @Test
+  public void rateLimitingSampler_getDescription() {
+    assertThat(Samplers.rateLimitingSampler(100).getDescription())
+        .isEqualTo(String.format("RateLimitingSampler{%.6f}", 100.0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void adaptiveSampler_nonPositiveRate() {
+    Samplers.adaptiveSampler(-1.0);
+  }
+
+  @Test
+  public void adaptiveSampler_AdjustsProbabilityPerSpanName() {
+    FakeClock clock = new FakeClock();
+    AdaptiveSampler sampler = AdaptiveSampler.create(10, clock);
+    // First period starts with probability 1.0 and the per period limit.
+    assertThat(countSampled(sampler, "frequent", 1000)).isEqualTo(10);
+    assertThat(countSampled(sampler, "rare", 5)).isEqualTo(5);
+    clock.advanceNanos(1000 * NANOS_PER_MILLI);
+    countSampled(sampler, "frequent", 1);
+    countSampled(sampler, "rare", 1);
+    assertThat(sampler.getProbability("frequent")).isWithin(1e-6).of(0.01);
+    assertThat(sampler.getProbability("rare")).isWithin(1e-6).of(1.0);
+    // An idle period resets the probability.
+    clock.advanceNanos(1000 * NANOS_PER_MILLI);
+    clock.advanceNanos(1000 * NANOS_PER_MILLI);
+    countSampled(sampler, "frequent", 1);
+    clock.advanceNanos(1000 * NANOS_PER_MILLI);
+    countSampled(sampler, "frequent", 1);
+    assertThat(sampler.getProbability("frequent")).isWithin(1e-6).of(1.0);
+  }
+
+  @Test
+  public void adaptiveSampler_SampledParent() {
+    Sampler sampler = AdaptiveSampler.create(1, new FakeClock());
+    assertSamplerSamplesWithProbability(
+        sampler, sampledSpanContext, Collections.<Span>emptyList(), 1.0);
+    assertSamplerSamplesWithProbability(
+        sampler, notSampledSpanContext, Arrays.asList(sampledSpan), 1.0);
+  }
+
+  @Test
+  public void adaptiveSampler_getDescription() {
+    assertThat(Samplers.adaptiveSampler(100).getDescription())
+        .isEqualTo(String.format("AdaptiveSampler{%.6f}", 100.0));
+  }
+
+  @Test
+  public void spanNameSampler_SelectsSamplerBySpanName() {
+    Sampler rateLimiting = Samplers.rateLimitingSampler(1);
+    Map<String, Sampler> exactNameSamplers = new HashMap<String, Sampler>();
+    exactNameSamplers.put("/healthz", Samplers.neverSample());
+    exactNameSamplers.put("Sent.payments.Debug", rateLimiting);
+    exactNameSamplers.put("", Samplers.neverSample());
+    Map<String, Sampler> namePrefixSamplers = new HashMap<String, Sampler>();
+    namePrefixSamplers.put("Sent.payments.", Samplers.alwaysSample());
+    namePrefixSamplers.put("Sent.", Samplers.neverSample());
+    SpanNameSampler sampler =
+        SpanNameSampler.create(
+            Samplers.probabilitySampler(0.5), exactNameSamplers, namePrefixSamplers);
+    assertThat(sampler.getSampler("/healthz")).isSameAs(Samplers.neverSample());
+    assertThat(sampler.getSampler("/healthz/x")).isSameAs(sampler.getSampler("foo"));
+    assertThat(sampler.getSampler("/health")).isSameAs(sampler.getSampler("foo"));
+    assertThat(sampler.getSampler("")).isSameAs(Samplers.neverSample());
+    assertThat(sampler.getSampler("Sent.payments.Debug")).isSameAs(rateLimiting);
+    assertThat(sampler.getSampler("Sent.payments.Charge")).isSameAs(Samplers.alwaysSample());
+    assertThat(sampler.getSampler("Sent.payments.")).isSameAs(Samplers.alwaysSample());
+    assertThat(sampler.getSampler("Sent.payments")).isSameAs(Samplers.neverSample());
+    assertThat(sampler.getSampler("Sent.users")).isSameAs(Samplers.neverSample());
+    assertThat(sampler.getSampler("Sen")).isSameAs(sampler.getSampler("foo"));
+    assertThat(sampler.getSampler("foo").getDescription())
+        .isEqualTo(Samplers.probabilitySampler(0.5).getDescription());
+  }
+
+  @Test
+  public void spanNameSampler_DelegatesDecision() {
+    Map<String, Sampler> exactNameSamplers = new HashMap<String, Sampler>();
+    exactNameSamplers.put("/healthz", Samplers.neverSample());
+    Sampler sampler =
+        Samplers.spanNameSampler(
+            Samplers.alwaysSample(), exactNameSamplers, Collections.<String, Sampler>emptyMap());
+    assertThat(
+            sampler.shouldSample(
+                null, null, traceId, spanId, "/healthz", Collections.<Span>emptyList()))
+        .isFalse();
+    assertThat(
+            sampler.shouldSample(
+                null, null, traceId, spanId, "/payments", Collections.<Span>emptyList()))
+        .isTrue();
+  }
+
+  @Test
+  public void spanNameSampler_IsNotAffectedByLaterChangesOfTheMaps() {
+    Map<String, Sampler> exactNameSamplers = new HashMap<String, Sampler>();
+    SpanNameSampler sampler =
+        SpanNameSampler.create(
+            Samplers.alwaysSample(), exactNameSamplers, Collections.<String, Sampler>emptyMap());
+    exactNameSamplers.put("/healthz", Samplers.neverSample());
+    assertThat(sampler.getSampler("/healthz")).isSameAs(Samplers.alwaysSample());
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void spanNameSampler_NullSampler() {
+    Map<String, Sampler> exactNameSamplers = new HashMap<String, Sampler>();
+    exactNameSamplers.put("/healthz", null);
+    Samplers.spanNameSampler(
+        Samplers.alwaysSample(), exactNameSamplers, Collections.<String, Sampler>emptyMap());
+  }
+
+  @Test
+  public void spanNameSampler_getDescription() {
+    Map<String, Sampler> exactNameSamplers = new HashMap<String, Sampler>();
+    exactNameSamplers.put("/healthz", Samplers.neverSample());
+    Map<String, Sampler> namePrefixSamplers = new HashMap<String, Sampler>();
+    namePrefixSamplers.put("Sent.payments.", Samplers.alwaysSample());
+    assertThat(
+            Samplers.spanNameSampler(
+                    Samplers.probabilitySampler(0.5), exactNameSamplers, namePrefixSamplers)
+                .getDescription())
+        .isEqualTo(
+            "SpanNameSampler{default=ProbabilitySampler{0.500000}, "
+                + "exact={/healthz=NeverSampleSampler}, "
+                + "prefix={Sent.payments.=AlwaysSampleSampler}}");
+  }
+
+  private static final class FakeClock extends Clock {
+    private long nanos = 1234;
+
+    private void advanceNanos(long nanos) {
+      this.nanos += nanos;
+    }
+
+    @Override
+    public Timestamp now() {
+      return Timestamp.fromMillis(nanos / NANOS_PER_MILLI);
+    }
+
+    @Override
+    public long nowNanos() {
+      return nanos;
+    }
+  }
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.benchmarks.common;
+
+import io.opencensus.common.ServerStats;
+import io.opencensus.common.ServerStatsDeserializationException;
+import io.opencensus.common.ServerStatsEncoding;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Benchmarks for {@link ServerStatsEncoding}. */
+@State(Scope.Benchmark)
+public class ServerStatsEncodingBenchmark {
+  private static final ServerStats serverStats = ServerStats.create(31, 22, (byte) 1);
+  private static final byte[] serverStatsBinary = ServerStatsEncoding.toBytes(serverStats);
+
+  /** Buffers reused by the {@link ByteBuffer} benchmarks of one thread. */
+  @State(Scope.Thread)
+  public static class BufferState {
+    final ByteBuffer heapBuffer = ByteBuffer.allocate(ServerStatsEncoding.getEncodedSize());
+    final ByteBuffer directBuffer = ByteBuffer.allocateDirect(ServerStatsEncoding.getEncodedSize());
+    final ByteBuffer heapBinary = ByteBuffer.wrap(serverStatsBinary);
+    final ByteBuffer directBinary = ByteBuffer.allocateDirect(serverStatsBinary.length);
+
+    /** Fills the direct buffer that the parsing benchmarks read from. */
+    @Setup
+    public void setup() {
+      directBinary.put(serverStatsBinary);
+      directBinary.flip();
+    }
+  }
+
+  /** This benchmark attempts to measure performance of {@link ServerStatsEncoding#toBytes}. */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public byte[] toBytes() {
+    return ServerStatsEncoding.toBytes(serverStats);
+  }
+
+  /** This benchmark attempts to measure performance of {@link ServerStatsEncoding#parseBytes}. */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public ServerStats parseBytes() throws ServerStatsDeserializationException {
+    return ServerStatsEncoding.parseBytes(serverStatsBinary);
+  }
+
+  /**
+   * This benchmark attempts to measure performance of {@link
+   * ServerStatsEncoding#toBytes(ServerStats, ByteBuffer)} with a heap buffer.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public ByteBuffer toHeapByteBuffer(BufferState state) {
+    state.heapBuffer.clear();
+    ServerStatsEncoding.toBytes(serverStats, state.heapBuffer);
+    return state.heapBuffer;
+  }
+
+  /**
+   * This benchmark attempts to measure performance of {@link
+   * ServerStatsEncoding#toBytes(ServerStats, ByteBuffer)} with a direct buffer.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public ByteBuffer toDirectByteBuffer(BufferState state) {
+    state.directBuffer.clear();
+    ServerStatsEncoding.toBytes(serverStats, state.directBuffer);
+    return state.directBuffer;
+  }
+
+  /**
+   * This benchmark attempts to measure performance of {@link
+   * ServerStatsEncoding#parseBytes(ByteBuffer)} with a heap buffer.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public ServerStats parseHeapByteBuffer(BufferState state)
+      throws ServerStatsDeserializationException {
+    state.heapBinary.rewind();
+    return ServerStatsEncoding.parseBytes(state.heapBinary);
+  }
+
+  /**
+   * This benchmark attempts to measure performance of {@link
+   * ServerStatsEncoding#parseBytes(ByteBuffer)} with a direct buffer.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public ServerStats parseDirectByteBuffer(BufferState state)
+      throws ServerStatsDeserializationException {
+    state.directBinary.rewind();
+    return ServerStatsEncoding.parseBytes(state.directBinary);
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.benchmarks.trace;
+
+import io.opencensus.trace.Sampler;
+import io.opencensus.trace.Span;
+import io.opencensus.trace.SpanId;
+import io.opencensus.trace.TraceId;
+import io.opencensus.trace.samplers.Samplers;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/** Benchmarks for {@link Sampler#shouldSample} of the pre-defined {@link Sampler Samplers}. */
+@State(Scope.Benchmark)
+public class SamplerBenchmark {
+  private static final String SPAN_NAME = "MySpanName";
+  private static final List<Span> PARENT_LINKS = Collections.<Span>emptyList();
+
+  @State(Scope.Benchmark)
+  public static class Data {
+    private Sampler sampler = Samplers.neverSample();
+    private TraceId traceId = TraceId.INVALID;
+    private SpanId spanId = SpanId.INVALID;
+
+    @Param({"probability", "rate-limiting", "adaptive", "span-name"})
+    String samplerType;
+
+    @Setup
+    public void setup() {
+      if (samplerType.equals("probability")) {
+        sampler = Samplers.probabilitySampler(0.0001);
+      } else if (samplerType.equals("rate-limiting")) {
+        sampler = Samplers.rateLimitingSampler(100);
+      } else if (samplerType.equals("adaptive")) {
+        sampler = Samplers.adaptiveSampler(100);
+      } else if (samplerType.equals("span-name")) {
+        Map<String, Sampler> exactNameSamplers = new HashMap<String, Sampler>();
+        exactNameSamplers.put("/healthz", Samplers.neverSample());
+        Map<String, Sampler> namePrefixSamplers = new HashMap<String, Sampler>();
+        namePrefixSamplers.put("My", Samplers.probabilitySampler(0.0001));
+        sampler =
+            Samplers.spanNameSampler(
+                Samplers.alwaysSample(), exactNameSamplers, namePrefixSamplers);
+      } else {
+        throw new RuntimeException("Invalid sampler type: " + samplerType);
+      }
+      Random random = new Random(1234);
+      traceId = TraceId.generateRandomId(random);
+      spanId = SpanId.generateRandomId(random);
+    }
+  }
+
+  /** This benchmark attempts to measure performance of a sampling decision for a root span. */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public boolean shouldSample(Data data) {
+    return data.sampler.shouldSample(
+        null, null, data.traceId, data.spanId, SPAN_NAME, PARENT_LINKS);
+  }
+
+  /**
+   * This benchmark attempts to measure performance of a sampling decision for a root span when
+   * multiple threads use the same sampler.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  @Threads(8)
+  public boolean shouldSampleContended(Data data) {
+    return data.sampler.shouldSample(
+        null, null, data.traceId, data.spanId, SPAN_NAME, PARENT_LINKS);
+  }
+}
@@ -23,12 +23,14 @@ import io.opencensus.trace.TraceOptions;
 import io.opencensus.trace.Tracing;
 import io.opencensus.trace.propagation.BinaryFormat;
 import io.opencensus.trace.propagation.SpanContextParseException;
+import java.nio.ByteBuffer;
 import java.util.concurrent.TimeUnit;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
 import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 
 /** Benchmarks for {@link BinaryFormat}. */
@@ -77,4 +79,87 @@ public class BinaryPropagationImplBenchmark {
   public SpanContext toFromBinarySpanContext() throws SpanContextParseException {
     return binaryFormat.fromByteArray(binaryFormat.toByteArray(spanContext));
   }
+
+  /** Buffers reused by the {@link java.nio.ByteBuffer} benchmarks of one thread. */
+  @State(Scope.Thread)
+  public static class BufferState {
+    final ByteBuffer heapBuffer = ByteBuffer.allocate(spanContextBinary.length);
+    final ByteBuffer directBuffer = ByteBuffer.allocateDirect(spanContextBinary.length);
+    final ByteBuffer heapBinary = ByteBuffer.wrap(spanContextBinary);
+    final ByteBuffer directBinary = ByteBuffer.allocateDirect(spanContextBinary.length);
+
+    /** Fills the direct buffer that the parsing benchmarks read from. */
+    @Setup
+    public void setup() {
+      directBinary.put(spanContextBinary);
+      directBinary.flip();
+    }
+  }
+
+  /**
+   * This benchmark attempts to measure performance of {@link BinaryFormat#toByteBuffer(SpanContext,
+   * ByteBuffer)} with a heap buffer.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public ByteBuffer toHeapByteBufferSpanContext(BufferState state) {
+    state.heapBuffer.clear();
+    binaryFormat.toByteBuffer(spanContext, state.heapBuffer);
+    return state.heapBuffer;
+  }
+
+  /**
+   * This benchmark attempts to measure performance of {@link BinaryFormat#toByteBuffer(SpanContext,
+   * ByteBuffer)} with a direct buffer.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public ByteBuffer toDirectByteBufferSpanContext(BufferState state) {
+    state.directBuffer.clear();
+    binaryFormat.toByteBuffer(spanContext, state.directBuffer);
+    return state.directBuffer;
+  }
+
+  /**
+   * This benchmark attempts to measure performance of {@link
+   * BinaryFormat#fromByteBuffer(ByteBuffer)} with a heap buffer.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public SpanContext fromHeapByteBufferSpanContext(BufferState state)
+      throws SpanContextParseException {
+    state.heapBinary.rewind();
+    return binaryFormat.fromByteBuffer(state.heapBinary);
+  }
+
+  /**
+   * This benchmark attempts to measure performance of {@link
+   * BinaryFormat#fromByteBuffer(ByteBuffer)} with a direct buffer.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public SpanContext fromDirectByteBufferSpanContext(BufferState state)
+      throws SpanContextParseException {
+    state.directBinary.rewind();
+    return binaryFormat.fromByteBuffer(state.directBinary);
+  }
+
+  /**
+   * This benchmark attempts to measure performance of {@link BinaryFormat#toByteBuffer(SpanContext,
+   * ByteBuffer)} then {@link BinaryFormat#fromByteBuffer(ByteBuffer)} with a heap buffer.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public SpanContext toFromHeapByteBufferSpanContext(BufferState state)
+      throws SpanContextParseException {
+    state.heapBuffer.clear();
+    binaryFormat.toByteBuffer(spanContext, state.heapBuffer);
+    state.heapBuffer.flip();
+    return binaryFormat.fromByteBuffer(state.heapBuffer);
+  }
 }
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.exporter.trace.zipkin;
+
+import io.opencensus.common.Timestamp;
+import io.opencensus.trace.Annotation;
+import io.opencensus.trace.AttributeValue;
+import io.opencensus.trace.Link;
+import io.opencensus.trace.MessageEvent;
+import io.opencensus.trace.MessageEvent.Type;
+import io.opencensus.trace.Span.Kind;
+import io.opencensus.trace.SpanContext;
+import io.opencensus.trace.SpanId;
+import io.opencensus.trace.Status;
+import io.opencensus.trace.TraceId;
+import io.opencensus.trace.TraceOptions;
+import io.opencensus.trace.export.SpanData;
+import io.opencensus.trace.export.SpanData.Attributes;
+import io.opencensus.trace.export.SpanData.Links;
+import io.opencensus.trace.export.SpanData.TimedEvent;
+import io.opencensus.trace.export.SpanData.TimedEvents;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import zipkin2.Endpoint;
+import zipkin2.codec.SpanBytesEncoder;
+
+/**
+ * Benchmarks for encoding {@link SpanData} batches in the Zipkin JSON v2 format.
+ *
+ * <p>The benchmark is in the package of the exporter to reach its package-private encoders.
+ */
+public class ZipkinExporterHandlerBenchmark {
+  private static final Endpoint LOCAL_ENDPOINT =
+      Endpoint.newBuilder().serviceName("benchmark").ip("192.168.99.101").build();
+
+  @State(Scope.Benchmark)
+  public static class Data {
+    @Param({"1000"})
+    int numSpans;
+
+    List<SpanData> spans;
+    ZipkinJsonV2SpanEncoder jsonV2SpanEncoder;
+
+    @Setup
+    public void setup() {
+      Random random = new Random(1234);
+      spans = new ArrayList<SpanData>(numSpans);
+      for (int i = 0; i < numSpans; i++) {
+        spans.add(createSpanData(random, i));
+      }
+      jsonV2SpanEncoder = new ZipkinJsonV2SpanEncoder(LOCAL_ENDPOINT);
+    }
+  }
+
+  /** Encodes the batch by converting each span to a {@code zipkin2.Span} first. */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public List<byte[]> encodeViaZipkinSpan(Data data) {
+    List<byte[]> encodedSpans = new ArrayList<byte[]>(data.spans.size());
+    for (SpanData spanData : data.spans) {
+      encodedSpans.add(
+          SpanBytesEncoder.JSON_V2.encode(
+              ZipkinExporterHandler.generateSpan(spanData, LOCAL_ENDPOINT)));
+    }
+    return encodedSpans;
+  }
+
+  /** Encodes the batch directly from the {@code SpanData}. */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public List<byte[]> encodeDirect(Data data) {
+    List<byte[]> encodedSpans = new ArrayList<byte[]>(data.spans.size());
+    for (SpanData spanData : data.spans) {
+      encodedSpans.add(data.jsonV2SpanEncoder.encode(spanData));
+    }
+    return encodedSpans;
+  }
+
+  private static SpanData createSpanData(Random random, int index) {
+    Map<String, AttributeValue> attributes = new HashMap<String, AttributeValue>();
+    attributes.put("http.url", AttributeValue.stringAttributeValue("http://localhost/" + index));
+    attributes.put("http.status_code", AttributeValue.longAttributeValue(200));
+    attributes.put("cached", AttributeValue.booleanAttributeValue(index % 2 == 0));
+    List<TimedEvent<Annotation>> annotations =
+        Arrays.asList(
+            TimedEvent.create(Timestamp.create(1505855799, 1000), Annotation.fromDescription("b")),
+            TimedEvent.create(Timestamp.create(1505855798, 1000), Annotation.fromDescription("a")));
+    List<TimedEvent<MessageEvent>> messageEvents =
+        Arrays.asList(
+            TimedEvent.create(
+                Timestamp.create(1505855799, 433901068),
+                MessageEvent.builder(Type.RECEIVED, 0).setCompressedMessageSize(7).build()),
+            TimedEvent.create(
+                Timestamp.create(1505855799, 459486280),
+                MessageEvent.builder(Type.SENT, 0).setCompressedMessageSize(13).build()));
+    return SpanData.create(
+        SpanContext.create(
+            TraceId.generateRandomId(random),
+            SpanId.generateRandomId(random),
+            TraceOptions.builder().setIsSampled(true).build()),
+        SpanId.generateRandomId(random),
+        false, /* hasRemoteParent */
+        "Recv.helloworld.Greeter.SayHello",
+        Kind.SERVER,
+        Timestamp.create(1505855794, 194009601) /* startTimestamp */,
+        Attributes.create(attributes, 0 /* droppedAttributesCount */),
+        TimedEvents.create(annotations, 0 /* droppedEventsCount */),
+        TimedEvents.create(messageEvents, 0 /* droppedEventsCount */),
+        Links.create(Collections.<Link>emptyList(), 0 /* droppedLinksCount */),
+        null, /* childSpanCount */
+        Status.OK,
+        Timestamp.create(1505855799, 465726528) /* endTimestamp */);
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.contrib.http;
+
+import io.opencensus.trace.Tracing;
+import io.opencensus.trace.config.TraceConfig;
+import io.opencensus.trace.propagation.TextFormat;
+import io.opencensus.trace.samplers.Samplers;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for the per-request overhead of {@link HttpClientHandler} and {@link
+ * HttpServerHandler}.
+ */
+public class HttpHandlerBenchmark {
+
+  @State(Scope.Thread)
+  public static class Data {
+    @Param({"true", "false"})
+    boolean sampled;
+
+    Request request = new Request("GET", "/users/123", "/users/{id}");
+    Map<String, String> clientCarrier = new HashMap<String, String>();
+    Map<String, String> serverCarrier = new HashMap<String, String>();
+    HttpClientHandler<Request, Integer, Map<String, String>> clientHandler;
+    HttpServerHandler<Request, Integer, Map<String, String>> serverHandler;
+
+    @Setup
+    public void setup() {
+      TraceConfig traceConfig = Tracing.getTraceConfig();
+      traceConfig.updateActiveTraceParams(
+          traceConfig
+              .getActiveTraceParams()
+              .toBuilder()
+              .setSampler(sampled ? Samplers.alwaysSample() : Samplers.neverSample())
+              .build());
+      TextFormat textFormat = Tracing.getPropagationComponent().getB3Format();
+      clientHandler =
+          new HttpClientHandler<Request, Integer, Map<String, String>>(
+              Tracing.getTracer(), new RequestExtractor(), textFormat, new MapSetter());
+      serverHandler =
+          new HttpServerHandler<Request, Integer, Map<String, String>>(
+              Tracing.getTracer(),
+              new RequestExtractor(),
+              textFormat,
+              new MapGetter(),
+              /* publicEndpoint= */ false);
+      // An incoming request with a propagated parent.
+      clientHandler.handleEnd(
+          clientHandler.handleStart(null, serverCarrier, request), request, 200, null);
+    }
+  }
+
+  /** Instruments an outgoing request, from the start of the span to recording the stats. */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public HttpRequestContext clientRequest(Data data) {
+    HttpRequestContext context =
+        data.clientHandler.handleStart(null, data.clientCarrier, data.request);
+    data.clientHandler.handleMessageSent(context, 100);
+    data.clientHandler.handleMessageReceived(context, 1000);
+    data.clientHandler.handleEnd(context, data.request, 200, null);
+    return context;
+  }
+
+  /** Instruments an incoming request, from the start of the span to recording the stats. */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public HttpRequestContext serverRequest(Data data) {
+    HttpRequestContext context = data.serverHandler.handleStart(data.serverCarrier, data.request);
+    data.serverHandler.handleMessageReceived(context, 100);
+    data.serverHandler.handleMessageSent(context, 1000);
+    data.serverHandler.handleEnd(context, data.request, 200, null);
+    return context;
+  }
+
+  static final class Request {
+    final String method;
+    final String path;
+    final String route;
+
+    Request(String method, String path, String route) {
+      this.method = method;
+      this.path = path;
+      this.route = route;
+    }
+  }
+
+  private static final class RequestExtractor extends HttpExtractor<Request, Integer> {
+    @Override
+    public String getRoute(Request request) {
+      return request.route;
+    }
+
+    @Override
+    public String getHost(Request request) {
+      return "example.com";
+    }
+
+    @Override
+    public String getMethod(Request request) {
+      return request.method;
+    }
+
+    @Override
+    public String getPath(Request request) {
+      return request.path;
+    }
+
+    @Override
+    public String getUserAgent(Request request) {
+      return null;
+    }
+
+    @Override
+    public int getStatusCode(Integer response) {
+      return response == null ? 0 : response;
+    }
+  }
+
+  private static final class MapSetter extends TextFormat.Setter<Map<String, String>> {
+    @Override
+    public void put(Map<String, String> carrier, String key, String value) {
+      carrier.put(key, value);
+    }
+  }
+
+  private static final class MapGetter extends TextFormat.Getter<Map<String, String>> {
+    @Override
+    public String get(Map<String, String> carrier, String key) {
+      return carrier.get(key);
+    }
+  }
+}
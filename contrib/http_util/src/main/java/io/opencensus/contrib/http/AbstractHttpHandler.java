@@ -0,0 +1,216 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.contrib.http;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableMap;
+import io.opencensus.contrib.http.util.HttpTraceConstants;
+import io.opencensus.contrib.http.util.HttpTraceUtil;
+import io.opencensus.tags.TagValue;
+import io.opencensus.tags.Tagger;
+import io.opencensus.trace.AttributeValue;
+import io.opencensus.trace.MessageEvent;
+import io.opencensus.trace.MessageEvent.Type;
+import io.opencensus.trace.Span;
+import io.opencensus.trace.Span.Options;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Base class for handling request on http client and server.
+ *
+ * @param <Q> the HTTP request entity.
+ * @param <P> the HTTP response entity.
+ * @since 0.16
+ */
+public abstract class AbstractHttpHandler<Q, P> {
+
+  static final double NANOS_PER_MILLI = 1e6;
+  private static final int MAX_STATUS_CODE = 599;
+  private static final TagValue EMPTY_TAG_VALUE = TagValue.create("");
+
+  // The tag values of the status codes and of the standard methods are created once, instead of on
+  // every request.
+  private static final TagValue[] STATUS_TAG_VALUES = new TagValue[MAX_STATUS_CODE + 1];
+  private static final Map<String, TagValue> METHOD_TAG_VALUES;
+
+  static {
+    for (int i = 0; i <= MAX_STATUS_CODE; i++) {
+      STATUS_TAG_VALUES[i] = TagValue.create(Integer.toString(i));
+    }
+    ImmutableMap.Builder<String, TagValue> methods = ImmutableMap.builder();
+    for (String method :
+        new String[] {
+          "GET", "HEAD", "POST", "PUT", "DELETE", "CONNECT", "OPTIONS", "TRACE", "PATCH"
+        }) {
+      methods.put(method, TagValue.create(method));
+    }
+    METHOD_TAG_VALUES = methods.build();
+  }
+
+  /** The {@link HttpExtractor} used to extract information from request/response. */
+  final HttpExtractor<Q, P> extractor;
+
+  final Tagger tagger;
+
+  /** Constructor to allow access from same package subclasses only. */
+  AbstractHttpHandler(HttpExtractor<Q, P> extractor, Tagger tagger) {
+    checkNotNull(extractor, "extractor");
+    checkNotNull(tagger, "tagger");
+    this.extractor = extractor;
+    this.tagger = tagger;
+  }
+
+  /**
+   * Instrument an HTTP span after a message is sent. Typically called for every chunk of request or
+   * response is sent.
+   *
+   * @param context request specific {@link HttpRequestContext}
+   * @param bytes bytes sent.
+   * @since 0.16
+   */
+  public final void handleMessageSent(HttpRequestContext context, long bytes) {
+    checkNotNull(context, "context");
+    context.sentMessageSize.addAndGet(bytes);
+    if (isRecording(context.span)) {
+      // record compressed size
+      recordMessageEvent(context.span, context.sentSeqId.addAndGet(1L), Type.SENT, bytes, 0L);
+    }
+  }
+
+  /**
+   * Instrument an HTTP span after a message is received. Typically called for every chunk of
+   * request or response is received.
+   *
+   * @param context request specific {@link HttpRequestContext}
+   * @param bytes bytes received.
+   * @since 0.16
+   */
+  public final void handleMessageReceived(HttpRequestContext context, long bytes) {
+    checkNotNull(context, "context");
+    context.receiveMessageSize.addAndGet(bytes);
+    if (isRecording(context.span)) {
+      // record compressed size
+      recordMessageEvent(
+          context.span, context.receivedSeqId.addAndGet(1L), Type.RECEIVED, bytes, 0L);
+    }
+  }
+
+  /**
+   * Retrieves {@link Span} from the {@link HttpRequestContext}.
+   *
+   * @param context request specific {@link HttpRequestContext}
+   * @return {@link Span} associated with the request.
+   * @since 0.16
+   */
+  public final Span getSpanFromContext(HttpRequestContext context) {
+    checkNotNull(context, "context");
+    return context.span;
+  }
+
+  // Creates the context of a request, and adds the request attributes to its span if it records
+  // events. The tags that are current now are the ones the stats are recorded with. The path tag is
+  // the route rather than the raw path, whose identifiers would make the number of time series
+  // unbounded.
+  final HttpRequestContext getNewContext(Span span, Q request) {
+    String method = extractor.getMethod(request);
+    String route = extractor.getRoute(request);
+    if (isRecording(span)) {
+      putAttributeIfNotEmpty(span, HttpTraceConstants.HTTP_HOST, extractor.getHost(request));
+      putAttributeIfNotEmpty(span, HttpTraceConstants.HTTP_METHOD, method);
+      putAttributeIfNotEmpty(span, HttpTraceConstants.HTTP_PATH, extractor.getPath(request));
+      putAttributeIfNotEmpty(span, HttpTraceConstants.HTTP_ROUTE, route);
+      putAttributeIfNotEmpty(
+          span, HttpTraceConstants.HTTP_USER_AGENT, extractor.getUserAgent(request));
+    }
+    return new HttpRequestContext(
+        span, tagger.getCurrentTagContext(), getMethodTagValue(method), getTagValue(route));
+  }
+
+  // Adds the status to the span, if it records events, and ends it.
+  static void spanEnd(Span span, int httpStatus, @Nullable Throwable error) {
+    if (isRecording(span)) {
+      span.putAttribute(
+          HttpTraceConstants.HTTP_STATUS_CODE, AttributeValue.longAttributeValue(httpStatus));
+      span.setStatus(HttpTraceUtil.parseResponseStatus(httpStatus, error));
+    }
+    span.end();
+  }
+
+  static String getSpanName(@Nullable String path) {
+    // default span name
+    if (path == null) {
+      return "/";
+    }
+    if (!path.startsWith("/")) {
+      return "/" + path;
+    }
+    return path;
+  }
+
+  static TagValue getStatusTagValue(int httpStatus) {
+    if (httpStatus >= 0 && httpStatus <= MAX_STATUS_CODE) {
+      return STATUS_TAG_VALUES[httpStatus];
+    }
+    return TagValue.create(Integer.toString(httpStatus));
+  }
+
+  static long getLatencyNanos(HttpRequestContext context) {
+    return System.nanoTime() - context.requestStartTime;
+  }
+
+  private static TagValue getMethodTagValue(@Nullable String method) {
+    if (method == null) {
+      return EMPTY_TAG_VALUE;
+    }
+    TagValue tagValue = METHOD_TAG_VALUES.get(method);
+    return tagValue != null ? tagValue : getTagValue(method);
+  }
+
+  // Tag values are limited to 255 printable characters, longer or invalid values are dropped.
+  private static TagValue getTagValue(@Nullable String value) {
+    if (value == null || value.isEmpty()) {
+      return EMPTY_TAG_VALUE;
+    }
+    try {
+      return TagValue.create(value);
+    } catch (IllegalArgumentException e) {
+      return EMPTY_TAG_VALUE;
+    }
+  }
+
+  private static boolean isRecording(Span span) {
+    return span.getOptions().contains(Options.RECORD_EVENTS);
+  }
+
+  private static void putAttributeIfNotEmpty(Span span, String key, @Nullable String value) {
+    if (value != null && !value.isEmpty()) {
+      span.putAttribute(key, AttributeValue.stringAttributeValue(value));
+    }
+  }
+
+  private static void recordMessageEvent(
+      Span span, long id, Type type, long uncompressedMessageSize, long compressedMessageSize) {
+    MessageEvent messageEvent =
+        MessageEvent.builder(type, id)
+            .setUncompressedMessageSize(uncompressedMessageSize)
+            .setCompressedMessageSize(compressedMessageSize)
+            .build();
+    span.addMessageEvent(messageEvent);
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.contrib.http;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.opencensus.contrib.http.util.HttpMeasureConstants;
+import io.opencensus.stats.Stats;
+import io.opencensus.stats.StatsRecorder;
+import io.opencensus.tags.TagContext;
+import io.opencensus.tags.Tags;
+import io.opencensus.trace.Span;
+import io.opencensus.trace.SpanContext;
+import io.opencensus.trace.Tracer;
+import io.opencensus.trace.propagation.TextFormat;
+import javax.annotation.Nullable;
+
+/*>>>
+import org.checkerframework.checker.nullness.qual.NonNull;
+*/
+
+/**
+ * This helper class provides routine methods to instrument HTTP clients.
+ *
+ * <p>It starts a client span for each request, propagates its context in the outgoing carrier, and
+ * when the request ends records the client latency and bytes measures from {@link
+ * HttpMeasureConstants}, tagged with the method, path and status of the request.
+ *
+ * @param <Q> the HTTP request entity.
+ * @param <P> the HTTP response entity.
+ * @param <C> the type of the carrier.
+ * @since 0.16
+ */
+public final class HttpClientHandler<
+        Q /*>>> extends @NonNull Object*/, P, C /*>>> extends @NonNull Object*/>
+    extends AbstractHttpHandler<Q, P> {
+
+  private final TextFormat.Setter<C> setter;
+  private final TextFormat textFormat;
+  private final Tracer tracer;
+  private final StatsRecorder statsRecorder;
+
+  /**
+   * Creates a {@link HttpClientHandler} with given parameters.
+   *
+   * @param tracer the Open Census tracing component.
+   * @param extractor the {@code HttpExtractor} used to extract information from the
+   *     request/response.
+   * @param textFormat the {@code TextFormat} used in HTTP propagation.
+   * @param setter the setter used when injecting information to the {@code carrier}.
+   * @since 0.16
+   */
+  public HttpClientHandler(
+      Tracer tracer,
+      HttpExtractor<Q, P> extractor,
+      TextFormat textFormat,
+      TextFormat.Setter<C> setter) {
+    super(extractor, Tags.getTagger());
+    checkNotNull(setter, "setter");
+    checkNotNull(textFormat, "textFormat");
+    checkNotNull(tracer, "tracer");
+    this.setter = setter;
+    this.textFormat = textFormat;
+    this.tracer = tracer;
+    this.statsRecorder = Stats.getStatsRecorder();
+  }
+
+  /**
+   * Instrument a request before it is sent. Users should optionally invoke {@link
+   * #handleMessageSent} after the request is sent.
+   *
+   * <p>This method will create a span under the parent span, or the current span if the parent is
+   * null, and inject its context into the carrier.
+   *
+   * @param parent the parent {@link Span}. {@code null} indicates using current span.
+   * @param carrier the entity that holds the HTTP information.
+   * @param request the request entity.
+   * @return the {@link HttpRequestContext} that contains stats and trace data associated with the
+   *     request.
+   * @since 0.16
+   */
+  public HttpRequestContext handleStart(@Nullable Span parent, C carrier, Q request) {
+    checkNotNull(carrier, "carrier");
+    checkNotNull(request, "request");
+    if (parent == null) {
+      parent = tracer.getCurrentSpan();
+    }
+    String path = extractor.getPath(request);
+    Span span =
+        tracer
+            .spanBuilderWithExplicitParent(getSpanName(path), parent)
+            .setSpanKind(Span.Kind.CLIENT)
+            .startSpan();
+    SpanContext spanContext = span.getContext();
+    if (spanContext.isValid()) {
+      textFormat.inject(spanContext, carrier, setter);
+    }
+    return getNewContext(span, request);
+  }
+
+  /**
+   * Close an HTTP span and records measurements specific to the request.
+   *
+   * <p>This method will set status of the span and end it. Users should optionally invoke {@link
+   * #handleMessageReceived} before this method.
+   *
+   * @param context the request specific {@link HttpRequestContext}.
+   * @param request the HTTP request entity.
+   * @param response the HTTP response entity. {@code null} means invalid response.
+   * @param error the error occurs when processing the response.
+   * @since 0.16
+   */
+  public void handleEnd(
+      HttpRequestContext context,
+      @Nullable Q request,
+      @Nullable P response,
+      @Nullable Throwable error) {
+    checkNotNull(context, "context");
+    int httpCode = extractor.getStatusCode(response);
+    recordStats(context, httpCode);
+    spanEnd(context.span, httpCode, error);
+  }
+
+  private void recordStats(HttpRequestContext context, int httpCode) {
+    TagContext tagContext =
+        tagger
+            .toBuilder(context.tagContext)
+            .put(HttpMeasureConstants.HTTP_CLIENT_METHOD, context.method)
+            .put(HttpMeasureConstants.HTTP_CLIENT_PATH, context.route)
+            .put(HttpMeasureConstants.HTTP_CLIENT_STATUS, getStatusTagValue(httpCode))
+            .build();
+    statsRecorder
+        .newMeasureMap()
+        .put(
+            HttpMeasureConstants.HTTP_CLIENT_ROUNDTRIP_LATENCY,
+            getLatencyNanos(context) / NANOS_PER_MILLI)
+        .put(HttpMeasureConstants.HTTP_CLIENT_SENT_BYTES, context.sentMessageSize.get())
+        .put(HttpMeasureConstants.HTTP_CLIENT_RECEIVED_BYTES, context.receiveMessageSize.get())
+        .record(tagContext);
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.contrib.http;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.opencensus.tags.TagContext;
+import io.opencensus.tags.TagValue;
+import io.opencensus.trace.Span;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class provides storage per request context on http client and server.
+ *
+ * @since 0.16
+ */
+public final class HttpRequestContext {
+
+  final long requestStartTime;
+  final Span span;
+  // The tags that were current when the request started. The HTTP tags are added when the request
+  // ends, so only one TagContext is built per request.
+  final TagContext tagContext;
+  final TagValue method;
+  final TagValue route;
+  final AtomicLong sentMessageSize = new AtomicLong();
+  final AtomicLong receiveMessageSize = new AtomicLong();
+  final AtomicLong sentSeqId = new AtomicLong();
+  final AtomicLong receivedSeqId = new AtomicLong();
+
+  HttpRequestContext(Span span, TagContext tagContext, TagValue method, TagValue route) {
+    checkNotNull(span, "span");
+    checkNotNull(tagContext, "tagContext");
+    this.span = span;
+    this.tagContext = tagContext;
+    this.method = method;
+    this.route = route;
+    requestStartTime = System.nanoTime();
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.contrib.http;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.opencensus.contrib.http.util.HttpMeasureConstants;
+import io.opencensus.stats.Stats;
+import io.opencensus.stats.StatsRecorder;
+import io.opencensus.tags.TagContext;
+import io.opencensus.tags.Tags;
+import io.opencensus.trace.Link;
+import io.opencensus.trace.Span;
+import io.opencensus.trace.Span.Options;
+import io.opencensus.trace.SpanBuilder;
+import io.opencensus.trace.SpanContext;
+import io.opencensus.trace.Tracer;
+import io.opencensus.trace.propagation.SpanContextParseException;
+import io.opencensus.trace.propagation.TextFormat;
+import javax.annotation.Nullable;
+
+/*>>>
+import org.checkerframework.checker.nullness.qual.NonNull;
+*/
+
+/**
+ * This helper class provides routine methods to instrument HTTP servers.
+ *
+ * <p>It starts a server span for each request, as a child of the span context propagated in the
+ * incoming carrier, and when the request ends records the server latency and bytes measures from
+ * {@link HttpMeasureConstants}, tagged with the method, path and status of the request.
+ *
+ * @param <Q> the HTTP request entity.
+ * @param <P> the HTTP response entity.
+ * @param <C> the type of the carrier.
+ * @since 0.16
+ */
+public final class HttpServerHandler<
+        Q /*>>> extends @NonNull Object*/, P, C /*>>> extends @NonNull Object*/>
+    extends AbstractHttpHandler<Q, P> {
+
+  private final TextFormat.Getter<C> getter;
+  private final TextFormat textFormat;
+  private final Tracer tracer;
+  private final StatsRecorder statsRecorder;
+  private final boolean publicEndpoint;
+
+  /**
+   * Creates a {@link HttpServerHandler} with given parameters.
+   *
+   * @param tracer the Open Census tracing component.
+   * @param extractor the {@code HttpExtractor} used to extract information from the
+   *     request/response.
+   * @param textFormat the {@code TextFormat} used in HTTP propagation.
+   * @param getter the getter used when extracting information from the {@code carrier}.
+   * @param publicEndpoint set to true for publicly accessible HTTP(S) server. If true then incoming
+   *     tracecontext will be added as a link instead of as a parent.
+   * @since 0.16
+   */
+  public HttpServerHandler(
+      Tracer tracer,
+      HttpExtractor<Q, P> extractor,
+      TextFormat textFormat,
+      TextFormat.Getter<C> getter,
+      boolean publicEndpoint) {
+    super(extractor, Tags.getTagger());
+    checkNotNull(textFormat, "textFormat");
+    checkNotNull(getter, "getter");
+    checkNotNull(tracer, "tracer");
+    this.textFormat = textFormat;
+    this.getter = getter;
+    this.tracer = tracer;
+    this.statsRecorder = Stats.getStatsRecorder();
+    this.publicEndpoint = publicEndpoint;
+  }
+
+  /**
+   * Instrument an incoming request before it is handled.
+   *
+   * <p>This method will create a span under the deserialized propagated parent context. If the
+   * parent context is not present, the span will be created under the current context.
+   *
+   * <p>The generated span will NOT be set as current context. User can control when to enter the
+   * scope of this span. Use {@link AbstractHttpHandler#getSpanFromContext} to retrieve the span.
+   *
+   * @param carrier the entity that holds the HTTP information.
+   * @param request the request entity.
+   * @return the {@link HttpRequestContext} that contains stats and trace data associated with the
+   *     request.
+   * @since 0.16
+   */
+  public HttpRequestContext handleStart(C carrier, Q request) {
+    checkNotNull(carrier, "carrier");
+    checkNotNull(request, "request");
+    SpanContext spanContext = null;
+    try {
+      spanContext = textFormat.extract(carrier, getter);
+    } catch (SpanContextParseException e) {
+      // Ignore as it probably means no incoming span context.
+    }
+    String spanName = getSpanName(extractor.getPath(request));
+    SpanBuilder spanBuilder;
+    if (publicEndpoint) {
+      spanBuilder = tracer.spanBuilder(spanName);
+    } else {
+      spanBuilder = tracer.spanBuilderWithRemoteParent(spanName, spanContext);
+    }
+    Span span = spanBuilder.setSpanKind(Span.Kind.SERVER).startSpan();
+    if (publicEndpoint
+        && spanContext != null
+        && span.getOptions().contains(Options.RECORD_EVENTS)) {
+      span.addLink(Link.fromSpanContext(spanContext, Link.Type.PARENT_LINKED_SPAN));
+    }
+    return getNewContext(span, request);
+  }
+
+  /**
+   * Close an HTTP span and records measurements specific to the request.
+   *
+   * <p>This method will set status of the span and end it. Users should optionally invoke {@link
+   * #handleMessageSent} before this method.
+   *
+   * @param context the request specific {@link HttpRequestContext}.
+   * @param request the HTTP request entity.
+   * @param response the HTTP response entity. {@code null} means invalid response.
+   * @param error the error occurs when processing the response.
+   * @since 0.16
+   */
+  public void handleEnd(
+      HttpRequestContext context,
+      @Nullable Q request,
+      @Nullable P response,
+      @Nullable Throwable error) {
+    checkNotNull(context, "context");
+    int httpCode = extractor.getStatusCode(response);
+    recordStats(context, httpCode);
+    spanEnd(context.span, httpCode, error);
+  }
+
+  private void recordStats(HttpRequestContext context, int httpCode) {
+    TagContext tagContext =
+        tagger
+            .toBuilder(context.tagContext)
+            .put(HttpMeasureConstants.HTTP_SERVER_METHOD, context.method)
+            .put(HttpMeasureConstants.HTTP_SERVER_PATH, context.route)
+            .put(HttpMeasureConstants.HTTP_SERVER_STATUS, getStatusTagValue(httpCode))
+            .build();
+    statsRecorder
+        .newMeasureMap()
+        .put(HttpMeasureConstants.HTTP_SERVER_LATENCY, getLatencyNanos(context) / NANOS_PER_MILLI)
+        .put(HttpMeasureConstants.HTTP_SERVER_RECEIVED_BYTES, context.receiveMessageSize.get())
+        .put(HttpMeasureConstants.HTTP_SERVER_SENT_BYTES, context.sentMessageSize.get())
+        .record(tagContext);
+  }
+}
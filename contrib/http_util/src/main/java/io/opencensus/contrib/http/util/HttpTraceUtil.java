@@ -0,0 +1,84 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.contrib.http.util;
+
+import io.opencensus.trace.Status;
+import javax.annotation.Nullable;
+
+/**
+ * A helper class to provide convenience methods for tracing.
+ *
+ * @since 0.16
+ */
+public final class HttpTraceUtil {
+
+  private HttpTraceUtil() {}
+
+  /**
+   * Parse OpenCensus Status from HTTP response status code.
+   *
+   * <p>This method serves a default routine to map HTTP status code to Open Census Status. The
+   * mapping is defined in <a
+   * href="https://github.com/googleapis/googleapis/blob/master/google/rpc/code.proto">Google API
+   * canonical error code</a>, and the behavior is defined in <a
+   * href="https://github.com/census-instrumentation/opencensus-specs/blob/master/trace/HTTP.md">OpenCensus
+   * Specs</a>.
+   *
+   * @param statusCode the HTTP response status code. {@code 0} means invalid response.
+   * @param error the error occured during response transmission (optional).
+   * @return the corresponding OpenCensus {@code Status}.
+   * @since 0.16
+   */
+  public static Status parseResponseStatus(int statusCode, @Nullable Throwable error) {
+    String message = null;
+    if (error != null) {
+      message = error.getMessage();
+      if (message == null) {
+        message = error.getClass().getSimpleName();
+      }
+    }
+
+    if (statusCode >= 200 && statusCode < 400) {
+      return Status.OK;
+    }
+    switch (statusCode) {
+      case 400:
+        return withMessage(Status.INVALID_ARGUMENT, message);
+      case 401:
+        return withMessage(Status.UNAUTHENTICATED, message);
+      case 403:
+        return withMessage(Status.PERMISSION_DENIED, message);
+      case 404:
+        return withMessage(Status.NOT_FOUND, message);
+      case 429:
+        return withMessage(Status.RESOURCE_EXHAUSTED, message);
+      case 501:
+        return withMessage(Status.UNIMPLEMENTED, message);
+      case 503:
+        return withMessage(Status.UNAVAILABLE, message);
+      case 504:
+        return withMessage(Status.DEADLINE_EXCEEDED, message);
+      default:
+        // 0 (no response), informational responses and other errors.
+        return withMessage(Status.UNKNOWN, message);
+    }
+  }
+
+  private static Status withMessage(Status status, @Nullable String message) {
+    return message == null ? status : status.withDescription(message);
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.contrib.http;
+
+import io.opencensus.contrib.http.FakeExtractor.FakeRequest;
+import javax.annotation.Nullable;
+
+/** An {@link HttpExtractor} of {@link FakeRequest}s, for tests. */
+final class FakeExtractor extends HttpExtractor<FakeRequest, Integer> {
+
+  @Nullable
+  @Override
+  public String getRoute(FakeRequest request) {
+    return request.route;
+  }
+
+  @Nullable
+  @Override
+  public String getHost(FakeRequest request) {
+    return "example.com";
+  }
+
+  @Nullable
+  @Override
+  public String getMethod(FakeRequest request) {
+    return request.method;
+  }
+
+  @Nullable
+  @Override
+  public String getPath(FakeRequest request) {
+    return request.path;
+  }
+
+  @Nullable
+  @Override
+  public String getUserAgent(FakeRequest request) {
+    return null;
+  }
+
+  @Override
+  public int getStatusCode(@Nullable Integer response) {
+    return response == null ? 0 : response;
+  }
+
+  static final class FakeRequest {
+    @Nullable final String method;
+    @Nullable final String path;
+    @Nullable final String route;
+
+    FakeRequest(@Nullable String method, @Nullable String path, @Nullable String route) {
+      this.method = method;
+      this.path = path;
+      this.route = route;
+    }
+  }
+}
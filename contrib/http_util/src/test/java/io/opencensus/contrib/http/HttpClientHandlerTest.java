@@ -0,0 +1,220 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.contrib.http;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.opencensus.contrib.http.FakeExtractor.FakeRequest;
+import io.opencensus.contrib.http.util.HttpTraceConstants;
+import io.opencensus.tags.TagValue;
+import io.opencensus.testing.trace.TestSpan;
+import io.opencensus.trace.AttributeValue;
+import io.opencensus.trace.BlankSpan;
+import io.opencensus.trace.MessageEvent;
+import io.opencensus.trace.Span;
+import io.opencensus.trace.SpanBuilder;
+import io.opencensus.trace.SpanContext;
+import io.opencensus.trace.SpanId;
+import io.opencensus.trace.Status;
+import io.opencensus.trace.TraceId;
+import io.opencensus.trace.TraceOptions;
+import io.opencensus.trace.Tracer;
+import io.opencensus.trace.propagation.TextFormat;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+/** Unit tests for {@link HttpClientHandler}. */
+@RunWith(JUnit4.class)
+public class HttpClientHandlerTest {
+
+  private static final Random random = new Random(1234);
+  private static final SpanContext SPAN_CONTEXT =
+      SpanContext.create(
+          TraceId.generateRandomId(random),
+          SpanId.generateRandomId(random),
+          TraceOptions.builder().setIsSampled(true).build());
+  private static final TextFormat.Setter<Map<String, String>> SETTER =
+      new TextFormat.Setter<Map<String, String>>() {
+        @Override
+        public void put(Map<String, String> carrier, String key, String value) {
+          carrier.put(key, value);
+        }
+      };
+
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Mock private Tracer tracer;
+  @Mock private SpanBuilder spanBuilder;
+  @Mock private TextFormat textFormat;
+  private final Map<String, String> carrier = new HashMap<String, String>();
+  private final FakeRequest request = new FakeRequest("GET", "/users/123", "/users/{id}");
+  private final TestSpan span = TestSpan.create(SPAN_CONTEXT, /* recordEvents= */ true);
+  private HttpClientHandler<FakeRequest, Integer, Map<String, String>> handler;
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.initMocks(this);
+    when(tracer.spanBuilderWithExplicitParent(anyString(), any(Span.class)))
+        .thenReturn(spanBuilder);
+    when(spanBuilder.setSpanKind(Span.Kind.CLIENT)).thenReturn(spanBuilder);
+    when(spanBuilder.startSpan()).thenReturn(span);
+    handler =
+        new HttpClientHandler<FakeRequest, Integer, Map<String, String>>(
+            tracer, new FakeExtractor(), textFormat, SETTER);
+  }
+
+  @Test
+  public void constructorDisallowNullSetter() {
+    thrown.expect(NullPointerException.class);
+    new HttpClientHandler<FakeRequest, Integer, Map<String, String>>(
+        tracer, new FakeExtractor(), textFormat, null);
+  }
+
+  @Test
+  public void handleStartUsesCurrentSpanAsDefaultParent() {
+    handler.handleStart(null, carrier, request);
+    verify(tracer).spanBuilderWithExplicitParent("/users/123", BlankSpan.INSTANCE);
+  }
+
+  @Test
+  public void handleStartUsesExplicitParent() {
+    TestSpan parent = TestSpan.create(SPAN_CONTEXT, /* recordEvents= */ true);
+    handler.handleStart(parent, carrier, request);
+    verify(tracer).spanBuilderWithExplicitParent("/users/123", parent);
+  }
+
+  @Test
+  public void handleStartInjectsSpanContext() {
+    HttpRequestContext context = handler.handleStart(null, carrier, request);
+    assertThat(handler.getSpanFromContext(context)).isSameAs(span);
+    verify(textFormat).inject(same(SPAN_CONTEXT), same(carrier), same(SETTER));
+  }
+
+  @Test
+  public void handleStartDoesNotInjectInvalidSpanContext() {
+    when(spanBuilder.startSpan()).thenReturn(BlankSpan.INSTANCE);
+    handler.handleStart(null, carrier, request);
+    verify(textFormat, never()).inject(any(SpanContext.class), same(carrier), same(SETTER));
+  }
+
+  @Test
+  public void handleStartTagsRouteInsteadOfPath() {
+    HttpRequestContext context = handler.handleStart(null, carrier, request);
+    assertThat(context.route).isEqualTo(TagValue.create("/users/{id}"));
+  }
+
+  @Test
+  public void handleStartAddsRequestAttributes() {
+    handler.handleStart(null, carrier, request);
+    assertThat(span.getAttributes())
+        .containsEntry(HttpTraceConstants.HTTP_METHOD, AttributeValue.stringAttributeValue("GET"));
+    assertThat(span.getAttributes())
+        .containsEntry(
+            HttpTraceConstants.HTTP_PATH, AttributeValue.stringAttributeValue("/users/123"));
+    assertThat(span.getAttributes())
+        .containsEntry(
+            HttpTraceConstants.HTTP_ROUTE, AttributeValue.stringAttributeValue("/users/{id}"));
+    assertThat(span.getAttributes())
+        .containsEntry(
+            HttpTraceConstants.HTTP_HOST, AttributeValue.stringAttributeValue("example.com"));
+    assertThat(span.getAttributes()).doesNotContainKey(HttpTraceConstants.HTTP_USER_AGENT);
+  }
+
+  @Test
+  public void handleStartSkipsAttributesOfSpanNotRecordingEvents() {
+    TestSpan notRecording =
+        TestSpan.create(
+            SpanContext.create(
+                SPAN_CONTEXT.getTraceId(), SPAN_CONTEXT.getSpanId(), TraceOptions.DEFAULT),
+            /* recordEvents= */ false);
+    when(spanBuilder.startSpan()).thenReturn(notRecording);
+    HttpRequestContext context = handler.handleStart(null, carrier, request);
+    handler.handleMessageSent(context, 10);
+    handler.handleEnd(context, request, 200, null);
+    assertThat(notRecording.getAttributes()).isEmpty();
+    assertThat(notRecording.getMessageEvents()).isEmpty();
+    assertThat(notRecording.getStatus()).isNull();
+    assertThat(notRecording.isEnded()).isTrue();
+  }
+
+  @Test
+  public void handleMessageSentAndReceived() {
+    HttpRequestContext context = handler.handleStart(null, carrier, request);
+    handler.handleMessageSent(context, 10);
+    handler.handleMessageSent(context, 20);
+    handler.handleMessageReceived(context, 30);
+    assertThat(context.sentMessageSize.get()).isEqualTo(30);
+    assertThat(context.receiveMessageSize.get()).isEqualTo(30);
+    assertThat(span.getMessageEvents()).hasSize(3);
+    MessageEvent first = span.getMessageEvents().get(0);
+    assertThat(first.getType()).isEqualTo(MessageEvent.Type.SENT);
+    assertThat(first.getMessageId()).isEqualTo(1);
+    assertThat(first.getUncompressedMessageSize()).isEqualTo(10);
+    assertThat(span.getMessageEvents().get(1).getMessageId()).isEqualTo(2);
+    assertThat(span.getMessageEvents().get(2).getType()).isEqualTo(MessageEvent.Type.RECEIVED);
+    assertThat(span.getMessageEvents().get(2).getMessageId()).isEqualTo(1);
+  }
+
+  @Test
+  public void handleEndSetsStatusAndEndsSpan() {
+    HttpRequestContext context = handler.handleStart(null, carrier, request);
+    handler.handleEnd(context, request, 404, null);
+    assertThat(span.getAttributes())
+        .containsEntry(HttpTraceConstants.HTTP_STATUS_CODE, AttributeValue.longAttributeValue(404));
+    assertThat(span.getStatus()).isEqualTo(Status.NOT_FOUND);
+    assertThat(span.isEnded()).isTrue();
+  }
+
+  @Test
+  public void handleEndWithError() {
+    HttpRequestContext context = handler.handleStart(null, carrier, request);
+    handler.handleEnd(context, request, null, new IllegalStateException("connection reset"));
+    assertThat(span.getStatus()).isEqualTo(Status.UNKNOWN.withDescription("connection reset"));
+    assertThat(span.isEnded()).isTrue();
+  }
+
+  @Test
+  public void handleEndDisallowNullContext() {
+    thrown.expect(NullPointerException.class);
+    handler.handleEnd(null, request, 200, null);
+  }
+
+  @Test
+  public void spanNameIsAbsolutePath() {
+    Mockito.reset(tracer);
+    when(tracer.spanBuilderWithExplicitParent(anyString(), any(Span.class)))
+        .thenReturn(spanBuilder);
+    handler.handleStart(null, carrier, new FakeRequest("GET", "relative", null));
+    verify(tracer).spanBuilderWithExplicitParent("/relative", BlankSpan.INSTANCE);
+  }
+}
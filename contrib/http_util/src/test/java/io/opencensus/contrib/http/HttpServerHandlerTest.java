@@ -0,0 +1,141 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.contrib.http;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.opencensus.contrib.http.FakeExtractor.FakeRequest;
+import io.opencensus.tags.TagValue;
+import io.opencensus.testing.trace.TestSpan;
+import io.opencensus.trace.Link;
+import io.opencensus.trace.Span;
+import io.opencensus.trace.SpanBuilder;
+import io.opencensus.trace.SpanContext;
+import io.opencensus.trace.SpanId;
+import io.opencensus.trace.Status;
+import io.opencensus.trace.TraceId;
+import io.opencensus.trace.TraceOptions;
+import io.opencensus.trace.Tracer;
+import io.opencensus.trace.propagation.SpanContextParseException;
+import io.opencensus.trace.propagation.TextFormat;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/** Unit tests for {@link HttpServerHandler}. */
+@RunWith(JUnit4.class)
+public class HttpServerHandlerTest {
+
+  private static final Random random = new Random(1234);
+  private static final SpanContext REMOTE_CONTEXT =
+      SpanContext.create(
+          TraceId.generateRandomId(random),
+          SpanId.generateRandomId(random),
+          TraceOptions.builder().setIsSampled(true).build());
+  private static final SpanContext SPAN_CONTEXT =
+      SpanContext.create(
+          REMOTE_CONTEXT.getTraceId(),
+          SpanId.generateRandomId(random),
+          TraceOptions.builder().setIsSampled(true).build());
+  private static final TextFormat.Getter<Map<String, String>> GETTER =
+      new TextFormat.Getter<Map<String, String>>() {
+        @Override
+        public String get(Map<String, String> carrier, String key) {
+          return carrier.get(key);
+        }
+      };
+
+  @Mock private Tracer tracer;
+  @Mock private SpanBuilder spanBuilder;
+  @Mock private TextFormat textFormat;
+  private final Map<String, String> carrier = new HashMap<String, String>();
+  private final FakeRequest request = new FakeRequest("POST", "/users", null);
+  private final TestSpan span = TestSpan.create(SPAN_CONTEXT, /* recordEvents= */ true);
+
+  @Before
+  public void setUp() throws SpanContextParseException {
+    MockitoAnnotations.initMocks(this);
+    when(tracer.spanBuilderWithRemoteParent(anyString(), any(SpanContext.class)))
+        .thenReturn(spanBuilder);
+    when(tracer.spanBuilderWithExplicitParent(anyString(), any(Span.class)))
+        .thenReturn(spanBuilder);
+    when(spanBuilder.setSpanKind(Span.Kind.SERVER)).thenReturn(spanBuilder);
+    when(spanBuilder.startSpan()).thenReturn(span);
+    when(textFormat.extract(same(carrier), same(GETTER))).thenReturn(REMOTE_CONTEXT);
+  }
+
+  private HttpServerHandler<FakeRequest, Integer, Map<String, String>> createHandler(
+      boolean publicEndpoint) {
+    return new HttpServerHandler<FakeRequest, Integer, Map<String, String>>(
+        tracer, new FakeExtractor(), textFormat, GETTER, publicEndpoint);
+  }
+
+  @Test
+  public void handleStartWithoutRouteTagsEmptyPath() {
+    HttpRequestContext context = createHandler(false).handleStart(carrier, request);
+    assertThat(context.route).isEqualTo(TagValue.create(""));
+  }
+
+  @Test
+  public void handleStartWithRemoteParent() {
+    HttpRequestContext context = createHandler(false).handleStart(carrier, request);
+    verify(tracer).spanBuilderWithRemoteParent("/users", REMOTE_CONTEXT);
+    assertThat(context.span).isSameAs(span);
+    assertThat(span.getLinks()).isEmpty();
+  }
+
+  @Test
+  public void handleStartWithoutRemoteParent() throws SpanContextParseException {
+    when(textFormat.extract(same(carrier), same(GETTER)))
+        .thenThrow(new SpanContextParseException("Missing header."));
+    createHandler(false).handleStart(carrier, request);
+    verify(tracer).spanBuilderWithRemoteParent("/users", null);
+  }
+
+  @Test
+  public void handleStartOfPublicEndpointLinksRemoteParent() {
+    createHandler(true).handleStart(carrier, request);
+    verify(tracer, never()).spanBuilderWithRemoteParent(anyString(), any(SpanContext.class));
+    // A new root span, not a child of the remote parent.
+    verify(tracer).spanBuilderWithExplicitParent("/users", null);
+    assertThat(span.getLinks())
+        .containsExactly(Link.fromSpanContext(REMOTE_CONTEXT, Link.Type.PARENT_LINKED_SPAN));
+  }
+
+  @Test
+  public void handleEndSetsStatusAndEndsSpan() {
+    HttpServerHandler<FakeRequest, Integer, Map<String, String>> handler = createHandler(false);
+    HttpRequestContext context = handler.handleStart(carrier, request);
+    handler.handleMessageReceived(context, 100);
+    handler.handleEnd(context, request, 503, null);
+    assertThat(context.receiveMessageSize.get()).isEqualTo(100);
+    assertThat(span.getStatus()).isEqualTo(Status.UNAVAILABLE);
+    assertThat(span.isEnded()).isTrue();
+  }
+}
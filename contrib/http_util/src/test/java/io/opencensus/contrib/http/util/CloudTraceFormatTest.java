@@ -292,4 +292,24 @@ public final class CloudTraceFormatTest {
         constructHeader(TRACE_ID_BASE16, spanId, SAMPLED),
         SpanContext.create(TRACE_ID, expectedSpanId, TRACE_OPTIONS_SAMPLED));
   }
+
+  @Test
+  public void tryExtractSampledShouldSucceed() {
+    Map<String, String> header = new HashMap<String, String>();
+    header.put(HEADER_NAME, constructHeader(TRACE_ID_BASE16, SPAN_ID_BASE10, SAMPLED));
+    assertThat(cloudTraceFormat.tryExtract(header, getter))
+        .isEqualTo(SpanContext.create(TRACE_ID, SPAN_ID, TRACE_OPTIONS_SAMPLED));
+  }
+
+  @Test
+  public void tryExtractMissingHeaderShouldReturnNull() {
+    assertThat(cloudTraceFormat.tryExtract(new HashMap<String, String>(), getter)).isNull();
+  }
+
+  @Test
+  public void tryExtractInvalidHeaderShouldReturnNull() {
+    Map<String, String> header = new HashMap<String, String>();
+    header.put(HEADER_NAME, constructHeader(TRACE_ID_BASE16, SPAN_ID_BASE10_INVALID, SAMPLED));
+    assertThat(cloudTraceFormat.tryExtract(header, getter)).isNull();
+  }
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.contrib.http.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.opencensus.trace.Status;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link HttpTraceUtil}. */
+@RunWith(JUnit4.class)
+public class HttpTraceUtilTest {
+
+  @Test
+  public void parseResponseStatusSucceed() {
+    assertThat(HttpTraceUtil.parseResponseStatus(200, null)).isEqualTo(Status.OK);
+    assertThat(HttpTraceUtil.parseResponseStatus(302, null)).isEqualTo(Status.OK);
+  }
+
+  @Test
+  public void parseResponseStatusErrors() {
+    assertThat(HttpTraceUtil.parseResponseStatus(400, null)).isEqualTo(Status.INVALID_ARGUMENT);
+    assertThat(HttpTraceUtil.parseResponseStatus(401, null)).isEqualTo(Status.UNAUTHENTICATED);
+    assertThat(HttpTraceUtil.parseResponseStatus(403, null)).isEqualTo(Status.PERMISSION_DENIED);
+    assertThat(HttpTraceUtil.parseResponseStatus(404, null)).isEqualTo(Status.NOT_FOUND);
+    assertThat(HttpTraceUtil.parseResponseStatus(429, null)).isEqualTo(Status.RESOURCE_EXHAUSTED);
+    assertThat(HttpTraceUtil.parseResponseStatus(500, null)).isEqualTo(Status.UNKNOWN);
+    assertThat(HttpTraceUtil.parseResponseStatus(501, null)).isEqualTo(Status.UNIMPLEMENTED);
+    assertThat(HttpTraceUtil.parseResponseStatus(503, null)).isEqualTo(Status.UNAVAILABLE);
+    assertThat(HttpTraceUtil.parseResponseStatus(504, null)).isEqualTo(Status.DEADLINE_EXCEEDED);
+    assertThat(HttpTraceUtil.parseResponseStatus(100, null)).isEqualTo(Status.UNKNOWN);
+  }
+
+  @Test
+  public void parseResponseStatusNoResponse() {
+    assertThat(HttpTraceUtil.parseResponseStatus(0, null)).isEqualTo(Status.UNKNOWN);
+  }
+
+  @Test
+  public void parseResponseStatusWithError() {
+    assertThat(HttpTraceUtil.parseResponseStatus(0, new RuntimeException("timeout")))
+        .isEqualTo(Status.UNKNOWN.withDescription("timeout"));
+    assertThat(HttpTraceUtil.parseResponseStatus(404, new IllegalStateException()))
+        .isEqualTo(Status.NOT_FOUND.withDescription("IllegalStateException"));
+  }
+}
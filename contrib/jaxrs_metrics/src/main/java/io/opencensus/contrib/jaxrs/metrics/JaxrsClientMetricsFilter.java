@@ -0,0 +1,294 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.contrib.jaxrs.metrics;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.opencensus.common.Clock;
+import io.opencensus.contrib.http.util.HttpMeasureConstants;
+import io.opencensus.contrib.http.util.HttpTraceConstants;
+import io.opencensus.contrib.http.util.HttpTraceUtil;
+import io.opencensus.implcore.common.MillisClock;
+import io.opencensus.stats.MeasureMap;
+import io.opencensus.stats.Stats;
+import io.opencensus.stats.StatsRecorder;
+import io.opencensus.tags.TagContext;
+import io.opencensus.tags.TagContextBuilder;
+import io.opencensus.tags.TagValue;
+import io.opencensus.tags.Tagger;
+import io.opencensus.tags.Tags;
+import io.opencensus.trace.AttributeValue;
+import io.opencensus.trace.MessageEvent;
+import io.opencensus.trace.Span;
+import io.opencensus.trace.SpanContext;
+import io.opencensus.trace.Tracer;
+import io.opencensus.trace.Tracing;
+import io.opencensus.trace.propagation.TextFormat;
+import java.io.IOException;
+import java.net.URI;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.ext.InterceptorContext;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+/**
+ * Client filter that traces outgoing JAX-RS requests, propagates the span context in the request
+ * headers and records the client latency and bytes measures from {@link HttpMeasureConstants}.
+ *
+ * <p>Requests with an entity are traced with a client span, a child of the current span when the
+ * request is sent. It is kept in the request properties rather than made current, so requests
+ * completed on other threads, like with the asynchronous client API, don't leak it. The span is
+ * ended and the measures are recorded when the response is received. If writing the request entity
+ * fails instead, the span is ended with an error status and the measures are recorded with the
+ * "error" status tag.
+ *
+ * <p>JAX-RS has no callback for a request without entity that fails before a response, so such
+ * requests get no client span that could never be ended: the current span is propagated instead,
+ * and the measures are recorded only when the response is received.
+ *
+ * @since 0.16
+ */
+@Provider
+public class JaxrsClientMetricsFilter
+    implements ClientRequestFilter, ClientResponseFilter, WriterInterceptor {
+
+  private static final String OPENCENSUS_SPAN = "opencensus_client_span";
+  private static final String OPENCENSUS_TAG_CONTEXT = "opencensus_client_tag_context";
+  private static final String OPENCENSUS_START_NANOS = "opencensus_client_start_nanos";
+  private static final Clock CLOCK = MillisClock.getInstance();
+  private static final TagValue ERROR_STATUS = TagValue.create("error");
+  private static final TextFormat.Setter<ClientRequestContext> SETTER =
+      new TextFormat.Setter<ClientRequestContext>() {
+        @Override
+        public void put(ClientRequestContext request, String key, String value) {
+          request.getHeaders().putSingle(key, value);
+        }
+      };
+
+  private final Tracer tracer;
+  private final Tagger tagger;
+  private final StatsRecorder statsRecorder;
+  private final TextFormat propagationFormat;
+  private final boolean recordPathTag;
+
+  /**
+   * Construct new instance of client metrics filter.
+   *
+   * @param propagationFormat Representation of the trace propagation format.
+   * @since 0.16
+   */
+  public JaxrsClientMetricsFilter(TextFormat propagationFormat) {
+    this(propagationFormat, true);
+  }
+
+  /**
+   * Construct new instance of client metrics filter.
+   *
+   * @param propagationFormat Representation of the trace propagation format.
+   * @param recordPathTag whether to tag the recorded stats with the request path and name the span
+   *     after it. Disabling it bounds the number of recorded time series and span names when paths
+   *     contain identifiers, the span is then named after the HTTP method.
+   * @since 0.16
+   */
+  public JaxrsClientMetricsFilter(TextFormat propagationFormat, boolean recordPathTag) {
+    this(
+        Tracing.getTracer(),
+        Tags.getTagger(),
+        Stats.getStatsRecorder(),
+        propagationFormat,
+        recordPathTag);
+  }
+
+  @VisibleForTesting
+  JaxrsClientMetricsFilter(
+      Tracer tracer,
+      Tagger tagger,
+      StatsRecorder statsRecorder,
+      TextFormat propagationFormat,
+      boolean recordPathTag) {
+    this.tracer = tracer;
+    this.tagger = tagger;
+    this.statsRecorder = statsRecorder;
+    this.propagationFormat = propagationFormat;
+    this.recordPathTag = recordPathTag;
+  }
+
+  @Override
+  public void filter(ClientRequestContext requestContext) {
+    URI uri = requestContext.getUri();
+    String path = uri.getRawPath() == null ? "" : uri.getRawPath();
+    String method = requestContext.getMethod();
+    String host = uri.getHost() == null ? "" : uri.getHost();
+
+    TagContextBuilder tagContextBuilder =
+        tagger
+            .currentBuilder()
+            .put(HttpMeasureConstants.HTTP_CLIENT_HOST, TagValue.create(host))
+            .put(HttpMeasureConstants.HTTP_CLIENT_METHOD, TagValue.create(method));
+    if (recordPathTag) {
+      tagContextBuilder.put(HttpMeasureConstants.HTTP_CLIENT_PATH, TagValue.create(path));
+    }
+    requestContext.setProperty(OPENCENSUS_TAG_CONTEXT, tagContextBuilder.build());
+
+    SpanContext propagatedContext;
+    if (requestContext.hasEntity()) {
+      Span span =
+          tracer
+              .spanBuilder(recordPathTag ? path : method)
+              .setSpanKind(Span.Kind.CLIENT)
+              .startSpan();
+      if (JaxrsMetricsFilter.isRecording(span)) {
+        span.putAttribute(HttpTraceConstants.HTTP_PATH, AttributeValue.stringAttributeValue(path));
+        span.putAttribute(
+            HttpTraceConstants.HTTP_METHOD, AttributeValue.stringAttributeValue(method));
+        span.putAttribute(HttpTraceConstants.HTTP_HOST, AttributeValue.stringAttributeValue(host));
+        long length = getRequestLength(requestContext);
+        if (length > -1) {
+          span.addMessageEvent(
+              MessageEvent.builder(MessageEvent.Type.SENT, 0)
+                  .setUncompressedMessageSize(length)
+                  .build());
+        }
+      }
+      requestContext.setProperty(OPENCENSUS_SPAN, span);
+      propagatedContext = span.getContext();
+    } else {
+      // A request without entity that fails to connect never reaches the response filter nor the
+      // writer interceptor, so a client span could not be ended. The current span is propagated.
+      propagatedContext = tracer.getCurrentSpan().getContext();
+    }
+    if (propagatedContext.isValid()) {
+      propagationFormat.inject(propagatedContext, requestContext, SETTER);
+    }
+
+    requestContext.setProperty(OPENCENSUS_START_NANOS, CLOCK.nowNanos());
+  }
+
+  @Override
+  public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) {
+    Object startTimeNanos = requestContext.getProperty(OPENCENSUS_START_NANOS);
+    if (startTimeNanos == null) {
+      // The request did not go through this filter.
+      return;
+    }
+
+    int status = responseContext.getStatus();
+    long receivedBytes = responseContext.getLength();
+    recordMeasures(
+        (TagContext) requestContext.getProperty(OPENCENSUS_TAG_CONTEXT),
+        (long) startTimeNanos,
+        TagValue.create(Integer.toString(status)),
+        getRequestLength(requestContext),
+        receivedBytes);
+
+    Span span = (Span) requestContext.getProperty(OPENCENSUS_SPAN);
+    if (span == null) {
+      return;
+    }
+    if (JaxrsMetricsFilter.isRecording(span)) {
+      span.putAttribute(
+          HttpTraceConstants.HTTP_STATUS_CODE, AttributeValue.longAttributeValue(status));
+      if (receivedBytes > -1) {
+        span.addMessageEvent(
+            MessageEvent.builder(MessageEvent.Type.RECEIVED, 0)
+                .setUncompressedMessageSize(receivedBytes)
+                .build());
+      }
+      span.setStatus(HttpTraceUtil.parseResponseStatus(status, null));
+    }
+    span.end();
+  }
+
+  @Override
+  public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+    try {
+      context.proceed();
+    } catch (IOException e) {
+      endSpanOnFailure(context, e);
+      throw e;
+    } catch (RuntimeException e) {
+      endSpanOnFailure(context, e);
+      throw e;
+    }
+  }
+
+  // Connection failures and timeouts while the entity is written never reach the response filter,
+  // so the span is ended here. The properties are removed so it can't be ended twice.
+  private void endSpanOnFailure(InterceptorContext context, Throwable error) {
+    Object startTimeNanos = context.getProperty(OPENCENSUS_START_NANOS);
+    if (startTimeNanos == null) {
+      return;
+    }
+    context.removeProperty(OPENCENSUS_START_NANOS);
+    // The entity was not sent in full, so only the latency is recorded.
+    recordMeasures(
+        (TagContext) context.getProperty(OPENCENSUS_TAG_CONTEXT),
+        (long) startTimeNanos,
+        ERROR_STATUS,
+        -1,
+        -1);
+
+    Span span = (Span) context.getProperty(OPENCENSUS_SPAN);
+    if (span == null) {
+      return;
+    }
+    context.removeProperty(OPENCENSUS_SPAN);
+    if (JaxrsMetricsFilter.isRecording(span)) {
+      span.setStatus(HttpTraceUtil.parseResponseStatus(0, error));
+    }
+    span.end();
+  }
+
+  private void recordMeasures(
+      TagContext tagContext,
+      long startTimeNanos,
+      TagValue status,
+      long sentBytes,
+      long receivedBytes) {
+    MeasureMap measureMap =
+        statsRecorder
+            .newMeasureMap()
+            .put(
+                HttpMeasureConstants.HTTP_CLIENT_ROUNDTRIP_LATENCY,
+                (CLOCK.nowNanos() - startTimeNanos) / 1E6);
+    if (sentBytes > -1) {
+      measureMap.put(HttpMeasureConstants.HTTP_CLIENT_SENT_BYTES, sentBytes);
+    }
+    if (receivedBytes > -1) {
+      measureMap.put(HttpMeasureConstants.HTTP_CLIENT_RECEIVED_BYTES, receivedBytes);
+    }
+    measureMap.record(
+        tagger.toBuilder(tagContext).put(HttpMeasureConstants.HTTP_CLIENT_STATUS, status).build());
+  }
+
+  // Returns the Content-Length of the request, or -1 if it is unknown.
+  private static long getRequestLength(ClientRequestContext requestContext) {
+    String contentLength = requestContext.getHeaderString(HttpHeaders.CONTENT_LENGTH);
+    if (contentLength == null) {
+      return -1;
+    }
+    try {
+      return Long.parseLong(contentLength.trim());
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+}
@@ -16,14 +16,17 @@
 
 package io.opencensus.contrib.jaxrs.metrics;
 
+import com.google.common.annotations.VisibleForTesting;
 import io.opencensus.common.Clock;
 import io.opencensus.common.Scope;
 import io.opencensus.contrib.http.util.HttpMeasureConstants;
 import io.opencensus.contrib.http.util.HttpTraceConstants;
+import io.opencensus.contrib.http.util.HttpTraceUtil;
 import io.opencensus.implcore.common.MillisClock;
 import io.opencensus.stats.Stats;
 import io.opencensus.stats.StatsRecorder;
 import io.opencensus.tags.TagContext;
+import io.opencensus.tags.TagContextBuilder;
 import io.opencensus.tags.TagKey;
 import io.opencensus.tags.TagValue;
 import io.opencensus.tags.Tagger;
@@ -32,21 +35,24 @@ import io.opencensus.trace.AttributeValue;
 import io.opencensus.trace.MessageEvent;
 import io.opencensus.trace.Span;
 import io.opencensus.trace.SpanContext;
-import io.opencensus.trace.Status;
 import io.opencensus.trace.Tracer;
 import io.opencensus.trace.Tracing;
 import io.opencensus.trace.propagation.SpanContextParseException;
 import io.opencensus.trace.propagation.TextFormat;
-import io.opencensus.trace.samplers.Samplers;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import javax.annotation.Nullable;
+import javax.ws.rs.Path;
 import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ContainerRequestFilter;
 import javax.ws.rs.container.ContainerResponseContext;
 import javax.ws.rs.container.ContainerResponseFilter;
 import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
-import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.ext.Provider;
 
 @Provider
@@ -55,15 +61,31 @@ public class JaxrsMetricsFilter implements ContainerRequestFilter, ContainerResp
 
   public static final TagKey HTTP_SERVER_ROUTE = TagKey.create("http_server_route");
 
+  private static final String OPENCENSUS_SPAN = "opencensus_span";
+  private static final String OPENCENSUS_TAG_CONTEXT = "opencensus_tag_context";
   private static final String OPENCENSUS_TRACE_SCOPE = "opencensus_trace_scope";
   private static final String OPENCENSUS_TAG_SCOPE = "opencensus_tag_scope";
   private static final String OPENCENSUS_START_NANOS = "opencensus_start_nanos";
   private static final Clock CLOCK = MillisClock.getInstance();
+  private static final TextFormat.Getter<ContainerRequestContext> GETTER =
+      new TextFormat.Getter<ContainerRequestContext>() {
+        @Nullable
+        @Override
+        public String get(ContainerRequestContext request, String key) {
+          return request.getHeaderString(key);
+        }
+      };
 
   private final Tracer tracer;
   private final Tagger tagger;
   private final StatsRecorder statsRecorder;
   private final TextFormat propagationFormat;
+  private final boolean recordPathTag;
+  // Resource methods are inspected once, their route and signature don't change at runtime. The
+  // route also depends on the class-level @Path, so an inherited method shared by several resource
+  // classes is cached once per resource class.
+  private final ConcurrentMap<Class<?>, ConcurrentMap<Method, ResourceMethodInfo>> resourceMethods =
+      new ConcurrentHashMap<>();
 
   @Context private ResourceInfo info;
 
@@ -73,81 +95,113 @@ public class JaxrsMetricsFilter implements ContainerRequestFilter, ContainerResp
    * @param propagationFormat Representation of the trace propagation format.
    */
   public JaxrsMetricsFilter(TextFormat propagationFormat) {
-    tracer = Tracing.getTracer();
-    tagger = Tags.getTagger();
-    statsRecorder = Stats.getStatsRecorder();
+    this(propagationFormat, true);
+  }
+
+  /**
+   * Construct new instance of metrics filter.
+   *
+   * @param propagationFormat Representation of the trace propagation format.
+   * @param recordPathTag whether to tag the recorded stats with the raw request path. Disabling it
+   *     bounds the number of recorded time series to the number of routes.
+   * @since 0.16
+   */
+  public JaxrsMetricsFilter(TextFormat propagationFormat, boolean recordPathTag) {
+    this(
+        Tracing.getTracer(),
+        Tags.getTagger(),
+        Stats.getStatsRecorder(),
+        propagationFormat,
+        recordPathTag);
+  }
+
+  @VisibleForTesting
+  JaxrsMetricsFilter(
+      Tracer tracer,
+      Tagger tagger,
+      StatsRecorder statsRecorder,
+      TextFormat propagationFormat,
+      boolean recordPathTag) {
+    this.tracer = tracer;
+    this.tagger = tagger;
+    this.statsRecorder = statsRecorder;
     this.propagationFormat = propagationFormat;
+    this.recordPathTag = recordPathTag;
   }
 
   @Override
   @SuppressWarnings("MustBeClosedChecker")
   public void filter(ContainerRequestContext requestContext) {
-    Optional<String> route = getRoute();
+    ResourceMethodInfo resourceMethod = getResourceMethodInfo();
+    Optional<Route> route = resourceMethod.route;
     String path = requestContext.getUriInfo().getPath();
+    String method = requestContext.getMethod();
+    String host = requestContext.getHeaderString("host");
 
-    Scope tagScope =
+    TagContextBuilder tagContextBuilder =
         tagger
             .currentBuilder()
-            .put(HTTP_SERVER_ROUTE, TagValue.create(route.orElse(path)))
-            .put(
-                HttpMeasureConstants.HTTP_SERVER_HOST,
-                TagValue.create(requestContext.getHeaderString("host")))
-            .put(HttpMeasureConstants.HTTP_SERVER_PATH, TagValue.create(path))
-            .put(
-                HttpMeasureConstants.HTTP_SERVER_METHOD,
-                TagValue.create(requestContext.getMethod()))
-            .buildScoped();
-    requestContext.setProperty(OPENCENSUS_TAG_SCOPE, tagScope);
+            .put(HttpMeasureConstants.HTTP_SERVER_HOST, TagValue.create(host))
+            .put(HttpMeasureConstants.HTTP_SERVER_METHOD, TagValue.create(method));
+    if (route.isPresent()) {
+      tagContextBuilder.put(HTTP_SERVER_ROUTE, route.get().tagValue);
+    } else if (recordPathTag) {
+      tagContextBuilder.put(HTTP_SERVER_ROUTE, TagValue.create(path));
+    }
+    if (recordPathTag) {
+      tagContextBuilder.put(HttpMeasureConstants.HTTP_SERVER_PATH, TagValue.create(path));
+    }
+    TagContext tagContext = tagContextBuilder.build();
+    requestContext.setProperty(OPENCENSUS_TAG_CONTEXT, tagContext);
 
     SpanContext spanContext = null;
     try {
-      spanContext =
-          propagationFormat.extract(
-              requestContext,
-              new TextFormat.Getter<ContainerRequestContext>() {
-                @Nullable
-                @Override
-                public String get(ContainerRequestContext request, String key) {
-                  return request.getHeaderString(key);
-                }
-              });
+      spanContext = propagationFormat.extract(requestContext, GETTER);
     } catch (SpanContextParseException e) {
       // Ignore as it probably means no incoming span context
     }
 
+    // The sampler is the one configured in the TraceParams, unless the remote parent is sampled.
     Span traceSpan =
         tracer
-            .spanBuilderWithRemoteParent(route.orElse(path), spanContext)
-            .setRecordEvents(true)
-            .setSampler(Samplers.alwaysSample())
+            .spanBuilderWithRemoteParent(
+                route.isPresent() ? route.get().template : path, spanContext)
             .setSpanKind(Span.Kind.SERVER)
             .startSpan();
-    route.ifPresent(
-        r ->
-            traceSpan.putAttribute(
-                HttpTraceConstants.HTTP_ROUTE, AttributeValue.stringAttributeValue(r)));
-    traceSpan.putAttribute(HttpTraceConstants.HTTP_PATH, AttributeValue.stringAttributeValue(path));
-    traceSpan.putAttribute(
-        HttpTraceConstants.HTTP_METHOD,
-        AttributeValue.stringAttributeValue(requestContext.getMethod()));
-    traceSpan.putAttribute(
-        HttpTraceConstants.HTTP_HOST,
-        AttributeValue.stringAttributeValue(requestContext.getHeaderString("host")));
-
-    // Null check
-    traceSpan.putAttribute(
-        HttpTraceConstants.HTTP_USER_AGENT,
-        AttributeValue.stringAttributeValue(requestContext.getHeaderString("user-agent")));
-    if (requestContext.getLength() > -1) {
-      traceSpan.addMessageEvent(
-          MessageEvent.builder(MessageEvent.Type.RECEIVED, 0)
-              .setUncompressedMessageSize(requestContext.getLength())
-              .build());
-    }
-
-    traceSpan.addAnnotation("Handle incoming request.");
-
-    requestContext.setProperty(OPENCENSUS_TRACE_SCOPE, tracer.withSpan(traceSpan));
+    if (isRecording(traceSpan)) {
+      if (route.isPresent()) {
+        traceSpan.putAttribute(
+            HttpTraceConstants.HTTP_ROUTE,
+            AttributeValue.stringAttributeValue(route.get().template));
+      }
+      traceSpan.putAttribute(
+          HttpTraceConstants.HTTP_PATH, AttributeValue.stringAttributeValue(path));
+      traceSpan.putAttribute(
+          HttpTraceConstants.HTTP_METHOD, AttributeValue.stringAttributeValue(method));
+      traceSpan.putAttribute(
+          HttpTraceConstants.HTTP_HOST, AttributeValue.stringAttributeValue(host));
+      String userAgent = requestContext.getHeaderString("user-agent");
+      if (userAgent != null) {
+        traceSpan.putAttribute(
+            HttpTraceConstants.HTTP_USER_AGENT, AttributeValue.stringAttributeValue(userAgent));
+      }
+      if (requestContext.getLength() > -1) {
+        traceSpan.addMessageEvent(
+            MessageEvent.builder(MessageEvent.Type.RECEIVED, 0)
+                .setUncompressedMessageSize(requestContext.getLength())
+                .build());
+      }
+
+      traceSpan.addAnnotation("Handle incoming request.");
+    }
+
+    requestContext.setProperty(OPENCENSUS_SPAN, traceSpan);
+    // A suspended request is resumed and completed on another thread, so binding the span and the
+    // tags to this thread would leak them into whatever this thread serves next.
+    if (!resourceMethod.suspended) {
+      requestContext.setProperty(OPENCENSUS_TAG_SCOPE, tagger.withTagContext(tagContext));
+      requestContext.setProperty(OPENCENSUS_TRACE_SCOPE, tracer.withSpan(traceSpan));
+    }
     requestContext.setProperty(OPENCENSUS_START_NANOS, CLOCK.nowNanos());
   }
 
@@ -160,7 +214,7 @@ public class JaxrsMetricsFilter implements ContainerRequestFilter, ContainerResp
       return;
     }
 
-    TagContext tagContext = tagger.getCurrentTagContext();
+    TagContext tagContext = (TagContext) requestContext.getProperty(OPENCENSUS_TAG_CONTEXT);
     TagContext tagContextStatus =
         tagger
             .toBuilder(tagContext)
@@ -177,69 +231,152 @@ public class JaxrsMetricsFilter implements ContainerRequestFilter, ContainerResp
         .put(HttpMeasureConstants.HTTP_SERVER_SENT_BYTES, responseContext.getLength())
         .record(tagContextStatus);
 
-    Span span = tracer.getCurrentSpan();
-    span.putAttribute(
-        HttpTraceConstants.HTTP_STATUS_CODE,
-        AttributeValue.longAttributeValue(responseContext.getStatus()));
-    if (responseContext.getLength() > -1) {
-      span.addMessageEvent(
-          MessageEvent.builder(MessageEvent.Type.SENT, 0)
-              .setUncompressedMessageSize(responseContext.getLength())
-              .build());
-    }
+    Span span = (Span) requestContext.getProperty(OPENCENSUS_SPAN);
+    if (isRecording(span)) {
+      span.putAttribute(
+          HttpTraceConstants.HTTP_STATUS_CODE,
+          AttributeValue.longAttributeValue(responseContext.getStatus()));
+      if (responseContext.getLength() > -1) {
+        span.addMessageEvent(
+            MessageEvent.builder(MessageEvent.Type.SENT, 0)
+                .setUncompressedMessageSize(responseContext.getLength())
+                .build());
+      }
 
-    span.addAnnotation("Completed request processing.");
-    span.setStatus(mapStatus(responseContext));
+      span.addAnnotation("Completed request processing.");
+      span.setStatus(HttpTraceUtil.parseResponseStatus(responseContext.getStatus(), null));
+    }
 
-    ((Scope) requestContext.getProperty(OPENCENSUS_TAG_SCOPE)).close();
-    ((Scope) requestContext.getProperty(OPENCENSUS_TRACE_SCOPE)).close();
+    // Scopes are closed in the reverse order they were opened, so that each restores the context
+    // that was current before it.
+    closeScope(requestContext, OPENCENSUS_TRACE_SCOPE);
+    closeScope(requestContext, OPENCENSUS_TAG_SCOPE);
     span.end();
   }
 
-  /** Map HTTP status code according to the OpenCensus HTTP trace specification. */
-  private static Status mapStatus(ContainerResponseContext responseContext) {
-    int httpStatus = responseContext.getStatus();
-    String reasonPhrase = responseContext.getStatusInfo().getReasonPhrase();
-    if (httpStatus < 200) {
-      return Status.UNKNOWN.withDescription(reasonPhrase);
-    } else if (httpStatus < 400) {
-      return Status.OK.withDescription(reasonPhrase);
-    } else {
-      switch (httpStatus) {
-        case 400:
-          return Status.INVALID_ARGUMENT.withDescription(reasonPhrase);
-        case 401:
-          return Status.UNAUTHENTICATED.withDescription(reasonPhrase);
-        case 403:
-          return Status.PERMISSION_DENIED.withDescription(reasonPhrase);
-        case 404:
-          return Status.NOT_FOUND.withDescription(reasonPhrase);
-        case 429:
-          return Status.RESOURCE_EXHAUSTED.withDescription(reasonPhrase);
-        case 501:
-          return Status.UNIMPLEMENTED.withDescription(reasonPhrase);
-        case 503:
-          return Status.UNAVAILABLE.withDescription(reasonPhrase);
-        case 504:
-          return Status.DEADLINE_EXCEEDED.withDescription(reasonPhrase);
-        default:
-          return Status.UNKNOWN.withDescription(reasonPhrase);
+  /**
+   * Returns the server span of the given request, or {@code null} if the request did not go through
+   * this filter. Resources that suspend the request with an {@code AsyncResponse} can use it to
+   * parent the work they do on other threads, as the span is not made current for them.
+   *
+   * @param requestContext the context of the request.
+   * @return the server span of the request.
+   * @since 0.16
+   */
+  @Nullable
+  public static Span getServerSpan(ContainerRequestContext requestContext) {
+    return (Span) requestContext.getProperty(OPENCENSUS_SPAN);
+  }
+
+  private static void closeScope(ContainerRequestContext requestContext, String property) {
+    Scope scope = (Scope) requestContext.getProperty(property);
+    if (scope != null) {
+      scope.close();
+    }
+  }
+
+  static boolean isRecording(Span span) {
+    return span.getOptions().contains(Span.Options.RECORD_EVENTS);
+  }
+
+  /** Get the route, i.e., JAX-RS template path, and the signature of the matched method. */
+  private ResourceMethodInfo getResourceMethodInfo() {
+    Method method = info.getResourceMethod();
+    if (method == null) {
+      return ResourceMethodInfo.UNKNOWN;
+    }
+    Class<?> resourceClass = info.getResourceClass();
+    if (resourceClass == null) {
+      return new ResourceMethodInfo(Optional.empty(), isSuspended(method));
+    }
+    ConcurrentMap<Method, ResourceMethodInfo> classMethods = resourceMethods.get(resourceClass);
+    if (classMethods == null) {
+      ConcurrentMap<Method, ResourceMethodInfo> created = new ConcurrentHashMap<>();
+      classMethods = resourceMethods.putIfAbsent(resourceClass, created);
+      if (classMethods == null) {
+        classMethods = created;
+      }
+    }
+    ResourceMethodInfo resourceMethod = classMethods.get(method);
+    if (resourceMethod == null) {
+      ResourceMethodInfo resolved =
+          new ResourceMethodInfo(resolveRoute(resourceClass, method), isSuspended(method));
+      resourceMethod = classMethods.putIfAbsent(method, resolved);
+      if (resourceMethod == null) {
+        resourceMethod = resolved;
       }
     }
+    return resourceMethod;
   }
 
-  /** Get the route, i.e., JAX-RS template path. */
-  private Optional<String> getRoute() {
-    if (info.getResourceClass() != null) {
-      UriBuilder uriBuilder;
-      if (info.getResourceMethod() != null) {
-        uriBuilder = UriBuilder.fromResource(info.getResourceClass());
-      } else {
-        uriBuilder =
-            UriBuilder.fromMethod(info.getResourceClass(), info.getResourceMethod().getName());
+  // Whether the method takes an AsyncResponse, which suspends the request.
+  private static boolean isSuspended(Method method) {
+    for (Annotation[] annotations : method.getParameterAnnotations()) {
+      for (Annotation annotation : annotations) {
+        if (annotation instanceof Suspended) {
+          return true;
+        }
       }
-      return Optional.of(uriBuilder.toTemplate());
     }
-    return Optional.empty();
+    return false;
+  }
+
+  // Joins the class-level and method-level @Path templates, like UriBuilder.fromResource(...)
+  // .path(method).toTemplate() but without going through the JAX-RS RuntimeDelegate.
+  private static Optional<Route> resolveRoute(Class<?> resourceClass, Method method) {
+    Path classPath = resourceClass.getAnnotation(Path.class);
+    Path methodPath = method.getAnnotation(Path.class);
+    if (classPath == null && methodPath == null) {
+      return Optional.empty();
+    }
+    StringBuilder template = new StringBuilder();
+    if (classPath != null) {
+      appendPath(template, classPath.value());
+    }
+    if (methodPath != null) {
+      appendPath(template, methodPath.value());
+    }
+    if (template.length() == 0) {
+      template.append('/');
+    }
+    return Optional.of(new Route(template.toString()));
+  }
+
+  // Appends the segment with exactly one leading '/' and no trailing '/'.
+  private static void appendPath(StringBuilder template, String segment) {
+    int start = 0;
+    int end = segment.length();
+    while (start < end && segment.charAt(start) == '/') {
+      start++;
+    }
+    while (end > start && segment.charAt(end - 1) == '/') {
+      end--;
+    }
+    if (start < end) {
+      template.append('/').append(segment, start, end);
+    }
+  }
+
+  private static final class ResourceMethodInfo {
+    private static final ResourceMethodInfo UNKNOWN =
+        new ResourceMethodInfo(Optional.empty(), false);
+
+    private final Optional<Route> route;
+    private final boolean suspended;
+
+    private ResourceMethodInfo(Optional<Route> route, boolean suspended) {
+      this.route = route;
+      this.suspended = suspended;
+    }
+  }
+
+  private static final class Route {
+    private final String template;
+    private final TagValue tagValue;
+
+    private Route(String template) {
+      this.template = template;
+      this.tagValue = TagValue.create(template);
+    }
   }
 }
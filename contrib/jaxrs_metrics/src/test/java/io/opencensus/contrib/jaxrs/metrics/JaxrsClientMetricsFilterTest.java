@@ -0,0 +1,291 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.contrib.jaxrs.metrics;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyDouble;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.opencensus.common.Scope;
+import io.opencensus.contrib.http.util.HttpMeasureConstants;
+import io.opencensus.contrib.http.util.HttpTraceConstants;
+import io.opencensus.stats.Measure.MeasureDouble;
+import io.opencensus.stats.Measure.MeasureLong;
+import io.opencensus.stats.MeasureMap;
+import io.opencensus.stats.StatsRecorder;
+import io.opencensus.tags.InternalUtils;
+import io.opencensus.tags.Tag;
+import io.opencensus.tags.TagContext;
+import io.opencensus.tags.TagKey;
+import io.opencensus.tags.TagValue;
+import io.opencensus.tags.Tags;
+import io.opencensus.testing.trace.TestSpan;
+import io.opencensus.trace.AttributeValue;
+import io.opencensus.trace.BlankSpan;
+import io.opencensus.trace.Span;
+import io.opencensus.trace.SpanBuilder;
+import io.opencensus.trace.SpanContext;
+import io.opencensus.trace.SpanId;
+import io.opencensus.trace.Status;
+import io.opencensus.trace.Status.CanonicalCode;
+import io.opencensus.trace.TraceId;
+import io.opencensus.trace.TraceOptions;
+import io.opencensus.trace.Tracer;
+import io.opencensus.trace.Tracing;
+import io.opencensus.trace.propagation.TextFormat;
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.ArgumentCaptor;
+import org.mockito.stubbing.Answer;
+
+/** Unit tests for {@link JaxrsClientMetricsFilter}. */
+@RunWith(JUnit4.class)
+public class JaxrsClientMetricsFilterTest {
+
+  private static final TextFormat B3_FORMAT = Tracing.getPropagationComponent().getB3Format();
+  private static final SpanContext SAMPLED_CONTEXT =
+      SpanContext.create(
+          TraceId.fromLowerBase16("ff000000000000000000000000000041"),
+          SpanId.fromLowerBase16("ff00000000000041"),
+          TraceOptions.builder().setIsSampled(true).build());
+
+  private final JaxrsClientMetricsFilter filter = new JaxrsClientMetricsFilter(B3_FORMAT);
+  private final ConcurrentHashMap<String, Object> properties = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, Object> headers = new ConcurrentHashMap<>();
+  private final ClientRequestContext request = mock(ClientRequestContext.class);
+  private final Tracer tracer = mock(Tracer.class);
+  private final SpanBuilder spanBuilder = mock(SpanBuilder.class);
+  private final TestSpan span = TestSpan.create(SAMPLED_CONTEXT, true);
+  private final StatsRecorder statsRecorder = mock(StatsRecorder.class);
+  private final MeasureMap measureMap = mock(MeasureMap.class);
+  private final JaxrsClientMetricsFilter fakeFilter =
+      new JaxrsClientMetricsFilter(tracer, Tags.getTagger(), statsRecorder, B3_FORMAT, true);
+  private final JaxrsClientMetricsFilter noPathTagFilter =
+      new JaxrsClientMetricsFilter(tracer, Tags.getTagger(), statsRecorder, B3_FORMAT, false);
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setUp() {
+    MultivaluedMap<String, Object> headerMap = mock(MultivaluedMap.class);
+    Answer<Void> putHeader =
+        invocation -> {
+          headers.put((String) invocation.getArguments()[0], invocation.getArguments()[1]);
+          return null;
+        };
+    doAnswer(putHeader).when(headerMap).putSingle(anyString(), anyObject());
+    when(request.getHeaders()).thenReturn(headerMap);
+    when(request.getUri()).thenReturn(URI.create("http://my.domain/some/path?q=1"));
+    when(request.getMethod()).thenReturn("POST");
+    when(request.hasEntity()).thenReturn(true);
+    when(request.getHeaderString("Content-Length")).thenReturn("42");
+    Answer<Void> setProperty =
+        invocation -> {
+          properties.put((String) invocation.getArguments()[0], invocation.getArguments()[1]);
+          return null;
+        };
+    doAnswer(setProperty).when(request).setProperty(anyString(), anyObject());
+    when(request.getProperty(anyString()))
+        .then(invocation -> properties.get(invocation.getArguments()[0]));
+
+    when(tracer.spanBuilderWithExplicitParent(anyString(), any(Span.class)))
+        .thenReturn(spanBuilder);
+    when(spanBuilder.setSpanKind(any(Span.Kind.class))).thenReturn(spanBuilder);
+    when(spanBuilder.startSpan()).thenReturn(span);
+    when(statsRecorder.newMeasureMap()).thenReturn(measureMap);
+    when(measureMap.put(any(MeasureDouble.class), anyDouble())).thenReturn(measureMap);
+    when(measureMap.put(any(MeasureLong.class), anyLong())).thenReturn(measureMap);
+  }
+
+  @Test
+  public void injectSpanContextAndEndSpan() {
+    fakeFilter.filter(request);
+    assertThat(headers).containsEntry("X-B3-TraceId", "ff000000000000000000000000000041");
+    assertThat(headers).containsEntry("X-B3-SpanId", "ff00000000000041");
+    assertThat(properties).containsKey("opencensus_client_span");
+    assertThat(span.isEnded()).isFalse();
+
+    ClientResponseContext response = mock(ClientResponseContext.class);
+    when(response.getStatus()).thenReturn(404);
+    when(response.getLength()).thenReturn(10);
+    fakeFilter.filter(request, response);
+
+    assertThat(span.isEnded()).isTrue();
+    assertThat(span.getStatus()).isEqualTo(Status.NOT_FOUND);
+    assertThat(span.getAttributes())
+        .containsEntry(HttpTraceConstants.HTTP_STATUS_CODE, AttributeValue.longAttributeValue(404));
+    assertThat(span.getMessageEvents()).hasSize(2);
+
+    verify(measureMap).put(eq(HttpMeasureConstants.HTTP_CLIENT_ROUNDTRIP_LATENCY), anyDouble());
+    verify(measureMap).put(HttpMeasureConstants.HTTP_CLIENT_SENT_BYTES, 42L);
+    verify(measureMap).put(HttpMeasureConstants.HTTP_CLIENT_RECEIVED_BYTES, 10L);
+    Map<TagKey, TagValue> tags = getRecordedTags();
+    assertThat(tags).containsEntry(HttpMeasureConstants.HTTP_CLIENT_STATUS, TagValue.create("404"));
+    assertThat(tags)
+        .containsEntry(HttpMeasureConstants.HTTP_CLIENT_METHOD, TagValue.create("POST"));
+    assertThat(tags)
+        .containsEntry(HttpMeasureConstants.HTTP_CLIENT_HOST, TagValue.create("my.domain"));
+    assertThat(tags)
+        .containsEntry(HttpMeasureConstants.HTTP_CLIENT_PATH, TagValue.create("/some/path"));
+  }
+
+  @Test
+  public void spanIsNamedAfterPath() {
+    fakeFilter.filter(request);
+    verify(tracer).spanBuilderWithExplicitParent(eq("/some/path"), any(Span.class));
+  }
+
+  @Test
+  public void noPathTagNamesSpanAfterMethod() {
+    noPathTagFilter.filter(request);
+    verify(tracer).spanBuilderWithExplicitParent(eq("POST"), any(Span.class));
+
+    ClientResponseContext response = mock(ClientResponseContext.class);
+    when(response.getStatus()).thenReturn(200);
+    when(response.getLength()).thenReturn(-1);
+    noPathTagFilter.filter(request, response);
+    assertThat(getRecordedTags()).doesNotContainKey(HttpMeasureConstants.HTTP_CLIENT_PATH);
+  }
+
+  @Test
+  public void failedEntityWriteEndsSpan() throws IOException {
+    fakeFilter.filter(request);
+    WriterInterceptorContext writerContext = mock(WriterInterceptorContext.class);
+    when(writerContext.getProperty(anyString()))
+        .then(invocation -> properties.get(invocation.getArguments()[0]));
+    Answer<Void> removeProperty =
+        invocation -> {
+          properties.remove(invocation.getArguments()[0]);
+          return null;
+        };
+    doAnswer(removeProperty).when(writerContext).removeProperty(anyString());
+    IOException error = new IOException("Connection refused");
+    doThrow(error).when(writerContext).proceed();
+
+    try {
+      fakeFilter.aroundWriteTo(writerContext);
+      throw new AssertionError("IOException not rethrown");
+    } catch (IOException e) {
+      assertThat(e).isSameAs(error);
+    }
+
+    assertThat(span.isEnded()).isTrue();
+    assertThat(span.getStatus().getCanonicalCode()).isEqualTo(CanonicalCode.UNKNOWN);
+    assertThat(span.getStatus().getDescription()).isEqualTo("Connection refused");
+    verify(measureMap).put(eq(HttpMeasureConstants.HTTP_CLIENT_ROUNDTRIP_LATENCY), anyDouble());
+    verify(measureMap, never()).put(any(MeasureLong.class), anyLong());
+    assertThat(getRecordedTags())
+        .containsEntry(HttpMeasureConstants.HTTP_CLIENT_STATUS, TagValue.create("error"));
+    assertThat(properties).doesNotContainKey("opencensus_client_span");
+  }
+
+  @Test
+  public void successfulEntityWriteKeepsSpanOpen() throws IOException {
+    fakeFilter.filter(request);
+    WriterInterceptorContext writerContext = mock(WriterInterceptorContext.class);
+    fakeFilter.aroundWriteTo(writerContext);
+    verify(writerContext).proceed();
+    assertThat(span.isEnded()).isFalse();
+    verify(statsRecorder, never()).newMeasureMap();
+  }
+
+  @Test
+  public void ignoreResponseOfUnfilteredRequest() {
+    ClientResponseContext response = mock(ClientResponseContext.class);
+    filter.filter(request, response);
+    assertThat(properties).isEmpty();
+  }
+
+  @Test
+  public void spanIsChildOfCurrentSpan() {
+    Span parent = Tracing.getTracer().spanBuilder("parent").startSpan();
+    try (Scope scope = Tracing.getTracer().withSpan(parent)) {
+      filter.filter(request);
+    }
+    Span span = (Span) properties.get("opencensus_client_span");
+    assertThat(span.getContext().getTraceId()).isEqualTo(parent.getContext().getTraceId());
+    // The client span is not made current.
+    assertThat(Tracing.getTracer().getCurrentSpan()).isSameAs(BlankSpan.INSTANCE);
+  }
+
+  @Test
+  public void requestWithoutEntityPropagatesCurrentSpan() {
+    when(request.getMethod()).thenReturn("GET");
+    when(request.hasEntity()).thenReturn(false);
+    Span parent = Tracing.getTracer().spanBuilder("parent").setRecordEvents(true).startSpan();
+    try (Scope scope = Tracing.getTracer().withSpan(parent)) {
+      filter.filter(request);
+    }
+    // The request fails to connect: neither the writer interceptor nor the response filter run, so
+    // no client span may have been started.
+    assertThat(properties).doesNotContainKey("opencensus_client_span");
+    assertThat(headers)
+        .containsEntry("X-B3-SpanId", parent.getContext().getSpanId().toLowerBase16());
+    parent.end();
+  }
+
+  @Test
+  public void requestWithoutEntityIsMeasured() {
+    when(request.getMethod()).thenReturn("GET");
+    when(request.hasEntity()).thenReturn(false);
+    when(request.getHeaderString("Content-Length")).thenReturn(null);
+    fakeFilter.filter(request);
+    verify(tracer, never()).spanBuilderWithExplicitParent(anyString(), any(Span.class));
+    assertThat(headers).isEmpty();
+
+    ClientResponseContext response = mock(ClientResponseContext.class);
+    when(response.getStatus()).thenReturn(200);
+    when(response.getLength()).thenReturn(10);
+    fakeFilter.filter(request, response);
+    verify(measureMap).put(HttpMeasureConstants.HTTP_CLIENT_RECEIVED_BYTES, 10L);
+    assertThat(getRecordedTags())
+        .containsEntry(HttpMeasureConstants.HTTP_CLIENT_METHOD, TagValue.create("GET"));
+  }
+
+  private Map<TagKey, TagValue> getRecordedTags() {
+    ArgumentCaptor<TagContext> tagContext = ArgumentCaptor.forClass(TagContext.class);
+    verify(measureMap).record(tagContext.capture());
+    Map<TagKey, TagValue> tags = new HashMap<>();
+    Iterator<Tag> iterator = InternalUtils.getTags(tagContext.getValue());
+    while (iterator.hasNext()) {
+      Tag tag = iterator.next();
+      tags.put(tag.getKey(), tag.getValue());
+    }
+    return tags;
+  }
+}
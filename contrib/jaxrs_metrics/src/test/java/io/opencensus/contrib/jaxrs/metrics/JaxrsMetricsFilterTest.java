@@ -16,26 +16,63 @@
 
 package io.opencensus.contrib.jaxrs.metrics;
 
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import io.opencensus.contrib.http.util.HttpMeasureConstants;
+import io.opencensus.contrib.http.util.HttpTraceConstants;
 import io.opencensus.contrib.http.util.HttpViews;
 import io.opencensus.exporter.stats.prometheus.PrometheusStatsCollector;
 import io.opencensus.exporter.trace.logging.LoggingTraceExporter;
 import io.opencensus.stats.Stats;
 import io.opencensus.stats.ViewManager;
+import io.opencensus.tags.InternalUtils;
+import io.opencensus.tags.Tag;
+import io.opencensus.tags.TagContext;
+import io.opencensus.tags.TagKey;
+import io.opencensus.tags.TagValue;
+import io.opencensus.tags.Tags;
+import io.opencensus.testing.trace.TestSpan;
+import io.opencensus.trace.AttributeValue;
+import io.opencensus.trace.BlankSpan;
+import io.opencensus.trace.Span;
+import io.opencensus.trace.SpanBuilder;
+import io.opencensus.trace.SpanContext;
+import io.opencensus.trace.SpanId;
+import io.opencensus.trace.Status;
+import io.opencensus.trace.TraceId;
+import io.opencensus.trace.TraceOptions;
+import io.opencensus.trace.Tracer;
 import io.opencensus.trace.Tracing;
+import io.opencensus.trace.config.TraceConfig;
+import io.opencensus.trace.config.TraceParams;
+import io.opencensus.trace.propagation.TextFormat;
+import io.opencensus.trace.samplers.Samplers;
 import io.prometheus.client.CollectorRegistry;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
+import javax.ws.rs.Path;
+import javax.ws.rs.container.AsyncResponse;
 import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ContainerResponseContext;
 import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
+import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -49,11 +86,28 @@ public class JaxrsMetricsFilterTest {
 
   private static final Logger logger = Logger.getLogger(JaxrsMetricsFilterTest.class.getName());
 
+  private static final TextFormat B3_FORMAT = Tracing.getPropagationComponent().getB3Format();
+  private static final SpanContext UNSAMPLED_CONTEXT =
+      SpanContext.create(
+          TraceId.fromLowerBase16("ff000000000000000000000000000041"),
+          SpanId.fromLowerBase16("ff00000000000041"),
+          TraceOptions.DEFAULT);
+
   @Mock ResourceInfo info;
 
+  @InjectMocks JaxrsMetricsFilter filter = new JaxrsMetricsFilter(B3_FORMAT);
+
+  private final Tracer tracer = mock(Tracer.class);
+  private final SpanBuilder spanBuilder = mock(SpanBuilder.class);
+  private boolean recordEvents = true;
+
   @InjectMocks
-  JaxrsMetricsFilter filter =
-      new JaxrsMetricsFilter(Tracing.getPropagationComponent().getB3Format());
+  JaxrsMetricsFilter fakeTracerFilter =
+      new JaxrsMetricsFilter(tracer, Tags.getTagger(), Stats.getStatsRecorder(), B3_FORMAT, true);
+
+  @InjectMocks
+  JaxrsMetricsFilter noPathTagFilter =
+      new JaxrsMetricsFilter(tracer, Tags.getTagger(), Stats.getStatsRecorder(), B3_FORMAT, false);
 
   @BeforeClass
   public static void registration() {
@@ -111,4 +165,252 @@ public class JaxrsMetricsFilterTest {
                         "Recorded stats for %s:\n %s",
                         view.getName(), viewManager.getView(view.getName()))));
   }
+
+  @Test
+  public void suspendedRequestDoesNotBindSpanToThread() throws Exception {
+    when(info.getResourceMethod())
+        .thenReturn(AsyncResource.class.getMethod("get", AsyncResponse.class));
+    ConcurrentHashMap<String, Object> data = new ConcurrentHashMap<>();
+
+    UriInfo uriInfo = mock(UriInfo.class);
+    when(uriInfo.getPath()).thenReturn("/async/path");
+
+    ContainerRequestContext request = mock(ContainerRequestContext.class);
+    when(request.getHeaderString("host")).thenReturn("my.domain");
+    when(request.getUriInfo()).thenReturn(uriInfo);
+    when(request.getMethod()).thenReturn("GET");
+    when(request.getLength()).thenReturn(-1);
+    Answer<Void> setPropertyClosure =
+        invocation -> {
+          data.put((String) invocation.getArguments()[0], invocation.getArguments()[1]);
+          return null;
+        };
+    doAnswer(setPropertyClosure).when(request).setProperty(anyString(), anyObject());
+    when(request.getProperty(anyString()))
+        .then(invocation -> data.get(invocation.getArguments()[0]));
+    filter.filter(request);
+
+    Span span = JaxrsMetricsFilter.getServerSpan(request);
+    assertThat(span).isNotNull();
+    assertThat(Tracing.getTracer().getCurrentSpan()).isSameAs(BlankSpan.INSTANCE);
+
+    Response.StatusType httpStatusType = mock(Response.StatusType.class);
+    when(httpStatusType.getReasonPhrase()).thenReturn("OK");
+    ContainerResponseContext response = mock(ContainerResponseContext.class);
+    when(response.getStatus()).thenReturn(200);
+    when(response.getStatusInfo()).thenReturn(httpStatusType);
+    when(response.getLength()).thenReturn(-1);
+    // Resumed on another thread, which must not be affected either.
+    Thread thread = new Thread(() -> filter.filter(request, response));
+    thread.start();
+    thread.join();
+    assertThat(Tracing.getTracer().getCurrentSpan()).isSameAs(BlankSpan.INSTANCE);
+  }
+
+  @Before
+  public void setUpTracer() {
+    when(tracer.spanBuilderWithRemoteParent(anyString(), any(SpanContext.class)))
+        .thenReturn(spanBuilder);
+    when(spanBuilder.setSpanKind(any(Span.Kind.class))).thenReturn(spanBuilder);
+    Answer<Span> startSpan = invocation -> TestSpan.create(UNSAMPLED_CONTEXT, recordEvents);
+    when(spanBuilder.startSpan()).then(startSpan);
+  }
+
+  @Test
+  public void configuredSamplerIsHonored() throws Exception {
+    TraceConfig traceConfig = Tracing.getTraceConfig();
+    TraceParams traceParams = traceConfig.getActiveTraceParams();
+    try {
+      traceConfig.updateActiveTraceParams(
+          traceParams.toBuilder().setSampler(Samplers.neverSample()).build());
+      ContainerRequestContext request = newRequest("/never");
+      filter.filter(request);
+      Span span = JaxrsMetricsFilter.getServerSpan(request);
+      assertThat(span.getContext().getTraceOptions().isSampled()).isFalse();
+      assertThat(JaxrsMetricsFilter.isRecording(span)).isFalse();
+      filter.filter(request, newResponse(200));
+
+      traceConfig.updateActiveTraceParams(
+          traceParams.toBuilder().setSampler(Samplers.alwaysSample()).build());
+      request = newRequest("/always");
+      filter.filter(request);
+      span = JaxrsMetricsFilter.getServerSpan(request);
+      assertThat(span.getContext().getTraceOptions().isSampled()).isTrue();
+      filter.filter(request, newResponse(200));
+    } finally {
+      traceConfig.updateActiveTraceParams(traceParams);
+    }
+  }
+
+  @Test
+  public void recordingSpanGetsAttributesAndEvents() throws Exception {
+    ContainerRequestContext request = newRequest("/some/path");
+    when(request.getLength()).thenReturn(10);
+    fakeTracerFilter.filter(request);
+    fakeTracerFilter.filter(request, newResponse(404));
+
+    TestSpan span = (TestSpan) JaxrsMetricsFilter.getServerSpan(request);
+    assertThat(span.getAttributes())
+        .containsEntry(
+            HttpTraceConstants.HTTP_PATH, AttributeValue.stringAttributeValue("/some/path"));
+    assertThat(span.getAttributes())
+        .containsEntry(HttpTraceConstants.HTTP_STATUS_CODE, AttributeValue.longAttributeValue(404));
+    assertThat(span.getMessageEvents()).hasSize(1);
+    assertThat(span.getAnnotations()).isNotEmpty();
+    assertThat(span.getStatus()).isEqualTo(Status.NOT_FOUND);
+    assertThat(span.isEnded()).isTrue();
+  }
+
+  @Test
+  public void nonRecordingSpanGetsNoAttributesOrEvents() throws Exception {
+    recordEvents = false;
+    ContainerRequestContext request = newRequest("/some/path");
+    when(request.getLength()).thenReturn(10);
+    fakeTracerFilter.filter(request);
+    fakeTracerFilter.filter(request, newResponse(200));
+
+    TestSpan span = (TestSpan) JaxrsMetricsFilter.getServerSpan(request);
+    assertThat(span.getAttributes()).isEmpty();
+    assertThat(span.getAnnotations()).isEmpty();
+    assertThat(span.getMessageEvents()).isEmpty();
+    assertThat(span.getStatus()).isNull();
+    assertThat(span.isEnded()).isTrue();
+  }
+
+  @Test
+  public void noPathTagFallsBackToPathSpanName() throws Exception {
+    ContainerRequestContext request = newRequest("/users/42");
+    noPathTagFilter.filter(request);
+
+    verify(tracer).spanBuilderWithRemoteParent(eq("/users/42"), any(SpanContext.class));
+    Map<TagKey, TagValue> tags = getTags(request);
+    assertThat(tags).doesNotContainKey(HttpMeasureConstants.HTTP_SERVER_PATH);
+    assertThat(tags).doesNotContainKey(JaxrsMetricsFilter.HTTP_SERVER_ROUTE);
+    assertThat(tags).containsEntry(HttpMeasureConstants.HTTP_SERVER_METHOD, TagValue.create("GET"));
+    noPathTagFilter.filter(request, newResponse(200));
+  }
+
+  @Test
+  public void pathTagIsRecordedByDefault() throws Exception {
+    ContainerRequestContext request = newRequest("/users/42");
+    fakeTracerFilter.filter(request);
+
+    assertThat(getTags(request))
+        .containsEntry(HttpMeasureConstants.HTTP_SERVER_PATH, TagValue.create("/users/42"));
+    fakeTracerFilter.filter(request, newResponse(200));
+    // The tags are no longer current once the response is filtered.
+    assertThat(InternalUtils.getTags(Tags.getTagger().getCurrentTagContext()).hasNext()).isFalse();
+  }
+
+  @Test
+  public void methodPathIsCombinedWithClassPath() throws Exception {
+    doReturn(UserResource.class).when(info).getResourceClass();
+    when(info.getResourceMethod()).thenReturn(UserResource.class.getMethod("get", String.class));
+    ContainerRequestContext request = newRequest("/users/42");
+    noPathTagFilter.filter(request);
+
+    verify(tracer).spanBuilderWithRemoteParent(eq("/users/{id}"), any(SpanContext.class));
+    assertThat(getTags(request))
+        .containsEntry(JaxrsMetricsFilter.HTTP_SERVER_ROUTE, TagValue.create("/users/{id}"));
+    TestSpan span = (TestSpan) JaxrsMetricsFilter.getServerSpan(request);
+    assertThat(span.getAttributes())
+        .containsEntry(
+            HttpTraceConstants.HTTP_ROUTE, AttributeValue.stringAttributeValue("/users/{id}"));
+    noPathTagFilter.filter(request, newResponse(200));
+  }
+
+  @Test
+  public void routeIsCachedAcrossRequests() throws Exception {
+    doReturn(UserResource.class).when(info).getResourceClass();
+    when(info.getResourceMethod()).thenReturn(UserResource.class.getMethod("get", String.class));
+    ContainerRequestContext first = newRequest("/users/1");
+    noPathTagFilter.filter(first);
+    noPathTagFilter.filter(first, newResponse(200));
+    ContainerRequestContext second = newRequest("/users/2");
+    noPathTagFilter.filter(second);
+    noPathTagFilter.filter(second, newResponse(200));
+
+    verify(tracer, times(2)).spanBuilderWithRemoteParent(eq("/users/{id}"), any(SpanContext.class));
+    // The route and its tag value are resolved once and shared by both requests.
+    assertThat(getTags(second).get(JaxrsMetricsFilter.HTTP_SERVER_ROUTE))
+        .isSameAs(getTags(first).get(JaxrsMetricsFilter.HTTP_SERVER_ROUTE));
+  }
+
+  @Test
+  public void inheritedMethodIsCachedPerResourceClass() throws Exception {
+    Method method = BaseResource.class.getMethod("list");
+    when(info.getResourceMethod()).thenReturn(method);
+    doReturn(UserResource.class).when(info).getResourceClass();
+    ContainerRequestContext users = newRequest("/users/all");
+    noPathTagFilter.filter(users);
+    noPathTagFilter.filter(users, newResponse(200));
+    doReturn(GroupResource.class).when(info).getResourceClass();
+    ContainerRequestContext groups = newRequest("/groups/all");
+    noPathTagFilter.filter(groups);
+    noPathTagFilter.filter(groups, newResponse(200));
+
+    assertThat(getTags(users))
+        .containsEntry(JaxrsMetricsFilter.HTTP_SERVER_ROUTE, TagValue.create("/users/all"));
+    assertThat(getTags(groups))
+        .containsEntry(JaxrsMetricsFilter.HTTP_SERVER_ROUTE, TagValue.create("/groups/all"));
+  }
+
+  private static ContainerRequestContext newRequest(String path) {
+    ConcurrentHashMap<String, Object> data = new ConcurrentHashMap<>();
+    UriInfo uriInfo = mock(UriInfo.class);
+    when(uriInfo.getPath()).thenReturn(path);
+    ContainerRequestContext request = mock(ContainerRequestContext.class);
+    when(request.getHeaderString("host")).thenReturn("my.domain");
+    when(request.getUriInfo()).thenReturn(uriInfo);
+    when(request.getMethod()).thenReturn("GET");
+    when(request.getLength()).thenReturn(-1);
+    Answer<Void> setProperty =
+        invocation -> {
+          data.put((String) invocation.getArguments()[0], invocation.getArguments()[1]);
+          return null;
+        };
+    doAnswer(setProperty).when(request).setProperty(anyString(), anyObject());
+    Answer<Object> getProperty = invocation -> data.get(invocation.getArguments()[0]);
+    when(request.getProperty(anyString())).then(getProperty);
+    return request;
+  }
+
+  private static ContainerResponseContext newResponse(int status) {
+    Response.StatusType statusType = mock(Response.StatusType.class);
+    when(statusType.getReasonPhrase()).thenReturn("Unit Test");
+    ContainerResponseContext response = mock(ContainerResponseContext.class);
+    when(response.getStatus()).thenReturn(status);
+    when(response.getStatusInfo()).thenReturn(statusType);
+    when(response.getLength()).thenReturn(-1);
+    return response;
+  }
+
+  private static Map<TagKey, TagValue> getTags(ContainerRequestContext request) {
+    Map<TagKey, TagValue> tags = new HashMap<>();
+    Iterator<Tag> iterator =
+        InternalUtils.getTags((TagContext) request.getProperty("opencensus_tag_context"));
+    while (iterator.hasNext()) {
+      Tag tag = iterator.next();
+      tags.put(tag.getKey(), tag.getValue());
+    }
+    return tags;
+  }
+
+  public static class AsyncResource {
+    public void get(@Suspended AsyncResponse response) {}
+  }
+
+  public static class BaseResource {
+    @Path("all")
+    public void list() {}
+  }
+
+  @Path("/users/")
+  public static class UserResource extends BaseResource {
+    @Path("{id}")
+    public void get(String id) {}
+  }
+
+  @Path("groups")
+  public static class GroupResource extends BaseResource {}
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.contrib.zpages;
+
+import java.io.PrintWriter;
+
+/*>>>
+import org.checkerframework.checker.nullness.qual.Nullable;
+*/
+
+/** Helpers to write JSON values for the JSON output format of the z-pages. */
+final class JsonStrings {
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  /** Writes the given string as a quoted JSON string, or {@code null}. */
+  static void writeString(/*@Nullable*/ String value, PrintWriter out) {
+    if (value == null) {
+      out.write("null");
+      return;
+    }
+    out.write('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          out.write("\\\"");
+          break;
+        case '\\':
+          out.write("\\\\");
+          break;
+        case '\n':
+          out.write("\\n");
+          break;
+        case '\r':
+          out.write("\\r");
+          break;
+        case '\t':
+          out.write("\\t");
+          break;
+        default:
+          // Also escape '<' so that the output can be embedded in HTML script tags.
+          if (c < 0x20 || c == '<' || c == 0x2028 || c == 0x2029) {
+            out.write("\\u");
+            out.write(HEX_DIGITS[(c >> 12) & 0xF]);
+            out.write(HEX_DIGITS[(c >> 8) & 0xF]);
+            out.write(HEX_DIGITS[(c >> 4) & 0xF]);
+            out.write(HEX_DIGITS[c & 0xF]);
+          } else {
+            out.write(c);
+          }
+      }
+    }
+    out.write('"');
+  }
+
+  /** Writes the given double as a JSON number, or as a string for NaN and infinities. */
+  static void writeDouble(double value, PrintWriter out) {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      writeString(Double.toString(value), out);
+    } else {
+      out.print(value);
+    }
+  }
+
+  private JsonStrings() {}
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.contrib.zpages;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.primitives.Ints;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.Formatter;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*>>>
+import org.checkerframework.checker.nullness.qual.Nullable;
+*/
+
+/** The pagination and output format parameters understood by the paginated z-pages. */
+final class PageParams {
+  // The query parameter that selects the output format, "html" (the default) or "json".
+  @VisibleForTesting static final String QUERY_FORMAT = "zformat";
+  // The query parameter for the 0-based index of the page to display.
+  @VisibleForTesting static final String QUERY_PAGE = "zpage";
+  // The query parameter for the number of rows per page.
+  @VisibleForTesting static final String QUERY_PAGE_SIZE = "zpagesize";
+  @VisibleForTesting static final String FORMAT_JSON = "json";
+  @VisibleForTesting static final int DEFAULT_PAGE_SIZE = 100;
+  @VisibleForTesting static final int MAX_PAGE_SIZE = 1000;
+
+  private final int page;
+  private final int pageSize;
+
+  private PageParams(int page, int pageSize) {
+    this.page = page;
+    this.pageSize = pageSize;
+  }
+
+  /**
+   * Returns the pagination parameters from the given query map. Missing or invalid values fall back
+   * to the first page and the default page size.
+   */
+  static PageParams fromQueryMap(Map<String, String> queryMap) {
+    int page = parseOrDefault(queryMap.get(QUERY_PAGE), 0);
+    int pageSize = parseOrDefault(queryMap.get(QUERY_PAGE_SIZE), DEFAULT_PAGE_SIZE);
+    if (page < 0) {
+      page = 0;
+    }
+    if (pageSize <= 0) {
+      pageSize = DEFAULT_PAGE_SIZE;
+    } else if (pageSize > MAX_PAGE_SIZE) {
+      pageSize = MAX_PAGE_SIZE;
+    }
+    return new PageParams(page, pageSize);
+  }
+
+  /** Returns {@code true} if the given query map requests the JSON output format. */
+  static boolean isJson(Map<String, String> queryMap) {
+    return FORMAT_JSON.equals(queryMap.get(QUERY_FORMAT));
+  }
+
+  int getPage() {
+    return page;
+  }
+
+  int getPageSize() {
+    return pageSize;
+  }
+
+  // Returns the index of the first row of this page, in a table with total rows.
+  int fromIndex(int total) {
+    return (int) Math.min((long) page * pageSize, total);
+  }
+
+  // Returns the index after the last row of this page, in a table with total rows.
+  int toIndex(int total) {
+    return (int) Math.min((long) page * pageSize + pageSize, total);
+  }
+
+  // Returns the query string of the current page without the pagination parameters, as a prefix
+  // for links to other pages of the same table.
+  static String linkPrefix(Map<String, String> queryMap) throws UnsupportedEncodingException {
+    StringBuilder prefix = new StringBuilder("?");
+    for (Map.Entry<String, String> entry : new TreeMap<>(queryMap).entrySet()) {
+      if (QUERY_PAGE.equals(entry.getKey()) || QUERY_PAGE_SIZE.equals(entry.getKey())) {
+        continue;
+      }
+      prefix
+          .append(URLEncoder.encode(entry.getKey(), "UTF-8"))
+          .append('=')
+          .append(URLEncoder.encode(entry.getValue(), "UTF-8"))
+          .append('&');
+    }
+    return prefix.toString();
+  }
+
+  // Emits the "Showing x-y of total" line with links to the previous and next pages. The
+  // linkPrefix must be the query string to keep, ending with '?' or '&'.
+  void emitHtmlNavigation(int total, String linkPrefix, PrintWriter out, Formatter formatter) {
+    if (total <= pageSize && page == 0) {
+      return;
+    }
+    int from = fromIndex(total);
+    int to = toIndex(total);
+    out.write("<p>");
+    if (from < to) {
+      formatter.format("Showing %d-%d of %d. ", from + 1, to, total);
+    } else {
+      formatter.format("No rows on this page, %d in total. ", total);
+    }
+    if (page > 0) {
+      formatter.format(
+          "<a href='%s%s=%d&%s=%d'>Previous</a> ",
+          linkPrefix, QUERY_PAGE, Math.min(page - 1, lastPage(total)), QUERY_PAGE_SIZE, pageSize);
+    }
+    if (to < total) {
+      formatter.format(
+          "<a href='%s%s=%d&%s=%d'>Next</a>",
+          linkPrefix, QUERY_PAGE, page + 1, QUERY_PAGE_SIZE, pageSize);
+    }
+    out.write("</p>");
+  }
+
+  private int lastPage(int total) {
+    return total == 0 ? 0 : (total - 1) / pageSize;
+  }
+
+  private static int parseOrDefault(/*@Nullable*/ String value, int defaultValue) {
+    if (value == null) {
+      return defaultValue;
+    }
+    Integer result = Ints.tryParse(value);
+    return result == null ? defaultValue : result;
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.contrib.zpages;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Collections;
+import java.util.Map;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/*>>>
+import org.checkerframework.checker.nullness.qual.Nullable;
+*/
+
+/**
+ * A ring of periodic snapshots of the cumulative RPC totals of each method. The totals over a
+ * window, like the last minute or the last hour, are the difference between the latest snapshot and
+ * the snapshot taken one window earlier, so no interval views are needed to compute them.
+ */
+@ThreadSafe
+final class RpcStatsHistory {
+
+  @GuardedBy("this")
+  private final Snapshot[] ring;
+
+  // The index of the oldest snapshot in the ring.
+  @GuardedBy("this")
+  private int first;
+
+  @GuardedBy("this")
+  private int size;
+
+  RpcStatsHistory(int capacity) {
+    checkArgument(capacity > 1, "Capacity must be greater than 1.");
+    ring = new Snapshot[capacity];
+  }
+
+  /** Adds the given snapshot, dropping the oldest one if the ring is full. */
+  synchronized void add(Snapshot snapshot) {
+    if (size == ring.length) {
+      ring[first] = snapshot;
+      first = (first + 1) % ring.length;
+    } else {
+      ring[(first + size) % ring.length] = snapshot;
+      size++;
+    }
+  }
+
+  /**
+   * Adds the given snapshot if the latest snapshot is at least {@code minIntervalNanos} older.
+   *
+   * @return {@code true} if the snapshot was added.
+   */
+  synchronized boolean addIfDue(Snapshot snapshot, long minIntervalNanos) {
+    Snapshot latest = getLatest();
+    if (latest != null && snapshot.getTimeNanos() - latest.getTimeNanos() < minIntervalNanos) {
+      return false;
+    }
+    add(snapshot);
+    return true;
+  }
+
+  /** Returns the latest snapshot, or {@code null} if there is none. */
+  synchronized /*@Nullable*/ Snapshot getLatest() {
+    return size == 0 ? null : ring[(first + size - 1) % ring.length];
+  }
+
+  /**
+   * Returns the latest snapshot taken at least {@code windowNanos} before {@code nowNanos}. If no
+   * snapshot is that old, returns the oldest one, which covers only part of the window, or {@code
+   * null} if there is none.
+   */
+  synchronized /*@Nullable*/ Snapshot getBaseline(long nowNanos, long windowNanos) {
+    if (size == 0) {
+      return null;
+    }
+    Snapshot baseline = ring[first];
+    for (int i = 1; i < size; i++) {
+      Snapshot snapshot = ring[(first + i) % ring.length];
+      if (nowNanos - snapshot.getTimeNanos() < windowNanos) {
+        break;
+      }
+      baseline = snapshot;
+    }
+    return baseline;
+  }
+
+  /** The cumulative totals of one RPC method. */
+  static final class MethodTotals {
+    long count;
+    long latencyCount;
+    double latencySumMillis;
+    double requestBytes;
+    double responseBytes;
+    long errors;
+    // How long the cumulative views have been collecting data, used for the total rates. This is
+    // not a counter, so it is not part of the deltas.
+    double cumulativeSeconds;
+
+    // Returns the totals accumulated since the given earlier totals, or these totals if the method
+    // was not seen before. Counters that went down, like after views were re-registered, are
+    // treated as restarted from zero.
+    MethodTotals minus(/*@Nullable*/ MethodTotals earlier) {
+      MethodTotals delta = new MethodTotals();
+      if (earlier == null
+          || count < earlier.count
+          || latencyCount < earlier.latencyCount
+          || errors < earlier.errors) {
+        delta.count = count;
+        delta.latencyCount = latencyCount;
+        delta.latencySumMillis = latencySumMillis;
+        delta.requestBytes = requestBytes;
+        delta.responseBytes = responseBytes;
+        delta.errors = errors;
+      } else {
+        delta.count = count - earlier.count;
+        delta.latencyCount = latencyCount - earlier.latencyCount;
+        delta.latencySumMillis = Math.max(0, latencySumMillis - earlier.latencySumMillis);
+        delta.requestBytes = Math.max(0, requestBytes - earlier.requestBytes);
+        delta.responseBytes = Math.max(0, responseBytes - earlier.responseBytes);
+        delta.errors = errors - earlier.errors;
+      }
+      return delta;
+    }
+  }
+
+  /**
+   * The cumulative totals of all the RPC methods at some point in time. The totals must not be
+   * modified once the snapshot is created.
+   */
+  static final class Snapshot {
+    private final long timeNanos;
+    private final Map<String, MethodTotals> sent;
+    private final Map<String, MethodTotals> received;
+
+    Snapshot(long timeNanos, Map<String, MethodTotals> sent, Map<String, MethodTotals> received) {
+      this.timeNanos = timeNanos;
+      this.sent = Collections.unmodifiableMap(sent);
+      this.received = Collections.unmodifiableMap(received);
+    }
+
+    // The Ticker time at which this snapshot was taken.
+    long getTimeNanos() {
+      return timeNanos;
+    }
+
+    Map<String, MethodTotals> getTotals(boolean isReceived) {
+      return isReceived ? received : sent;
+    }
+  }
+}
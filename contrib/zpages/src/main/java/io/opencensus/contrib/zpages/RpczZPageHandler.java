@@ -16,72 +16,35 @@
 
 package io.opencensus.contrib.zpages;
 
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_ERROR_COUNT_HOUR_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_ERROR_COUNT_MINUTE_VIEW;
 import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_ERROR_COUNT_VIEW;
 import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_FINISHED_COUNT_CUMULATIVE_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_FINISHED_COUNT_HOUR_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_FINISHED_COUNT_MINUTE_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_REQUEST_BYTES_HOUR_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_REQUEST_BYTES_MINUTE_VIEW;
 import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_REQUEST_BYTES_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_REQUEST_COUNT_HOUR_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_REQUEST_COUNT_MINUTE_VIEW;
 import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_REQUEST_COUNT_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_RESPONSE_BYTES_HOUR_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_RESPONSE_BYTES_MINUTE_VIEW;
 import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_RESPONSE_BYTES_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_RESPONSE_COUNT_HOUR_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_RESPONSE_COUNT_MINUTE_VIEW;
 import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_RESPONSE_COUNT_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_ROUNDTRIP_LATENCY_HOUR_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_ROUNDTRIP_LATENCY_MINUTE_VIEW;
 import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_ROUNDTRIP_LATENCY_VIEW;
 import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_STARTED_COUNT_CUMULATIVE_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_STARTED_COUNT_HOUR_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_STARTED_COUNT_MINUTE_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_UNCOMPRESSED_REQUEST_BYTES_HOUR_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_UNCOMPRESSED_REQUEST_BYTES_MINUTE_VIEW;
 import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_UNCOMPRESSED_REQUEST_BYTES_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_UNCOMPRESSED_RESPONSE_BYTES_HOUR_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_UNCOMPRESSED_RESPONSE_BYTES_MINUTE_VIEW;
 import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_UNCOMPRESSED_RESPONSE_BYTES_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_ERROR_COUNT_HOUR_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_ERROR_COUNT_MINUTE_VIEW;
 import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_ERROR_COUNT_VIEW;
 import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_FINISHED_COUNT_CUMULATIVE_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_FINISHED_COUNT_HOUR_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_FINISHED_COUNT_MINUTE_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_REQUEST_BYTES_HOUR_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_REQUEST_BYTES_MINUTE_VIEW;
 import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_REQUEST_BYTES_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_REQUEST_COUNT_HOUR_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_REQUEST_COUNT_MINUTE_VIEW;
 import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_REQUEST_COUNT_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_RESPONSE_BYTES_HOUR_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_RESPONSE_BYTES_MINUTE_VIEW;
 import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_RESPONSE_BYTES_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_RESPONSE_COUNT_HOUR_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_RESPONSE_COUNT_MINUTE_VIEW;
 import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_RESPONSE_COUNT_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_SERVER_ELAPSED_TIME_HOUR_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_SERVER_LATENCY_HOUR_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_SERVER_LATENCY_MINUTE_VIEW;
 import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_SERVER_LATENCY_VIEW;
 import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_STARTED_COUNT_CUMULATIVE_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_STARTED_COUNT_HOUR_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_STARTED_COUNT_MINUTE_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_UNCOMPRESSED_REQUEST_BYTES_HOUR_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_UNCOMPRESSED_REQUEST_BYTES_MINUTE_VIEW;
 import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_UNCOMPRESSED_REQUEST_BYTES_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_UNCOMPRESSED_RESPONSE_BYTES_HOUR_VIEW;
-import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_UNCOMPRESSED_RESPONSE_BYTES_MINUTE_VIEW;
 import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_UNCOMPRESSED_RESPONSE_BYTES_VIEW;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Charsets;
+import com.google.common.base.Ticker;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.opencensus.common.Duration;
+import io.opencensus.contrib.zpages.RpcStatsHistory.MethodTotals;
 import io.opencensus.stats.AggregationData;
 import io.opencensus.stats.AggregationData.CountData;
 import io.opencensus.stats.AggregationData.DistributionData;
@@ -99,16 +62,31 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.SortedMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /*>>>
 import org.checkerframework.checker.nullness.qual.Nullable;
 */
 
-/** HTML page formatter for gRPC cumulative and interval stats. */
+/**
+ * HTML page formatter for gRPC stats. The last minute and last hour stats are derived from periodic
+ * samples of the cumulative views, so the interval views don't need to be registered.
+ */
 @SuppressWarnings("deprecation")
 final class RpczZPageHandler extends ZPageHandler {
 
+  private static final Logger logger = Logger.getLogger(RpczZPageHandler.class.getName());
+
   private final ViewManager viewManager;
+  private final Ticker ticker;
+  private final boolean periodicSampling;
+  private final AtomicBoolean samplerStarted = new AtomicBoolean();
+  private final RpcStatsHistory history = new RpcStatsHistory(HISTORY_CAPACITY);
 
   private static final String RPCZ_URL = "/rpcz";
   private static final String SENT = "Sent";
@@ -116,8 +94,14 @@ final class RpczZPageHandler extends ZPageHandler {
   private static final String TITLE_COLOR = "\"#FFF\"";
   private static final String TABLE_HEADER_COLOR = "\"#A94442\"";
   private static final String TABLE_ROW_COLOR = "\"#FFF\"";
-  private static final double SECONDS_PER_MINUTE = 60.0;
-  private static final double SECONDS_PER_HOUR = 3600.0;
+  private static final long NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+  private static final long NANOS_PER_HOUR = TimeUnit.HOURS.toNanos(1);
+  // How often the cumulative views are sampled in the background. Page loads sample them too, but
+  // never closer than MIN_SAMPLE_SPACING_NANOS to the previous sample, which bounds the history
+  // needed to cover the last hour.
+  private static final long SAMPLE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+  private static final long MIN_SAMPLE_SPACING_NANOS = SAMPLE_INTERVAL_NANOS * 9 / 10;
+  private static final int HISTORY_CAPACITY = (int) (NANOS_PER_HOUR / MIN_SAMPLE_SPACING_NANOS) + 2;
   private static final double NANOS_PER_SECOND = 1e9;
   private static final double BYTES_PER_KB = 1024;
   private static final ImmutableList<String> RPC_STATS_TYPES =
@@ -158,67 +142,6 @@ final class RpczZPageHandler extends ZPageHandler {
           RPC_SERVER_UNCOMPRESSED_RESPONSE_BYTES_VIEW,
           RPC_SERVER_FINISHED_COUNT_CUMULATIVE_VIEW);
 
-  // Interval views may be removed in the future.
-  private static final ImmutableList<View> CLIENT_RPC_MINUTE_VIEWS =
-      ImmutableList.of(
-          RPC_CLIENT_ERROR_COUNT_MINUTE_VIEW,
-          RPC_CLIENT_ROUNDTRIP_LATENCY_MINUTE_VIEW,
-          RPC_CLIENT_REQUEST_BYTES_MINUTE_VIEW,
-          RPC_CLIENT_RESPONSE_BYTES_MINUTE_VIEW,
-          RPC_CLIENT_STARTED_COUNT_MINUTE_VIEW,
-          // The last 5 views are not used yet.
-          RPC_CLIENT_REQUEST_COUNT_MINUTE_VIEW,
-          RPC_CLIENT_RESPONSE_COUNT_MINUTE_VIEW,
-          RPC_CLIENT_UNCOMPRESSED_REQUEST_BYTES_MINUTE_VIEW,
-          RPC_CLIENT_UNCOMPRESSED_RESPONSE_BYTES_MINUTE_VIEW,
-          RPC_CLIENT_FINISHED_COUNT_MINUTE_VIEW);
-
-  // Interval views may be removed in the future.
-  private static final ImmutableList<View> SERVER_RPC_MINUTE_VIEWS =
-      ImmutableList.of(
-          RPC_SERVER_ERROR_COUNT_MINUTE_VIEW,
-          RPC_SERVER_SERVER_LATENCY_MINUTE_VIEW,
-          RPC_SERVER_REQUEST_BYTES_MINUTE_VIEW,
-          RPC_SERVER_RESPONSE_BYTES_MINUTE_VIEW,
-          RPC_SERVER_STARTED_COUNT_MINUTE_VIEW,
-          // The last 5 views are not used yet.
-          RPC_SERVER_REQUEST_COUNT_MINUTE_VIEW,
-          RPC_SERVER_RESPONSE_COUNT_MINUTE_VIEW,
-          RPC_SERVER_UNCOMPRESSED_REQUEST_BYTES_MINUTE_VIEW,
-          RPC_SERVER_UNCOMPRESSED_RESPONSE_BYTES_MINUTE_VIEW,
-          RPC_SERVER_FINISHED_COUNT_MINUTE_VIEW);
-
-  // Interval views may be removed in the future.
-  private static final ImmutableList<View> CLIENT_RPC_HOUR_VIEWS =
-      ImmutableList.of(
-          RPC_CLIENT_ERROR_COUNT_HOUR_VIEW,
-          RPC_CLIENT_ROUNDTRIP_LATENCY_HOUR_VIEW,
-          RPC_CLIENT_REQUEST_BYTES_HOUR_VIEW,
-          RPC_CLIENT_RESPONSE_BYTES_HOUR_VIEW,
-          RPC_CLIENT_STARTED_COUNT_HOUR_VIEW,
-          // The last 5 views are not used yet.
-          RPC_CLIENT_REQUEST_COUNT_HOUR_VIEW,
-          RPC_CLIENT_RESPONSE_COUNT_HOUR_VIEW,
-          RPC_CLIENT_UNCOMPRESSED_REQUEST_BYTES_HOUR_VIEW,
-          RPC_CLIENT_UNCOMPRESSED_RESPONSE_BYTES_HOUR_VIEW,
-          RPC_CLIENT_FINISHED_COUNT_HOUR_VIEW);
-
-  // Interval views may be removed in the future.
-  private static final ImmutableList<View> SERVER_RPC_HOUR_VIEWS =
-      ImmutableList.of(
-          RPC_SERVER_ERROR_COUNT_HOUR_VIEW,
-          RPC_SERVER_SERVER_LATENCY_HOUR_VIEW,
-          RPC_SERVER_SERVER_ELAPSED_TIME_HOUR_VIEW,
-          RPC_SERVER_REQUEST_BYTES_HOUR_VIEW,
-          RPC_SERVER_RESPONSE_BYTES_HOUR_VIEW,
-          RPC_SERVER_STARTED_COUNT_HOUR_VIEW,
-          // The last 5 views are not used yet.
-          RPC_SERVER_REQUEST_COUNT_HOUR_VIEW,
-          RPC_SERVER_RESPONSE_COUNT_HOUR_VIEW,
-          RPC_SERVER_UNCOMPRESSED_REQUEST_BYTES_HOUR_VIEW,
-          RPC_SERVER_UNCOMPRESSED_RESPONSE_BYTES_HOUR_VIEW,
-          RPC_SERVER_FINISHED_COUNT_HOUR_VIEW);
-
   @Override
   public String getUrlPath() {
     return RPCZ_URL;
@@ -285,18 +208,21 @@ final class RpczZPageHandler extends ZPageHandler {
             + "Open<span>Census</span></p>");
     out.write("<h1>RPC Stats</h1>");
     out.write("<p></p>");
-    emitSummaryTable(out, formatter, /* isReceived= */ false);
-    emitSummaryTable(out, formatter, /* isReceived= */ true);
+    startSamplerIfNeeded();
+    RpcStatsHistory.Snapshot current = sample();
+    emitSummaryTable(out, formatter, current, /* isReceived= */ false);
+    emitSummaryTable(out, formatter, current, /* isReceived= */ true);
   }
 
-  private void emitSummaryTable(PrintWriter out, Formatter formatter, boolean isReceived) {
+  private void emitSummaryTable(
+      PrintWriter out, Formatter formatter, RpcStatsHistory.Snapshot current, boolean isReceived) {
     formatter.format(
         "<p class=\"title\"><table bgcolor=%s width=100%%><tr align=left><td><font size=+2>"
             + "%s</font></td></tr></table></p>",
         TITLE_COLOR, (isReceived ? RECEIVED : SENT));
     formatter.format("<table bgcolor=%s frame=box cellspacing=0 cellpadding=2>", TABLE_ROW_COLOR);
     emitSummaryTableHeader(out, formatter);
-    Map<String, StatsSnapshot> snapshots = getStatsSnapshots(isReceived);
+    Map<String, StatsSnapshot> snapshots = getStatsSnapshots(current, isReceived);
     for (Entry<String, StatsSnapshot> entry : snapshots.entrySet()) {
       emitSummaryTableRows(out, formatter, entry.getValue(), entry.getKey());
     }
@@ -350,22 +276,74 @@ final class RpczZPageHandler extends ZPageHandler {
     out.write("</tr>");
   }
 
-  // Gets stats snapshot for each method.
-  private Map<String, StatsSnapshot> getStatsSnapshots(boolean isReceived) {
+  // Reads the cumulative views and records the result in the history if a sample is due.
+  private RpcStatsHistory.Snapshot sample() {
+    RpcStatsHistory.Snapshot snapshot =
+        new RpcStatsHistory.Snapshot(
+            ticker.read(),
+            getMethodTotals(CLIENT_RPC_CUMULATIVE_VIEWS),
+            getMethodTotals(SERVER_RPC_CUMULATIVE_VIEWS));
+    history.addIfDue(snapshot, MIN_SAMPLE_SPACING_NANOS);
+    return snapshot;
+  }
+
+  // Gets stats snapshot for each method. The last minute and last hour stats are the deltas between
+  // the current totals and the totals sampled one window earlier.
+  private Map<String, StatsSnapshot> getStatsSnapshots(
+      RpcStatsHistory.Snapshot current, boolean isReceived) {
     SortedMap<String, StatsSnapshot> map = Maps.newTreeMap(); // Sorted by method name.
-    if (isReceived) {
-      getStatsSnapshots(map, SERVER_RPC_CUMULATIVE_VIEWS);
-      getStatsSnapshots(map, SERVER_RPC_MINUTE_VIEWS);
-      getStatsSnapshots(map, SERVER_RPC_HOUR_VIEWS);
-    } else {
-      getStatsSnapshots(map, CLIENT_RPC_CUMULATIVE_VIEWS);
-      getStatsSnapshots(map, CLIENT_RPC_MINUTE_VIEWS);
-      getStatsSnapshots(map, CLIENT_RPC_HOUR_VIEWS);
+    long nowNanos = current.getTimeNanos();
+    RpcStatsHistory.Snapshot minuteBaseline = history.getBaseline(nowNanos, NANOS_PER_MINUTE);
+    RpcStatsHistory.Snapshot hourBaseline = history.getBaseline(nowNanos, NANOS_PER_HOUR);
+    for (Entry<String, MethodTotals> entry : current.getTotals(isReceived).entrySet()) {
+      String method = entry.getKey();
+      MethodTotals totals = entry.getValue();
+      StatsSnapshot snapshot = new StatsSnapshot();
+
+      snapshot.countTotal = totals.count;
+      snapshot.avgLatencyTotal = getAvgLatency(totals);
+      snapshot.rpcRateTotal = totals.count / totals.cumulativeSeconds;
+      snapshot.inputRateTotal = totals.requestBytes / BYTES_PER_KB / totals.cumulativeSeconds;
+      snapshot.outputRateTotal = totals.responseBytes / BYTES_PER_KB / totals.cumulativeSeconds;
+      snapshot.errorsTotal = totals.errors;
+
+      if (minuteBaseline != null) {
+        MethodTotals lastMinute = totals.minus(minuteBaseline.getTotals(isReceived).get(method));
+        double seconds = (nowNanos - minuteBaseline.getTimeNanos()) / NANOS_PER_SECOND;
+        snapshot.countLastMinute = lastMinute.count;
+        snapshot.avgLatencyLastMinute = getAvgLatency(lastMinute);
+        snapshot.rpcRateLastMinute = getRate(lastMinute.count, seconds);
+        snapshot.inputRateLastMinute = getRate(lastMinute.requestBytes / BYTES_PER_KB, seconds);
+        snapshot.outputRateLastMinute = getRate(lastMinute.responseBytes / BYTES_PER_KB, seconds);
+        snapshot.errorsLastMinute = lastMinute.errors;
+      }
+
+      if (hourBaseline != null) {
+        MethodTotals lastHour = totals.minus(hourBaseline.getTotals(isReceived).get(method));
+        double seconds = (nowNanos - hourBaseline.getTimeNanos()) / NANOS_PER_SECOND;
+        snapshot.countLastHour = lastHour.count;
+        snapshot.avgLatencyLastHour = getAvgLatency(lastHour);
+        snapshot.rpcRateLastHour = getRate(lastHour.count, seconds);
+        snapshot.inputRateLastHour = getRate(lastHour.requestBytes / BYTES_PER_KB, seconds);
+        snapshot.outputRateLastHour = getRate(lastHour.responseBytes / BYTES_PER_KB, seconds);
+        snapshot.errorsLastHour = lastHour.errors;
+      }
+
+      map.put(method, snapshot);
     }
     return map;
   }
 
-  private void getStatsSnapshots(Map<String, StatsSnapshot> map, List<View> views) {
+  private static double getAvgLatency(MethodTotals totals) {
+    return totals.latencyCount == 0 ? 0 : totals.latencySumMillis / totals.latencyCount;
+  }
+
+  private static double getRate(double value, double seconds) {
+    return seconds > 0 ? value / seconds : 0;
+  }
+
+  private Map<String, MethodTotals> getMethodTotals(List<View> views) {
+    Map<String, MethodTotals> map = Maps.newHashMap();
     for (View view : views) {
       ViewData viewData = viewManager.getView(view.getName());
       if (viewData == null) {
@@ -381,87 +359,46 @@ final class RpczZPageHandler extends ZPageHandler {
           tagValue = tagValues.get(1);
         }
         String method = tagValue == null ? "" : tagValue.asString();
-        StatsSnapshot snapshot = map.get(method);
-        if (snapshot == null) {
-          snapshot = new StatsSnapshot();
-          map.put(method, snapshot);
+        MethodTotals totals = map.get(method);
+        if (totals == null) {
+          totals = new MethodTotals();
+          map.put(method, totals);
         }
 
-        getStats(snapshot, entry.getValue(), view, viewData.getWindowData());
+        getTotals(totals, entry.getValue(), view, viewData.getWindowData());
       }
     }
+    return map;
   }
 
-  // Gets RPC stats by its view definition, and set it to stats snapshot.
-  private static void getStats(
-      StatsSnapshot snapshot,
+  // Gets RPC totals by its view definition, and adds them to the method totals.
+  private static void getTotals(
+      MethodTotals totals,
       AggregationData data,
       View view,
       ViewData.AggregationWindowData windowData) {
+    if (windowData instanceof ViewData.AggregationWindowData.CumulativeData) {
+      totals.cumulativeSeconds =
+          Math.max(
+              totals.cumulativeSeconds,
+              getDurationInSecs((ViewData.AggregationWindowData.CumulativeData) windowData));
+    }
     if (view == RPC_CLIENT_ROUNDTRIP_LATENCY_VIEW || view == RPC_SERVER_SERVER_LATENCY_VIEW) {
-      snapshot.avgLatencyTotal = ((DistributionData) data).getMean();
-    } else if (view == RPC_CLIENT_ROUNDTRIP_LATENCY_MINUTE_VIEW
-        || view == RPC_SERVER_SERVER_LATENCY_MINUTE_VIEW) {
-      snapshot.avgLatencyLastMinute = ((AggregationData.MeanData) data).getMean();
-    } else if (view == RPC_CLIENT_ROUNDTRIP_LATENCY_HOUR_VIEW
-        || view == RPC_SERVER_SERVER_LATENCY_HOUR_VIEW) {
-      snapshot.avgLatencyLastHour = ((AggregationData.MeanData) data).getMean();
+      DistributionData distributionData = (DistributionData) data;
+      totals.latencyCount = distributionData.getCount();
+      totals.latencySumMillis = distributionData.getCount() * distributionData.getMean();
     } else if (view == RPC_CLIENT_ERROR_COUNT_VIEW || view == RPC_SERVER_ERROR_COUNT_VIEW) {
-      snapshot.errorsTotal = ((AggregationData.MeanData) data).getCount();
-    } else if (view == RPC_CLIENT_ERROR_COUNT_MINUTE_VIEW
-        || view == RPC_SERVER_ERROR_COUNT_MINUTE_VIEW) {
-      snapshot.errorsLastMinute = ((AggregationData.MeanData) data).getCount();
-    } else if (view == RPC_CLIENT_ERROR_COUNT_HOUR_VIEW
-        || view == RPC_SERVER_ERROR_COUNT_HOUR_VIEW) {
-      snapshot.errorsLastHour = ((AggregationData.MeanData) data).getCount();
+      // One row per status, so sum them up.
+      totals.errors += ((AggregationData.MeanData) data).getCount();
     } else if (view == RPC_CLIENT_REQUEST_BYTES_VIEW || view == RPC_SERVER_REQUEST_BYTES_VIEW) {
       DistributionData distributionData = (DistributionData) data;
-      snapshot.inputRateTotal =
-          distributionData.getCount()
-              * distributionData.getMean()
-              / BYTES_PER_KB
-              / getDurationInSecs((ViewData.AggregationWindowData.CumulativeData) windowData);
-    } else if (view == RPC_CLIENT_REQUEST_BYTES_MINUTE_VIEW
-        || view == RPC_SERVER_REQUEST_BYTES_MINUTE_VIEW) {
-      AggregationData.MeanData meanData = (AggregationData.MeanData) data;
-      snapshot.inputRateLastMinute =
-          meanData.getMean() * meanData.getCount() / BYTES_PER_KB / SECONDS_PER_MINUTE;
-    } else if (view == RPC_CLIENT_REQUEST_BYTES_HOUR_VIEW
-        || view == RPC_SERVER_REQUEST_BYTES_HOUR_VIEW) {
-      AggregationData.MeanData meanData = (AggregationData.MeanData) data;
-      snapshot.inputRateLastHour =
-          meanData.getMean() * meanData.getCount() / BYTES_PER_KB / SECONDS_PER_HOUR;
+      totals.requestBytes = distributionData.getCount() * distributionData.getMean();
     } else if (view == RPC_CLIENT_RESPONSE_BYTES_VIEW || view == RPC_SERVER_RESPONSE_BYTES_VIEW) {
       DistributionData distributionData = (DistributionData) data;
-      snapshot.outputRateTotal =
-          distributionData.getCount()
-              * distributionData.getMean()
-              / BYTES_PER_KB
-              / getDurationInSecs((ViewData.AggregationWindowData.CumulativeData) windowData);
-    } else if (view == RPC_CLIENT_RESPONSE_BYTES_MINUTE_VIEW
-        || view == RPC_SERVER_RESPONSE_BYTES_MINUTE_VIEW) {
-      AggregationData.MeanData meanData = (AggregationData.MeanData) data;
-      snapshot.outputRateLastMinute =
-          meanData.getMean() * meanData.getCount() / BYTES_PER_KB / SECONDS_PER_MINUTE;
-    } else if (view == RPC_CLIENT_RESPONSE_BYTES_HOUR_VIEW
-        || view == RPC_SERVER_RESPONSE_BYTES_HOUR_VIEW) {
-      AggregationData.MeanData meanData = (AggregationData.MeanData) data;
-      snapshot.outputRateLastHour =
-          meanData.getMean() * meanData.getCount() / BYTES_PER_KB / SECONDS_PER_HOUR;
-    } else if (view == RPC_CLIENT_STARTED_COUNT_MINUTE_VIEW
-        || view == RPC_SERVER_STARTED_COUNT_MINUTE_VIEW) {
-      snapshot.countLastMinute = ((CountData) data).getCount();
-      snapshot.rpcRateLastMinute = snapshot.countLastMinute / SECONDS_PER_MINUTE;
-    } else if (view == RPC_CLIENT_STARTED_COUNT_HOUR_VIEW
-        || view == RPC_SERVER_STARTED_COUNT_HOUR_VIEW) {
-      snapshot.countLastHour = ((CountData) data).getCount();
-      snapshot.rpcRateLastHour = snapshot.countLastHour / SECONDS_PER_HOUR;
+      totals.responseBytes = distributionData.getCount() * distributionData.getMean();
     } else if (view == RPC_CLIENT_STARTED_COUNT_CUMULATIVE_VIEW
         || view == RPC_SERVER_STARTED_COUNT_CUMULATIVE_VIEW) {
-      snapshot.countTotal = ((CountData) data).getCount();
-      snapshot.rpcRateTotal =
-          snapshot.countTotal
-              / getDurationInSecs((ViewData.AggregationWindowData.CumulativeData) windowData);
+      totals.count = ((CountData) data).getCount();
     } // TODO(songya): compute and store latency percentiles.
   }
 
@@ -479,12 +416,49 @@ final class RpczZPageHandler extends ZPageHandler {
     return duration.getNanos() / NANOS_PER_SECOND + duration.getSeconds();
   }
 
+  // Starts sampling the cumulative views in the background, so the history keeps covering the last
+  // hour even if the page is not loaded. Only the first call starts the sampler.
+  private void startSamplerIfNeeded() {
+    if (!periodicSampling || !samplerStarted.compareAndSet(false, true)) {
+      return;
+    }
+    ScheduledExecutorService sampler =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("RpczSampler").build());
+    sampler.scheduleWithFixedDelay(
+        new Sampler(this), SAMPLE_INTERVAL_NANOS, SAMPLE_INTERVAL_NANOS, TimeUnit.NANOSECONDS);
+  }
+
   static RpczZPageHandler create(ViewManager viewManager) {
-    return new RpczZPageHandler(viewManager);
+    return new RpczZPageHandler(viewManager, Ticker.systemTicker(), /* periodicSampling= */ true);
   }
 
-  private RpczZPageHandler(ViewManager viewManager) {
+  @VisibleForTesting
+  static RpczZPageHandler create(ViewManager viewManager, Ticker ticker, boolean periodicSampling) {
+    return new RpczZPageHandler(viewManager, ticker, periodicSampling);
+  }
+
+  private RpczZPageHandler(ViewManager viewManager, Ticker ticker, boolean periodicSampling) {
     this.viewManager = viewManager;
+    this.ticker = ticker;
+    this.periodicSampling = periodicSampling;
+  }
+
+  private static final class Sampler implements Runnable {
+    private final RpczZPageHandler handler;
+
+    private Sampler(RpczZPageHandler handler) {
+      this.handler = handler;
+    }
+
+    @Override
+    public void run() {
+      try {
+        handler.sample();
+      } catch (RuntimeException e) {
+        logger.log(Level.WARNING, "Failed to sample the RPC stats.", e);
+      }
+    }
   }
 
   private static class StatsSnapshot {
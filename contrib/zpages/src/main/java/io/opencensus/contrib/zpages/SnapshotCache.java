@@ -0,0 +1,88 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.contrib.zpages;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Ticker;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Holds the last value computed by a {@link Supplier} and recomputes it only when it is older than
+ * the configured max age. Concurrent readers of an expired snapshot wait for a single refresh
+ * instead of each recomputing it.
+ */
+@ThreadSafe
+final class SnapshotCache<T> {
+  // The default max age of a snapshot, chosen so that a page refreshed by several users at once is
+  // only computed once, while still looking live.
+  static final long DEFAULT_MAX_AGE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final Supplier<T> loader;
+  private final Ticker ticker;
+  private volatile long maxAgeNanos = DEFAULT_MAX_AGE_NANOS;
+
+  @GuardedBy("this")
+  @javax.annotation.Nullable
+  private T snapshot;
+
+  @GuardedBy("this")
+  private boolean loaded;
+
+  @GuardedBy("this")
+  private long loadTimeNanos;
+
+  SnapshotCache(Supplier<T> loader, Ticker ticker) {
+    this.loader = checkNotNull(loader, "loader");
+    this.ticker = checkNotNull(ticker, "ticker");
+  }
+
+  /**
+   * Returns the cached snapshot, computing a new one if there is none or it is older than the max
+   * age. Returns {@code null} if the loader returned {@code null}.
+   */
+  synchronized T get() {
+    long now = ticker.read();
+    if (!loaded || now - loadTimeNanos >= maxAgeNanos) {
+      snapshot = loader.get();
+      loaded = true;
+      loadTimeNanos = now;
+    }
+    return castNonNull(snapshot);
+  }
+
+  /**
+   * Sets the max age of a snapshot. A max age of {@code 0} disables caching.
+   *
+   * @param maxAge the max age, must not be negative.
+   * @param unit the time unit of {@code maxAge}.
+   */
+  void setMaxAge(long maxAge, TimeUnit unit) {
+    checkArgument(maxAge >= 0, "Negative maxAge.");
+    maxAgeNanos = unit.toNanos(maxAge);
+  }
+
+  // The loader decides the nullness of T, so the snapshot is only as nullable as T.
+  @SuppressWarnings("nullness")
+  private static <T> T castNonNull(@javax.annotation.Nullable T arg) {
+    return arg;
+  }
+}
@@ -23,6 +23,8 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Charsets;
 import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
+import com.google.common.base.Supplier;
+import com.google.common.base.Ticker;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import io.opencensus.common.Function;
@@ -50,7 +52,11 @@ import java.io.BufferedWriter;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.Formatter;
 import java.util.List;
@@ -59,23 +65,33 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.concurrent.GuardedBy;
 
 /*>>>
 import org.checkerframework.checker.nullness.qual.Nullable;
 */
 
-/** HTML page formatter for all exported {@link View}s. */
+/**
+ * HTML page formatter for all exported {@link View}s.
+ *
+ * <p>The exported views and the data of each view are read from snapshots which are refreshed at
+ * most once per max age. The directory and view data tables are paginated, and the page can also be
+ * requested as JSON with {@code zformat=json}.
+ */
 @SuppressWarnings("deprecation")
 final class StatszZPageHandler extends ZPageHandler {
 
   private static final Object monitor = new Object();
 
   private final ViewManager viewManager;
+  private final Ticker ticker;
+  private final SnapshotCache<Set<View>> exportedViewsCache;
+  private volatile long snapshotMaxAgeNanos = SnapshotCache.DEFAULT_MAX_AGE_NANOS;
 
   // measures, cachedViews and root are created when StatszZPageHandler is initialized, and will
   // be updated every time when there's a new View from viewManager.getAllExportedViews().
-  // viewManager.getAllExportedViews() will be called every time when the StatsZ page is
+  // viewManager.getAllExportedViews() is called through exportedViewsCache when the StatsZ page is
   // re-rendered, like refreshing or navigating to other paths.
 
   @GuardedBy("monitor")
@@ -87,6 +103,17 @@ final class StatszZPageHandler extends ZPageHandler {
   @GuardedBy("monitor")
   private final TreeNode root = new TreeNode();
 
+  // The last snapshot of exported views merged into the tree, to skip merging the same snapshot.
+  @GuardedBy("monitor")
+  @javax.annotation.Nullable
+  private Set<View> groupedViews;
+
+  // Snapshots of the data of each view that has been displayed. Only views from the tree have an
+  // entry, so this is bounded by the number of exported views.
+  @GuardedBy("monitor")
+  private final Map<View.Name, SnapshotCache</*@Nullable*/ ViewDataSnapshot>> viewDataCaches =
+      Maps.newHashMap();
+
   @VisibleForTesting static final String QUERY_PATH = "path";
   private static final String STATSZ_URL = "/statsz";
   private static final String TITLE_COLOR = "#FFF";
@@ -121,10 +148,20 @@ final class StatszZPageHandler extends ZPageHandler {
     return STATSZ_URL;
   }
 
+  @Override
+  boolean supportsJson() {
+    return true;
+  }
+
   @Override
   public void emitHtml(Map<String, String> queryMap, OutputStream outputStream) {
     PrintWriter out =
         new PrintWriter(new BufferedWriter(new OutputStreamWriter(outputStream, Charsets.UTF_8)));
+    if (PageParams.isJson(queryMap)) {
+      emitJson(queryMap, out);
+      out.close();
+      return;
+    }
     out.write("<!DOCTYPE html>\n");
     out.write("<html lang=\"en\"><head>\n");
     out.write("<meta charset=\"utf-8\">\n");
@@ -174,10 +211,12 @@ final class StatszZPageHandler extends ZPageHandler {
     out.write("</style>");
   }
 
-  private void emitHtmlBody(Map<String, String> queryMap, PrintWriter out, Formatter formatter) {
+  private void emitHtmlBody(Map<String, String> queryMap, PrintWriter out, Formatter formatter)
+      throws UnsupportedEncodingException {
+    PageParams pageParams = PageParams.fromQueryMap(queryMap);
+    String linkPrefix = PageParams.linkPrefix(queryMap);
     synchronized (monitor) {
-      groupViewsByDirectoriesAndGetMeasures(
-          viewManager.getAllExportedViews(), root, measures, cachedViews);
+      refreshViews();
       out.write(
           "<p class=\"header\">"
               + "<img class=\"oc\" src=\"https://opencensus.io/img/logo-sm.svg\" />"
@@ -192,15 +231,55 @@ final class StatszZPageHandler extends ZPageHandler {
       out.write("<p></p>");
       String path = queryMap.get(QUERY_PATH);
       TreeNode current = findNode(path);
-      emitDirectoryTable(current, path, out, formatter);
+      emitDirectoryTable(current, path, pageParams, linkPrefix, out, formatter);
       if (current != null && current.viewName != null) {
-        ViewData viewData = viewManager.getView(current.viewName);
-        emitViewData(viewData, current.viewName, out, formatter);
+        ViewDataSnapshot viewData = getViewData(current.viewName);
+        emitViewData(viewData, current.viewName, pageParams, linkPrefix, out, formatter);
       }
       emitMeasureTable(measures, out, formatter);
     }
   }
 
+  /**
+   * Sets the max age of the exported views and view data snapshots. A max age of {@code 0} makes
+   * every request read fresh data from the {@code ViewManager}.
+   *
+   * @param maxAge the max age, must not be negative.
+   * @param unit the time unit of {@code maxAge}.
+   */
+  void setSnapshotMaxAge(long maxAge, TimeUnit unit) {
+    synchronized (monitor) {
+      exportedViewsCache.setMaxAge(maxAge, unit);
+      for (SnapshotCache</*@Nullable*/ ViewDataSnapshot> viewDataCache : viewDataCaches.values()) {
+        viewDataCache.setMaxAge(maxAge, unit);
+      }
+      snapshotMaxAgeNanos = unit.toNanos(maxAge);
+    }
+  }
+
+  // Merges the current snapshot of exported views into the tree, if it was not merged already.
+  @GuardedBy("monitor")
+  private void refreshViews() {
+    Set<View> views = exportedViewsCache.get();
+    if (views != groupedViews) {
+      groupViewsByDirectoriesAndGetMeasures(views, root, measures, cachedViews);
+      groupedViews = views;
+    }
+  }
+
+  @GuardedBy("monitor")
+  private /*@Nullable*/ ViewDataSnapshot getViewData(View.Name viewName) {
+    SnapshotCache</*@Nullable*/ ViewDataSnapshot> viewDataCache = viewDataCaches.get(viewName);
+    if (viewDataCache == null) {
+      viewDataCache =
+          new SnapshotCache</*@Nullable*/ ViewDataSnapshot>(
+              new ViewDataLoader(viewManager, viewName), ticker);
+      viewDataCache.setMaxAge(snapshotMaxAgeNanos, TimeUnit.NANOSECONDS);
+      viewDataCaches.put(viewName, viewDataCache);
+    }
+    return viewDataCache.get();
+  }
+
   // Parses view names, creates a tree that represents the directory structure and put each view
   // under appropriate directory. Also gets measures from the given views.
   // Directories are the namespaces in view name, separated by '/'.
@@ -240,6 +319,8 @@ final class StatszZPageHandler extends ZPageHandler {
   private void emitDirectoryTable(
       /*@Nullable*/ TreeNode currentNode,
       /*@Nullable*/ String path,
+      PageParams pageParams,
+      String linkPrefix,
       PrintWriter out,
       Formatter formatter) {
     out.write("<h2 style=\"margin-bottom:0;\">Views</h2>");
@@ -253,7 +334,16 @@ final class StatszZPageHandler extends ZPageHandler {
     }
     emitDirectoryHeader(path, out, formatter);
     out.write("<table cellspacing=0 cellpadding=0>");
+    int total = currentNode.children.size();
+    int from = pageParams.fromIndex(total);
+    int to = pageParams.toIndex(total);
+    int index = 0;
     for (Entry<String, TreeNode> entry : currentNode.children.entrySet()) {
+      if (index++ < from) {
+        continue;
+      } else if (index > to) {
+        break;
+      }
       TreeNode child = entry.getValue();
       String relativePath = entry.getKey();
       if (child.viewName == null) { // Directory node, emit a row for directory.
@@ -272,6 +362,7 @@ final class StatszZPageHandler extends ZPageHandler {
       }
     }
     out.write("</table>");
+    pageParams.emitHtmlNavigation(total, linkPrefix, out, formatter);
     out.write("<p></p>");
   }
 
@@ -314,23 +405,32 @@ final class StatszZPageHandler extends ZPageHandler {
   }
 
   private static void emitViewData(
-      /*@Nullable*/ ViewData viewData, View.Name viewName, PrintWriter out, Formatter formatter) {
-    if (viewData == null) {
+      /*@Nullable*/ ViewDataSnapshot snapshot,
+      View.Name viewName,
+      PageParams pageParams,
+      String linkPrefix,
+      PrintWriter out,
+      Formatter formatter) {
+    if (snapshot == null) {
       formatter.format(
           "<p class=\"%s\">No Stats found for View %s.</p>", CLASS_LARGER_TR, viewName.asString());
       return;
     }
+    ViewData viewData = snapshot.viewData;
     View view = viewData.getView();
     emitViewInfo(view, viewData.getWindowData(), out, formatter);
     formatter.format("<p class=\"view\">Stats for View %s</p>", view.getName().asString());
 
     formatter.format("<table class=\"borders\" cellspacing=0 cellpadding=0>");
     emitViewDataTableHeader(view, out, formatter);
-    for (Entry<List</*@Nullable*/ TagValue>, AggregationData> entry :
-        viewData.getAggregationMap().entrySet()) {
-      emitViewDataRow(view, entry, out, formatter);
+    List<Entry<List</*@Nullable*/ TagValue>, AggregationData>> rows = snapshot.rows;
+    int total = rows.size();
+    int to = pageParams.toIndex(total);
+    for (int i = pageParams.fromIndex(total); i < to; i++) {
+      emitViewDataRow(view, rows.get(i), out, formatter);
     }
     out.write("</table>");
+    pageParams.emitHtmlNavigation(total, linkPrefix, out, formatter);
     out.write("<p></p>");
   }
 
@@ -344,28 +444,8 @@ final class StatszZPageHandler extends ZPageHandler {
     formatter.format("<td>%s</td>", view.getName().asString());
     formatter.format("<td class=\"border-left\">%s</td>", view.getDescription());
     formatter.format("<td class=\"border-left\">%s</td>", view.getMeasure().getName());
-    String aggregationType =
-        view.getAggregation()
-            .match(
-                Functions.returnConstant("Sum"),
-                Functions.returnConstant("Count"),
-                Functions.returnConstant("Distribution"),
-                Functions.returnConstant("Last Value"),
-                new Function<Aggregation, String>() {
-                  @Override
-                  public String apply(Aggregation arg) {
-                    // TODO(songya): remove this once Mean aggregation is completely removed. Before
-                    // that
-                    // we need to continue supporting Mean, since it could still be used by users
-                    // and some
-                    // deprecated RPC views.
-                    if (arg instanceof Aggregation.Mean) {
-                      return "Mean";
-                    }
-                    throw new AssertionError();
-                  }
-                });
-    formatter.format("<td class=\"border-left\">%s</td>", aggregationType);
+    formatter.format(
+        "<td class=\"border-left\">%s</td>", getAggregationType(view.getAggregation()));
     windowData.match(
         new Function<ViewData.AggregationWindowData.CumulativeData, Void>() {
           @Override
@@ -383,6 +463,26 @@ final class StatszZPageHandler extends ZPageHandler {
     out.write("<p></p>");
   }
 
+  private static String getAggregationType(Aggregation aggregation) {
+    return aggregation.match(
+        Functions.returnConstant("Sum"),
+        Functions.returnConstant("Count"),
+        Functions.returnConstant("Distribution"),
+        Functions.returnConstant("Last Value"),
+        new Function<Aggregation, String>() {
+          @Override
+          public String apply(Aggregation arg) {
+            // TODO(songya): remove this once Mean aggregation is completely removed. Before that
+            // we need to continue supporting Mean, since it could still be used by users and some
+            // deprecated RPC views.
+            if (arg instanceof Aggregation.Mean) {
+              return "Mean";
+            }
+            throw new AssertionError();
+          }
+        });
+  }
+
   private static Date toDate(Timestamp timestamp) {
     return Date.from(
         Instant.ofEpochMilli(
@@ -630,12 +730,306 @@ final class StatszZPageHandler extends ZPageHandler {
     out.write("</tr>");
   }
 
+  // Emits the directory or the view at the given path as a JSON object, for tools that poll this
+  // page. The children of a directory and the rows of a view are paginated.
+  private void emitJson(Map<String, String> queryMap, PrintWriter out) {
+    PageParams pageParams = PageParams.fromQueryMap(queryMap);
+    String path = queryMap.get(QUERY_PATH);
+    synchronized (monitor) {
+      refreshViews();
+      TreeNode current = findNode(path);
+      out.write("{\"path\":");
+      JsonStrings.writeString(Strings.nullToEmpty(path), out);
+      if (current == null) {
+        out.write(",\"error\":\"Directory not found.\"}");
+        return;
+      }
+      View.Name viewName = current.viewName;
+      if (viewName == null) {
+        emitDirectoryJson(current, pageParams, out);
+      } else {
+        emitViewDataJson(getViewData(viewName), pageParams, out);
+      }
+      out.write('}');
+    }
+  }
+
+  private static void emitDirectoryJson(TreeNode node, PageParams pageParams, PrintWriter out) {
+    int total = node.children.size();
+    emitPageJson(total, pageParams, out);
+    out.write(",\"children\":[");
+    int from = pageParams.fromIndex(total);
+    int to = pageParams.toIndex(total);
+    int index = 0;
+    for (Entry<String, TreeNode> entry : node.children.entrySet()) {
+      if (index++ < from) {
+        continue;
+      } else if (index > to) {
+        break;
+      }
+      if (index > from + 1) {
+        out.write(',');
+      }
+      TreeNode child = entry.getValue();
+      out.write("{\"name\":");
+      JsonStrings.writeString(entry.getKey(), out);
+      if (child.viewName == null) {
+        out.write(",\"views\":");
+        out.print(child.views);
+      } else {
+        out.write(",\"view\":");
+        JsonStrings.writeString(child.viewName.asString(), out);
+      }
+      out.write('}');
+    }
+    out.write(']');
+  }
+
+  private static void emitViewDataJson(
+      /*@Nullable*/ ViewDataSnapshot snapshot, PageParams pageParams, PrintWriter out) {
+    if (snapshot == null) {
+      out.write(",\"error\":\"No Stats found for View.\"");
+      return;
+    }
+    View view = snapshot.viewData.getView();
+    List<Entry<List</*@Nullable*/ TagValue>, AggregationData>> rows = snapshot.rows;
+    int total = rows.size();
+    emitPageJson(total, pageParams, out);
+    out.write(",\"view\":{\"name\":");
+    JsonStrings.writeString(view.getName().asString(), out);
+    out.write(",\"description\":");
+    JsonStrings.writeString(view.getDescription(), out);
+    out.write(",\"measure\":");
+    JsonStrings.writeString(view.getMeasure().getName(), out);
+    out.write(",\"unit\":");
+    JsonStrings.writeString(view.getMeasure().getUnit(), out);
+    out.write(",\"aggregation\":");
+    JsonStrings.writeString(getAggregationType(view.getAggregation()), out);
+    out.write(",\"columns\":[");
+    List<TagKey> columns = view.getColumns();
+    for (int i = 0; i < columns.size(); i++) {
+      if (i > 0) {
+        out.write(',');
+      }
+      JsonStrings.writeString(columns.get(i).getName(), out);
+    }
+    out.write("]}");
+    out.write(",\"rows\":[");
+    int from = pageParams.fromIndex(total);
+    int to = pageParams.toIndex(total);
+    for (int index = from; index < to; index++) {
+      Entry<List</*@Nullable*/ TagValue>, AggregationData> entry = rows.get(index);
+      if (index > from) {
+        out.write(',');
+      }
+      out.write("{\"tags\":[");
+      List</*@Nullable*/ TagValue> tagValues = entry.getKey();
+      for (int i = 0; i < tagValues.size(); i++) {
+        if (i > 0) {
+          out.write(',');
+        }
+        TagValue tagValue = tagValues.get(i);
+        JsonStrings.writeString(tagValue == null ? null : tagValue.asString(), out);
+      }
+      out.write("],\"data\":");
+      emitAggregationDataJson(entry.getValue(), out);
+      out.write('}');
+    }
+    out.write(']');
+  }
+
+  private static void emitPageJson(int total, PageParams pageParams, PrintWriter out) {
+    out.write(",\"total\":");
+    out.print(total);
+    out.write(",\"page\":");
+    out.print(pageParams.getPage());
+    out.write(",\"pageSize\":");
+    out.print(pageParams.getPageSize());
+  }
+
+  private static void emitAggregationDataJson(AggregationData aggregationData, PrintWriter out) {
+    aggregationData.match(
+        new Function<SumDataDouble, Void>() {
+          @Override
+          public Void apply(SumDataDouble arg) {
+            out.write("{\"sum\":");
+            JsonStrings.writeDouble(arg.getSum(), out);
+            out.write('}');
+            return null;
+          }
+        },
+        new Function<SumDataLong, Void>() {
+          @Override
+          public Void apply(SumDataLong arg) {
+            out.write("{\"sum\":");
+            out.print(arg.getSum());
+            out.write('}');
+            return null;
+          }
+        },
+        new Function<CountData, Void>() {
+          @Override
+          public Void apply(CountData arg) {
+            out.write("{\"count\":");
+            out.print(arg.getCount());
+            out.write('}');
+            return null;
+          }
+        },
+        new Function<DistributionData, Void>() {
+          @Override
+          public Void apply(DistributionData arg) {
+            out.write("{\"mean\":");
+            JsonStrings.writeDouble(arg.getMean(), out);
+            out.write(",\"count\":");
+            out.print(arg.getCount());
+            out.write(",\"max\":");
+            JsonStrings.writeDouble(arg.getMax(), out);
+            out.write(",\"min\":");
+            JsonStrings.writeDouble(arg.getMin(), out);
+            out.write(",\"sumOfSquaredDeviations\":");
+            JsonStrings.writeDouble(arg.getSumOfSquaredDeviations(), out);
+            out.write(",\"bucketCounts\":[");
+            List<Long> bucketCounts = arg.getBucketCounts();
+            for (int i = 0; i < bucketCounts.size(); i++) {
+              if (i > 0) {
+                out.write(',');
+              }
+              out.print(bucketCounts.get(i).longValue());
+            }
+            out.write("]}");
+            return null;
+          }
+        },
+        new Function<LastValueDataDouble, Void>() {
+          @Override
+          public Void apply(LastValueDataDouble arg) {
+            out.write("{\"lastValue\":");
+            JsonStrings.writeDouble(arg.getLastValue(), out);
+            out.write('}');
+            return null;
+          }
+        },
+        new Function<LastValueDataLong, Void>() {
+          @Override
+          public Void apply(LastValueDataLong arg) {
+            out.write("{\"lastValue\":");
+            out.print(arg.getLastValue());
+            out.write('}');
+            return null;
+          }
+        },
+        new Function<AggregationData, Void>() {
+          @Override
+          public Void apply(AggregationData arg) {
+            if (arg instanceof AggregationData.MeanData) {
+              AggregationData.MeanData meanData = (AggregationData.MeanData) arg;
+              out.write("{\"mean\":");
+              JsonStrings.writeDouble(meanData.getMean(), out);
+              out.write(",\"count\":");
+              out.print(meanData.getCount());
+              out.write('}');
+              return null;
+            }
+            throw new IllegalArgumentException("Unknown Aggregation.");
+          }
+        });
+  }
+
   static StatszZPageHandler create(ViewManager viewManager) {
-    return new StatszZPageHandler(viewManager);
+    return create(viewManager, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  static StatszZPageHandler create(ViewManager viewManager, Ticker ticker) {
+    return new StatszZPageHandler(viewManager, ticker);
   }
 
-  private StatszZPageHandler(ViewManager viewManager) {
+  private StatszZPageHandler(ViewManager viewManager, Ticker ticker) {
     this.viewManager = viewManager;
+    this.ticker = ticker;
+    this.exportedViewsCache =
+        new SnapshotCache<Set<View>>(new ExportedViewsLoader(viewManager), ticker);
+  }
+
+  private static final class ExportedViewsLoader implements Supplier<Set<View>> {
+    private final ViewManager viewManager;
+
+    private ExportedViewsLoader(ViewManager viewManager) {
+      this.viewManager = viewManager;
+    }
+
+    @Override
+    public Set<View> get() {
+      return viewManager.getAllExportedViews();
+    }
+  }
+
+  private static final class ViewDataLoader implements Supplier</*@Nullable*/ ViewDataSnapshot> {
+    private final ViewManager viewManager;
+    private final View.Name viewName;
+
+    private ViewDataLoader(ViewManager viewManager, View.Name viewName) {
+      this.viewManager = viewManager;
+      this.viewName = viewName;
+    }
+
+    @Override
+    public /*@Nullable*/ ViewDataSnapshot get() {
+      ViewData viewData = viewManager.getView(viewName);
+      return viewData == null ? null : new ViewDataSnapshot(viewData);
+    }
+  }
+
+  // The data of a view with its rows sorted by tag values. The aggregation map has no stable
+  // iteration order, so the rows are sorted once per snapshot to keep the pages of a view stable
+  // between requests.
+  @VisibleForTesting
+  static final class ViewDataSnapshot {
+    private final ViewData viewData;
+    private final List<Entry<List</*@Nullable*/ TagValue>, AggregationData>> rows;
+
+    @VisibleForTesting
+    ViewDataSnapshot(ViewData viewData) {
+      this.viewData = viewData;
+      rows =
+          new ArrayList<Entry<List</*@Nullable*/ TagValue>, AggregationData>>(
+              viewData.getAggregationMap().entrySet());
+      Collections.sort(rows, new RowOrder());
+    }
+
+    @VisibleForTesting
+    List<Entry<List</*@Nullable*/ TagValue>, AggregationData>> getRows() {
+      return rows;
+    }
+  }
+
+  // Orders rows by their tag values, column by column. Missing tag values sort first.
+  private static final class RowOrder
+      implements Comparator<Entry<List</*@Nullable*/ TagValue>, AggregationData>> {
+    @Override
+    public int compare(
+        Entry<List</*@Nullable*/ TagValue>, AggregationData> row1,
+        Entry<List</*@Nullable*/ TagValue>, AggregationData> row2) {
+      List</*@Nullable*/ TagValue> tagValues1 = row1.getKey();
+      List</*@Nullable*/ TagValue> tagValues2 = row2.getKey();
+      int size = Math.min(tagValues1.size(), tagValues2.size());
+      for (int i = 0; i < size; i++) {
+        /*@Nullable*/ TagValue tagValue1 = tagValues1.get(i);
+        /*@Nullable*/ TagValue tagValue2 = tagValues2.get(i);
+        if (tagValue1 == null || tagValue2 == null) {
+          if (tagValue1 != tagValue2) {
+            return tagValue1 == null ? -1 : 1;
+          }
+          continue;
+        }
+        int result = tagValue1.asString().compareTo(tagValue2.asString());
+        if (result != 0) {
+          return result;
+        }
+      }
+      return tagValues1.size() - tagValues2.size();
+    }
   }
 
   /*
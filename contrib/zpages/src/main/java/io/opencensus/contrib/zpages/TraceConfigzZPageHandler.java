@@ -42,6 +42,8 @@ final class TraceConfigzZPageHandler extends ZPageHandler {
   private static final String PERMANENT_CHANGE = "permanently";
   private static final String RESTORE_DEFAULT_CHANGE = "restore_default";
   private static final String QUERY_COMPONENT_SAMPLING_PROBABILITY = "samplingprobability";
+  private static final String QUERY_COMPONENT_SAMPLING_RATE = "samplingrate";
+  private static final String QUERY_COMPONENT_ADAPTIVE_SAMPLING_RATE = "adaptivesamplingrate";
   private static final String QUERY_COMPONENT_MAX_NUMBER_OF_ATTRIBUTES = "maxnumberofattributes";
   private static final String QUERY_COMPONENT_MAX_NUMBER_OF_ANNOTATIONS = "maxnumberofannotations";
   private static final String QUERY_COMPONENT_MAX_NUMBER_OF_NETWORK_EVENTS =
@@ -58,6 +60,10 @@ final class TraceConfigzZPageHandler extends ZPageHandler {
           + "<input type=\"hidden\" name=\"%s\" value=\"%s\"></td>%n"
           + "<tr><td>SamplingProbability to</td> "
           + "<td><input type=text size=15 name=%s value=\"\"></td> <td>(%s)</td>%n"
+          + "<tr><td>SamplingRate (traces per second) to</td> "
+          + "<td><input type=text size=15 name=%s value=\"\"></td> <td></td>%n"
+          + "<tr><td>AdaptiveSamplingRate (traces per second and span name) to</td> "
+          + "<td><input type=text size=15 name=%s value=\"\"></td> <td></td>%n"
           + "<tr><td>MaxNumberOfAttributes to</td> "
           + "<td><input type=text size=15 name=%s value=\"\"></td> <td>(%d)</td>%n"
           + "<tr><td>MaxNumberOfAnnotations to</td>"
@@ -152,6 +158,8 @@ final class TraceConfigzZPageHandler extends ZPageHandler {
           PERMANENT_CHANGE,
           QUERY_COMPONENT_SAMPLING_PROBABILITY,
           "0.0001", // TODO(bdrutu): Get this from the default sampler (if possible).
+          QUERY_COMPONENT_SAMPLING_RATE,
+          QUERY_COMPONENT_ADAPTIVE_SAMPLING_RATE,
           QUERY_COMPONENT_MAX_NUMBER_OF_ATTRIBUTES,
           TraceParams.DEFAULT.getMaxNumberOfAttributes(),
           QUERY_COMPONENT_MAX_NUMBER_OF_ANNOTATIONS,
@@ -181,6 +189,16 @@ final class TraceConfigzZPageHandler extends ZPageHandler {
         double samplingProbability = Double.parseDouble(samplingProbabilityStr);
         traceParamsBuilder.setSampler(Samplers.probabilitySampler(samplingProbability));
       }
+      String samplingRateStr = queryMap.get(QUERY_COMPONENT_SAMPLING_RATE);
+      if (!isNullOrEmpty(samplingRateStr)) {
+        double samplingRate = Double.parseDouble(samplingRateStr);
+        traceParamsBuilder.setSampler(Samplers.rateLimitingSampler(samplingRate));
+      }
+      String adaptiveSamplingRateStr = queryMap.get(QUERY_COMPONENT_ADAPTIVE_SAMPLING_RATE);
+      if (!isNullOrEmpty(adaptiveSamplingRateStr)) {
+        double adaptiveSamplingRate = Double.parseDouble(adaptiveSamplingRateStr);
+        traceParamsBuilder.setSampler(Samplers.adaptiveSampler(adaptiveSamplingRate));
+      }
       String maxNumberOfAttributesStr = queryMap.get(QUERY_COMPONENT_MAX_NUMBER_OF_ATTRIBUTES);
       if (!isNullOrEmpty(maxNumberOfAttributesStr)) {
         int maxNumberOfAttributes = Integer.parseInt(maxNumberOfAttributesStr);
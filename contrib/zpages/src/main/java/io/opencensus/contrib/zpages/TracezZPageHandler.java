@@ -18,7 +18,11 @@ package io.opencensus.contrib.zpages;
 
 import static com.google.common.html.HtmlEscapers.htmlEscaper;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Charsets;
+import com.google.common.base.Supplier;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.io.BaseEncoding;
 import io.opencensus.common.Duration;
@@ -72,7 +76,9 @@ import org.checkerframework.checker.nullness.qual.Nullable;
  * all sampled spans based on latency and errors.
  *
  * <p>It prints a summary table which contains one row for each span name and data about number of
- * active and sampled spans.
+ * active and sampled spans. The summary table is rendered from a snapshot of the span stores which
+ * is refreshed at most once per max age, and is paginated. The summary can also be requested as
+ * JSON with {@code zformat=json}.
  */
 final class TracezZPageHandler extends ZPageHandler {
   private enum RequestType {
@@ -127,12 +133,22 @@ final class TracezZPageHandler extends ZPageHandler {
       buildLatencyBucketBoundariesStringMap();
   @javax.annotation.Nullable private final RunningSpanStore runningSpanStore;
   @javax.annotation.Nullable private final SampledSpanStore sampledSpanStore;
+  // Null if any of the span stores is not available.
+  @javax.annotation.Nullable private final SnapshotCache<SummarySnapshot> summaryCache;
 
   private TracezZPageHandler(
       @javax.annotation.Nullable RunningSpanStore runningSpanStore,
-      @javax.annotation.Nullable SampledSpanStore sampledSpanStore) {
+      @javax.annotation.Nullable SampledSpanStore sampledSpanStore,
+      Ticker ticker) {
     this.runningSpanStore = runningSpanStore;
     this.sampledSpanStore = sampledSpanStore;
+    if (runningSpanStore == null || sampledSpanStore == null) {
+      this.summaryCache = null;
+    } else {
+      this.summaryCache =
+          new SnapshotCache<SummarySnapshot>(
+              new SummaryLoader(runningSpanStore, sampledSpanStore), ticker);
+    }
   }
 
   /**
@@ -145,7 +161,28 @@ final class TracezZPageHandler extends ZPageHandler {
   static TracezZPageHandler create(
       @javax.annotation.Nullable RunningSpanStore runningSpanStore,
       @javax.annotation.Nullable SampledSpanStore sampledSpanStore) {
-    return new TracezZPageHandler(runningSpanStore, sampledSpanStore);
+    return create(runningSpanStore, sampledSpanStore, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  static TracezZPageHandler create(
+      @javax.annotation.Nullable RunningSpanStore runningSpanStore,
+      @javax.annotation.Nullable SampledSpanStore sampledSpanStore,
+      Ticker ticker) {
+    return new TracezZPageHandler(runningSpanStore, sampledSpanStore, ticker);
+  }
+
+  /**
+   * Sets the max age of the span stores summary snapshot. A max age of {@code 0} makes every
+   * request read a fresh summary.
+   *
+   * @param maxAge the max age, must not be negative.
+   * @param unit the time unit of {@code maxAge}.
+   */
+  void setSnapshotMaxAge(long maxAge, TimeUnit unit) {
+    if (summaryCache != null) {
+      summaryCache.setMaxAge(maxAge, unit);
+    }
   }
 
   @Override
@@ -153,6 +190,11 @@ final class TracezZPageHandler extends ZPageHandler {
     return TRACEZ_URL;
   }
 
+  @Override
+  boolean supportsJson() {
+    return true;
+  }
+
   private static void emitStyle(PrintWriter out) {
     out.write("<style>\n");
     out.write(
@@ -184,6 +226,11 @@ final class TracezZPageHandler extends ZPageHandler {
   public void emitHtml(Map<String, String> queryMap, OutputStream outputStream) {
     PrintWriter out =
         new PrintWriter(new BufferedWriter(new OutputStreamWriter(outputStream, Charsets.UTF_8)));
+    if (PageParams.isJson(queryMap)) {
+      emitJson(PageParams.fromQueryMap(queryMap), queryMap.get(HEADER_SPAN_NAME), out);
+      out.close();
+      return;
+    }
     out.write("<!DOCTYPE html>\n");
     out.write("<html lang=\"en\"><head>\n");
     out.write("<meta charset=\"utf-8\">\n");
@@ -220,7 +267,8 @@ final class TracezZPageHandler extends ZPageHandler {
       return;
     }
     Formatter formatter = new Formatter(out, Locale.US);
-    emitSummaryTable(out, formatter);
+    emitSummaryTable(
+        PageParams.fromQueryMap(queryMap), PageParams.linkPrefix(queryMap), out, formatter);
     String spanName = queryMap.get(HEADER_SPAN_NAME);
     if (spanName != null) {
       tracer
@@ -433,23 +481,26 @@ final class TracezZPageHandler extends ZPageHandler {
     return arg;
   }
 
-  // Emits the summary table with links to all samples.
-  private void emitSummaryTable(PrintWriter out, Formatter formatter)
+  // Emits one page of the summary table with links to all samples.
+  private void emitSummaryTable(
+      PageParams pageParams, String linkPrefix, PrintWriter out, Formatter formatter)
       throws UnsupportedEncodingException {
-    if (runningSpanStore == null || sampledSpanStore == null) {
+    if (summaryCache == null) {
       return;
     }
-    RunningSpanStore.Summary runningSpanStoreSummary = runningSpanStore.getSummary();
-    SampledSpanStore.Summary sampledSpanStoreSummary = sampledSpanStore.getSummary();
+    SummarySnapshot snapshot = summaryCache.get();
+    RunningSpanStore.Summary runningSpanStoreSummary = snapshot.runningSpanStoreSummary;
+    SampledSpanStore.Summary sampledSpanStoreSummary = snapshot.sampledSpanStoreSummary;
+    List<String> spanNames = snapshot.spanNames;
 
     out.write("<table style='border-spacing: 0;\n");
     out.write("border-left:1px solid #3D3D3D;border-right:1px solid #3D3D3D;'>\n");
     emitSummaryTableHeader(out, formatter);
 
-    Set<String> spanNames = new TreeSet<>(runningSpanStoreSummary.getPerSpanNameSummary().keySet());
-    spanNames.addAll(sampledSpanStoreSummary.getPerSpanNameSummary().keySet());
     boolean zebraColor = true;
-    for (String spanName : spanNames) {
+    for (String spanName :
+        spanNames.subList(
+            pageParams.fromIndex(spanNames.size()), pageParams.toIndex(spanNames.size()))) {
       out.write("<tr class=\"border\">\n");
       if (!zebraColor) {
         out.write("<tr class=\"border\">\n");
@@ -517,6 +568,78 @@ final class TracezZPageHandler extends ZPageHandler {
       out.write("</tr>\n");
     }
     out.write("</table>");
+    pageParams.emitHtmlNavigation(spanNames.size(), linkPrefix, out, formatter);
+  }
+
+  // Emits one page of the summary as a JSON object, for tools that poll this page.
+  // Like the HTML page, a zspanname restricts the output to the summary of that span name.
+  private void emitJson(
+      PageParams pageParams, @javax.annotation.Nullable String spanNameFilter, PrintWriter out) {
+    if (summaryCache == null) {
+      out.write("{\"error\":\"OpenCensus implementation not available.\"}");
+      return;
+    }
+    SummarySnapshot snapshot = summaryCache.get();
+    List<String> spanNames = snapshot.spanNames;
+    if (spanNameFilter != null) {
+      spanNames =
+          spanNames.contains(spanNameFilter)
+              ? Collections.singletonList(spanNameFilter)
+              : Collections.<String>emptyList();
+    }
+    out.write("{\"total\":");
+    out.print(spanNames.size());
+    out.write(",\"page\":");
+    out.print(pageParams.getPage());
+    out.write(",\"pageSize\":");
+    out.print(pageParams.getPageSize());
+    out.write(",\"spans\":[");
+    int from = pageParams.fromIndex(spanNames.size());
+    int to = pageParams.toIndex(spanNames.size());
+    for (int i = from; i < to; i++) {
+      String spanName = spanNames.get(i);
+      if (i > from) {
+        out.write(',');
+      }
+      out.write("{\"name\":");
+      JsonStrings.writeString(spanName, out);
+      RunningSpanStore.PerSpanNameSummary runningSummary =
+          snapshot.runningSpanStoreSummary.getPerSpanNameSummary().get(spanName);
+      out.write(",\"running\":");
+      out.print(runningSummary == null ? 0 : runningSummary.getNumRunningSpans());
+      SampledSpanStore.PerSpanNameSummary sampledSummary =
+          snapshot.sampledSpanStoreSummary.getPerSpanNameSummary().get(spanName);
+      // Null latency and error samples mean "Not Available", the span name is not registered to
+      // the SampledSpanStore.
+      out.write(",\"latencySamples\":");
+      if (sampledSummary == null) {
+        out.write("null");
+      } else {
+        Map<LatencyBucketBoundaries, Integer> latencyBucketsSummaries =
+            sampledSummary.getNumbersOfLatencySampledSpans();
+        out.write('[');
+        for (LatencyBucketBoundaries latencyBucketsBoundaries : LatencyBucketBoundaries.values()) {
+          if (latencyBucketsBoundaries.ordinal() > 0) {
+            out.write(',');
+          }
+          Integer numSamples = latencyBucketsSummaries.get(latencyBucketsBoundaries);
+          out.print(numSamples == null ? 0 : numSamples);
+        }
+        out.write(']');
+      }
+      out.write(",\"errorSamples\":");
+      if (sampledSummary == null) {
+        out.write("null");
+      } else {
+        int numErrorSamples = 0;
+        for (Integer numSamples : sampledSummary.getNumbersOfErrorSampledSpans().values()) {
+          numErrorSamples += numSamples;
+        }
+        out.print(numErrorSamples);
+      }
+      out.write('}');
+    }
+    out.write("]}");
   }
 
   private static void emitSummaryTableHeader(PrintWriter out, Formatter formatter) {
@@ -706,6 +829,47 @@ final class TracezZPageHandler extends ZPageHandler {
     }
   }
 
+  // The span stores summaries, with all the span names sorted once per snapshot.
+  private static final class SummarySnapshot {
+    private final RunningSpanStore.Summary runningSpanStoreSummary;
+    private final SampledSpanStore.Summary sampledSpanStoreSummary;
+    private final List<String> spanNames;
+
+    private SummarySnapshot(
+        RunningSpanStore.Summary runningSpanStoreSummary,
+        SampledSpanStore.Summary sampledSpanStoreSummary,
+        List<String> spanNames) {
+      this.runningSpanStoreSummary = runningSpanStoreSummary;
+      this.sampledSpanStoreSummary = sampledSpanStoreSummary;
+      this.spanNames = spanNames;
+    }
+
+    private static SummarySnapshot create(
+        RunningSpanStore.Summary runningSpanStoreSummary,
+        SampledSpanStore.Summary sampledSpanStoreSummary) {
+      Set<String> spanNames =
+          new TreeSet<>(runningSpanStoreSummary.getPerSpanNameSummary().keySet());
+      spanNames.addAll(sampledSpanStoreSummary.getPerSpanNameSummary().keySet());
+      return new SummarySnapshot(
+          runningSpanStoreSummary, sampledSpanStoreSummary, ImmutableList.copyOf(spanNames));
+    }
+  }
+
+  private static final class SummaryLoader implements Supplier<SummarySnapshot> {
+    private final RunningSpanStore runningSpanStore;
+    private final SampledSpanStore sampledSpanStore;
+
+    private SummaryLoader(RunningSpanStore runningSpanStore, SampledSpanStore sampledSpanStore) {
+      this.runningSpanStore = runningSpanStore;
+      this.sampledSpanStore = sampledSpanStore;
+    }
+
+    @Override
+    public SummarySnapshot get() {
+      return SummarySnapshot.create(runningSpanStore.getSummary(), sampledSpanStore.getSummary());
+    }
+  }
+
   private static final class SpanDataComparator implements Comparator<SpanData>, Serializable {
     private static final long serialVersionUID = 0;
     private final boolean incremental;
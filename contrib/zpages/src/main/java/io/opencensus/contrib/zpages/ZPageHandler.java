@@ -44,6 +44,14 @@ public abstract class ZPageHandler {
    */
   public abstract void emitHtml(Map<String, String> queryMap, OutputStream outputStream);
 
+  /**
+   * Returns {@code true} if the page emits JSON instead of HTML when requested with {@code
+   * zformat=json}.
+   */
+  boolean supportsJson() {
+    return false;
+  }
+
   /** Package protected constructor to disallow users to extend this class. */
   ZPageHandler() {}
 }
@@ -16,15 +16,19 @@
 
 package io.opencensus.contrib.zpages;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
 import com.sun.net.httpserver.HttpServer;
+import io.opencensus.common.Duration;
 import io.opencensus.stats.Measure;
 import io.opencensus.stats.Stats;
 import io.opencensus.stats.View;
 import io.opencensus.trace.Tracing;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
@@ -62,12 +66,10 @@ import javax.annotation.concurrent.ThreadSafe;
  */
 @ThreadSafe
 public final class ZPageHandlers {
-  // The HttpServer listening socket backlog (maximum number of queued incoming connections).
-  private static final int BACKLOG = 5;
   // How many seconds to wait for the HTTP server to stop.
   private static final int STOP_DELAY = 1;
   private static final Logger logger = Logger.getLogger(ZPageHandler.class.getName());
-  private static final ZPageHandler tracezZPageHandler =
+  private static final TracezZPageHandler tracezZPageHandler =
       TracezZPageHandler.create(
           Tracing.getExportComponent().getRunningSpanStore(),
           Tracing.getExportComponent().getSampledSpanStore());
@@ -75,7 +77,7 @@ public final class ZPageHandlers {
       TraceConfigzZPageHandler.create(Tracing.getTraceConfig());
   private static final ZPageHandler rpczZpageHandler =
       RpczZPageHandler.create(Stats.getViewManager());
-  private static final ZPageHandler statszZPageHandler =
+  private static final StatszZPageHandler statszZPageHandler =
       StatszZPageHandler.create(Stats.getViewManager());
 
   private static final Object monitor = new Object();
@@ -84,6 +86,10 @@ public final class ZPageHandlers {
   @Nullable
   private static HttpServer server;
 
+  @GuardedBy("monitor")
+  @Nullable
+  private static ZPageHttpServerExecutor executor;
+
   /**
    * Returns a {@code ZPageHandler} for tracing debug. The page displays information about all
    * active spans and all sampled spans based on latency and errors.
@@ -136,6 +142,24 @@ public final class ZPageHandlers {
     return statszZPageHandler;
   }
 
+  /**
+   * Sets the max age of the snapshots that the tracez and statsz pages are rendered from. The span
+   * stores summaries and the stats views are read at most once per max age, so that loading these
+   * pages often, or by several users at once, does not recompute them every time. A max age of zero
+   * makes every request read fresh data. The default max age is one second.
+   *
+   * @param maxAge the max age of the snapshots.
+   * @throws IllegalArgumentException if {@code maxAge} is negative.
+   * @since 0.16
+   */
+  public static void setSnapshotMaxAge(Duration maxAge) {
+    checkNotNull(maxAge, "maxAge");
+    checkArgument(maxAge.compareTo(Duration.create(0, 0)) >= 0, "Negative maxAge: %s", maxAge);
+    long maxAgeNanos = toNanos(maxAge);
+    tracezZPageHandler.setSnapshotMaxAge(maxAgeNanos, TimeUnit.NANOSECONDS);
+    statszZPageHandler.setSnapshotMaxAge(maxAgeNanos, TimeUnit.NANOSECONDS);
+  }
+
   /**
    * Registers all pages to the given {@code HttpServer}.
    *
@@ -150,10 +174,28 @@ public final class ZPageHandlers {
     server.createContext(statszZPageHandler.getUrlPath(), new ZPageHttpHandler(statszZPageHandler));
   }
 
+  private static void registerAllToHttpServer(
+      HttpServer server, ZPageHttpServerConfiguration configuration) {
+    for (ZPageHandler zpageHandler :
+        new ZPageHandler[] {
+          tracezZPageHandler, traceConfigzZPageHandler, rpczZpageHandler, statszZPageHandler
+        }) {
+      server.createContext(
+          zpageHandler.getUrlPath(),
+          new ZPageHttpHandler(
+              zpageHandler,
+              configuration.getMaxConcurrentRequestsPerPage(),
+              toNanos(configuration.getRequestTimeout()),
+              configuration.getGzipEnabled()));
+    }
+  }
+
   /**
    * Starts an {@code HttpServer} and registers all pages to it. When the JVM shuts down the server
    * is stopped.
    *
+   * <p>The server uses the default {@link ZPageHttpServerConfiguration} settings.
+   *
    * <p>Users must call this function only once per process.
    *
    * @param port the port used to bind the {@code HttpServer}.
@@ -162,10 +204,31 @@ public final class ZPageHandlers {
    * @since 0.6
    */
   public static void startHttpServerAndRegisterAll(int port) throws IOException {
+    startHttpServerAndRegisterAll(ZPageHttpServerConfiguration.builder().setPort(port).build());
+  }
+
+  /**
+   * Starts an {@code HttpServer} with the given configuration and registers all pages to it. When
+   * the JVM shuts down the server is stopped.
+   *
+   * <p>Users must call this function only once per process.
+   *
+   * @param configuration the configuration of the {@code HttpServer}.
+   * @throws IllegalStateException if the server is already started.
+   * @throws IOException if the server cannot bind to the requested address.
+   * @since 0.16
+   */
+  public static void startHttpServerAndRegisterAll(ZPageHttpServerConfiguration configuration)
+      throws IOException {
+    checkNotNull(configuration, "configuration");
     synchronized (monitor) {
       checkState(server == null, "The HttpServer is already started.");
-      server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
-      ZPageHandlers.registerAllToHttpServer(server);
+      server =
+          HttpServer.create(
+              new InetSocketAddress(configuration.getPort()), configuration.getBacklog());
+      executor = new ZPageHttpServerExecutor(configuration.getMaxThreads());
+      server.setExecutor(executor);
+      registerAllToHttpServer(server, configuration);
       server.start();
       logger.fine("HttpServer started on address " + server.getAddress().toString());
     }
@@ -193,8 +256,16 @@ public final class ZPageHandlers {
       }
       server.stop(STOP_DELAY);
       server = null;
+      if (executor != null) {
+        executor.shutdown();
+        executor = null;
+      }
     }
   }
 
+  private static long toNanos(Duration duration) {
+    return TimeUnit.SECONDS.toNanos(duration.getSeconds()) + duration.getNanos();
+  }
+
   private ZPageHandlers() {}
 }
@@ -17,7 +17,9 @@
 package io.opencensus.contrib.zpages;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Charsets;
 import com.google.common.base.Splitter;
+import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import io.opencensus.common.Scope;
@@ -25,24 +27,64 @@ import io.opencensus.trace.AttributeValue;
 import io.opencensus.trace.Tracer;
 import io.opencensus.trace.Tracing;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.Nullable;
 
 /** An {@link HttpHandler} that can be used to render HTML pages using any {@code ZPageHandler}. */
 final class ZPageHttpHandler implements HttpHandler {
   private static final Tracer tracer = Tracing.getTracer();
   private static final String HTTP_SERVER = "HttpServer";
+  private static final String CONTENT_TYPE_HTML = "text/html; charset=utf-8";
+  private static final String CONTENT_TYPE_JSON = "application/json; charset=utf-8";
+  private static final String GZIP = "gzip";
+  private static final int GZIP_BUFFER_SIZE = 8192;
+  private static final byte[] SERVICE_UNAVAILABLE_BODY =
+      "Too many concurrent requests for this page, retry later.\n".getBytes(Charsets.UTF_8);
+  private static final Splitter COMMA_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+  private static final Splitter SEMICOLON_SPLITTER = Splitter.on(';').trimResults();
   private final ZPageHandler zpageHandler;
   private final String httpServerSpanName;
+  // Null if the number of concurrent requests is not limited.
+  @Nullable private final Semaphore permits;
+  private final long requestTimeoutNanos;
+  private final boolean gzipEnabled;
 
   /** Constructs a new {@code ZPageHttpHandler}. */
   ZPageHttpHandler(ZPageHandler zpageHandler) {
+    this(zpageHandler, 0, 0, false);
+  }
+
+  /**
+   * Constructs a new {@code ZPageHttpHandler} that renders at most {@code maxConcurrentRequests}
+   * requests at a time. Further requests, and requests that waited for a worker for {@code
+   * requestTimeoutNanos} or longer since they were accepted, are answered with {@code 503 Service
+   * Unavailable}.
+   *
+   * @param zpageHandler the page to render.
+   * @param maxConcurrentRequests the number of requests rendered concurrently, or {@code 0} for no
+   *     limit.
+   * @param requestTimeoutNanos the request timeout, ignored if the number of concurrent requests is
+   *     not limited.
+   * @param gzipEnabled whether responses are compressed with gzip for clients that accept it.
+   */
+  ZPageHttpHandler(
+      ZPageHandler zpageHandler,
+      int maxConcurrentRequests,
+      long requestTimeoutNanos,
+      boolean gzipEnabled) {
     this.zpageHandler = zpageHandler;
     this.httpServerSpanName = HTTP_SERVER + zpageHandler.getUrlPath();
+    this.permits = maxConcurrentRequests > 0 ? new Semaphore(maxConcurrentRequests) : null;
+    this.requestTimeoutNanos = requestTimeoutNanos;
+    this.gzipEnabled = gzipEnabled;
     Tracing.getExportComponent()
         .getSampledSpanStore()
         .registerSpanNamesForCollection(Arrays.asList(httpServerSpanName));
@@ -50,6 +92,37 @@ final class ZPageHttpHandler implements HttpHandler {
 
   @Override
   public final void handle(HttpExchange httpExchange) throws IOException {
+    try {
+      if (!acquirePermit()) {
+        sendServiceUnavailable(httpExchange);
+        return;
+      }
+      try {
+        emitPage(httpExchange);
+      } finally {
+        if (permits != null) {
+          permits.release();
+        }
+      }
+    } finally {
+      httpExchange.close();
+    }
+  }
+
+  // Takes a permit to render the page without waiting for one: a worker blocked on a saturated page
+  // could not serve the requests of the other pages. Requests that already waited in the executor
+  // queue for longer than the request timeout are not rendered either.
+  private boolean acquirePermit() {
+    if (permits == null) {
+      return true;
+    }
+    if (System.nanoTime() - ZPageHttpServerExecutor.getAcceptTimeNanos() >= requestTimeoutNanos) {
+      return false;
+    }
+    return permits.tryAcquire();
+  }
+
+  private void emitPage(HttpExchange httpExchange) throws IOException {
     try (Scope ss =
         tracer
             .spanBuilderWithExplicitParent(httpServerSpanName, null)
@@ -60,12 +133,62 @@ final class ZPageHttpHandler implements HttpHandler {
           .putAttribute(
               "/http/method ",
               AttributeValue.stringAttributeValue(httpExchange.getRequestMethod()));
+      Map<String, String> queryMap = uriQueryToMap(httpExchange.getRequestURI());
+      Headers responseHeaders = httpExchange.getResponseHeaders();
+      boolean json = zpageHandler.supportsJson() && PageParams.isJson(queryMap);
+      responseHeaders.set("Content-Type", json ? CONTENT_TYPE_JSON : CONTENT_TYPE_HTML);
+      boolean gzip = gzipEnabled && acceptsGzip(httpExchange.getRequestHeaders());
+      if (gzipEnabled) {
+        responseHeaders.set("Vary", "Accept-Encoding");
+      }
+      if (gzip) {
+        responseHeaders.set("Content-Encoding", GZIP);
+      }
       httpExchange.sendResponseHeaders(200, 0);
-      zpageHandler.emitHtml(
-          uriQueryToMap(httpExchange.getRequestURI()), httpExchange.getResponseBody());
-    } finally {
-      httpExchange.close();
+      OutputStream responseBody = httpExchange.getResponseBody();
+      if (gzip) {
+        responseBody = new GZIPOutputStream(responseBody, GZIP_BUFFER_SIZE);
+      }
+      zpageHandler.emitHtml(queryMap, responseBody);
+      // Pages close the stream when they are done, closing it again finishes the gzip stream of
+      // pages that do not.
+      responseBody.close();
+    }
+  }
+
+  private static void sendServiceUnavailable(HttpExchange httpExchange) throws IOException {
+    httpExchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+    httpExchange.getResponseHeaders().set("Retry-After", "1");
+    httpExchange.sendResponseHeaders(503, SERVICE_UNAVAILABLE_BODY.length);
+    httpExchange.getResponseBody().write(SERVICE_UNAVAILABLE_BODY);
+  }
+
+  // Returns true if one of the Accept-Encoding headers accepts gzip with a non-zero quality.
+  @VisibleForTesting
+  static boolean acceptsGzip(Headers requestHeaders) {
+    List<String> acceptEncodings = requestHeaders.get("Accept-Encoding");
+    if (acceptEncodings == null) {
+      return false;
+    }
+    for (String acceptEncoding : acceptEncodings) {
+      for (String coding : COMMA_SPLITTER.split(acceptEncoding)) {
+        List<String> parts = SEMICOLON_SPLITTER.splitToList(coding);
+        if (GZIP.equalsIgnoreCase(parts.get(0)) && !hasZeroQuality(parts)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean hasZeroQuality(List<String> codingParts) {
+    for (int i = 1; i < codingParts.size(); i++) {
+      String parameter = codingParts.get(i).replace(" ", "");
+      if (parameter.matches("[qQ]=0(\\.0*)?")) {
+        return true;
+      }
     }
+    return false;
   }
 
   @VisibleForTesting
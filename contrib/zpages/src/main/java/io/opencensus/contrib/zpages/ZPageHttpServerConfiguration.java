@@ -0,0 +1,227 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.contrib.zpages;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.base.Preconditions;
+import io.opencensus.common.Duration;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Configurations for the {@code HttpServer} started by {@link
+ * ZPageHandlers#startHttpServerAndRegisterAll(ZPageHttpServerConfiguration)}.
+ *
+ * <p>Requests are handled by a fixed pool of worker threads. Each page renders at most {@code
+ * maxConcurrentRequestsPerPage} requests at a time and answers further requests at once with {@code
+ * 503 Service Unavailable}, so that a slow page does not hold the workers the other pages need.
+ * Requests that waited for a worker for longer than the request timeout, counted from when the
+ * server accepted them, are answered with {@code 503} too.
+ *
+ * @since 0.16
+ */
+@AutoValue
+@Immutable
+public abstract class ZPageHttpServerConfiguration {
+
+  /**
+   * The default listening socket backlog.
+   *
+   * @since 0.16
+   */
+  public static final int DEFAULT_BACKLOG = 5;
+
+  /**
+   * The default number of worker threads.
+   *
+   * @since 0.16
+   */
+  public static final int DEFAULT_MAX_THREADS = 4;
+
+  /**
+   * The default number of requests that each page renders concurrently, below {@link
+   * #DEFAULT_MAX_THREADS} so that a saturated page leaves workers for the other pages.
+   *
+   * @since 0.16
+   */
+  public static final int DEFAULT_MAX_CONCURRENT_REQUESTS_PER_PAGE = 2;
+
+  /**
+   * The default time a request can wait for a worker thread.
+   *
+   * @since 0.16
+   */
+  public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.create(5, 0);
+
+  private static final Duration ZERO = Duration.create(0, 0);
+
+  ZPageHttpServerConfiguration() {}
+
+  /**
+   * Returns the port the server listens on.
+   *
+   * @return the port the server listens on.
+   * @since 0.16
+   */
+  public abstract int getPort();
+
+  /**
+   * Returns the listening socket backlog, the maximum number of queued incoming connections.
+   *
+   * @return the listening socket backlog.
+   * @since 0.16
+   */
+  public abstract int getBacklog();
+
+  /**
+   * Returns the number of worker threads that handle requests.
+   *
+   * @return the number of worker threads.
+   * @since 0.16
+   */
+  public abstract int getMaxThreads();
+
+  /**
+   * Returns the number of requests that each page renders concurrently.
+   *
+   * @return the number of requests that each page renders concurrently.
+   * @since 0.16
+   */
+  public abstract int getMaxConcurrentRequestsPerPage();
+
+  /**
+   * Returns the time a request can wait for a worker thread, from when the server accepted it,
+   * before it is answered with {@code 503 Service Unavailable}.
+   *
+   * @return the request timeout.
+   * @since 0.16
+   */
+  public abstract Duration getRequestTimeout();
+
+  /**
+   * Returns whether responses are compressed with gzip for clients that accept it.
+   *
+   * @return whether responses are compressed with gzip.
+   * @since 0.16
+   */
+  public abstract boolean getGzipEnabled();
+
+  /**
+   * Returns a new {@link Builder}.
+   *
+   * @return a {@code Builder}.
+   * @since 0.16
+   */
+  public static Builder builder() {
+    return new AutoValue_ZPageHttpServerConfiguration.Builder()
+        .setBacklog(DEFAULT_BACKLOG)
+        .setMaxThreads(DEFAULT_MAX_THREADS)
+        .setMaxConcurrentRequestsPerPage(DEFAULT_MAX_CONCURRENT_REQUESTS_PER_PAGE)
+        .setRequestTimeout(DEFAULT_REQUEST_TIMEOUT)
+        .setGzipEnabled(true);
+  }
+
+  /**
+   * Builder for {@link ZPageHttpServerConfiguration}.
+   *
+   * @since 0.16
+   */
+  @AutoValue.Builder
+  public abstract static class Builder {
+
+    Builder() {}
+
+    /**
+     * Sets the port the server listens on, or {@code 0} for an ephemeral port.
+     *
+     * @param port the port the server listens on.
+     * @return this.
+     * @since 0.16
+     */
+    public abstract Builder setPort(int port);
+
+    /**
+     * Sets the listening socket backlog.
+     *
+     * @param backlog the listening socket backlog.
+     * @return this.
+     * @since 0.16
+     */
+    public abstract Builder setBacklog(int backlog);
+
+    /**
+     * Sets the number of worker threads that handle requests.
+     *
+     * @param maxThreads the number of worker threads.
+     * @return this.
+     * @since 0.16
+     */
+    public abstract Builder setMaxThreads(int maxThreads);
+
+    /**
+     * Sets the number of requests that each page renders concurrently. Keep it below the number of
+     * worker threads so that one page cannot take all the workers.
+     *
+     * @param maxConcurrentRequestsPerPage the number of requests that each page renders
+     *     concurrently.
+     * @return this.
+     * @since 0.16
+     */
+    public abstract Builder setMaxConcurrentRequestsPerPage(int maxConcurrentRequestsPerPage);
+
+    /**
+     * Sets the time a request can wait for a worker thread.
+     *
+     * @param requestTimeout the request timeout.
+     * @return this.
+     * @since 0.16
+     */
+    public abstract Builder setRequestTimeout(Duration requestTimeout);
+
+    /**
+     * Sets whether responses are compressed with gzip for clients that accept it.
+     *
+     * @param gzipEnabled whether responses are compressed with gzip.
+     * @return this.
+     * @since 0.16
+     */
+    public abstract Builder setGzipEnabled(boolean gzipEnabled);
+
+    abstract ZPageHttpServerConfiguration autoBuild();
+
+    /**
+     * Builds a new {@link ZPageHttpServerConfiguration} with current settings.
+     *
+     * @return a {@code ZPageHttpServerConfiguration}.
+     * @throws IllegalStateException if the port is not set.
+     * @throws IllegalArgumentException if any of the settings is out of range.
+     * @since 0.16
+     */
+    public ZPageHttpServerConfiguration build() {
+      ZPageHttpServerConfiguration config = autoBuild();
+      Preconditions.checkArgument(
+          config.getPort() >= 0 && config.getPort() <= 0xFFFF, "Port out of range");
+      Preconditions.checkArgument(config.getBacklog() >= 0, "Backlog must not be negative");
+      Preconditions.checkArgument(config.getMaxThreads() > 0, "Max threads must be positive");
+      Preconditions.checkArgument(
+          config.getMaxConcurrentRequestsPerPage() > 0,
+          "Max concurrent requests per page must be positive");
+      Preconditions.checkArgument(
+          config.getRequestTimeout().compareTo(ZERO) > 0, "Request timeout must be positive");
+      return config;
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.contrib.zpages;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * The {@link Executor} of the Z-Pages {@code HttpServer}: a fixed pool of daemon worker threads,
+ * which remembers when each request was accepted so that the handlers can count the time the
+ * request waited for a worker against its timeout.
+ */
+@ThreadSafe
+final class ZPageHttpServerExecutor implements Executor {
+  // The System.nanoTime() at which the request run by the current worker thread was accepted.
+  private static final ThreadLocal<Long> acceptTimeNanos = new ThreadLocal<Long>();
+
+  private final ThreadPoolExecutor executor;
+
+  ZPageHttpServerExecutor(int maxThreads) {
+    // The queue is not bounded because the HttpServer leaks the connection of a rejected request.
+    // Requests that waited for longer than their timeout are answered quickly with an error.
+    executor =
+        new ThreadPoolExecutor(
+            maxThreads,
+            maxThreads,
+            0,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("ZPageHttpServer-%d").build());
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    executor.execute(new AcceptedRequest(command, System.nanoTime()));
+  }
+
+  /**
+   * Returns the {@link System#nanoTime()} at which the request handled by the current thread was
+   * accepted, or the current time if the current thread is not a worker of this executor.
+   */
+  static long getAcceptTimeNanos() {
+    Long acceptTime = acceptTimeNanos.get();
+    return acceptTime == null ? System.nanoTime() : acceptTime;
+  }
+
+  // Stops the workers once the queued requests have been handled.
+  void shutdown() {
+    executor.shutdown();
+  }
+
+  private static final class AcceptedRequest implements Runnable {
+    private final Runnable request;
+    private final long acceptTime;
+
+    private AcceptedRequest(Runnable request, long acceptTime) {
+      this.request = request;
+      this.acceptTime = acceptTime;
+    }
+
+    @Override
+    public void run() {
+      acceptTimeNanos.set(acceptTime);
+      try {
+        request.run();
+      } finally {
+        acceptTimeNanos.remove();
+      }
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.contrib.zpages;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link JsonStrings}. */
+@RunWith(JUnit4.class)
+public class JsonStringsTest {
+
+  @Test
+  public void writeString_Escapes() {
+    assertThat(writeString("a\"b\\c\nd\te\u0001<f" + (char) 0x2028))
+        .isEqualTo("\"a\\\"b\\\\c\\nd\\te\\u0001\\u003cf\\u2028\"");
+  }
+
+  @Test
+  public void writeString_Null() {
+    assertThat(writeString(null)).isEqualTo("null");
+  }
+
+  @Test
+  public void writeDouble() {
+    StringWriter stringWriter = new StringWriter();
+    PrintWriter out = new PrintWriter(stringWriter);
+    JsonStrings.writeDouble(1.5, out);
+    out.write(',');
+    JsonStrings.writeDouble(Double.NaN, out);
+    out.write(',');
+    JsonStrings.writeDouble(Double.NEGATIVE_INFINITY, out);
+    out.flush();
+    assertThat(stringWriter.toString()).isEqualTo("1.5,\"NaN\",\"-Infinity\"");
+  }
+
+  private static String writeString(String value) {
+    StringWriter stringWriter = new StringWriter();
+    PrintWriter out = new PrintWriter(stringWriter);
+    JsonStrings.writeString(value, out);
+    out.flush();
+    return stringWriter.toString();
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.contrib.zpages;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.UnsupportedEncodingException;
+import java.util.Collections;
+import java.util.Formatter;
+import java.util.Locale;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link PageParams}. */
+@RunWith(JUnit4.class)
+public class PageParamsTest {
+
+  @Test
+  public void fromQueryMap_Defaults() {
+    PageParams pageParams = PageParams.fromQueryMap(Collections.<String, String>emptyMap());
+    assertThat(pageParams.getPage()).isEqualTo(0);
+    assertThat(pageParams.getPageSize()).isEqualTo(PageParams.DEFAULT_PAGE_SIZE);
+  }
+
+  @Test
+  public void fromQueryMap_InvalidValues() {
+    PageParams pageParams =
+        PageParams.fromQueryMap(
+            ImmutableMap.of(PageParams.QUERY_PAGE, "-3", PageParams.QUERY_PAGE_SIZE, "abc"));
+    assertThat(pageParams.getPage()).isEqualTo(0);
+    assertThat(pageParams.getPageSize()).isEqualTo(PageParams.DEFAULT_PAGE_SIZE);
+  }
+
+  @Test
+  public void fromQueryMap_LimitsPageSize() {
+    PageParams pageParams =
+        PageParams.fromQueryMap(ImmutableMap.of(PageParams.QUERY_PAGE_SIZE, "1000000"));
+    assertThat(pageParams.getPageSize()).isEqualTo(PageParams.MAX_PAGE_SIZE);
+  }
+
+  @Test
+  public void indexes() {
+    PageParams pageParams =
+        PageParams.fromQueryMap(
+            ImmutableMap.of(PageParams.QUERY_PAGE, "2", PageParams.QUERY_PAGE_SIZE, "10"));
+    assertThat(pageParams.fromIndex(100)).isEqualTo(20);
+    assertThat(pageParams.toIndex(100)).isEqualTo(30);
+    assertThat(pageParams.fromIndex(25)).isEqualTo(20);
+    assertThat(pageParams.toIndex(25)).isEqualTo(25);
+    assertThat(pageParams.fromIndex(5)).isEqualTo(5);
+    assertThat(pageParams.toIndex(5)).isEqualTo(5);
+  }
+
+  @Test
+  public void indexes_NoOverflow() {
+    PageParams pageParams =
+        PageParams.fromQueryMap(ImmutableMap.of(PageParams.QUERY_PAGE, "2147483647"));
+    assertThat(pageParams.fromIndex(10)).isEqualTo(10);
+    assertThat(pageParams.toIndex(10)).isEqualTo(10);
+  }
+
+  @Test
+  public void isJson() {
+    assertThat(PageParams.isJson(ImmutableMap.of(PageParams.QUERY_FORMAT, "json"))).isTrue();
+    assertThat(PageParams.isJson(ImmutableMap.of(PageParams.QUERY_FORMAT, "html"))).isFalse();
+    assertThat(PageParams.isJson(Collections.<String, String>emptyMap())).isFalse();
+  }
+
+  @Test
+  public void linkPrefix_DropsPaginationAndEncodesValues() throws UnsupportedEncodingException {
+    assertThat(
+            PageParams.linkPrefix(
+                ImmutableMap.of(
+                    "path", "/a b", PageParams.QUERY_PAGE, "3", PageParams.QUERY_PAGE_SIZE, "5")))
+        .isEqualTo("?path=%2Fa+b&");
+    assertThat(PageParams.linkPrefix(Collections.<String, String>emptyMap())).isEqualTo("?");
+  }
+
+  @Test
+  public void emitHtmlNavigation() {
+    PageParams pageParams =
+        PageParams.fromQueryMap(
+            ImmutableMap.of(PageParams.QUERY_PAGE, "1", PageParams.QUERY_PAGE_SIZE, "10"));
+    String navigation = navigationHtml(pageParams, 25);
+    assertThat(navigation).contains("Showing 11-20 of 25.");
+    assertThat(navigation).contains("<a href='?x=y&zpage=0&zpagesize=10'>Previous</a>");
+    assertThat(navigation).contains("<a href='?x=y&zpage=2&zpagesize=10'>Next</a>");
+  }
+
+  @Test
+  public void emitHtmlNavigation_SinglePage() {
+    PageParams pageParams = PageParams.fromQueryMap(Collections.<String, String>emptyMap());
+    assertThat(navigationHtml(pageParams, 5)).isEmpty();
+  }
+
+  private static String navigationHtml(PageParams pageParams, int total) {
+    StringWriter stringWriter = new StringWriter();
+    PrintWriter out = new PrintWriter(stringWriter);
+    pageParams.emitHtmlNavigation(total, "?x=y&", out, new Formatter(out, Locale.US));
+    out.flush();
+    return stringWriter.toString();
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.contrib.zpages;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import io.opencensus.contrib.zpages.RpcStatsHistory.MethodTotals;
+import io.opencensus.contrib.zpages.RpcStatsHistory.Snapshot;
+import java.util.Collections;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link RpcStatsHistory}. */
+@RunWith(JUnit4.class)
+public class RpcStatsHistoryTest {
+
+  private static final String METHOD = "method";
+
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void preventTooSmallCapacity() {
+    thrown.expect(IllegalArgumentException.class);
+    new RpcStatsHistory(1);
+  }
+
+  @Test
+  public void emptyHistory() {
+    RpcStatsHistory history = new RpcStatsHistory(3);
+    assertThat(history.getLatest()).isNull();
+    assertThat(history.getBaseline(100, 10)).isNull();
+  }
+
+  @Test
+  public void dropsOldestSnapshotWhenFull() {
+    RpcStatsHistory history = new RpcStatsHistory(2);
+    Snapshot first = snapshot(0, 1);
+    Snapshot second = snapshot(10, 2);
+    Snapshot third = snapshot(20, 3);
+    history.add(first);
+    history.add(second);
+    history.add(third);
+    assertThat(history.getLatest()).isSameAs(third);
+    assertThat(history.getBaseline(20, 1000)).isSameAs(second);
+  }
+
+  @Test
+  public void addIfDue() {
+    RpcStatsHistory history = new RpcStatsHistory(3);
+    assertThat(history.addIfDue(snapshot(0, 1), 10)).isTrue();
+    assertThat(history.addIfDue(snapshot(9, 2), 10)).isFalse();
+    assertThat(history.addIfDue(snapshot(10, 3), 10)).isTrue();
+    assertThat(history.getLatest().getTimeNanos()).isEqualTo(10);
+  }
+
+  @Test
+  public void getBaseline() {
+    RpcStatsHistory history = new RpcStatsHistory(5);
+    Snapshot at0 = snapshot(0, 1);
+    Snapshot at10 = snapshot(10, 2);
+    Snapshot at20 = snapshot(20, 3);
+    history.add(at0);
+    history.add(at10);
+    history.add(at20);
+    assertThat(history.getBaseline(25, 10)).isSameAs(at10);
+    assertThat(history.getBaseline(30, 10)).isSameAs(at20);
+    // Nothing is old enough, so the oldest snapshot covers part of the window.
+    assertThat(history.getBaseline(25, 100)).isSameAs(at0);
+  }
+
+  @Test
+  public void methodTotalsMinus() {
+    MethodTotals earlier = totals(10, 1);
+    earlier.latencyCount = 8;
+    earlier.latencySumMillis = 80;
+    earlier.requestBytes = 1000;
+    MethodTotals later = totals(15, 3);
+    later.latencyCount = 12;
+    later.latencySumMillis = 200;
+    later.requestBytes = 1500;
+    MethodTotals delta = later.minus(earlier);
+    assertThat(delta.count).isEqualTo(5);
+    assertThat(delta.errors).isEqualTo(2);
+    assertThat(delta.latencyCount).isEqualTo(4);
+    assertThat(delta.latencySumMillis).isWithin(1e-9).of(120);
+    assertThat(delta.requestBytes).isWithin(1e-9).of(500);
+    assertThat(delta.responseBytes).isWithin(1e-9).of(0);
+  }
+
+  @Test
+  public void methodTotalsMinus_NewMethod() {
+    MethodTotals delta = totals(7, 2).minus(null);
+    assertThat(delta.count).isEqualTo(7);
+    assertThat(delta.errors).isEqualTo(2);
+  }
+
+  @Test
+  public void methodTotalsMinus_CountersRestarted() {
+    MethodTotals delta = totals(3, 0).minus(totals(10, 1));
+    assertThat(delta.count).isEqualTo(3);
+    assertThat(delta.errors).isEqualTo(0);
+  }
+
+  private static MethodTotals totals(long count, long errors) {
+    MethodTotals totals = new MethodTotals();
+    totals.count = count;
+    totals.errors = errors;
+    return totals;
+  }
+
+  private static Snapshot snapshot(long timeNanos, long count) {
+    return new Snapshot(
+        timeNanos,
+        ImmutableMap.of(METHOD, totals(count, 0)),
+        Collections.<String, MethodTotals>emptyMap());
+  }
+}
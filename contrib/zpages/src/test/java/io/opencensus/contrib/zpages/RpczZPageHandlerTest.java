@@ -20,11 +20,14 @@ import static com.google.common.truth.Truth.assertThat;
 import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_ERROR_COUNT_VIEW;
 import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_REQUEST_BYTES_MINUTE_VIEW;
 import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_REQUEST_BYTES_VIEW;
+import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_STARTED_COUNT_CUMULATIVE_VIEW;
 import static org.mockito.Mockito.doReturn;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
+import com.google.common.testing.FakeTicker;
 import io.opencensus.common.Timestamp;
+import io.opencensus.stats.AggregationData.CountData;
 import io.opencensus.stats.AggregationData.DistributionData;
 import io.opencensus.stats.AggregationData.MeanData;
 import io.opencensus.stats.ViewData;
@@ -35,6 +38,7 @@ import io.opencensus.tags.TagValue;
 import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
 import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -94,4 +98,39 @@ public class RpczZPageHandlerTest {
     assertThat(output.toString()).contains(METHOD_1.asString());
     assertThat(output.toString()).contains(METHOD_2.asString());
   }
+
+  @Test
+  public void emitLastMinuteStatsFromCumulativeViews() {
+    FakeTicker ticker = new FakeTicker();
+    RpczZPageHandler handler =
+        RpczZPageHandler.create(mockViewManager, ticker, /* periodicSampling= */ false);
+    mockStartedCount(10);
+    String first = emitHtml(handler);
+    assertThat(first).contains("<td class=\"l2\">10</td>");
+    assertThat(first).doesNotContain("<td class=\"l2\">60</td>");
+
+    ticker.advance(1, TimeUnit.MINUTES);
+    mockStartedCount(70);
+    String second = emitHtml(handler);
+    // 60 RPCs started in the last minute, at a rate of one per second.
+    assertThat(second).contains("<td class=\"l2\">60</td>");
+    assertThat(second).contains("<td class=\"l2\">1.000</td>");
+    assertThat(second).contains("<td class=\"l2\">70</td>");
+  }
+
+  private void mockStartedCount(long count) {
+    doReturn(
+            ViewData.create(
+                RPC_CLIENT_STARTED_COUNT_CUMULATIVE_VIEW,
+                ImmutableMap.of(Arrays.asList(METHOD_1), CountData.create(count)),
+                CUMULATIVE_DATA))
+        .when(mockViewManager)
+        .getView(RPC_CLIENT_STARTED_COUNT_CUMULATIVE_VIEW.getName());
+  }
+
+  private static String emitHtml(RpczZPageHandler handler) {
+    OutputStream output = new ByteArrayOutputStream();
+    handler.emitHtml(Maps.newHashMap(), output);
+    return output.toString();
+  }
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.contrib.zpages;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.base.Supplier;
+import com.google.common.testing.FakeTicker;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link SnapshotCache}. */
+@RunWith(JUnit4.class)
+public class SnapshotCacheTest {
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  private final FakeTicker ticker = new FakeTicker();
+  private final CountingSupplier loader = new CountingSupplier();
+  private final SnapshotCache<Integer> cache = new SnapshotCache<Integer>(loader, ticker);
+
+  @Test
+  public void get_ReusesSnapshotUntilMaxAge() {
+    assertThat(cache.get()).isEqualTo(1);
+    ticker.advance(SnapshotCache.DEFAULT_MAX_AGE_NANOS - 1);
+    assertThat(cache.get()).isEqualTo(1);
+    ticker.advance(1);
+    assertThat(cache.get()).isEqualTo(2);
+    assertThat(loader.calls).isEqualTo(2);
+  }
+
+  @Test
+  public void get_ZeroMaxAgeAlwaysReloads() {
+    cache.setMaxAge(0, TimeUnit.SECONDS);
+    assertThat(cache.get()).isEqualTo(1);
+    assertThat(cache.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void get_CachesNullSnapshot() {
+    Supplier<Object> nullLoader =
+        new Supplier<Object>() {
+          @Override
+          public Object get() {
+            loader.get();
+            return null;
+          }
+        };
+    SnapshotCache<Object> nullCache = new SnapshotCache<Object>(nullLoader, ticker);
+    assertThat(nullCache.get()).isNull();
+    assertThat(nullCache.get()).isNull();
+    assertThat(loader.calls).isEqualTo(1);
+  }
+
+  @Test
+  public void setMaxAge_AppliesToCurrentSnapshot() {
+    assertThat(cache.get()).isEqualTo(1);
+    cache.setMaxAge(10, TimeUnit.SECONDS);
+    ticker.advance(5, TimeUnit.SECONDS);
+    assertThat(cache.get()).isEqualTo(1);
+    ticker.advance(5, TimeUnit.SECONDS);
+    assertThat(cache.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void setMaxAge_DisallowNegative() {
+    thrown.expect(IllegalArgumentException.class);
+    cache.setMaxAge(-1, TimeUnit.SECONDS);
+  }
+
+  private static final class CountingSupplier implements Supplier<Integer> {
+    private int calls;
+
+    @Override
+    public Integer get() {
+      return ++calls;
+    }
+  }
+}
@@ -27,10 +27,13 @@ import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_CLIENT_ROU
 import static io.opencensus.contrib.grpc.metrics.RpcViewConstants.RPC_SERVER_SERVER_LATENCY_VIEW;
 import static io.opencensus.contrib.zpages.StatszZPageHandler.QUERY_PATH;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
+import com.google.common.testing.FakeTicker;
 import io.opencensus.common.Function;
 import io.opencensus.common.Functions;
 import io.opencensus.common.Timestamp;
@@ -47,9 +50,12 @@ import io.opencensus.tags.TagKey;
 import io.opencensus.tags.TagValue;
 import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -198,6 +204,153 @@ public class StatszZPageHandlerTest {
     assertThat(output.toString()).contains("No Stats found for View my_view.");
   }
 
+  @Test
+  public void viewsAndViewDataAreReadOncePerMaxAge() {
+    FakeTicker ticker = new FakeTicker();
+    StatszZPageHandler handler = StatszZPageHandler.create(mockViewManager, ticker);
+    Map<String, String> queryMap =
+        ImmutableMap.of(QUERY_PATH, "/grpc.io/client/error_count/cumulative");
+    handler.emitHtml(queryMap, new ByteArrayOutputStream());
+    handler.emitHtml(queryMap, new ByteArrayOutputStream());
+    verify(mockViewManager, times(1)).getAllExportedViews();
+    verify(mockViewManager, times(1)).getView(RPC_CLIENT_ERROR_COUNT_VIEW.getName());
+    ticker.advance(SnapshotCache.DEFAULT_MAX_AGE_NANOS);
+    handler.emitHtml(queryMap, new ByteArrayOutputStream());
+    verify(mockViewManager, times(2)).getAllExportedViews();
+    verify(mockViewManager, times(2)).getView(RPC_CLIENT_ERROR_COUNT_VIEW.getName());
+  }
+
+  @Test
+  public void zeroSnapshotMaxAge() {
+    StatszZPageHandler handler = StatszZPageHandler.create(mockViewManager, new FakeTicker());
+    handler.setSnapshotMaxAge(0, TimeUnit.SECONDS);
+    handler.emitHtml(Maps.newHashMap(), new ByteArrayOutputStream());
+    handler.emitHtml(Maps.newHashMap(), new ByteArrayOutputStream());
+    verify(mockViewManager, times(2)).getAllExportedViews();
+  }
+
+  @Test
+  public void paginatedDirectoryTable() {
+    StatszZPageHandler handler = StatszZPageHandler.create(mockViewManager);
+    OutputStream output = new ByteArrayOutputStream();
+    handler.emitHtml(
+        ImmutableMap.of(
+            QUERY_PATH,
+            "/grpc.io/client",
+            PageParams.QUERY_PAGE,
+            "1",
+            PageParams.QUERY_PAGE_SIZE,
+            "2"),
+        output);
+    // Children are sorted: error_count, request_bytes, roundtrip_latency.
+    assertThat(output.toString()).contains(">roundtrip_latency</a>");
+    assertThat(output.toString()).doesNotContain(">request_bytes</a>");
+    assertThat(output.toString()).doesNotContain(">error_count</a>");
+    assertThat(output.toString()).contains("Showing 3-3 of 3.");
+    assertThat(output.toString())
+        .contains("href='?path=%2Fgrpc.io%2Fclient&zpage=0&zpagesize=2'>Previous</a>");
+  }
+
+  @Test
+  public void emitDirectoryJson() {
+    StatszZPageHandler handler = StatszZPageHandler.create(mockViewManager);
+    OutputStream output = new ByteArrayOutputStream();
+    handler.emitHtml(ImmutableMap.of(PageParams.QUERY_FORMAT, "json"), output);
+    assertThat(output.toString())
+        .isEqualTo(
+            "{\"path\":\"\",\"total\":2,\"page\":0,\"pageSize\":100,\"children\":["
+                + "{\"name\":\"grpc.io\",\"views\":4},"
+                + "{\"name\":\"my_view\",\"view\":\"my_view\"}]}");
+  }
+
+  @Test
+  public void emitViewDataJson() {
+    StatszZPageHandler handler = StatszZPageHandler.create(mockViewManager);
+    OutputStream output = new ByteArrayOutputStream();
+    handler.emitHtml(
+        ImmutableMap.of(
+            QUERY_PATH, "/grpc.io/client/error_count/cumulative", PageParams.QUERY_FORMAT, "json"),
+        output);
+    assertThat(output.toString())
+        .isEqualTo(
+            "{\"path\":\"/grpc.io/client/error_count/cumulative\","
+                + "\"total\":1,\"page\":0,\"pageSize\":100,"
+                + "\"view\":{\"name\":\"grpc.io/client/error_count/cumulative\","
+                + "\"description\":"
+                + "\""
+                + RPC_CLIENT_ERROR_COUNT_VIEW.getDescription()
+                + "\",\"measure\":\""
+                + RPC_CLIENT_ERROR_COUNT.getName()
+                + "\",\"unit\":\""
+                + RPC_CLIENT_ERROR_COUNT.getUnit()
+                + "\",\"aggregation\":\"Mean\",\"columns\":[\"canonical_status\",\"method\"]},"
+                + "\"rows\":[{\"tags\":[\"method3\"],\"data\":{\"mean\":1.0,\"count\":3}}]}");
+  }
+
+  @Test
+  public void viewDataRowsAreSortedByTagValues() {
+    TagValue valueA = TagValue.create("a");
+    TagValue valueB = TagValue.create("b");
+    Map<List</*@Nullable*/ TagValue>, AggregationData> aggregationMap =
+        new LinkedHashMap<List</*@Nullable*/ TagValue>, AggregationData>();
+    aggregationMap.put(Arrays.asList(valueA, valueB), MEAN_DATA);
+    aggregationMap.put(Arrays.asList(valueA, valueA), MEAN_DATA);
+    aggregationMap.put(Arrays.asList(valueA, null), MEAN_DATA);
+    aggregationMap.put(Arrays.asList(null, valueB), MEAN_DATA);
+    StatszZPageHandler.ViewDataSnapshot snapshot =
+        new StatszZPageHandler.ViewDataSnapshot(
+            ViewData.create(RPC_CLIENT_ERROR_COUNT_VIEW, aggregationMap, CUMULATIVE_DATA));
+    List<List</*@Nullable*/ TagValue>> keys = new ArrayList<List</*@Nullable*/ TagValue>>();
+    for (Map.Entry<List</*@Nullable*/ TagValue>, AggregationData> row : snapshot.getRows()) {
+      keys.add(row.getKey());
+    }
+    assertThat(keys)
+        .containsExactly(
+            Arrays.asList(null, valueB),
+            Arrays.asList(valueA, null),
+            Arrays.asList(valueA, valueA),
+            Arrays.asList(valueA, valueB))
+        .inOrder();
+  }
+
+  @Test
+  public void paginatedViewDataFollowsTagValueOrder() {
+    doReturn(
+            ViewData.create(
+                RPC_CLIENT_ROUNDTRIP_LATENCY_VIEW,
+                ImmutableMap.of(
+                    Arrays.asList(METHOD_2), DISTRIBUTION_DATA_2,
+                    Arrays.asList(METHOD_1), DISTRIBUTION_DATA_1),
+                CUMULATIVE_DATA))
+        .when(mockViewManager)
+        .getView(RPC_CLIENT_ROUNDTRIP_LATENCY_VIEW.getName());
+    StatszZPageHandler handler = StatszZPageHandler.create(mockViewManager);
+    OutputStream output = new ByteArrayOutputStream();
+    handler.emitHtml(
+        ImmutableMap.of(
+            QUERY_PATH,
+            "/grpc.io/client/roundtrip_latency/cumulative",
+            PageParams.QUERY_FORMAT,
+            "json",
+            PageParams.QUERY_PAGE,
+            "0",
+            PageParams.QUERY_PAGE_SIZE,
+            "1"),
+        output);
+    assertThat(output.toString()).contains("\"rows\":[{\"tags\":[\"method1\"]");
+    assertThat(output.toString()).doesNotContain("method2");
+  }
+
+  @Test
+  public void emitJson_NonExistingPath() {
+    StatszZPageHandler handler = StatszZPageHandler.create(mockViewManager);
+    OutputStream output = new ByteArrayOutputStream();
+    handler.emitHtml(
+        ImmutableMap.of(QUERY_PATH, "/unknown", PageParams.QUERY_FORMAT, "json"), output);
+    assertThat(output.toString())
+        .isEqualTo("{\"path\":\"/unknown\",\"error\":\"Directory not found.\"}");
+  }
+
   private static void assertContainsMeasure(OutputStream output, Measure measure) {
     assertThat(output.toString()).contains(measure.getName());
     assertThat(output.toString()).contains(measure.getDescription());
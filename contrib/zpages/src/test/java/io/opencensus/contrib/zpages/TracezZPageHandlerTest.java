@@ -17,8 +17,12 @@
 package io.opencensus.contrib.zpages;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.testing.FakeTicker;
 import io.opencensus.trace.Status.CanonicalCode;
 import io.opencensus.trace.export.RunningSpanStore;
 import io.opencensus.trace.export.SampledSpanStore;
@@ -142,6 +146,89 @@ public class TracezZPageHandlerTest {
         .contains("href='?zspanname=TestActiveAndSampledSpan&ztype=2&zsubtype=0'>7");
   }
 
+  @Test
+  public void summaryIsReadOncePerMaxAge() {
+    FakeTicker ticker = new FakeTicker();
+    TracezZPageHandler tracezZPageHandler =
+        TracezZPageHandler.create(runningSpanStore, sampledSpanStore, ticker);
+    when(runningSpanStore.getSummary()).thenReturn(runningSpanStoreSummary);
+    when(sampledSpanStore.getSummary()).thenReturn(sampledSpanStoreSummary);
+    tracezZPageHandler.emitHtml(Collections.emptyMap(), new ByteArrayOutputStream());
+    tracezZPageHandler.emitHtml(Collections.emptyMap(), new ByteArrayOutputStream());
+    verify(runningSpanStore, times(1)).getSummary();
+    verify(sampledSpanStore, times(1)).getSummary();
+    ticker.advance(SnapshotCache.DEFAULT_MAX_AGE_NANOS);
+    tracezZPageHandler.emitHtml(Collections.emptyMap(), new ByteArrayOutputStream());
+    verify(runningSpanStore, times(2)).getSummary();
+    verify(sampledSpanStore, times(2)).getSummary();
+  }
+
+  @Test
+  public void paginatedSummaryTable() {
+    TracezZPageHandler tracezZPageHandler =
+        TracezZPageHandler.create(runningSpanStore, sampledSpanStore);
+    when(runningSpanStore.getSummary()).thenReturn(runningSpanStoreSummary);
+    when(sampledSpanStore.getSummary()).thenReturn(sampledSpanStoreSummary);
+    // Span names are sorted: TestActiveAndSampledSpan, TestActiveSpan, TestSampledSpan.
+    OutputStream output = new ByteArrayOutputStream();
+    tracezZPageHandler.emitHtml(
+        ImmutableMap.of(PageParams.QUERY_PAGE, "1", PageParams.QUERY_PAGE_SIZE, "1"), output);
+    assertThat(output.toString()).contains("<td>" + ACTIVE_SPAN_NAME + "</td>");
+    assertThat(output.toString()).doesNotContain("<td>" + SAMPLED_SPAN_NAME + "</td>");
+    assertThat(output.toString()).doesNotContain("<td>" + ACTIVE_SAMPLED_SPAN_NAME + "</td>");
+    assertThat(output.toString()).contains("Showing 2-2 of 3.");
+    assertThat(output.toString()).contains("href='?zpage=0&zpagesize=1'>Previous</a>");
+    assertThat(output.toString()).contains("href='?zpage=2&zpagesize=1'>Next</a>");
+  }
+
+  @Test
+  public void emitJsonSummary() {
+    TracezZPageHandler tracezZPageHandler =
+        TracezZPageHandler.create(runningSpanStore, sampledSpanStore);
+    when(runningSpanStore.getSummary()).thenReturn(runningSpanStoreSummary);
+    when(sampledSpanStore.getSummary()).thenReturn(sampledSpanStoreSummary);
+    OutputStream output = new ByteArrayOutputStream();
+    tracezZPageHandler.emitHtml(
+        ImmutableMap.of(PageParams.QUERY_FORMAT, "json", PageParams.QUERY_PAGE_SIZE, "2"), output);
+    assertThat(output.toString())
+        .isEqualTo(
+            "{\"total\":3,\"page\":0,\"pageSize\":2,\"spans\":["
+                + "{\"name\":\"TestActiveAndSampledSpan\",\"running\":5,"
+                + "\"latencySamples\":[0,7,0,3,0,0,0,0,0],\"errorSamples\":7},"
+                + "{\"name\":\"TestActiveSpan\",\"running\":3,"
+                + "\"latencySamples\":null,\"errorSamples\":null}]}");
+  }
+
+  @Test
+  public void emitJsonSummary_FilteredBySpanName() {
+    TracezZPageHandler tracezZPageHandler =
+        TracezZPageHandler.create(runningSpanStore, sampledSpanStore);
+    when(runningSpanStore.getSummary()).thenReturn(runningSpanStoreSummary);
+    when(sampledSpanStore.getSummary()).thenReturn(sampledSpanStoreSummary);
+    OutputStream output = new ByteArrayOutputStream();
+    tracezZPageHandler.emitHtml(
+        ImmutableMap.of(PageParams.QUERY_FORMAT, "json", "zspanname", ACTIVE_SPAN_NAME), output);
+    assertThat(output.toString())
+        .isEqualTo(
+            "{\"total\":1,\"page\":0,\"pageSize\":100,\"spans\":["
+                + "{\"name\":\"TestActiveSpan\",\"running\":3,"
+                + "\"latencySamples\":null,\"errorSamples\":null}]}");
+    output = new ByteArrayOutputStream();
+    tracezZPageHandler.emitHtml(
+        ImmutableMap.of(PageParams.QUERY_FORMAT, "json", "zspanname", "UnknownSpan"), output);
+    assertThat(output.toString())
+        .isEqualTo("{\"total\":0,\"page\":0,\"pageSize\":100,\"spans\":[]}");
+  }
+
+  @Test
+  public void emitJson_NoImplementation() {
+    TracezZPageHandler tracezZPageHandler = TracezZPageHandler.create(null, null);
+    OutputStream output = new ByteArrayOutputStream();
+    tracezZPageHandler.emitHtml(ImmutableMap.of(PageParams.QUERY_FORMAT, "json"), output);
+    assertThat(output.toString())
+        .isEqualTo("{\"error\":\"OpenCensus implementation not available.\"}");
+  }
+
   // TODO(bdrutu): Add tests for latency.
   // TODO(bdrutu): Add tests for samples/running/errors.
 }
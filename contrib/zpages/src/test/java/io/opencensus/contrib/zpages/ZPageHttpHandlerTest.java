@@ -18,8 +18,23 @@ package io.opencensus.contrib.zpages;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import org.junit.After;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -27,6 +42,65 @@ import org.junit.runners.JUnit4;
 /** Unit tests for {@link ZPageHttpHandler}. */
 @RunWith(JUnit4.class)
 public class ZPageHttpHandlerTest {
+  private static final String PAGE_CONTENT = "<html>zpage</html>";
+
+  private final CountDownLatch pageStarted = new CountDownLatch(1);
+  private final CountDownLatch releasePage = new CountDownLatch(1);
+  private volatile boolean blockPage;
+  private final ZPageHandler testPage =
+      new ZPageHandler() {
+        @Override
+        public String getUrlPath() {
+          return "/testz";
+        }
+
+        @Override
+        public void emitHtml(Map<String, String> queryMap, OutputStream outputStream) {
+          try {
+            if (blockPage) {
+              pageStarted.countDown();
+              releasePage.await(10, TimeUnit.SECONDS);
+            }
+            outputStream.write(PAGE_CONTENT.getBytes(StandardCharsets.UTF_8));
+            outputStream.close();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          } catch (IOException e) {
+            throw new RuntimeException(e);
+          }
+        }
+      };
+  private final ZPageHandler otherPage =
+      new ZPageHandler() {
+        @Override
+        public String getUrlPath() {
+          return "/otherz";
+        }
+
+        @Override
+        public void emitHtml(Map<String, String> queryMap, OutputStream outputStream) {
+          try {
+            outputStream.write(PAGE_CONTENT.getBytes(StandardCharsets.UTF_8));
+            outputStream.close();
+          } catch (IOException e) {
+            throw new RuntimeException(e);
+          }
+        }
+      };
+  private HttpServer server;
+  private ZPageHttpServerExecutor executor;
+
+  @After
+  public void tearDown() {
+    releasePage.countDown();
+    if (server != null) {
+      server.stop(0);
+    }
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+
   @Test
   public void parseUndefinedQuery() throws URISyntaxException {
     URI uri = new URI("http://localhost:8000/tracez");
@@ -39,4 +113,154 @@ public class ZPageHttpHandlerTest {
     assertThat(ZPageHttpHandler.uriQueryToMap(uri))
         .containsExactly("ztype", "1", "zsubtype", "", "zname", "Test");
   }
+
+  @Test
+  public void acceptsGzip() {
+    assertThat(ZPageHttpHandler.acceptsGzip(acceptEncoding("gzip"))).isTrue();
+    assertThat(ZPageHttpHandler.acceptsGzip(acceptEncoding("deflate, GZIP;q=0.8"))).isTrue();
+    assertThat(ZPageHttpHandler.acceptsGzip(acceptEncoding("deflate"))).isFalse();
+    assertThat(ZPageHttpHandler.acceptsGzip(acceptEncoding("gzip;q=0"))).isFalse();
+    assertThat(ZPageHttpHandler.acceptsGzip(acceptEncoding("gzip; q=0.0, br"))).isFalse();
+    assertThat(ZPageHttpHandler.acceptsGzip(new Headers())).isFalse();
+  }
+
+  @Test
+  public void gzipResponse() throws IOException {
+    startServer(new ZPageHttpHandler(testPage, 1, TimeUnit.SECONDS.toNanos(5), true));
+    HttpURLConnection connection = openConnection();
+    connection.setRequestProperty("Accept-Encoding", "gzip");
+    assertThat(connection.getResponseCode()).isEqualTo(200);
+    assertThat(connection.getHeaderField("Content-Encoding")).isEqualTo("gzip");
+    assertThat(connection.getHeaderField("Content-Type")).isEqualTo("text/html; charset=utf-8");
+    assertThat(readFully(new GZIPInputStream(connection.getInputStream()))).isEqualTo(PAGE_CONTENT);
+  }
+
+  @Test
+  public void noGzipIfNotAccepted() throws IOException {
+    startServer(new ZPageHttpHandler(testPage, 1, TimeUnit.SECONDS.toNanos(5), true));
+    HttpURLConnection connection = openConnection();
+    assertThat(connection.getResponseCode()).isEqualTo(200);
+    assertThat(connection.getHeaderField("Content-Encoding")).isNull();
+    assertThat(readFully(connection.getInputStream())).isEqualTo(PAGE_CONTENT);
+  }
+
+  @Test
+  public void htmlContentTypeForPageWithoutJson() throws IOException {
+    startServer(new ZPageHttpHandler(testPage, 1, TimeUnit.SECONDS.toNanos(5), false));
+    HttpURLConnection connection = openConnection(testPage.getUrlPath() + "?zformat=json");
+    assertThat(connection.getResponseCode()).isEqualTo(200);
+    assertThat(connection.getHeaderField("Content-Type")).isEqualTo("text/html; charset=utf-8");
+    assertThat(readFully(connection.getInputStream())).isEqualTo(PAGE_CONTENT);
+  }
+
+  @Test
+  public void jsonContentTypeForPageWithJson() throws IOException {
+    startServer(
+        new ZPageHttpHandler(
+            TracezZPageHandler.create(null, null), 1, TimeUnit.SECONDS.toNanos(5), false));
+    HttpURLConnection connection = openConnection(testPage.getUrlPath() + "?zformat=json");
+    assertThat(connection.getResponseCode()).isEqualTo(200);
+    assertThat(connection.getHeaderField("Content-Type"))
+        .isEqualTo("application/json; charset=utf-8");
+  }
+
+  @Test
+  public void serviceUnavailableWhenTooManyConcurrentRequests() throws Exception {
+    blockPage = true;
+    startServer(new ZPageHttpHandler(testPage, 1, TimeUnit.MILLISECONDS.toNanos(200), false));
+    final HttpURLConnection blocked = openConnection();
+    Thread blockedRequest =
+        new Thread() {
+          @Override
+          public void run() {
+            try {
+              blocked.getResponseCode();
+            } catch (IOException e) {
+              throw new RuntimeException(e);
+            }
+          }
+        };
+    blockedRequest.start();
+    assertThat(pageStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+    HttpURLConnection rejected = openConnection();
+    assertThat(rejected.getResponseCode()).isEqualTo(503);
+    assertThat(rejected.getHeaderField("Retry-After")).isEqualTo("1");
+
+    releasePage.countDown();
+    blockedRequest.join(5000);
+    assertThat(blocked.getResponseCode()).isEqualTo(200);
+    assertThat(readFully(blocked.getInputStream())).isEqualTo(PAGE_CONTENT);
+  }
+
+  @Test
+  public void otherPageIsServedWhileOnePageIsSaturated() throws Exception {
+    blockPage = true;
+    startServer(new ZPageHttpHandler(testPage, 1, TimeUnit.SECONDS.toNanos(10), false));
+    server.createContext(
+        otherPage.getUrlPath(),
+        new ZPageHttpHandler(otherPage, 1, TimeUnit.SECONDS.toNanos(10), false));
+    final HttpURLConnection blocked = openConnection();
+    Thread blockedRequest =
+        new Thread() {
+          @Override
+          public void run() {
+            try {
+              blocked.getResponseCode();
+            } catch (IOException e) {
+              throw new RuntimeException(e);
+            }
+          }
+        };
+    blockedRequest.start();
+    assertThat(pageStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // The saturated page answers at once instead of holding the second worker until the timeout.
+    long startNanos = System.nanoTime();
+    assertThat(openConnection().getResponseCode()).isEqualTo(503);
+    assertThat(System.nanoTime() - startNanos).isLessThan(TimeUnit.SECONDS.toNanos(5));
+
+    HttpURLConnection other = openConnection(otherPage.getUrlPath());
+    assertThat(other.getResponseCode()).isEqualTo(200);
+    assertThat(readFully(other.getInputStream())).isEqualTo(PAGE_CONTENT);
+
+    releasePage.countDown();
+    blockedRequest.join(5000);
+    assertThat(blocked.getResponseCode()).isEqualTo(200);
+  }
+
+  private void startServer(ZPageHttpHandler handler) throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 5);
+    executor = new ZPageHttpServerExecutor(2);
+    server.setExecutor(executor);
+    server.createContext(testPage.getUrlPath(), handler);
+    server.start();
+  }
+
+  private HttpURLConnection openConnection() throws IOException {
+    return openConnection(testPage.getUrlPath());
+  }
+
+  private HttpURLConnection openConnection(String path) throws IOException {
+    HttpURLConnection connection =
+        (HttpURLConnection)
+            new URL("http://localhost:" + server.getAddress().getPort() + path).openConnection();
+    connection.setConnectTimeout(5000);
+    connection.setReadTimeout(5000);
+    return connection;
+  }
+
+  private static Headers acceptEncoding(String value) {
+    Headers headers = new Headers();
+    headers.add("Accept-Encoding", value);
+    return headers;
+  }
+
+  private static String readFully(InputStream inputStream) throws IOException {
+    try {
+      return new String(ByteStreams.toByteArray(inputStream), StandardCharsets.UTF_8);
+    } finally {
+      inputStream.close();
+    }
+  }
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.contrib.zpages;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.opencensus.common.Duration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link ZPageHttpServerConfiguration}. */
+@RunWith(JUnit4.class)
+public class ZPageHttpServerConfigurationTest {
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void defaultConfiguration() {
+    ZPageHttpServerConfiguration configuration =
+        ZPageHttpServerConfiguration.builder().setPort(8000).build();
+    assertThat(configuration.getPort()).isEqualTo(8000);
+    assertThat(configuration.getBacklog()).isEqualTo(ZPageHttpServerConfiguration.DEFAULT_BACKLOG);
+    assertThat(configuration.getMaxThreads())
+        .isEqualTo(ZPageHttpServerConfiguration.DEFAULT_MAX_THREADS);
+    assertThat(configuration.getMaxConcurrentRequestsPerPage())
+        .isEqualTo(ZPageHttpServerConfiguration.DEFAULT_MAX_CONCURRENT_REQUESTS_PER_PAGE);
+    assertThat(configuration.getRequestTimeout())
+        .isEqualTo(ZPageHttpServerConfiguration.DEFAULT_REQUEST_TIMEOUT);
+    assertThat(configuration.getGzipEnabled()).isTrue();
+  }
+
+  @Test
+  public void setAll() {
+    ZPageHttpServerConfiguration configuration =
+        ZPageHttpServerConfiguration.builder()
+            .setPort(0)
+            .setBacklog(10)
+            .setMaxThreads(4)
+            .setMaxConcurrentRequestsPerPage(1)
+            .setRequestTimeout(Duration.create(1, 0))
+            .setGzipEnabled(false)
+            .build();
+    assertThat(configuration.getPort()).isEqualTo(0);
+    assertThat(configuration.getBacklog()).isEqualTo(10);
+    assertThat(configuration.getMaxThreads()).isEqualTo(4);
+    assertThat(configuration.getMaxConcurrentRequestsPerPage()).isEqualTo(1);
+    assertThat(configuration.getRequestTimeout()).isEqualTo(Duration.create(1, 0));
+    assertThat(configuration.getGzipEnabled()).isFalse();
+  }
+
+  @Test
+  public void portIsRequired() {
+    thrown.expect(IllegalStateException.class);
+    ZPageHttpServerConfiguration.builder().build();
+  }
+
+  @Test
+  public void disallowPortOutOfRange() {
+    thrown.expect(IllegalArgumentException.class);
+    ZPageHttpServerConfiguration.builder().setPort(65536).build();
+  }
+
+  @Test
+  public void disallowZeroMaxThreads() {
+    thrown.expect(IllegalArgumentException.class);
+    ZPageHttpServerConfiguration.builder().setPort(8000).setMaxThreads(0).build();
+  }
+
+  @Test
+  public void disallowZeroMaxConcurrentRequestsPerPage() {
+    thrown.expect(IllegalArgumentException.class);
+    ZPageHttpServerConfiguration.builder().setPort(8000).setMaxConcurrentRequestsPerPage(0).build();
+  }
+
+  @Test
+  public void disallowZeroRequestTimeout() {
+    thrown.expect(IllegalArgumentException.class);
+    ZPageHttpServerConfiguration.builder()
+        .setPort(8000)
+        .setRequestTimeout(Duration.create(0, 0))
+        .build();
+  }
+}
@@ -48,7 +48,7 @@ public class ZPagesTester {
     Tracing.getExportComponent()
         .getSampledSpanStore()
         .registerSpanNamesForCollection(Collections.singletonList(SPAN_NAME));
-    RpcViews.registerAllViews(); // Use old RPC constants to get interval stats.
+    RpcViews.registerAllCumulativeViews();
     SpanBuilder spanBuilder =
         tracer.spanBuilder(SPAN_NAME).setRecordEvents(true).setSampler(Samplers.alwaysSample());
 
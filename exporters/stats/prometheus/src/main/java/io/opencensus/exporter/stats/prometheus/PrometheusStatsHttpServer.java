@@ -0,0 +1,187 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.exporter.stats.prometheus;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A lightweight HTTP server that serves the exported OpenCensus views in the Prometheus text
+ * exposition format, as written by {@link PrometheusStatsTextWriter}.
+ *
+ * <p>The metrics are served on both {@code /} and {@code /metrics}. Responses are streamed with
+ * chunked transfer encoding, and compressed with gzip if the scraper accepts it.
+ *
+ * <p>Example of usage:
+ *
+ * <pre>{@code
+ * public static void main(String[] args) throws IOException {
+ *   PrometheusStatsHttpServer.createAndStart(new InetSocketAddress(9091));
+ *   ... // do work
+ * }
+ * }</pre>
+ *
+ * @since 0.16
+ */
+@ThreadSafe
+public final class PrometheusStatsHttpServer {
+
+  private static final Logger logger = Logger.getLogger(PrometheusStatsHttpServer.class.getName());
+  // Prometheus scrapes are infrequent, a couple of threads are enough to serve concurrent scrapes
+  // from replicated Prometheus servers.
+  private static final int NUMBER_OF_THREADS = 2;
+  private static final int STOP_DELAY_SECONDS = 0;
+
+  private final HttpServer server;
+  private final ExecutorService executor;
+
+  /**
+   * Creates and starts a {@link PrometheusStatsHttpServer} that serves the views exported by {@link
+   * io.opencensus.stats.Stats#getViewManager()}.
+   *
+   * @param address the address to bind the server to.
+   * @return the started {@code PrometheusStatsHttpServer}.
+   * @throws IOException if the server cannot be bound to the given address.
+   * @since 0.16
+   */
+  public static PrometheusStatsHttpServer createAndStart(InetSocketAddress address)
+      throws IOException {
+    return createAndStart(address, PrometheusStatsTextWriter.create());
+  }
+
+  static PrometheusStatsHttpServer createAndStart(
+      InetSocketAddress address, PrometheusStatsTextWriter textWriter) throws IOException {
+    checkNotNull(address, "address");
+    checkNotNull(textWriter, "textWriter");
+    PrometheusStatsHttpServer server =
+        new PrometheusStatsHttpServer(HttpServer.create(address, 0), textWriter);
+    server.server.start();
+    return server;
+  }
+
+  private PrometheusStatsHttpServer(HttpServer server, PrometheusStatsTextWriter textWriter) {
+    this.server = server;
+    this.executor =
+        Executors.newFixedThreadPool(
+            NUMBER_OF_THREADS,
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("PrometheusStatsHttpServer-%d")
+                .build());
+    HttpHandler handler = new MetricsHandler(textWriter);
+    server.createContext("/", handler);
+    server.createContext("/metrics", handler);
+    server.setExecutor(executor);
+  }
+
+  /**
+   * Returns the port the server is listening on.
+   *
+   * @return the port the server is listening on.
+   * @since 0.16
+   */
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * Stops the server and releases its threads.
+   *
+   * @since 0.16
+   */
+  public void stop() {
+    server.stop(STOP_DELAY_SECONDS);
+    executor.shutdown();
+  }
+
+  private static final class MetricsHandler implements HttpHandler {
+    private final PrometheusStatsTextWriter textWriter;
+
+    private MetricsHandler(PrometheusStatsTextWriter textWriter) {
+      this.textWriter = textWriter;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+      try {
+        exchange
+            .getResponseHeaders()
+            .set("Content-Type", PrometheusStatsTextWriter.CONTENT_TYPE_004);
+        OutputStream outputStream;
+        if (acceptsGzip(exchange)) {
+          exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+          // A response length of 0 means chunked transfer encoding.
+          exchange.sendResponseHeaders(200, 0);
+          outputStream = new GZIPOutputStream(exchange.getResponseBody());
+        } else {
+          exchange.sendResponseHeaders(200, 0);
+          outputStream = exchange.getResponseBody();
+        }
+        Writer writer =
+            new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        try {
+          textWriter.write(writer);
+        } finally {
+          writer.close();
+        }
+      } catch (IOException e) {
+        logger.log(Level.WARNING, "Exception thrown when serving Prometheus metrics.", e);
+        throw e;
+      } finally {
+        exchange.close();
+      }
+    }
+
+    private static boolean acceptsGzip(HttpExchange exchange) {
+      List<String> values = exchange.getRequestHeaders().get("Accept-Encoding");
+      if (values == null) {
+        return false;
+      }
+      for (String value : values) {
+        for (String encoding : value.split(",")) {
+          // Ignores quality values, e.g. "gzip;q=0.8".
+          int parametersIndex = encoding.indexOf(';');
+          if (parametersIndex >= 0) {
+            encoding = encoding.substring(0, parametersIndex);
+          }
+          if ("gzip".equalsIgnoreCase(encoding.trim())) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,345 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.exporter.stats.prometheus;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.opencensus.exporter.stats.prometheus.PrometheusExportUtils.LABEL_NAME_BUCKET_BOUND;
+import static io.opencensus.exporter.stats.prometheus.PrometheusExportUtils.SAMPLE_SUFFIX_BUCKET;
+import static io.opencensus.exporter.stats.prometheus.PrometheusExportUtils.SAMPLE_SUFFIX_COUNT;
+import static io.opencensus.exporter.stats.prometheus.PrometheusExportUtils.SAMPLE_SUFFIX_SUM;
+import static io.opencensus.exporter.stats.prometheus.PrometheusExportUtils.containsDisallowedLeLabelForHistogram;
+import static io.opencensus.exporter.stats.prometheus.PrometheusExportUtils.convertToLabelNames;
+import static io.opencensus.exporter.stats.prometheus.PrometheusExportUtils.getType;
+import static io.prometheus.client.Collector.doubleToGoString;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.opencensus.stats.Aggregation.Distribution;
+import io.opencensus.stats.AggregationData;
+import io.opencensus.stats.AggregationData.CountData;
+import io.opencensus.stats.AggregationData.DistributionData;
+import io.opencensus.stats.AggregationData.LastValueDataDouble;
+import io.opencensus.stats.AggregationData.LastValueDataLong;
+import io.opencensus.stats.AggregationData.SumDataDouble;
+import io.opencensus.stats.AggregationData.SumDataLong;
+import io.opencensus.stats.Stats;
+import io.opencensus.stats.View;
+import io.opencensus.stats.ViewData;
+import io.opencensus.stats.ViewManager;
+import io.opencensus.tags.TagValue;
+import io.prometheus.client.Collector;
+import io.prometheus.client.Collector.Type;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.concurrent.ThreadSafe;
+
+/*>>>
+import org.checkerframework.checker.nullness.qual.Nullable;
+*/
+
+/**
+ * Writes the exported OpenCensus views in the Prometheus <a
+ * href="https://prometheus.io/docs/instrumenting/exposition_formats/">text exposition format</a>
+ * version 0.0.4.
+ *
+ * <p>Unlike {@link PrometheusStatsCollector}, this writer does not build intermediate {@code
+ * MetricFamilySamples}. Each row of a {@link ViewData} is written straight to the {@link Writer},
+ * using metric names, label names and bucket bounds that are sanitized and rendered once per {@link
+ * View} and reused by every subsequent scrape. The output is the same as the one produced by the
+ * Prometheus client for a {@code PrometheusStatsCollector}.
+ *
+ * @since 0.16
+ */
+@ThreadSafe
+@SuppressWarnings("deprecation")
+public final class PrometheusStatsTextWriter {
+
+  /**
+   * The content type of the output of {@link #write(Writer)}.
+   *
+   * @since 0.16
+   */
+  public static final String CONTENT_TYPE_004 = "text/plain; version=0.0.4; charset=utf-8";
+
+  private static final Logger logger = Logger.getLogger(PrometheusStatsTextWriter.class.getName());
+
+  private final ViewManager viewManager;
+  // The set of exported views is bounded by the number of registered views, and a registered view
+  // can never change its definition, so entries are never evicted.
+  private final ConcurrentMap<View, MetricFamilyTemplate> templates =
+      new ConcurrentHashMap<View, MetricFamilyTemplate>();
+
+  /**
+   * Creates a {@link PrometheusStatsTextWriter} that writes the views exported by {@link
+   * Stats#getViewManager()}.
+   *
+   * @return a {@code PrometheusStatsTextWriter}.
+   * @since 0.16
+   */
+  public static PrometheusStatsTextWriter create() {
+    return new PrometheusStatsTextWriter(Stats.getViewManager());
+  }
+
+  @VisibleForTesting
+  PrometheusStatsTextWriter(ViewManager viewManager) {
+    this.viewManager = checkNotNull(viewManager, "viewManager");
+  }
+
+  /**
+   * Writes all the exported views to the given {@code Writer}.
+   *
+   * <p>The {@code Writer} is neither flushed nor closed. Callers should supply a buffered {@code
+   * Writer}, since the output is produced in many small writes.
+   *
+   * @param writer the {@code Writer} to write to.
+   * @throws IOException if the {@code Writer} throws an {@code IOException}.
+   * @since 0.16
+   */
+  public void write(Writer writer) throws IOException {
+    checkNotNull(writer, "writer");
+    for (View view : viewManager.getAllExportedViews()) {
+      MetricFamilyTemplate template = getTemplate(view);
+      if (template == null) {
+        continue; // silently skip Distribution views with "le" tag key
+      }
+      ViewData viewData;
+      try {
+        viewData = viewManager.getView(view.getName());
+      } catch (RuntimeException e) {
+        logger.log(Level.WARNING, "Exception thrown when collecting metric samples.", e);
+        continue;
+      }
+      if (viewData == null) {
+        continue;
+      }
+      writeMetricFamily(writer, template, viewData);
+    }
+  }
+
+  private /*@Nullable*/ MetricFamilyTemplate getTemplate(View view) {
+    MetricFamilyTemplate template = templates.get(view);
+    if (template == null) {
+      Type type = getType(view.getAggregation(), view.getWindow());
+      if (containsDisallowedLeLabelForHistogram(convertToLabelNames(view.getColumns()), type)) {
+        return null;
+      }
+      template = new MetricFamilyTemplate(view, type);
+      templates.put(view, template);
+    }
+    return template;
+  }
+
+  @VisibleForTesting
+  static void writeMetricFamily(Writer writer, MetricFamilyTemplate template, ViewData viewData)
+      throws IOException {
+    writer.write(template.header);
+    for (Entry<List</*@Nullable*/ TagValue>, AggregationData> entry :
+        viewData.getAggregationMap().entrySet()) {
+      List</*@Nullable*/ TagValue> tagValues = entry.getKey();
+      if (tagValues.size() != template.labelPrefixes.length) {
+        logger.log(Level.WARNING, "Label names and tag values have different sizes.");
+        continue;
+      }
+      writeRow(writer, template, tagValues, entry.getValue());
+    }
+  }
+
+  private static void writeRow(
+      Writer writer,
+      MetricFamilyTemplate template,
+      List</*@Nullable*/ TagValue> tagValues,
+      AggregationData data)
+      throws IOException {
+    if (data instanceof SumDataDouble) {
+      writeSample(writer, template.name, template, tagValues, ((SumDataDouble) data).getSum());
+    } else if (data instanceof SumDataLong) {
+      writeSample(writer, template.name, template, tagValues, ((SumDataLong) data).getSum());
+    } else if (data instanceof CountData) {
+      writeSample(writer, template.name, template, tagValues, ((CountData) data).getCount());
+    } else if (data instanceof LastValueDataDouble) {
+      writeSample(
+          writer, template.name, template, tagValues, ((LastValueDataDouble) data).getLastValue());
+    } else if (data instanceof LastValueDataLong) {
+      writeSample(
+          writer, template.name, template, tagValues, ((LastValueDataLong) data).getLastValue());
+    } else if (data instanceof DistributionData) {
+      DistributionData distributionData = (DistributionData) data;
+      List<Long> bucketCounts = distributionData.getBucketCounts();
+      long cumulativeCount = 0;
+      for (int i = 0; i < bucketCounts.size() && i < template.bucketBounds.length; i++) {
+        cumulativeCount += bucketCounts.get(i);
+        writer.write(template.name);
+        writer.write(SAMPLE_SUFFIX_BUCKET);
+        writeLabels(writer, template, tagValues, template.bucketBounds[i]);
+        writer.write(doubleToGoString(cumulativeCount));
+        writer.write('\n');
+      }
+      writeSample(writer, template.countName, template, tagValues, distributionData.getCount());
+      writeSample(
+          writer,
+          template.sumName,
+          template,
+          tagValues,
+          distributionData.getCount() * distributionData.getMean());
+    } else if (data instanceof AggregationData.MeanData) {
+      AggregationData.MeanData meanData = (AggregationData.MeanData) data;
+      writeSample(writer, template.countName, template, tagValues, meanData.getCount());
+      writeSample(
+          writer, template.sumName, template, tagValues, meanData.getCount() * meanData.getMean());
+    } else {
+      throw new IllegalArgumentException("Unknown Aggregation.");
+    }
+  }
+
+  private static void writeSample(
+      Writer writer,
+      String name,
+      MetricFamilyTemplate template,
+      List</*@Nullable*/ TagValue> tagValues,
+      double value)
+      throws IOException {
+    writer.write(name);
+    writeLabels(writer, template, tagValues, null);
+    writer.write(doubleToGoString(value));
+    writer.write('\n');
+  }
+
+  // Writes the label set of a sample followed by the separating space, e.g. {k1="v1",k2="v2"} .
+  // The "le" label of a histogram bucket, if any, is passed pre-rendered as the closing fragment.
+  private static void writeLabels(
+      Writer writer,
+      MetricFamilyTemplate template,
+      List</*@Nullable*/ TagValue> tagValues,
+      /*@Nullable*/ String bucketBound)
+      throws IOException {
+    String[] labelPrefixes = template.labelPrefixes;
+    for (int i = 0; i < labelPrefixes.length; i++) {
+      writer.write(labelPrefixes[i]);
+      TagValue tagValue = tagValues.get(i);
+      if (tagValue != null) {
+        writeEscapedLabelValue(writer, tagValue.asString());
+      }
+    }
+    if (bucketBound != null) {
+      writer.write(bucketBound);
+    } else {
+      writer.write(template.labelsSuffix);
+    }
+  }
+
+  // Escapes backslash, double-quote and line feed as required by the text format. Unescaped runs
+  // of characters are written as a whole, so the common case is a single write of the value.
+  @VisibleForTesting
+  static void writeEscapedLabelValue(Writer writer, String value) throws IOException {
+    int start = 0;
+    for (int i = 0; i < value.length(); i++) {
+      String escaped;
+      switch (value.charAt(i)) {
+        case '\\':
+          escaped = "\\\\";
+          break;
+        case '\"':
+          escaped = "\\\"";
+          break;
+        case '\n':
+          escaped = "\\n";
+          break;
+        default:
+          continue;
+      }
+      writer.write(value, start, i - start);
+      writer.write(escaped);
+      start = i + 1;
+    }
+    writer.write(value, start, value.length() - start);
+  }
+
+  private static String escapeHelp(String help) {
+    return help.replace("\\", "\\\\").replace("\n", "\\n");
+  }
+
+  private static String getTypeString(Type type) {
+    switch (type) {
+      case GAUGE:
+        return "gauge";
+      case COUNTER:
+        return "counter";
+      case SUMMARY:
+        return "summary";
+      case HISTOGRAM:
+        return "histogram";
+      default:
+        return "untyped";
+    }
+  }
+
+  // Everything about a metric family that only depends on its View, rendered once.
+  @VisibleForTesting
+  static final class MetricFamilyTemplate {
+    private final String name;
+    private final String countName;
+    private final String sumName;
+    private final String header;
+    // labelPrefixes[i] is written before the i-th label value, e.g. {k1=" and ",k2=".
+    private final String[] labelPrefixes;
+    // Closes the label set, e.g. "} or an empty string for a metric without labels.
+    private final String labelsSuffix;
+    // Closes the label set of the i-th histogram bucket with its "le" label.
+    private final String[] bucketBounds;
+
+    MetricFamilyTemplate(View view, Type type) {
+      name = Collector.sanitizeMetricName(view.getName().asString());
+      countName = name + SAMPLE_SUFFIX_COUNT;
+      sumName = name + SAMPLE_SUFFIX_SUM;
+      header =
+          "# HELP "
+              + name
+              + ' '
+              + escapeHelp(view.getDescription())
+              + "\n# TYPE "
+              + name
+              + ' '
+              + getTypeString(type)
+              + '\n';
+      List<String> labelNames = convertToLabelNames(view.getColumns());
+      labelPrefixes = new String[labelNames.size()];
+      for (int i = 0; i < labelPrefixes.length; i++) {
+        labelPrefixes[i] = (i == 0 ? "{" : "\",") + labelNames.get(i) + "=\"";
+      }
+      labelsSuffix = labelPrefixes.length == 0 ? " " : "\"} ";
+      if (view.getAggregation() instanceof Distribution) {
+        List<Double> boundaries =
+            ((Distribution) view.getAggregation()).getBucketBoundaries().getBoundaries();
+        bucketBounds = new String[boundaries.size() + 1];
+        String bucketPrefix = (labelPrefixes.length == 0 ? "{" : "\",") + LABEL_NAME_BUCKET_BOUND;
+        for (int i = 0; i < bucketBounds.length; i++) {
+          // The label value of "le" is the upper inclusive bound. For the last bucket, it should
+          // be "+Inf".
+          double bound = i < boundaries.size() ? boundaries.get(i) : Double.POSITIVE_INFINITY;
+          bucketBounds[i] = bucketPrefix + "=\"" + doubleToGoString(bound) + "\"} ";
+        }
+      } else {
+        bucketBounds = new String[0];
+      }
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.exporter.stats.prometheus;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.doReturn;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteStreams;
+import io.opencensus.common.Timestamp;
+import io.opencensus.stats.Aggregation.Sum;
+import io.opencensus.stats.AggregationData.SumDataLong;
+import io.opencensus.stats.Measure.MeasureLong;
+import io.opencensus.stats.View;
+import io.opencensus.stats.View.AggregationWindow.Cumulative;
+import io.opencensus.stats.ViewData;
+import io.opencensus.stats.ViewData.AggregationWindowData.CumulativeData;
+import io.opencensus.stats.ViewManager;
+import io.opencensus.tags.TagKey;
+import io.opencensus.tags.TagValue;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/** Unit tests for {@link PrometheusStatsHttpServer}. */
+@RunWith(JUnit4.class)
+public class PrometheusStatsHttpServerTest {
+
+  private static final View VIEW =
+      View.create(
+          View.Name.create("requests"),
+          "Requests",
+          MeasureLong.create("measure", "description", "1"),
+          Sum.create(),
+          Collections.<TagKey>emptyList(),
+          Cumulative.create());
+  private static final ViewData VIEW_DATA =
+      ViewData.create(
+          VIEW,
+          ImmutableMap.of(Collections.<TagValue>emptyList(), SumDataLong.create(3)),
+          CumulativeData.create(Timestamp.fromMillis(1000), Timestamp.fromMillis(2000)));
+  private static final String EXPECTED_BODY =
+      "# HELP requests Requests\n# TYPE requests untyped\nrequests 3.0\n";
+
+  @Mock private ViewManager mockViewManager;
+  private PrometheusStatsHttpServer server;
+
+  @Before
+  public void setUp() throws IOException {
+    MockitoAnnotations.initMocks(this);
+    doReturn(ImmutableSet.of(VIEW)).when(mockViewManager).getAllExportedViews();
+    doReturn(VIEW_DATA).when(mockViewManager).getView(VIEW.getName());
+    server =
+        PrometheusStatsHttpServer.createAndStart(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+            new PrometheusStatsTextWriter(mockViewManager));
+  }
+
+  @After
+  public void tearDown() {
+    server.stop();
+  }
+
+  @Test
+  public void serveMetrics() throws IOException {
+    HttpURLConnection connection = openConnection("/metrics");
+    assertThat(connection.getResponseCode()).isEqualTo(200);
+    assertThat(connection.getContentType()).isEqualTo(PrometheusStatsTextWriter.CONTENT_TYPE_004);
+    assertThat(read(connection.getInputStream())).isEqualTo(EXPECTED_BODY);
+  }
+
+  @Test
+  public void serveMetrics_Gzip() throws IOException {
+    HttpURLConnection connection = openConnection("/");
+    connection.setRequestProperty("Accept-Encoding", "deflate, gzip;q=1.0");
+    assertThat(connection.getResponseCode()).isEqualTo(200);
+    assertThat(connection.getContentEncoding()).isEqualTo("gzip");
+    assertThat(read(new GZIPInputStream(connection.getInputStream()))).isEqualTo(EXPECTED_BODY);
+  }
+
+  private HttpURLConnection openConnection(String path) throws IOException {
+    URL url = new URL("http", "localhost", server.getPort(), path);
+    return (HttpURLConnection) url.openConnection();
+  }
+
+  private static String read(InputStream inputStream) throws IOException {
+    try {
+      return new String(ByteStreams.toByteArray(inputStream), StandardCharsets.UTF_8);
+    } finally {
+      inputStream.close();
+    }
+  }
+}
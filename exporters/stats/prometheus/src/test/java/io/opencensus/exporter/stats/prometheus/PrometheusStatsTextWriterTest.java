@@ -0,0 +1,191 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.exporter.stats.prometheus;
+
+import static com.google.common.truth.Truth.assertThat;
+import static io.opencensus.exporter.stats.prometheus.PrometheusExportUtils.LABEL_NAME_BUCKET_BOUND;
+import static org.mockito.Mockito.doReturn;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.opencensus.common.Timestamp;
+import io.opencensus.stats.Aggregation.Count;
+import io.opencensus.stats.Aggregation.Distribution;
+import io.opencensus.stats.Aggregation.LastValue;
+import io.opencensus.stats.AggregationData.CountData;
+import io.opencensus.stats.AggregationData.DistributionData;
+import io.opencensus.stats.AggregationData.LastValueDataDouble;
+import io.opencensus.stats.BucketBoundaries;
+import io.opencensus.stats.Measure.MeasureDouble;
+import io.opencensus.stats.Stats;
+import io.opencensus.stats.View;
+import io.opencensus.stats.View.AggregationWindow.Cumulative;
+import io.opencensus.stats.ViewData;
+import io.opencensus.stats.ViewData.AggregationWindowData.CumulativeData;
+import io.opencensus.stats.ViewManager;
+import io.opencensus.tags.TagKey;
+import io.opencensus.tags.TagValue;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/** Unit tests for {@link PrometheusStatsTextWriter}. */
+@RunWith(JUnit4.class)
+public class PrometheusStatsTextWriterTest {
+
+  private static final Cumulative CUMULATIVE = Cumulative.create();
+  private static final BucketBoundaries BUCKET_BOUNDARIES =
+      BucketBoundaries.create(Arrays.asList(-5.0, 0.0, 5.0));
+  private static final Distribution DISTRIBUTION = Distribution.create(BUCKET_BOUNDARIES);
+  private static final MeasureDouble MEASURE_DOUBLE =
+      MeasureDouble.create("measure", "description", "1");
+  private static final TagKey K1 = TagKey.create("k1");
+  private static final TagKey K2 = TagKey.create("k2");
+  private static final TagValue V1 = TagValue.create("v1");
+  private static final TagValue V2 = TagValue.create("v2");
+  private static final CumulativeData CUMULATIVE_DATA =
+      CumulativeData.create(Timestamp.fromMillis(1000), Timestamp.fromMillis(2000));
+  private static final View DISTRIBUTION_VIEW =
+      View.create(
+          View.Name.create("view1"),
+          "View description",
+          MEASURE_DOUBLE,
+          DISTRIBUTION,
+          Arrays.asList(K1, K2),
+          CUMULATIVE);
+  private static final ViewData DISTRIBUTION_VIEW_DATA =
+      ViewData.create(
+          DISTRIBUTION_VIEW,
+          ImmutableMap.of(
+              Arrays.asList(V1, V2),
+              DistributionData.create(4.4, 5, -3.2, 15.7, 135.22, Arrays.asList(0L, 2L, 2L, 1L))),
+          CUMULATIVE_DATA);
+  private static final View COUNT_VIEW =
+      View.create(
+          View.Name.create("my.view/count"),
+          "Count \\ with\nnewline",
+          MEASURE_DOUBLE,
+          Count.create(),
+          Collections.<TagKey>emptyList(),
+          CUMULATIVE);
+  private static final ViewData COUNT_VIEW_DATA =
+      ViewData.create(
+          COUNT_VIEW,
+          ImmutableMap.of(Collections.<TagValue>emptyList(), CountData.create(7)),
+          CUMULATIVE_DATA);
+
+  @Mock private ViewManager mockViewManager;
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.initMocks(this);
+  }
+
+  @Test
+  public void write_Distribution() throws IOException {
+    doReturn(ImmutableSet.of(DISTRIBUTION_VIEW)).when(mockViewManager).getAllExportedViews();
+    doReturn(DISTRIBUTION_VIEW_DATA).when(mockViewManager).getView(DISTRIBUTION_VIEW.getName());
+    assertThat(write(new PrometheusStatsTextWriter(mockViewManager)))
+        .isEqualTo(
+            "# HELP view1 View description\n"
+                + "# TYPE view1 histogram\n"
+                + "view1_bucket{k1=\"v1\",k2=\"v2\",le=\"-5.0\"} 0.0\n"
+                + "view1_bucket{k1=\"v1\",k2=\"v2\",le=\"0.0\"} 2.0\n"
+                + "view1_bucket{k1=\"v1\",k2=\"v2\",le=\"5.0\"} 4.0\n"
+                + "view1_bucket{k1=\"v1\",k2=\"v2\",le=\"+Inf\"} 5.0\n"
+                + "view1_count{k1=\"v1\",k2=\"v2\"} 5.0\n"
+                + "view1_sum{k1=\"v1\",k2=\"v2\"} 22.0\n");
+  }
+
+  @Test
+  public void write_NoLabelsAndEscapedHelp() throws IOException {
+    doReturn(ImmutableSet.of(COUNT_VIEW)).when(mockViewManager).getAllExportedViews();
+    doReturn(COUNT_VIEW_DATA).when(mockViewManager).getView(COUNT_VIEW.getName());
+    assertThat(write(new PrometheusStatsTextWriter(mockViewManager)))
+        .isEqualTo(
+            "# HELP my_view_count Count \\\\ with\\nnewline\n"
+                + "# TYPE my_view_count counter\n"
+                + "my_view_count 7.0\n");
+  }
+
+  @Test
+  public void write_NullAndEscapedLabelValues() throws IOException {
+    View view =
+        View.create(
+            View.Name.create("gauge"),
+            "",
+            MEASURE_DOUBLE,
+            LastValue.create(),
+            Arrays.asList(K1, K2),
+            CUMULATIVE);
+    List<TagValue> tagValues = Arrays.asList(null, TagValue.create("a\"b\\c"));
+    ViewData viewData =
+        ViewData.create(
+            view, ImmutableMap.of(tagValues, LastValueDataDouble.create(1.5)), CUMULATIVE_DATA);
+    doReturn(ImmutableSet.of(view)).when(mockViewManager).getAllExportedViews();
+    doReturn(viewData).when(mockViewManager).getView(view.getName());
+    assertThat(write(new PrometheusStatsTextWriter(mockViewManager)))
+        .isEqualTo(
+            "# HELP gauge \n" + "# TYPE gauge gauge\n" + "gauge{k1=\"\",k2=\"a\\\"b\\\\c\"} 1.5\n");
+  }
+
+  @Test
+  public void write_SkipDistributionViewWithLeTagKey() throws IOException {
+    View view =
+        View.create(
+            View.Name.create("view2"),
+            "",
+            MEASURE_DOUBLE,
+            DISTRIBUTION,
+            Arrays.asList(K1, TagKey.create(LABEL_NAME_BUCKET_BOUND)),
+            CUMULATIVE);
+    doReturn(ImmutableSet.of(view)).when(mockViewManager).getAllExportedViews();
+    assertThat(write(new PrometheusStatsTextWriter(mockViewManager))).isEmpty();
+  }
+
+  @Test
+  public void write_SkipViewWithoutData() throws IOException {
+    doReturn(ImmutableSet.of(COUNT_VIEW)).when(mockViewManager).getAllExportedViews();
+    assertThat(write(new PrometheusStatsTextWriter(mockViewManager))).isEmpty();
+  }
+
+  @Test
+  public void write_WithNoopViewManager() throws IOException {
+    assertThat(write(new PrometheusStatsTextWriter(Stats.getViewManager()))).isEmpty();
+  }
+
+  @Test
+  public void writeEscapedLabelValue() throws IOException {
+    StringWriter writer = new StringWriter();
+    PrometheusStatsTextWriter.writeEscapedLabelValue(writer, "\\a\nb\"");
+    assertThat(writer.toString()).isEqualTo("\\\\a\\nb\\\"");
+  }
+
+  private static String write(PrometheusStatsTextWriter textWriter) throws IOException {
+    StringWriter writer = new StringWriter();
+    textWriter.write(writer);
+    return writer.toString();
+  }
+}
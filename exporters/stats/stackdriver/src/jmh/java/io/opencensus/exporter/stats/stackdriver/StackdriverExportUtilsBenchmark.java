@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.exporter.stats.stackdriver;
+
+import com.google.api.MonitoredResource;
+import com.google.monitoring.v3.TimeSeries;
+import io.opencensus.common.Timestamp;
+import io.opencensus.exporter.stats.stackdriver.StackdriverExportUtils.TimeSeriesTemplate;
+import io.opencensus.stats.Aggregation;
+import io.opencensus.stats.AggregationData;
+import io.opencensus.stats.AggregationData.DistributionData;
+import io.opencensus.stats.AggregationData.SumDataDouble;
+import io.opencensus.stats.BucketBoundaries;
+import io.opencensus.stats.Measure.MeasureDouble;
+import io.opencensus.stats.View;
+import io.opencensus.stats.ViewData;
+import io.opencensus.stats.ViewData.AggregationWindowData.CumulativeData;
+import io.opencensus.tags.TagKey;
+import io.opencensus.tags.TagValue;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Benchmarks for converting {@link ViewData} to Stackdriver {@link TimeSeries}. */
+public class StackdriverExportUtilsBenchmark {
+  private static final TagKey KEY_1 = TagKey.create("key1");
+  private static final TagKey KEY_2 = TagKey.create("key2");
+  private static final MeasureDouble MEASURE =
+      MeasureDouble.create("measure", "measure description", "ms");
+  private static final BucketBoundaries BUCKET_BOUNDARIES =
+      BucketBoundaries.create(Arrays.asList(0.0, 1.0, 5.0, 10.0, 50.0, 100.0, 500.0, 1000.0));
+  private static final MonitoredResource RESOURCE =
+      MonitoredResource.newBuilder().setType("global").build();
+
+  @State(Scope.Benchmark)
+  public static class Data {
+    @Param({"sum", "distribution"})
+    String aggregationType;
+
+    @Param({"10000"})
+    int numSeries;
+
+    ViewData viewData;
+    TimeSeriesTemplate template;
+
+    @Setup
+    public void setup() {
+      Aggregation aggregation;
+      AggregationData aggregationData;
+      if (aggregationType.equals("sum")) {
+        aggregation = Aggregation.Sum.create();
+        aggregationData = SumDataDouble.create(123.4);
+      } else if (aggregationType.equals("distribution")) {
+        aggregation = Aggregation.Distribution.create(BUCKET_BOUNDARIES);
+        aggregationData =
+            DistributionData.create(
+                12.3, 10, 0.5, 95.0, 1234.5, Arrays.asList(0L, 1L, 2L, 3L, 4L, 0L, 0L, 0L, 0L));
+      } else {
+        throw new RuntimeException("Invalid aggregation type: " + aggregationType);
+      }
+      View view =
+          View.create(
+              View.Name.create("my/view"),
+              "view description",
+              MEASURE,
+              aggregation,
+              Arrays.asList(KEY_1, KEY_2),
+              View.AggregationWindow.Cumulative.create());
+      Map<List<TagValue>, AggregationData> aggregationMap =
+          new HashMap<List<TagValue>, AggregationData>();
+      for (int i = 0; i < numSeries; i++) {
+        aggregationMap.put(
+            Arrays.asList(TagValue.create("value" + i), TagValue.create("value" + (i % 10))),
+            aggregationData);
+      }
+      viewData =
+          ViewData.create(
+              view,
+              aggregationMap,
+              CumulativeData.create(Timestamp.fromMillis(1000), Timestamp.fromMillis(2000)));
+      template = StackdriverExportUtils.createTimeSeriesTemplate(view, RESOURCE);
+    }
+  }
+
+  /** Converts the {@code ViewData}, building the per-view parts of the {@code TimeSeries}. */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public List<TimeSeries> createTimeSeriesList(Data data) {
+    return StackdriverExportUtils.createTimeSeriesList(data.viewData, RESOURCE);
+  }
+
+  /** Converts the {@code ViewData} using the cached {@code TimeSeriesTemplate} of the view. */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public List<TimeSeries> createTimeSeriesListWithTemplate(Data data) {
+    return data.template.createTimeSeriesList(data.viewData);
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.exporter.stats.stackdriver;
+
+import io.opencensus.stats.Measure.MeasureDouble;
+import io.opencensus.stats.Measure.MeasureLong;
+
+/**
+ * Constants for the measures recorded by the {@link StackdriverStatsExporter} about its own
+ * exports.
+ *
+ * <p>The measures are only recorded, users need to register views for them to collect the data.
+ *
+ * @since 0.16
+ */
+public final class StackdriverExportMeasureConstants {
+
+  private static final String PREFIX = "opencensus.io/exporter/stackdriver/stats/";
+
+  /**
+   * {@link io.opencensus.stats.Measure} for the time taken to upload all the views in one export
+   * interval.
+   *
+   * @since 0.16
+   */
+  public static final MeasureDouble EXPORT_LATENCY =
+      MeasureDouble.create(
+          PREFIX + "export_latency",
+          "Time taken to upload all the views in one export interval",
+          "ms");
+
+  /**
+   * {@link io.opencensus.stats.Measure} for the number of {@code CreateTimeSeries} batches sent.
+   *
+   * @since 0.16
+   */
+  public static final MeasureLong EXPORTED_BATCHES =
+      MeasureLong.create(
+          PREFIX + "exported_batches", "Number of CreateTimeSeries batches sent", "1");
+
+  /**
+   * {@link io.opencensus.stats.Measure} for the number of {@code CreateTimeSeries} batches that
+   * failed or timed out.
+   *
+   * @since 0.16
+   */
+  public static final MeasureLong FAILED_BATCHES =
+      MeasureLong.create(
+          PREFIX + "failed_batches",
+          "Number of CreateTimeSeries batches that failed or timed out",
+          "1");
+
+  private StackdriverExportMeasureConstants() {}
+}
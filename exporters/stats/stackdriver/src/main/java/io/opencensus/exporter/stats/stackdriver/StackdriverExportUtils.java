@@ -30,7 +30,6 @@ import com.google.api.MonitoredResource;
 import com.google.cloud.MetadataConfig;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import com.google.monitoring.v3.Point;
 import com.google.monitoring.v3.TimeInterval;
 import com.google.monitoring.v3.TimeSeries;
@@ -212,55 +211,125 @@ final class StackdriverExportUtils {
   // Convert ViewData to a list of TimeSeries, so that ViewData can be uploaded to Stackdriver.
   static List<TimeSeries> createTimeSeriesList(
       @javax.annotation.Nullable ViewData viewData, MonitoredResource monitoredResource) {
-    List<TimeSeries> timeSeriesList = Lists.newArrayList();
     if (viewData == null) {
-      return timeSeriesList;
+      return Lists.newArrayList();
+    }
+    TimeSeriesTemplate template = createTimeSeriesTemplate(viewData.getView(), monitoredResource);
+    if (template == null) {
+      return Lists.newArrayList();
     }
-    View view = viewData.getView();
+    return template.createTimeSeriesList(viewData);
+  }
+
+  // Create the TimeSeriesTemplate of a View, or null if the View cannot be exported to
+  // Stackdriver.
+  @javax.annotation.Nullable
+  static TimeSeriesTemplate createTimeSeriesTemplate(
+      View view, MonitoredResource monitoredResource) {
     if (!(view.getWindow() instanceof View.AggregationWindow.Cumulative)) {
       // TODO(songya): Only Cumulative view will be exported to Stackdriver in this version.
-      return timeSeriesList;
+      return null;
+    }
+    return new TimeSeriesTemplate(view, monitoredResource);
+  }
+
+  /**
+   * The parts of the {@code TimeSeries} of a {@code View} that don't change between exports: the
+   * metric type, label keys, metric kind, value type, monitored resource and bucket options.
+   *
+   * <p>A template is created once per {@code View}, so that converting a {@code ViewData} only
+   * needs to fill in the label values and the points.
+   */
+  static final class TimeSeriesTemplate {
+    private final View view;
+    // Shared fields for all TimeSeries generated from the same View.
+    private final TimeSeries shared;
+    private final String metricType;
+    private final String[] labelKeys;
+    @javax.annotation.Nullable private final BucketOptions bucketOptions;
+
+    private TimeSeriesTemplate(View view, MonitoredResource monitoredResource) {
+      this.view = view;
+      this.shared =
+          TimeSeries.newBuilder()
+              .setMetricKind(createMetricKind(view.getWindow(), view.getAggregation()))
+              .setResource(monitoredResource)
+              .setValueType(createValueType(view.getAggregation(), view.getMeasure()))
+              .build();
+      this.metricType = generateType(view.getName().asString());
+      List<TagKey> columns = view.getColumns();
+      this.labelKeys = new String[columns.size()];
+      for (int i = 0; i < labelKeys.length; i++) {
+        labelKeys[i] = columns.get(i).getName();
+      }
+      this.bucketOptions =
+          view.getAggregation() instanceof Aggregation.Distribution
+              ? createBucketOptions(
+                  ((Aggregation.Distribution) view.getAggregation()).getBucketBoundaries())
+              : null;
     }
 
-    // Shared fields for all TimeSeries generated from the same ViewData
-    TimeSeries.Builder shared = TimeSeries.newBuilder();
-    shared.setMetricKind(createMetricKind(view.getWindow(), view.getAggregation()));
-    shared.setResource(monitoredResource);
-    shared.setValueType(createValueType(view.getAggregation(), view.getMeasure()));
-
-    // Each entry in AggregationMap will be converted into an independent TimeSeries object
-    for (Entry<List</*@Nullable*/ TagValue>, AggregationData> entry :
-        viewData.getAggregationMap().entrySet()) {
-      TimeSeries.Builder builder = shared.clone();
-      builder.setMetric(createMetric(view, entry.getKey()));
-      builder.addPoints(
-          createPoint(entry.getValue(), viewData.getWindowData(), view.getAggregation()));
-      timeSeriesList.add(builder.build());
+    // Each entry in AggregationMap will be converted into an independent TimeSeries object.
+    List<TimeSeries> createTimeSeriesList(ViewData viewData) {
+      Map<List</*@Nullable*/ TagValue>, AggregationData> aggregationMap =
+          viewData.getAggregationMap();
+      List<TimeSeries> timeSeriesList = Lists.newArrayListWithCapacity(aggregationMap.size());
+      if (aggregationMap.isEmpty()) {
+        return timeSeriesList;
+      }
+      // All the points of a ViewData have the same TimeInterval.
+      TimeInterval interval = createTimeInterval(viewData.getWindowData(), view.getAggregation());
+      for (Entry<List</*@Nullable*/ TagValue>, AggregationData> entry : aggregationMap.entrySet()) {
+        timeSeriesList.add(
+            shared
+                .toBuilder()
+                .setMetric(createMetric(metricType, labelKeys, entry.getKey()))
+                .addPoints(
+                    Point.newBuilder()
+                        .setInterval(interval)
+                        .setValue(createTypedValue(entry.getValue())))
+                .build());
+      }
+      return timeSeriesList;
     }
 
-    return timeSeriesList;
+    private TypedValue createTypedValue(AggregationData aggregationData) {
+      if (bucketOptions != null && aggregationData instanceof DistributionData) {
+        return TypedValue.newBuilder()
+            .setDistributionValue(
+                createDistribution((DistributionData) aggregationData, bucketOptions))
+            .build();
+      }
+      return StackdriverExportUtils.createTypedValue(view.getAggregation(), aggregationData);
+    }
   }
 
   // Create a Metric using the TagKeys and TagValues.
   @VisibleForTesting
   static Metric createMetric(View view, List</*@Nullable*/ TagValue> tagValues) {
-    Metric.Builder builder = Metric.newBuilder();
     // TODO(songya): use pre-defined metrics for canonical views
-    builder.setType(generateType(view.getName().asString()));
-    Map<String, String> stringTagMap = Maps.newHashMap();
     List<TagKey> columns = view.getColumns();
+    String[] labelKeys = new String[columns.size()];
+    for (int i = 0; i < labelKeys.length; i++) {
+      labelKeys[i] = columns.get(i).getName();
+    }
+    return createMetric(generateType(view.getName().asString()), labelKeys, tagValues);
+  }
+
+  private static Metric createMetric(
+      String metricType, String[] labelKeys, List</*@Nullable*/ TagValue> tagValues) {
     checkArgument(
-        tagValues.size() == columns.size(), "TagKeys and TagValues don't have same size.");
-    for (int i = 0; i < tagValues.size(); i++) {
-      TagKey key = columns.get(i);
+        tagValues.size() == labelKeys.length, "TagKeys and TagValues don't have same size.");
+    Metric.Builder builder = Metric.newBuilder();
+    builder.setType(metricType);
+    for (int i = 0; i < labelKeys.length; i++) {
       TagValue value = tagValues.get(i);
       if (value == null) {
         continue;
       }
-      stringTagMap.put(key.getName(), value.asString());
+      builder.putLabels(labelKeys[i], value.asString());
     }
-    stringTagMap.put(OPENCENSUS_TASK, OPENCENSUS_TASK_VALUE_DEFAULT);
-    builder.putAllLabels(stringTagMap);
+    builder.putLabels(OPENCENSUS_TASK, OPENCENSUS_TASK_VALUE_DEFAULT);
     return builder.build();
   }
 
@@ -371,8 +440,13 @@ final class StackdriverExportUtils {
   @VisibleForTesting
   static Distribution createDistribution(
       DistributionData distributionData, BucketBoundaries bucketBoundaries) {
+    return createDistribution(distributionData, createBucketOptions(bucketBoundaries));
+  }
+
+  private static Distribution createDistribution(
+      DistributionData distributionData, BucketOptions bucketOptions) {
     return Distribution.newBuilder()
-        .setBucketOptions(createBucketOptions(bucketBoundaries))
+        .setBucketOptions(bucketOptions)
         .addAllBucketCounts(distributionData.getBucketCounts())
         .setCount(distributionData.getCount())
         .setMean(distributionData.getMean())
@@ -18,6 +18,8 @@ package io.opencensus.exporter.stats.stackdriver;
 
 import com.google.api.MetricDescriptor;
 import com.google.api.MonitoredResource;
+import com.google.api.gax.grpc.GrpcCallContext;
+import com.google.api.gax.rpc.ApiCallContext;
 import com.google.api.gax.rpc.ApiException;
 import com.google.cloud.monitoring.v3.MetricServiceClient;
 import com.google.common.annotations.VisibleForTesting;
@@ -28,6 +30,9 @@ import com.google.monitoring.v3.ProjectName;
 import com.google.monitoring.v3.TimeSeries;
 import io.opencensus.common.Duration;
 import io.opencensus.common.Scope;
+import io.opencensus.exporter.stats.stackdriver.StackdriverExportUtils.TimeSeriesTemplate;
+import io.opencensus.stats.Stats;
+import io.opencensus.stats.StatsRecorder;
 import io.opencensus.stats.View;
 import io.opencensus.stats.ViewData;
 import io.opencensus.stats.ViewManager;
@@ -37,10 +42,16 @@ import io.opencensus.trace.Status;
 import io.opencensus.trace.Tracer;
 import io.opencensus.trace.Tracing;
 import io.opencensus.trace.samplers.Samplers;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.concurrent.NotThreadSafe;
@@ -52,7 +63,8 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 /**
  * Worker {@code Runnable} that polls ViewData from Stats library and batch export to StackDriver.
  *
- * <p>{@code StackdriverExporterWorker} will be started in a daemon {@code Thread}.
+ * <p>{@code StackdriverExporterWorker} will be started in a daemon {@code Thread}. The batches of
+ * {@code TimeSeries} of each export are uploaded in parallel by a bounded pool of daemon threads.
  *
  * <p>The state of this class should only be accessed from the thread which {@link
  * StackdriverExporterWorker} resides in.
@@ -65,6 +77,10 @@ final class StackdriverExporterWorker implements Runnable {
   // Stackdriver Monitoring v3 only accepts up to 200 TimeSeries per CreateTimeSeries call.
   @VisibleForTesting static final int MAX_BATCH_EXPORT_SIZE = 200;
 
+  @VisibleForTesting static final int DEFAULT_MAX_CONCURRENT_EXPORTS = 4;
+
+  private static final double NANOS_PER_MILLI = 1000 * 1000;
+
   private final long scheduleDelayMillis;
   private final String projectId;
   private final ProjectName projectName;
@@ -72,9 +88,18 @@ final class StackdriverExporterWorker implements Runnable {
   private final ViewManager viewManager;
   private final MonitoredResource monitoredResource;
   private final Map<View.Name, View> registeredViews = new HashMap<View.Name, View>();
+  // The TimeSeriesTemplates of the registered views, so that the per-view parts of the TimeSeries
+  // are built only once.
+  private final Map<View.Name, TimeSeriesTemplate> timeSeriesTemplates =
+      new HashMap<View.Name, TimeSeriesTemplate>();
+  private final ExecutorService exportExecutor;
+  // The call context that sets the deadline of every CreateTimeSeries call, or null to use the
+  // default settings of the MetricServiceClient.
+  @javax.annotation.Nullable private final ApiCallContext batchCallContext;
 
   private static final Tracer tracer = Tracing.getTracer();
   private static final Sampler probabilitySampler = Samplers.probabilitySampler(0.0001);
+  private static final StatsRecorder statsRecorder = Stats.getStatsRecorder();
 
   StackdriverExporterWorker(
       String projectId,
@@ -82,6 +107,33 @@ final class StackdriverExporterWorker implements Runnable {
       Duration exportInterval,
       ViewManager viewManager,
       MonitoredResource monitoredResource) {
+    this(
+        projectId,
+        metricServiceClient,
+        exportInterval,
+        viewManager,
+        monitoredResource,
+        DEFAULT_MAX_CONCURRENT_EXPORTS,
+        null);
+  }
+
+  StackdriverExporterWorker(
+      String projectId,
+      MetricServiceClient metricServiceClient,
+      Duration exportInterval,
+      ViewManager viewManager,
+      MonitoredResource monitoredResource,
+      int maxConcurrentExports,
+      /*@Nullable*/ Duration batchExportTimeout) {
+    this.exportExecutor =
+        Executors.newFixedThreadPool(
+            maxConcurrentExports,
+            new StackdriverStatsExporter.DaemonThreadFactory("ExportBatchThread", true));
+    this.batchCallContext =
+        batchExportTimeout == null
+            ? null
+            : GrpcCallContext.createDefault()
+                .withTimeout(org.threeten.bp.Duration.ofMillis(batchExportTimeout.toMillis()));
     this.scheduleDelayMillis = exportInterval.toMillis();
     this.projectId = projectId;
     projectName = ProjectName.newBuilder().setProject(projectId).build();
@@ -155,47 +207,125 @@ final class StackdriverExporterWorker implements Runnable {
     }
   }
 
+  @javax.annotation.Nullable
+  private TimeSeriesTemplate getTimeSeriesTemplate(View view) {
+    TimeSeriesTemplate template = timeSeriesTemplates.get(view.getName());
+    // registerView() rejects a different view with the name of a registered one, so the cached
+    // template always belongs to the given view.
+    if (template == null) {
+      template = StackdriverExportUtils.createTimeSeriesTemplate(view, monitoredResource);
+      if (template == null) {
+        return null;
+      }
+      timeSeriesTemplates.put(view.getName(), template);
+    }
+    return template;
+  }
+
   // Polls ViewData from Stats library for all exported views, and upload them as TimeSeries to
   // StackDriver.
   @VisibleForTesting
   void export() {
-    List</*@Nullable*/ ViewData> viewDataList = Lists.newArrayList();
+    List<TimeSeries> timeSeriesList = Lists.newArrayList();
     for (View view : viewManager.getAllExportedViews()) {
-      if (registerView(view)) {
+      if (!registerView(view)) {
         // Only upload stats for valid views.
-        viewDataList.add(viewManager.getView(view.getName()));
+        continue;
+      }
+      /*@Nullable*/ ViewData viewData = viewManager.getView(view.getName());
+      if (viewData == null) {
+        continue;
+      }
+      TimeSeriesTemplate template = getTimeSeriesTemplate(view);
+      if (template != null) {
+        timeSeriesList.addAll(template.createTimeSeriesList(viewData));
       }
     }
+    List<List<TimeSeries>> batches = Lists.partition(timeSeriesList, MAX_BATCH_EXPORT_SIZE);
+    if (batches.isEmpty()) {
+      return;
+    }
 
-    List<TimeSeries> timeSeriesList = Lists.newArrayList();
-    for (/*@Nullable*/ ViewData viewData : viewDataList) {
-      timeSeriesList.addAll(
-          StackdriverExportUtils.createTimeSeriesList(viewData, monitoredResource));
+    long startNanos = System.nanoTime();
+    Span span = tracer.getCurrentSpan();
+    span.addAnnotation("Export Stackdriver TimeSeries.");
+    // Batches are uploaded by at most maxConcurrentExports threads, the remaining ones wait in the
+    // queue of the executor.
+    List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>(batches.size());
+    for (List<TimeSeries> batch : batches) {
+      futures.add(exportExecutor.submit(new BatchExport(batch, span)));
+    }
+    long failedBatches = 0;
+    for (int i = 0; i < futures.size(); i++) {
+      try {
+        if (!futures.get(i).get()) {
+          failedBatches++;
+        }
+      } catch (ExecutionException e) {
+        // BatchExport handles its own exceptions, this should not happen.
+        logger.log(Level.WARNING, "Exception thrown when exporting TimeSeries.", e);
+        failedBatches++;
+      } catch (InterruptedException e) {
+        for (int j = i; j < futures.size(); j++) {
+          futures.get(j).cancel(true);
+        }
+        // Preserve the interruption status as per guidance and stop doing any work.
+        Thread.currentThread().interrupt();
+        return;
+      }
     }
-    for (List<TimeSeries> batchedTimeSeries :
-        Lists.partition(timeSeriesList, MAX_BATCH_EXPORT_SIZE)) {
-      Span span = tracer.getCurrentSpan();
-      span.addAnnotation("Export Stackdriver TimeSeries.");
+    span.addAnnotation("Finish exporting TimeSeries.");
+    statsRecorder
+        .newMeasureMap()
+        .put(
+            StackdriverExportMeasureConstants.EXPORT_LATENCY,
+            (System.nanoTime() - startNanos) / NANOS_PER_MILLI)
+        .put(StackdriverExportMeasureConstants.EXPORTED_BATCHES, batches.size())
+        .put(StackdriverExportMeasureConstants.FAILED_BATCHES, failedBatches)
+        .record();
+  }
+
+  // Uploads one batch of TimeSeries. Returns false if the upload failed.
+  private final class BatchExport implements Callable<Boolean> {
+    private final List<TimeSeries> timeSeries;
+    private final Span span;
+
+    private BatchExport(List<TimeSeries> timeSeries, Span span) {
+      this.timeSeries = timeSeries;
+      this.span = span;
+    }
+
+    @Override
+    public Boolean call() {
+      // Batches run on the export pool, the export span is made current again here so that the
+      // RPCs are traced as its children.
       try (Scope scope = tracer.withSpan(span)) {
         CreateTimeSeriesRequest request =
             CreateTimeSeriesRequest.newBuilder()
                 .setName(projectName.toString())
-                .addAllTimeSeries(batchedTimeSeries)
+                .addAllTimeSeries(timeSeries)
                 .build();
-        metricServiceClient.createTimeSeries(request);
-        span.addAnnotation("Finish exporting TimeSeries.");
-      } catch (ApiException e) {
-        logger.log(Level.WARNING, "ApiException thrown when exporting TimeSeries.", e);
-        span.setStatus(
-            Status.CanonicalCode.valueOf(e.getStatusCode().getCode().name())
-                .toStatus()
-                .withDescription(
-                    "ApiException thrown when exporting TimeSeries: " + exceptionMessage(e)));
-      } catch (Throwable e) {
-        logger.log(Level.WARNING, "Exception thrown when exporting TimeSeries.", e);
-        span.setStatus(
-            Status.UNKNOWN.withDescription(
-                "Exception thrown when exporting TimeSeries: " + exceptionMessage(e)));
+        try {
+          if (batchCallContext == null) {
+            metricServiceClient.createTimeSeries(request);
+          } else {
+            metricServiceClient.createTimeSeriesCallable().call(request, batchCallContext);
+          }
+          return true;
+        } catch (ApiException e) {
+          logger.log(Level.WARNING, "ApiException thrown when exporting TimeSeries.", e);
+          span.setStatus(
+              Status.CanonicalCode.valueOf(e.getStatusCode().getCode().name())
+                  .toStatus()
+                  .withDescription(
+                      "ApiException thrown when exporting TimeSeries: " + exceptionMessage(e)));
+        } catch (Throwable e) {
+          logger.log(Level.WARNING, "Exception thrown when exporting TimeSeries.", e);
+          span.setStatus(
+              Status.UNKNOWN.withDescription(
+                  "Exception thrown when exporting TimeSeries: " + exceptionMessage(e)));
+        }
+        return false;
       }
     }
   }
@@ -221,8 +351,10 @@ final class StackdriverExporterWorker implements Runnable {
       try {
         Thread.sleep(scheduleDelayMillis);
       } catch (InterruptedException ie) {
-        // Preserve the interruption status as per guidance and stop doing any work.
+        // Preserve the interruption status as per guidance and stop doing any work. The batch
+        // export threads stop once the batches in flight are uploaded.
         Thread.currentThread().interrupt();
+        exportExecutor.shutdown();
         return;
       }
     }
@@ -70,6 +70,24 @@ public abstract class StackdriverStatsConfiguration {
   @Nullable
   public abstract MonitoredResource getMonitoredResource();
 
+  /**
+   * Returns the maximum number of batches of {@code TimeSeries} that are uploaded in parallel.
+   *
+   * @return the maximum number of concurrent uploads.
+   * @since 0.16
+   */
+  @Nullable
+  public abstract Integer getMaxConcurrentExports();
+
+  /**
+   * Returns the timeout of the upload of one batch of {@code TimeSeries}.
+   *
+   * @return the timeout of the upload of one batch.
+   * @since 0.16
+   */
+  @Nullable
+  public abstract Duration getBatchExportTimeout();
+
   /**
    * Returns a new {@link Builder}.
    *
@@ -126,6 +144,24 @@ public abstract class StackdriverStatsConfiguration {
      */
     public abstract Builder setMonitoredResource(MonitoredResource monitoredResource);
 
+    /**
+     * Sets the maximum number of batches of {@code TimeSeries} that are uploaded in parallel.
+     *
+     * @param maxConcurrentExports the maximum number of concurrent uploads. Must be positive.
+     * @return this.
+     * @since 0.16
+     */
+    public abstract Builder setMaxConcurrentExports(Integer maxConcurrentExports);
+
+    /**
+     * Sets the timeout of the upload of one batch of {@code TimeSeries}.
+     *
+     * @param batchExportTimeout the timeout of the upload of one batch. Must be positive.
+     * @return this.
+     * @since 0.16
+     */
+    public abstract Builder setBatchExportTimeout(Duration batchExportTimeout);
+
     /**
      * Builds a new {@link StackdriverStatsConfiguration} with current settings.
      *
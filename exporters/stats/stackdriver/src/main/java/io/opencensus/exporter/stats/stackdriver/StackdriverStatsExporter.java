@@ -34,6 +34,7 @@ import io.opencensus.stats.Stats;
 import io.opencensus.stats.ViewManager;
 import java.io.IOException;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
 
@@ -79,11 +80,23 @@ public final class StackdriverStatsExporter {
       MetricServiceClient metricServiceClient,
       Duration exportInterval,
       ViewManager viewManager,
-      MonitoredResource monitoredResource) {
+      MonitoredResource monitoredResource,
+      int maxConcurrentExports,
+      @Nullable Duration batchExportTimeout) {
     checkArgument(exportInterval.compareTo(ZERO) > 0, "Duration must be positive");
+    checkArgument(maxConcurrentExports > 0, "maxConcurrentExports must be positive");
+    checkArgument(
+        batchExportTimeout == null || batchExportTimeout.compareTo(ZERO) > 0,
+        "batchExportTimeout must be positive");
     StackdriverExporterWorker worker =
         new StackdriverExporterWorker(
-            projectId, metricServiceClient, exportInterval, viewManager, monitoredResource);
+            projectId,
+            metricServiceClient,
+            exportInterval,
+            viewManager,
+            monitoredResource,
+            maxConcurrentExports,
+            batchExportTimeout);
     this.workerThread = new DaemonThreadFactory().newThread(worker);
   }
 
@@ -106,7 +119,7 @@ public final class StackdriverStatsExporter {
     checkNotNull(credentials, "credentials");
     checkNotNull(projectId, "projectId");
     checkNotNull(exportInterval, "exportInterval");
-    createInternal(credentials, projectId, exportInterval, null);
+    createInternal(credentials, projectId, exportInterval, null, null, null);
   }
 
   /**
@@ -136,7 +149,7 @@ public final class StackdriverStatsExporter {
       throws IOException {
     checkNotNull(projectId, "projectId");
     checkNotNull(exportInterval, "exportInterval");
-    createInternal(null, projectId, exportInterval, null);
+    createInternal(null, projectId, exportInterval, null, null, null);
   }
 
   /**
@@ -159,6 +172,12 @@ public final class StackdriverStatsExporter {
    * cloud.google.com/monitoring/custom-metrics/creating-metrics#which-resource for a list of valid
    * {@code MonitoredResource}s.
    *
+   * <p>If {@code maxConcurrentExports} of the configuration is not set, the exporter will upload up
+   * to four batches of {@code TimeSeries} in parallel.
+   *
+   * <p>If {@code batchExportTimeout} of the configuration is not set, the uploads of the batches
+   * use the default timeout of the Stackdriver Monitoring client.
+   *
    * @param configuration the {@code StackdriverStatsConfiguration}.
    * @throws IllegalStateException if a Stackdriver exporter is already created.
    * @since 0.11.0
@@ -170,7 +189,9 @@ public final class StackdriverStatsExporter {
         configuration.getCredentials(),
         configuration.getProjectId(),
         configuration.getExportInterval(),
-        configuration.getMonitoredResource());
+        configuration.getMonitoredResource(),
+        configuration.getMaxConcurrentExports(),
+        configuration.getBatchExportTimeout());
   }
 
   /**
@@ -198,7 +219,7 @@ public final class StackdriverStatsExporter {
    * @since 0.11.0
    */
   public static void createAndRegister() throws IOException {
-    createInternal(null, null, null, null);
+    createInternal(null, null, null, null, null, null);
   }
 
   /**
@@ -225,7 +246,7 @@ public final class StackdriverStatsExporter {
   @Deprecated
   public static void createAndRegister(Duration exportInterval) throws IOException {
     checkNotNull(exportInterval, "exportInterval");
-    createInternal(null, null, exportInterval, null);
+    createInternal(null, null, exportInterval, null, null, null);
   }
 
   /**
@@ -254,7 +275,7 @@ public final class StackdriverStatsExporter {
     checkNotNull(projectId, "projectId");
     checkNotNull(exportInterval, "exportInterval");
     checkNotNull(monitoredResource, "monitoredResource");
-    createInternal(null, projectId, exportInterval, monitoredResource);
+    createInternal(null, projectId, exportInterval, monitoredResource, null, null);
   }
 
   /**
@@ -281,7 +302,7 @@ public final class StackdriverStatsExporter {
       Duration exportInterval, MonitoredResource monitoredResource) throws IOException {
     checkNotNull(exportInterval, "exportInterval");
     checkNotNull(monitoredResource, "monitoredResource");
-    createInternal(null, null, exportInterval, monitoredResource);
+    createInternal(null, null, exportInterval, monitoredResource, null, null);
   }
 
   // Use createInternal() (instead of constructor) to enforce singleton.
@@ -289,10 +310,16 @@ public final class StackdriverStatsExporter {
       @Nullable Credentials credentials,
       @Nullable String projectId,
       @Nullable Duration exportInterval,
-      @Nullable MonitoredResource monitoredResource)
+      @Nullable MonitoredResource monitoredResource,
+      @Nullable Integer maxConcurrentExports,
+      @Nullable Duration batchExportTimeout)
       throws IOException {
     projectId = projectId == null ? ServiceOptions.getDefaultProjectId() : projectId;
     exportInterval = exportInterval == null ? DEFAULT_INTERVAL : exportInterval;
+    int concurrentExports =
+        maxConcurrentExports == null
+            ? StackdriverExporterWorker.DEFAULT_MAX_CONCURRENT_EXPORTS
+            : maxConcurrentExports.intValue();
     monitoredResource = monitoredResource == null ? DEFAULT_RESOURCE : monitoredResource;
     synchronized (monitor) {
       checkState(exporter == null, "Stackdriver stats exporter is already created.");
@@ -313,11 +340,29 @@ public final class StackdriverStatsExporter {
               metricServiceClient,
               exportInterval,
               Stats.getViewManager(),
-              monitoredResource);
+              monitoredResource,
+              concurrentExports,
+              batchExportTimeout);
       exporter.workerThread.start();
     }
   }
 
+  /**
+   * Unregisters the Stackdriver stats exporter and stops its threads. The batches that are being
+   * uploaded are completed first.
+   *
+   * @throws IllegalStateException if a Stackdriver stats exporter is not registered.
+   * @since 0.16
+   */
+  public static void unregister() {
+    synchronized (monitor) {
+      StackdriverStatsExporter registered = exporter;
+      checkState(registered != null, "Stackdriver stats exporter is not registered.");
+      registered.workerThread.interrupt();
+      exporter = null;
+    }
+  }
+
   // Resets exporter to null. Used only for unit tests.
   @VisibleForTesting
   static void unsafeResetExporter() {
@@ -336,11 +381,27 @@ public final class StackdriverStatsExporter {
             && "1.7".equals(System.getProperty("java.specification.version"));
     private static final ThreadFactory threadFactory = MoreExecutors.platformThreadFactory();
 
+    private final String threadName;
+    // The index appended to the name of the next thread, or null if the threads are not indexed.
+    @Nullable private final AtomicInteger nextThreadIndex;
+
+    DaemonThreadFactory() {
+      this("ExportWorkerThread", false);
+    }
+
+    DaemonThreadFactory(String threadName, boolean indexed) {
+      this.threadName = threadName;
+      this.nextThreadIndex = indexed ? new AtomicInteger() : null;
+    }
+
     @Override
     public Thread newThread(Runnable r) {
       Thread thread = threadFactory.newThread(r);
       if (!IS_RESTRICTED_APPENGINE) {
-        thread.setName("ExportWorkerThread");
+        thread.setName(
+            nextThreadIndex == null
+                ? threadName
+                : threadName + "-" + nextThreadIndex.getAndIncrement());
         thread.setDaemon(true);
       }
       return thread;
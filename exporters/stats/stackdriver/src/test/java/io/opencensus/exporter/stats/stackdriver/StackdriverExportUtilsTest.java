@@ -525,4 +525,85 @@ public class StackdriverExportUtilsTest {
                 .addPoints(StackdriverExportUtils.createPoint(sumData, cumulativeData, SUM))
                 .build());
   }
+
+  @Test
+  public void createTimeSeriesTemplate_interval() {
+    View view =
+        View.create(
+            Name.create(VIEW_NAME),
+            VIEW_DESCRIPTION,
+            MEASURE_DOUBLE,
+            SUM,
+            Arrays.asList(KEY),
+            INTERVAL);
+    assertThat(StackdriverExportUtils.createTimeSeriesTemplate(view, DEFAULT_RESOURCE)).isNull();
+  }
+
+  @Test
+  public void timeSeriesTemplate_ReusedForMultipleViewData() {
+    View view =
+        View.create(
+            Name.create(VIEW_NAME),
+            VIEW_DESCRIPTION,
+            MEASURE_DOUBLE,
+            DISTRIBUTION,
+            Arrays.asList(KEY, KEY_2),
+            CUMULATIVE);
+    StackdriverExportUtils.TimeSeriesTemplate template =
+        StackdriverExportUtils.createTimeSeriesTemplate(view, DEFAULT_RESOURCE);
+    assertThat(template).isNotNull();
+    DistributionData distributionData1 =
+        DistributionData.create(2, 3, 0, 5, 14, Arrays.asList(0L, 1L, 1L, 0L, 1L));
+    DistributionData distributionData2 =
+        DistributionData.create(-1, 1, -1, -1, 0, Arrays.asList(1L, 0L, 0L, 0L, 0L));
+    CumulativeData cumulativeData1 =
+        CumulativeData.create(Timestamp.fromMillis(1000), Timestamp.fromMillis(2000));
+    CumulativeData cumulativeData2 =
+        CumulativeData.create(Timestamp.fromMillis(1000), Timestamp.fromMillis(3000));
+    ViewData viewData1 =
+        ViewData.create(
+            view,
+            ImmutableMap.of(Arrays.asList(VALUE_1, VALUE_2), distributionData1),
+            cumulativeData1);
+    ViewData viewData2 =
+        ViewData.create(
+            view,
+            ImmutableMap.of(Arrays.asList(VALUE_2, null), distributionData2),
+            cumulativeData2);
+    assertThat(template.createTimeSeriesList(viewData1))
+        .containsExactlyElementsIn(
+            StackdriverExportUtils.createTimeSeriesList(viewData1, DEFAULT_RESOURCE));
+    assertThat(template.createTimeSeriesList(viewData2))
+        .containsExactly(
+            TimeSeries.newBuilder()
+                .setMetricKind(MetricKind.CUMULATIVE)
+                .setValueType(MetricDescriptor.ValueType.DISTRIBUTION)
+                .setMetric(StackdriverExportUtils.createMetric(view, Arrays.asList(VALUE_2, null)))
+                .setResource(DEFAULT_RESOURCE)
+                .addPoints(
+                    StackdriverExportUtils.createPoint(
+                        distributionData2, cumulativeData2, DISTRIBUTION))
+                .build());
+  }
+
+  @Test
+  public void timeSeriesTemplate_EmptyViewData() {
+    View view =
+        View.create(
+            Name.create(VIEW_NAME),
+            VIEW_DESCRIPTION,
+            MEASURE_LONG,
+            SUM,
+            Arrays.asList(KEY),
+            CUMULATIVE);
+    StackdriverExportUtils.TimeSeriesTemplate template =
+        StackdriverExportUtils.createTimeSeriesTemplate(view, DEFAULT_RESOURCE);
+    assertThat(template).isNotNull();
+    ViewData viewData =
+        ViewData.create(
+            view,
+            ImmutableMap.<List<TagValue>, SumDataLong>of(),
+            CumulativeData.create(Timestamp.fromMillis(1000), Timestamp.fromMillis(2000)));
+    assertThat(template.createTimeSeriesList(viewData)).isEmpty();
+  }
 }
@@ -26,6 +26,7 @@ import static org.mockito.Mockito.verify;
 
 import com.google.api.MetricDescriptor;
 import com.google.api.MonitoredResource;
+import com.google.api.gax.rpc.ApiCallContext;
 import com.google.api.gax.rpc.UnaryCallable;
 import com.google.cloud.monitoring.v3.MetricServiceClient;
 import com.google.cloud.monitoring.v3.stub.MetricServiceStub;
@@ -53,7 +54,9 @@ import io.opencensus.tags.TagValue;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -107,6 +110,7 @@ public class StackdriverExporterWorkerTest {
   @Test
   public void testConstants() {
     assertThat(StackdriverExporterWorker.MAX_BATCH_EXPORT_SIZE).isEqualTo(200);
+    assertThat(StackdriverExporterWorker.DEFAULT_MAX_CONCURRENT_EXPORTS).isEqualTo(4);
   }
 
   @Test
@@ -152,6 +156,74 @@ public class StackdriverExporterWorkerTest {
                     .build()));
   }
 
+  @Test
+  public void export_SplitsIntoBatches() {
+    View view =
+        View.create(VIEW_NAME, VIEW_DESCRIPTION, MEASURE, SUM, Arrays.asList(KEY), CUMULATIVE);
+    doReturn(ImmutableSet.of(view)).when(mockViewManager).getAllExportedViews();
+    doReturn(createViewDataWithRows(view, 450)).when(mockViewManager).getView(VIEW_NAME);
+
+    StackdriverExporterWorker worker =
+        new StackdriverExporterWorker(
+            PROJECT_ID,
+            new FakeMetricServiceClient(mockStub),
+            ONE_SECOND,
+            mockViewManager,
+            DEFAULT_RESOURCE,
+            2,
+            null);
+    worker.export();
+
+    verify(mockCreateTimeSeriesCallable, times(3)).call(any(CreateTimeSeriesRequest.class));
+  }
+
+  @Test
+  public void export_FailedBatchDoesNotStopOtherBatches() {
+    View view =
+        View.create(VIEW_NAME, VIEW_DESCRIPTION, MEASURE, SUM, Arrays.asList(KEY), CUMULATIVE);
+    doReturn(ImmutableSet.of(view)).when(mockViewManager).getAllExportedViews();
+    doReturn(createViewDataWithRows(view, 450)).when(mockViewManager).getView(VIEW_NAME);
+    doThrow(new IllegalArgumentException())
+        .doReturn(null)
+        .when(mockCreateTimeSeriesCallable)
+        .call(any(CreateTimeSeriesRequest.class));
+
+    StackdriverExporterWorker worker =
+        new StackdriverExporterWorker(
+            PROJECT_ID,
+            new FakeMetricServiceClient(mockStub),
+            ONE_SECOND,
+            mockViewManager,
+            DEFAULT_RESOURCE,
+            1,
+            null);
+    worker.export();
+
+    verify(mockCreateTimeSeriesCallable, times(3)).call(any(CreateTimeSeriesRequest.class));
+  }
+
+  @Test
+  public void export_WithBatchExportTimeout() {
+    View view =
+        View.create(VIEW_NAME, VIEW_DESCRIPTION, MEASURE, SUM, Arrays.asList(KEY), CUMULATIVE);
+    doReturn(ImmutableSet.of(view)).when(mockViewManager).getAllExportedViews();
+    doReturn(createViewDataWithRows(view, 1)).when(mockViewManager).getView(VIEW_NAME);
+
+    StackdriverExporterWorker worker =
+        new StackdriverExporterWorker(
+            PROJECT_ID,
+            new FakeMetricServiceClient(mockStub),
+            ONE_SECOND,
+            mockViewManager,
+            DEFAULT_RESOURCE,
+            StackdriverExporterWorker.DEFAULT_MAX_CONCURRENT_EXPORTS,
+            ONE_SECOND);
+    worker.export();
+
+    verify(mockCreateTimeSeriesCallable, times(1))
+        .call(any(CreateTimeSeriesRequest.class), any(ApiCallContext.class));
+  }
+
   @Test
   public void doNotExportForEmptyViewData() {
     View view =
@@ -256,6 +328,15 @@ public class StackdriverExporterWorkerTest {
     verify(mockStub, times(0)).createMetricDescriptorCallable();
   }
 
+  private static ViewData createViewDataWithRows(View view, int numRows) {
+    Map<List<TagValue>, AggregationData> rows = new HashMap<List<TagValue>, AggregationData>();
+    for (int i = 0; i < numRows; i++) {
+      rows.put(Arrays.asList(TagValue.create("VALUE" + i)), SumDataLong.create(i));
+    }
+    return ViewData.create(
+        view, rows, CumulativeData.create(Timestamp.fromMillis(100), Timestamp.fromMillis(200)));
+  }
+
   /*
    * MetricServiceClient.createMetricDescriptor() and MetricServiceClient.createTimeSeries() are
    * final methods and cannot be mocked. We have to use a mock MetricServiceStub in order to verify
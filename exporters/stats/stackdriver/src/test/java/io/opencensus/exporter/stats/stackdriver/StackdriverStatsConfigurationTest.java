@@ -50,11 +50,15 @@ public class StackdriverStatsConfigurationTest {
             .setProjectId(PROJECT_ID)
             .setExportInterval(DURATION)
             .setMonitoredResource(RESOURCE)
+            .setMaxConcurrentExports(8)
+            .setBatchExportTimeout(DURATION)
             .build();
     assertThat(configuration.getCredentials()).isEqualTo(FAKE_CREDENTIALS);
     assertThat(configuration.getProjectId()).isEqualTo(PROJECT_ID);
     assertThat(configuration.getExportInterval()).isEqualTo(DURATION);
     assertThat(configuration.getMonitoredResource()).isEqualTo(RESOURCE);
+    assertThat(configuration.getMaxConcurrentExports()).isEqualTo(8);
+    assertThat(configuration.getBatchExportTimeout()).isEqualTo(DURATION);
   }
 
   @Test
@@ -64,5 +68,7 @@ public class StackdriverStatsConfigurationTest {
     assertThat(configuration.getProjectId()).isNull();
     assertThat(configuration.getExportInterval()).isNull();
     assertThat(configuration.getMonitoredResource()).isNull();
+    assertThat(configuration.getMaxConcurrentExports()).isNull();
+    assertThat(configuration.getBatchExportTimeout()).isNull();
   }
 }
@@ -119,6 +119,36 @@ public class StackdriverStatsExporterTest {
     }
   }
 
+  @Test
+  public void unregisterAndCreateAgain() throws IOException {
+    StackdriverStatsExporter.createAndRegister(CONFIGURATION);
+    StackdriverStatsExporter.unregister();
+    StackdriverStatsExporter.createAndRegister(CONFIGURATION);
+    StackdriverStatsExporter.unregister();
+  }
+
+  @Test
+  public void unregisterWithoutExporter() {
+    thrown.expect(IllegalStateException.class);
+    thrown.expectMessage("Stackdriver stats exporter is not registered.");
+    StackdriverStatsExporter.unregister();
+  }
+
+  @Test
+  public void indexedThreadNames() {
+    StackdriverStatsExporter.DaemonThreadFactory threadFactory =
+        new StackdriverStatsExporter.DaemonThreadFactory("ExportBatchThread", true);
+    Runnable noop =
+        new Runnable() {
+          @Override
+          public void run() {}
+        };
+    assertThat(threadFactory.newThread(noop).getName()).isEqualTo("ExportBatchThread-0");
+    assertThat(threadFactory.newThread(noop).getName()).isEqualTo("ExportBatchThread-1");
+    assertThat(new StackdriverStatsExporter.DaemonThreadFactory().newThread(noop).getName())
+        .isEqualTo("ExportWorkerThread");
+  }
+
   @Test
   @SuppressWarnings("deprecation")
   public void createWithNullMonitoredResource() throws IOException {
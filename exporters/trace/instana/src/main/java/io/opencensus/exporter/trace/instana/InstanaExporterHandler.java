@@ -19,6 +19,7 @@ package io.opencensus.exporter.trace.instana;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.io.BaseEncoding;
 import io.opencensus.common.Duration;
 import io.opencensus.common.Function;
@@ -37,15 +38,20 @@ import io.opencensus.trace.Tracing;
 import io.opencensus.trace.export.SpanData;
 import io.opencensus.trace.export.SpanExporter;
 import io.opencensus.trace.samplers.Samplers;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.zip.GZIPOutputStream;
 
 /*>>>
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -56,21 +62,34 @@ import org.checkerframework.checker.nullness.qual.Nullable;
  * Uses the Trace SDK documented:
  * https://github.com/instana/instana-java-sdk#instana-trace-webservice
  *
- * Currently does a blocking export using HttpUrlConnection.
- * Also uses a StringBuilder to build JSON.
- * Both can be improved should 3rd party library usage not be a concern.
+ * Currently does a blocking export using HttpUrlConnection. The JSON of each span is encoded into
+ * a reusable buffer and streamed into the request body using chunked transfer encoding, optionally
+ * compressed with gzip. A batch whose JSON exceeds maxPayloadBytes is split into several requests.
  *
  * Major TODO is the limitation of Instana to only suport 64bit trace ids, which will be resolved.
  * Until then it is crossing fingers and treating it as 50% sampler :).
  */
 final class InstanaExporterHandler extends SpanExporter.Handler {
 
+  // The default maximum size of the uncompressed JSON of a request.
+  @VisibleForTesting static final int DEFAULT_MAX_PAYLOAD_BYTES = 1024 * 1024;
+
   private static final Tracer tracer = Tracing.getTracer();
   private static final Sampler probabilitySpampler = Samplers.probabilitySampler(0.0001);
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
   private final URL agentEndpoint;
+  private final boolean useGzip;
+  private final int maxPayloadBytes;
 
   InstanaExporterHandler(URL agentEndpoint) {
+    this(agentEndpoint, false, DEFAULT_MAX_PAYLOAD_BYTES);
+  }
+
+  InstanaExporterHandler(URL agentEndpoint, boolean useGzip, int maxPayloadBytes) {
     this.agentEndpoint = agentEndpoint;
+    this.useGzip = useGzip;
+    this.maxPayloadBytes = maxPayloadBytes;
   }
 
   private static String encodeTraceId(TraceId traceId) {
@@ -128,56 +147,121 @@ final class InstanaExporterHandler extends SpanExporter.Handler {
   }
 
   static String convertToJson(Collection<SpanData> spanDataList) {
-    StringBuilder sb = new StringBuilder();
-    sb.append('[');
-    for (final SpanData span : spanDataList) {
-      final SpanContext spanContext = span.getContext();
-      final SpanId parentSpanId = span.getParentSpanId();
-      final Timestamp startTimestamp = span.getStartTimestamp();
-      final Timestamp endTimestamp = span.getEndTimestamp();
-      final Status status = span.getStatus();
-      if (status == null || endTimestamp == null) {
-        continue;
-      }
-      if (sb.length() > 1) {
-        sb.append(',');
-      }
-      sb.append('{');
-      sb.append("\"spanId\":\"").append(encodeSpanId(spanContext.getSpanId())).append("\",");
-      sb.append("\"traceId\":\"").append(encodeTraceId(spanContext.getTraceId())).append("\",");
-      if (parentSpanId != null) {
-        sb.append("\"parentId\":\"").append(encodeSpanId(parentSpanId)).append("\",");
-      }
-      sb.append("\"timestamp\":").append(toMillis(startTimestamp)).append(',');
-      sb.append("\"duration\":").append(toMillis(startTimestamp, endTimestamp)).append(',');
-      sb.append("\"name\":\"").append(toSpanName(span)).append("\",");
-      sb.append("\"type\":\"").append(toSpanType(span)).append('"');
-      if (!status.isOk()) {
-        sb.append(",\"error\":").append("true");
+    StringWriter writer = new StringWriter();
+    try {
+      writer.write('[');
+      boolean first = true;
+      for (SpanData span : spanDataList) {
+        if (!isExportable(span)) {
+          continue;
+        }
+        if (!first) {
+          writer.write(',');
+        }
+        first = false;
+        writeSpan(writer, span);
       }
-      Map<String, AttributeValue> attributeMap = span.getAttributes().getAttributeMap();
-      if (attributeMap.size() > 0) {
-        StringBuilder dataSb = new StringBuilder();
-        dataSb.append('{');
-        for (Entry<String, AttributeValue> entry : attributeMap.entrySet()) {
-          if (dataSb.length() > 1) {
-            dataSb.append(',');
-          }
-          dataSb
-              .append("\"")
-              .append(entry.getKey())
-              .append("\":\"")
-              .append(attributeValueToString(entry.getValue()))
-              .append("\"");
+      writer.write(']');
+    } catch (IOException e) {
+      // StringWriter does not throw IOException.
+      throw new AssertionError(e);
+    }
+    return writer.toString();
+  }
+
+  // Spans without a status or an end timestamp are not exported.
+  private static boolean isExportable(SpanData span) {
+    return span.getStatus() != null && span.getEndTimestamp() != null;
+  }
+
+  // Writes the JSON object of an exportable span.
+  @VisibleForTesting
+  static void writeSpan(Writer writer, SpanData span) throws IOException {
+    SpanContext spanContext = span.getContext();
+    SpanId parentSpanId = span.getParentSpanId();
+    Timestamp startTimestamp = span.getStartTimestamp();
+    Timestamp endTimestamp = span.getEndTimestamp();
+    Status status = span.getStatus();
+    if (status == null || endTimestamp == null) {
+      return;
+    }
+    writer.write("{\"spanId\":\"");
+    writer.write(encodeSpanId(spanContext.getSpanId()));
+    writer.write("\",\"traceId\":\"");
+    writer.write(encodeTraceId(spanContext.getTraceId()));
+    writer.write("\",");
+    if (parentSpanId != null) {
+      writer.write("\"parentId\":\"");
+      writer.write(encodeSpanId(parentSpanId));
+      writer.write("\",");
+    }
+    writer.write("\"timestamp\":");
+    writer.write(Long.toString(toMillis(startTimestamp)));
+    writer.write(",\"duration\":");
+    writer.write(Long.toString(toMillis(startTimestamp, endTimestamp)));
+    writer.write(",\"name\":");
+    writeString(writer, toSpanName(span));
+    writer.write(",\"type\":\"");
+    writer.write(toSpanType(span));
+    writer.write('"');
+    if (!status.isOk()) {
+      writer.write(",\"error\":true");
+    }
+    Map<String, AttributeValue> attributeMap = span.getAttributes().getAttributeMap();
+    if (attributeMap.size() > 0) {
+      writer.write(",\"data\":{");
+      boolean first = true;
+      for (Entry<String, AttributeValue> entry : attributeMap.entrySet()) {
+        if (!first) {
+          writer.write(',');
         }
-        dataSb.append('}');
+        first = false;
+        writeString(writer, entry.getKey());
+        writer.write(':');
+        writeString(writer, String.valueOf(attributeValueToString(entry.getValue())));
+      }
+      writer.write('}');
+    }
+    writer.write('}');
+  }
 
-        sb.append(",\"data\":").append(dataSb);
+  // Writes a JSON string literal, escaping quotes, backslashes and control characters.
+  @VisibleForTesting
+  static void writeString(Writer writer, String value) throws IOException {
+    writer.write('"');
+    int length = value.length();
+    int unescapedStart = 0;
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c >= 0x20 && c != '"' && c != '\\') {
+        continue;
+      }
+      writer.write(value, unescapedStart, i - unescapedStart);
+      unescapedStart = i + 1;
+      switch (c) {
+        case '"':
+          writer.write("\\\"");
+          break;
+        case '\\':
+          writer.write("\\\\");
+          break;
+        case '\n':
+          writer.write("\\n");
+          break;
+        case '\r':
+          writer.write("\\r");
+          break;
+        case '\t':
+          writer.write("\\t");
+          break;
+        default:
+          writer.write("\\u00");
+          writer.write(HEX_DIGITS[c >> 4]);
+          writer.write(HEX_DIGITS[c & 0xF]);
       }
-      sb.append('}');
     }
-    sb.append(']');
-    return sb.toString();
+    writer.write(value, unescapedStart, length - unescapedStart);
+    writer.write('"');
   }
 
   @Override
@@ -188,23 +272,34 @@ final class InstanaExporterHandler extends SpanExporter.Handler {
     Scope scope =
         tracer.spanBuilder("ExportInstanaTraces").setSampler(probabilitySpampler).startScopedSpan();
     try {
-      String json = convertToJson(spanDataList);
-
-      OutputStream outputStream = null;
-      InputStream inputStream = null;
+      // The JSON of one span at a time is encoded into this buffer, so that the size of the
+      // request is known before the span is written to it.
+      ByteArrayOutputStream spanBuffer = new ByteArrayOutputStream(1024);
+      Writer spanWriter = new OutputStreamWriter(spanBuffer, UTF_8);
+      Request request = null;
       try {
-        HttpURLConnection connection = (HttpURLConnection) agentEndpoint.openConnection();
-        connection.setRequestMethod("POST");
-        connection.setDoOutput(true);
-        outputStream = connection.getOutputStream();
-        outputStream.write(json.getBytes(Charset.defaultCharset()));
-        outputStream.flush();
-        inputStream = connection.getInputStream();
-        if (connection.getResponseCode() != 200) {
-          tracer
-              .getCurrentSpan()
-              .setStatus(
-                  Status.UNKNOWN.withDescription("Response " + connection.getResponseCode()));
+        for (SpanData span : spanDataList) {
+          if (!isExportable(span)) {
+            continue;
+          }
+          spanBuffer.reset();
+          writeSpan(spanWriter, span);
+          spanWriter.flush();
+          // Account for the separating ',' and the closing ']'.
+          if (request != null && request.payloadBytes + spanBuffer.size() + 2 > maxPayloadBytes) {
+            request.finish();
+            request = null;
+          }
+          if (request == null) {
+            request = new Request(agentEndpoint, useGzip);
+          } else {
+            request.write(',');
+          }
+          request.write(spanBuffer);
+        }
+        if (request != null) {
+          request.finish();
+          request = null;
         }
       } catch (IOException e) {
         tracer
@@ -212,25 +307,83 @@ final class InstanaExporterHandler extends SpanExporter.Handler {
             .setStatus(
                 Status.UNKNOWN.withDescription(
                     e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage()));
-        // dropping span batch
+        // dropping the rest of the span batch
       } finally {
-        if (inputStream != null) {
-          try {
-            inputStream.close();
-          } catch (IOException e) {
-            // ignore
-          }
-        }
-        if (outputStream != null) {
-          try {
-            outputStream.close();
-          } catch (IOException e) {
-            // ignore
-          }
+        if (request != null) {
+          request.abort();
         }
       }
     } finally {
       scope.close();
     }
   }
+
+  // One POST request to the agent. The body is a JSON array of spans.
+  private static final class Request {
+    private final HttpURLConnection connection;
+    private final OutputStream outputStream;
+    private int payloadBytes;
+
+    private Request(URL agentEndpoint, boolean useGzip) throws IOException {
+      connection = (HttpURLConnection) agentEndpoint.openConnection();
+      connection.setRequestMethod("POST");
+      connection.setDoOutput(true);
+      connection.setChunkedStreamingMode(0);
+      connection.setRequestProperty("Content-Type", "application/json");
+      if (useGzip) {
+        connection.setRequestProperty("Content-Encoding", "gzip");
+        outputStream = new GZIPOutputStream(connection.getOutputStream());
+      } else {
+        outputStream = connection.getOutputStream();
+      }
+      write('[');
+    }
+
+    private void write(char c) throws IOException {
+      outputStream.write(c);
+      payloadBytes++;
+    }
+
+    private void write(ByteArrayOutputStream spanBuffer) throws IOException {
+      spanBuffer.writeTo(outputStream);
+      payloadBytes += spanBuffer.size();
+    }
+
+    // Completes the request and reads the response, so that the connection can be reused.
+    private void finish() throws IOException {
+      write(']');
+      outputStream.close();
+      int responseCode = connection.getResponseCode();
+      if (responseCode != 200) {
+        tracer
+            .getCurrentSpan()
+            .setStatus(Status.UNKNOWN.withDescription("Response " + responseCode));
+      }
+      InputStream inputStream =
+          responseCode < 400 ? connection.getInputStream() : connection.getErrorStream();
+      if (inputStream != null) {
+        drainAndClose(inputStream);
+      }
+    }
+
+    private void abort() {
+      try {
+        outputStream.close();
+      } catch (IOException e) {
+        // ignore
+      }
+      connection.disconnect();
+    }
+
+    private static void drainAndClose(InputStream inputStream) throws IOException {
+      try {
+        byte[] buffer = new byte[256];
+        while (inputStream.read(buffer) != -1) {
+          // Discard the response body.
+        }
+      } finally {
+        inputStream.close();
+      }
+    }
+  }
 }
@@ -16,6 +16,7 @@
 
 package io.opencensus.exporter.trace.instana;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -64,7 +65,37 @@ public final class InstanaTraceExporter {
   public static void createAndRegister(String agentEndpoint) throws MalformedURLException {
     synchronized (monitor) {
       checkState(handler == null, "Instana exporter is already registered.");
-      Handler newHandler = new InstanaExporterHandler(new URL(agentEndpoint));
+      registerInternal(new InstanaExporterHandler(new URL(agentEndpoint)));
+    }
+  }
+
+  /**
+   * Creates and registers the Instana Trace exporter to the OpenCensus library. Only one Instana
+   * exporter can be registered at any point.
+   *
+   * <p>The spans of an export are streamed to the agent. If the JSON of the spans exceeds {@code
+   * maxPayloadBytes}, they are sent in several requests.
+   *
+   * @param agentEndpoint Ex http://localhost:42699/com.instana.plugin.generic.trace
+   * @param useGzip whether the requests are compressed with gzip.
+   * @param maxPayloadBytes the maximum size of the uncompressed JSON of a request.
+   * @throws MalformedURLException if the agentEndpoint is not a valid http url.
+   * @throws IllegalArgumentException if {@code maxPayloadBytes} is not positive.
+   * @throws IllegalStateException if a Instana exporter is already registered.
+   * @since 0.16
+   */
+  public static void createAndRegister(String agentEndpoint, boolean useGzip, int maxPayloadBytes)
+      throws MalformedURLException {
+    checkArgument(maxPayloadBytes > 0, "maxPayloadBytes must be positive.");
+    synchronized (monitor) {
+      checkState(handler == null, "Instana exporter is already registered.");
+      registerInternal(
+          new InstanaExporterHandler(new URL(agentEndpoint), useGzip, maxPayloadBytes));
+    }
+  }
+
+  private static void registerInternal(Handler newHandler) {
+    synchronized (monitor) {
       handler = newHandler;
       register(Tracing.getExportComponent().getSpanExporter(), newHandler);
     }
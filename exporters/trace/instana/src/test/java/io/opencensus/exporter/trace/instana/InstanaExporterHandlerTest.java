@@ -20,6 +20,10 @@ import static com.google.common.truth.Truth.assertThat;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
 import io.opencensus.common.Timestamp;
 import io.opencensus.trace.Annotation;
 import io.opencensus.trace.AttributeValue;
@@ -37,9 +41,15 @@ import io.opencensus.trace.export.SpanData.Attributes;
 import io.opencensus.trace.export.SpanData.Links;
 import io.opencensus.trace.export.SpanData.TimedEvent;
 import io.opencensus.trace.export.SpanData.TimedEvents;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -62,6 +72,8 @@ public class InstanaExporterHandlerTest {
               Timestamp.create(1505855799, 459486280),
               MessageEvent.builder(Type.SENT, 0).setCompressedMessageSize(13).build()));
 
+  private static final SpanData SPAN_DATA = createSpanData("SpanName", attributes, Status.OK);
+
   @Test
   public void generateSpan_NoKindAndRemoteParent() {
     SpanData data =
@@ -175,4 +187,121 @@ public class InstanaExporterHandlerTest {
                 + "}"
                 + "]");
   }
+
+  @Test
+  public void generateSpan_EscapesStrings() {
+    SpanData data =
+        createSpanData(
+            "Span\"Name\\",
+            ImmutableMap.of("key\n", AttributeValue.stringAttributeValue("a\tb\u0001")),
+            Status.CANCELLED);
+
+    assertThat(InstanaExporterHandler.convertToJson(Collections.singletonList(data)))
+        .isEqualTo(
+            "["
+                + "{"
+                + "\"spanId\":\"9cc1e3049173be09\","
+                + "\"traceId\":\"d239036e7d5cec11\","
+                + "\"parentId\":\"8b03ab423da481c5\","
+                + "\"timestamp\":1505855794194,"
+                + "\"duration\":5271,"
+                + "\"name\":\"Span\\\"Name\\\\\","
+                + "\"type\":\"ENTRY\","
+                + "\"error\":true,"
+                + "\"data\":"
+                + "{\"key\\n\":\"a\\tb\\u0001\"}"
+                + "}"
+                + "]");
+  }
+
+  @Test
+  public void convertToJson_SkipsSpansWithoutStatus() {
+    SpanData data = createSpanData("SpanName", attributes, null);
+    assertThat(InstanaExporterHandler.convertToJson(ImmutableList.of(data, data))).isEqualTo("[]");
+  }
+
+  @Test
+  public void export_SplitsPayload() throws IOException {
+    List<String> payloads = exportToServer(/* useGzip= */ false, /* maxPayloadBytes= */ 300);
+    assertThat(payloads).hasSize(3);
+    String span = InstanaExporterHandler.convertToJson(Collections.singletonList(SPAN_DATA));
+    for (String payload : payloads) {
+      assertThat(payload).isEqualTo(span);
+    }
+  }
+
+  @Test
+  public void export_OnePayload() throws IOException {
+    List<String> payloads =
+        exportToServer(/* useGzip= */ false, InstanaExporterHandler.DEFAULT_MAX_PAYLOAD_BYTES);
+    assertThat(payloads)
+        .containsExactly(
+            InstanaExporterHandler.convertToJson(
+                ImmutableList.of(SPAN_DATA, SPAN_DATA, SPAN_DATA)));
+  }
+
+  @Test
+  public void export_Gzip() throws IOException {
+    List<String> payloads =
+        exportToServer(/* useGzip= */ true, InstanaExporterHandler.DEFAULT_MAX_PAYLOAD_BYTES);
+    assertThat(payloads)
+        .containsExactly(
+            "gzip:"
+                + InstanaExporterHandler.convertToJson(
+                    ImmutableList.of(SPAN_DATA, SPAN_DATA, SPAN_DATA)));
+  }
+
+  // Exports three spans to a local server and returns the bodies of the received requests.
+  private static List<String> exportToServer(boolean useGzip, int maxPayloadBytes)
+      throws IOException {
+    final List<String> payloads = Collections.synchronizedList(new ArrayList<String>());
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext(
+        "/",
+        new HttpHandler() {
+          @Override
+          public void handle(HttpExchange exchange) throws IOException {
+            boolean gzip = "gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"));
+            InputStream body =
+                gzip ? new GZIPInputStream(exchange.getRequestBody()) : exchange.getRequestBody();
+            payloads.add(
+                (gzip ? "gzip:" : "") + new String(ByteStreams.toByteArray(body), "UTF-8"));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+          }
+        });
+    server.start();
+    try {
+      InstanaExporterHandler handler =
+          new InstanaExporterHandler(
+              new URL("http://localhost:" + server.getAddress().getPort() + "/"),
+              useGzip,
+              maxPayloadBytes);
+      handler.export(ImmutableList.of(SPAN_DATA, SPAN_DATA, SPAN_DATA));
+    } finally {
+      server.stop(0);
+    }
+    return payloads;
+  }
+
+  private static SpanData createSpanData(
+      String name, Map<String, AttributeValue> attributeMap, Status status) {
+    return SpanData.create(
+        SpanContext.create(
+            TraceId.fromLowerBase16(TRACE_ID),
+            SpanId.fromLowerBase16(SPAN_ID),
+            TraceOptions.fromBytes(new byte[] {1} /* sampled */)),
+        SpanId.fromLowerBase16(PARENT_SPAN_ID),
+        true, /* hasRemoteParent */
+        name,
+        null, /* kind */
+        Timestamp.create(1505855794, 194009601) /* startTimestamp */,
+        Attributes.create(attributeMap, 0 /* droppedAttributesCount */),
+        TimedEvents.create(annotations, 0 /* droppedEventsCount */),
+        TimedEvents.create(messageEvents, 0 /* droppedEventsCount */),
+        Links.create(Collections.<Link>emptyList(), 0 /* droppedLinksCount */),
+        null, /* childSpanCount */
+        status,
+        Timestamp.create(1505855799, 465726528) /* endTimestamp */);
+  }
 }
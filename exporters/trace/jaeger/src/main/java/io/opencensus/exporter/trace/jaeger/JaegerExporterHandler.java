@@ -16,17 +16,18 @@
 
 package io.opencensus.exporter.trace.jaeger;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.lang.String.format;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
-import com.google.common.primitives.Ints;
 import com.google.common.primitives.Longs;
 import com.google.errorprone.annotations.MustBeClosed;
 import com.uber.jaeger.exceptions.SenderException;
-import com.uber.jaeger.senders.HttpSender;
+import com.uber.jaeger.senders.ThriftSender;
 import com.uber.jaeger.thriftjava.Log;
 import com.uber.jaeger.thriftjava.Process;
 import com.uber.jaeger.thriftjava.Span;
@@ -51,19 +52,37 @@ import io.opencensus.trace.Tracing;
 import io.opencensus.trace.export.SpanData;
 import io.opencensus.trace.export.SpanExporter;
 import io.opencensus.trace.samplers.Samplers;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.Nullable;
-import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.thrift.TBase;
 
-@NotThreadSafe
+/**
+ * Converts {@link SpanData} to Jaeger Thrift spans and sends them with a {@link ThriftSender}.
+ *
+ * <p>The conversion keeps no per-instance buffers, so batches can be converted concurrently. The
+ * Jaeger senders share their serialization buffers between calls, so batches are sent one at a
+ * time.
+ */
+@ThreadSafe
 final class JaegerExporterHandler extends SpanExporter.Handler {
   private static final String EXPORT_SPAN_NAME = "ExportJaegerTraces";
   private static final String DESCRIPTION = "description";
 
+  // Bounds of the caches of Tags. Attributes with a high cardinality of keys or values, e.g. ids,
+  // stop being cached once the bounds are reached.
+  @VisibleForTesting static final int MAX_CACHED_TAG_KEYS = 256;
+  @VisibleForTesting static final int MAX_CACHED_TAG_VALUES_PER_KEY = 64;
+
   private static final Logger logger = Logger.getLogger(JaegerExporterHandler.class.getName());
 
   /**
@@ -119,19 +138,26 @@ final class JaegerExporterHandler extends SpanExporter.Handler {
         }
       };
 
-  // Re-usable buffers to avoid too much memory allocation during conversions.
-  // N.B.: these make instances of this class thread-unsafe, hence the above
-  // @NotThreadSafe annotation.
-  private final byte[] spanIdBuffer = new byte[SpanId.SIZE];
-  private final byte[] traceIdBuffer = new byte[TraceId.SIZE];
-  private final byte[] optionsBuffer = new byte[Integer.SIZE / Byte.SIZE];
+  // Tags are only read once they are added to a Thrift span, so the same Tag instance is shared by
+  // all the spans with the same attribute.
+  private final ConcurrentMap<String, ConcurrentMap<AttributeValue, Tag>> attributeTags =
+      new ConcurrentHashMap<String, ConcurrentMap<AttributeValue, Tag>>();
+  private final ConcurrentMap<String, Tag> descriptionTags = new ConcurrentHashMap<String, Tag>();
 
-  private final HttpSender sender;
+  private final ThriftSender sender;
   private final Process process;
+  // Maximum size of the spans and the process of a batch, or 0 if batches are never split.
+  private final int maxBatchBytes;
+
+  JaegerExporterHandler(final ThriftSender sender, final Process process) {
+    this(sender, process, 0);
+  }
 
-  JaegerExporterHandler(final HttpSender sender, final Process process) {
+  JaegerExporterHandler(final ThriftSender sender, final Process process, final int maxBatchBytes) {
+    checkArgument(maxBatchBytes >= 0, "Maximum batch size must NOT be negative.");
     this.sender = checkNotNull(sender, "Jaeger sender must NOT be null.");
     this.process = checkNotNull(process, "Process sending traces must NOT be null.");
+    this.maxBatchBytes = maxBatchBytes;
   }
 
   @Override
@@ -159,97 +185,152 @@ final class JaegerExporterHandler extends SpanExporter.Handler {
 
   private void doExport(final Collection<SpanData> spanDataList) throws SenderException {
     final List<Span> spans = spanDataToJaegerThriftSpans(spanDataList);
-    sender.send(process, spans);
+    synchronized (sender) {
+      if (maxBatchBytes == 0) {
+        sender.send(process, spans);
+      } else {
+        sendInBatches(spans);
+      }
+    }
+  }
+
+  // Splits the spans into batches that fit into maxBatchBytes, e.g. into a UDP packet. Spans that
+  // do not fit into a batch on their own are dropped.
+  @GuardedBy("sender")
+  private void sendInBatches(final List<Span> spans) throws SenderException {
+    final int processBytes = getSize(process);
+    List<Span> batch = new ArrayList<Span>();
+    int batchBytes = processBytes;
+    int droppedSpans = 0;
+    for (final Span span : spans) {
+      final int spanBytes = getSize(span);
+      if (processBytes + spanBytes > maxBatchBytes) {
+        droppedSpans++;
+        continue;
+      }
+      if (batchBytes + spanBytes > maxBatchBytes) {
+        sender.send(process, batch);
+        batch = new ArrayList<Span>();
+        batchBytes = processBytes;
+      }
+      batch.add(span);
+      batchBytes += spanBytes;
+    }
+    if (!batch.isEmpty()) {
+      sender.send(process, batch);
+    }
+    if (droppedSpans > 0) {
+      throw new SenderException(
+          format("Dropped %d spans larger than %d bytes.", droppedSpans, maxBatchBytes),
+          null,
+          droppedSpans);
+    }
+  }
+
+  @GuardedBy("sender")
+  private int getSize(final TBase<?, ?> thriftBase) throws SenderException {
+    try {
+      return sender.getSize(thriftBase);
+    } catch (Exception e) {
+      throw new SenderException("Failed to compute the size of a Thrift object.", e, 1);
+    }
   }
 
   private static String getMessageOrDefault(final SenderException e) {
     return e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
   }
 
-  private List<Span> spanDataToJaegerThriftSpans(final Collection<SpanData> spanDataList) {
+  @VisibleForTesting
+  List<Span> spanDataToJaegerThriftSpans(final Collection<SpanData> spanDataList) {
+    // SpanId, TraceId and TraceOptions only expose their bytes by copying them, so one buffer is
+    // shared by all the conversions of this batch.
+    final byte[] idBuffer = new byte[TraceId.SIZE];
     final List<Span> spans = Lists.newArrayListWithExpectedSize(spanDataList.size());
     for (final SpanData spanData : spanDataList) {
-      spans.add(spanDataToJaegerThriftSpan(spanData));
+      spans.add(spanDataToJaegerThriftSpan(spanData, idBuffer));
     }
     return spans;
   }
 
-  private Span spanDataToJaegerThriftSpan(final SpanData spanData) {
+  private Span spanDataToJaegerThriftSpan(final SpanData spanData, final byte[] idBuffer) {
     final long startTimeInMicros = timestampToMicros(spanData.getStartTimestamp());
     final long endTimeInMicros = timestampToMicros(spanData.getEndTimestamp());
 
     final SpanContext context = spanData.getContext();
-    copyToBuffer(context.getTraceId());
+    context.getTraceId().copyBytesTo(idBuffer, 0);
+    final long traceIdLow = traceIdLow(idBuffer);
+    final long traceIdHigh = traceIdHigh(idBuffer);
 
     return new com.uber.jaeger.thriftjava.Span(
-            traceIdLow(),
-            traceIdHigh(),
-            spanIdToLong(context.getSpanId()),
-            spanIdToLong(spanData.getParentSpanId()),
+            traceIdLow,
+            traceIdHigh,
+            spanIdToLong(context.getSpanId(), idBuffer),
+            spanIdToLong(spanData.getParentSpanId(), idBuffer),
             spanData.getName(),
-            optionsToFlags(context.getTraceOptions()),
+            optionsToFlags(context.getTraceOptions(), idBuffer),
             startTimeInMicros,
             endTimeInMicros - startTimeInMicros)
-        .setReferences(linksToReferences(spanData.getLinks().getLinks()))
+        .setReferences(linksToReferences(spanData.getLinks().getLinks(), idBuffer))
         .setTags(attributesToTags(spanData.getAttributes().getAttributeMap()))
         .setLogs(annotationEventsToLogs(spanData.getAnnotations().getEvents()));
   }
 
-  private void copyToBuffer(final TraceId traceId) {
-    // Attempt to minimise allocations, since TraceId#getBytes currently creates a defensive copy:
-    traceId.copyBytesTo(traceIdBuffer, 0);
-  }
-
-  private long traceIdHigh() {
+  private static long traceIdHigh(final byte[] traceIdBytes) {
     return Longs.fromBytes(
-        traceIdBuffer[0],
-        traceIdBuffer[1],
-        traceIdBuffer[2],
-        traceIdBuffer[3],
-        traceIdBuffer[4],
-        traceIdBuffer[5],
-        traceIdBuffer[6],
-        traceIdBuffer[7]);
+        traceIdBytes[0],
+        traceIdBytes[1],
+        traceIdBytes[2],
+        traceIdBytes[3],
+        traceIdBytes[4],
+        traceIdBytes[5],
+        traceIdBytes[6],
+        traceIdBytes[7]);
   }
 
-  private long traceIdLow() {
+  private static long traceIdLow(final byte[] traceIdBytes) {
     return Longs.fromBytes(
-        traceIdBuffer[8],
-        traceIdBuffer[9],
-        traceIdBuffer[10],
-        traceIdBuffer[11],
-        traceIdBuffer[12],
-        traceIdBuffer[13],
-        traceIdBuffer[14],
-        traceIdBuffer[15]);
+        traceIdBytes[8],
+        traceIdBytes[9],
+        traceIdBytes[10],
+        traceIdBytes[11],
+        traceIdBytes[12],
+        traceIdBytes[13],
+        traceIdBytes[14],
+        traceIdBytes[15]);
   }
 
-  private long spanIdToLong(final @Nullable SpanId spanId) {
+  private static long spanIdToLong(final @Nullable SpanId spanId, final byte[] buffer) {
     if (spanId == null) {
       return 0L;
     }
     // Attempt to minimise allocations, since SpanId#getBytes currently creates a defensive copy:
-    spanId.copyBytesTo(spanIdBuffer, 0);
-    return Longs.fromByteArray(spanIdBuffer);
+    spanId.copyBytesTo(buffer, 0);
+    return Longs.fromBytes(
+        buffer[0], buffer[1], buffer[2], buffer[3], buffer[4], buffer[5], buffer[6], buffer[7]);
   }
 
-  private int optionsToFlags(final TraceOptions traceOptions) {
+  private static int optionsToFlags(final TraceOptions traceOptions, final byte[] buffer) {
     // Attempt to minimise allocations, since TraceOptions#getBytes currently creates a defensive
     // copy:
-    traceOptions.copyBytesTo(optionsBuffer, optionsBuffer.length - 1);
-    return Ints.fromByteArray(optionsBuffer);
+    traceOptions.copyBytesTo(buffer, 0);
+    return buffer[0] & 0xFF;
   }
 
-  private List<SpanRef> linksToReferences(final List<Link> links) {
+  private static List<SpanRef> linksToReferences(final List<Link> links, final byte[] idBuffer) {
+    if (links.isEmpty()) {
+      return Collections.emptyList();
+    }
     final List<SpanRef> spanRefs = Lists.newArrayListWithExpectedSize(links.size());
     for (final Link link : links) {
-      copyToBuffer(link.getTraceId());
+      link.getTraceId().copyBytesTo(idBuffer, 0);
+      final long traceIdLow = traceIdLow(idBuffer);
+      final long traceIdHigh = traceIdHigh(idBuffer);
       spanRefs.add(
           new SpanRef(
               linkTypeToRefType(link.getType()),
-              traceIdLow(),
-              traceIdHigh(),
-              spanIdToLong(link.getSpanId())));
+              traceIdLow,
+              traceIdHigh,
+              spanIdToLong(link.getSpanId(), idBuffer)));
     }
     return spanRefs;
   }
@@ -271,25 +352,51 @@ final class JaegerExporterHandler extends SpanExporter.Handler {
         format("Failed to convert link type [%s] to a Jaeger SpanRefType.", type));
   }
 
-  private static List<Tag> attributesToTags(final Map<String, AttributeValue> attributes) {
-    final List<Tag> tags = Lists.newArrayListWithExpectedSize(attributes.size());
+  private List<Tag> attributesToTags(final Map<String, AttributeValue> attributes) {
+    final List<Tag> tags = Lists.newArrayListWithExpectedSize(attributes.size() + 1);
     for (final Map.Entry<String, AttributeValue> entry : attributes.entrySet()) {
-      final Tag tag =
-          entry
-              .getValue()
-              .match(
-                  stringAttributeConverter,
-                  booleanAttributeConverter,
-                  longAttributeConverter,
-                  defaultAttributeConverter);
-      tag.setKey(entry.getKey());
-      tags.add(tag);
+      tags.add(attributeToTag(entry.getKey(), entry.getValue()));
     }
     return tags;
   }
 
-  private static List<Log> annotationEventsToLogs(
-      final List<SpanData.TimedEvent<Annotation>> events) {
+  private Tag attributeToTag(final String key, final AttributeValue value) {
+    ConcurrentMap<AttributeValue, Tag> valueTags = attributeTags.get(key);
+    if (valueTags == null) {
+      if (attributeTags.size() >= MAX_CACHED_TAG_KEYS) {
+        return newTag(key, value);
+      }
+      valueTags = new ConcurrentHashMap<AttributeValue, Tag>();
+      final ConcurrentMap<AttributeValue, Tag> previous = attributeTags.putIfAbsent(key, valueTags);
+      if (previous != null) {
+        valueTags = previous;
+      }
+    }
+    Tag tag = valueTags.get(value);
+    if (tag == null) {
+      tag = newTag(key, value);
+      if (valueTags.size() < MAX_CACHED_TAG_VALUES_PER_KEY) {
+        valueTags.put(value, tag);
+      }
+    }
+    return tag;
+  }
+
+  private static Tag newTag(final String key, final AttributeValue value) {
+    final Tag tag =
+        value.match(
+            stringAttributeConverter,
+            booleanAttributeConverter,
+            longAttributeConverter,
+            defaultAttributeConverter);
+    tag.setKey(key);
+    return tag;
+  }
+
+  private List<Log> annotationEventsToLogs(final List<SpanData.TimedEvent<Annotation>> events) {
+    if (events.isEmpty()) {
+      return Collections.emptyList();
+    }
     final List<Log> logs = Lists.newArrayListWithExpectedSize(events.size());
     for (final SpanData.TimedEvent<Annotation> event : events) {
       final long timestampsInMicros = timestampToMicros(event.getTimestamp());
@@ -301,9 +408,15 @@ final class JaegerExporterHandler extends SpanExporter.Handler {
     return logs;
   }
 
-  private static Tag descriptionToTag(final String description) {
-    final Tag tag = new Tag(DESCRIPTION, TagType.STRING);
-    tag.setVStr(description);
+  private Tag descriptionToTag(final String description) {
+    Tag tag = descriptionTags.get(description);
+    if (tag == null) {
+      tag = new Tag(DESCRIPTION, TagType.STRING);
+      tag.setVStr(description);
+      if (descriptionTags.size() < MAX_CACHED_TAG_VALUES_PER_KEY) {
+        descriptionTags.put(description, tag);
+      }
+    }
     return tag;
   }
 }
@@ -20,6 +20,8 @@ import static com.google.common.base.Preconditions.checkState;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.uber.jaeger.senders.HttpSender;
+import com.uber.jaeger.senders.UdpSender;
+import com.uber.jaeger.thrift.senders.ThriftSenderBase;
 import com.uber.jaeger.thriftjava.Process;
 import io.opencensus.trace.Tracing;
 import io.opencensus.trace.export.SpanExporter;
@@ -36,11 +38,19 @@ import javax.annotation.concurrent.GuardedBy;
  *   }
  * }</pre>
  *
+ * <p>To send the spans to a local Jaeger agent over UDP instead:
+ *
+ * <pre>{@code
+ * JaegerTraceExporter.createAndRegisterUdp("localhost", 6831, "myservicename");
+ * }</pre>
+ *
  * @since 0.13
  */
 public final class JaegerTraceExporter {
   private static final String REGISTER_NAME = JaegerTraceExporter.class.getName();
   private static final Object monitor = new Object();
+  // Same as the default maximum packet size of the UdpSender.
+  private static final int UDP_MAX_PACKET_BYTES = 65000;
 
   @GuardedBy("monitor")
   @Nullable
@@ -68,6 +78,27 @@ public final class JaegerTraceExporter {
     }
   }
 
+  /**
+   * Creates and registers the Jaeger Trace exporter to the OpenCensus library, sending the spans in
+   * the compact Thrift format over UDP to a Jaeger agent. Batches of spans are split to fit into
+   * UDP packets. Only one Jaeger exporter can be registered at any point.
+   *
+   * @param agentHost the host of the Jaeger agent, e.g.: "localhost"
+   * @param agentPort the UDP port of the Jaeger agent for the compact Thrift protocol, e.g.: 6831
+   * @param serviceName the local service name of the process.
+   * @throws IllegalStateException if a Jaeger exporter is already registered.
+   * @since 0.16
+   */
+  public static void createAndRegisterUdp(
+      final String agentHost, final int agentPort, final String serviceName) {
+    synchronized (monitor) {
+      checkState(handler == null, "Jaeger exporter is already registered.");
+      final SpanExporter.Handler newHandler = newUdpHandler(agentHost, agentPort, serviceName);
+      JaegerTraceExporter.handler = newHandler;
+      register(Tracing.getExportComponent().getSpanExporter(), newHandler);
+    }
+  }
+
   private static SpanExporter.Handler newHandler(
       final String thriftEndpoint, final String serviceName) {
     final HttpSender sender = new HttpSender(thriftEndpoint);
@@ -75,6 +106,14 @@ public final class JaegerTraceExporter {
     return new JaegerExporterHandler(sender, process);
   }
 
+  private static SpanExporter.Handler newUdpHandler(
+      final String agentHost, final int agentPort, final String serviceName) {
+    final UdpSender sender = new UdpSender(agentHost, agentPort, UDP_MAX_PACKET_BYTES);
+    final Process process = new Process(serviceName);
+    return new JaegerExporterHandler(
+        sender, process, UDP_MAX_PACKET_BYTES - ThriftSenderBase.EMIT_BATCH_OVERHEAD);
+  }
+
   /**
    * Registers the {@link JaegerTraceExporter}.
    *
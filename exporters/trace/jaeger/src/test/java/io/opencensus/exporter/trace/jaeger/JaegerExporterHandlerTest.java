@@ -19,14 +19,20 @@ package io.opencensus.exporter.trace.jaeger;
 import static com.google.common.truth.Truth.assertThat;
 import static java.util.Collections.singletonList;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
+import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import com.uber.jaeger.agent.thrift.Agent;
 import com.uber.jaeger.exceptions.SenderException;
 import com.uber.jaeger.senders.HttpSender;
+import com.uber.jaeger.senders.ThriftSender;
+import com.uber.jaeger.senders.UdpSender;
+import com.uber.jaeger.thrift.senders.ThriftSenderBase;
 import com.uber.jaeger.thriftjava.Log;
 import com.uber.jaeger.thriftjava.Process;
 import com.uber.jaeger.thriftjava.Span;
@@ -45,7 +51,19 @@ import io.opencensus.trace.Status;
 import io.opencensus.trace.TraceId;
 import io.opencensus.trace.TraceOptions;
 import io.opencensus.trace.export.SpanData;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.thrift.protocol.TCompactProtocol;
+import org.apache.thrift.protocol.TMessage;
+import org.apache.thrift.protocol.TProtocol;
+import org.apache.thrift.transport.TMemoryInputTransport;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
@@ -127,6 +145,190 @@ public class JaegerExporterHandlerTest {
     assertThat(reference.refType).isEqualTo(SpanRefType.CHILD_OF);
   }
 
+  @Test
+  public void convertShouldShareTagsOfEqualAttributes() {
+    final List<Span> spans =
+        handler.spanDataToJaegerThriftSpans(
+            Lists.newArrayList(sampleSpanData("first"), sampleSpanData("second")));
+
+    assertThat(spans.size()).isEqualTo(2);
+    for (int i = 0; i < spans.get(0).tags.size(); i++) {
+      assertThat(spans.get(1).tags.get(i)).isSameAs(spans.get(0).tags.get(i));
+    }
+    assertThat(spans.get(1).logs.get(0).fields.get(3))
+        .isSameAs(spans.get(0).logs.get(0).fields.get(3));
+  }
+
+  @Test
+  public void convertShouldNotCacheMoreThanMaxTagValuesPerKey() {
+    final List<SpanData> spanDataList = Lists.newArrayList();
+    for (int i = 0; i < JaegerExporterHandler.MAX_CACHED_TAG_VALUES_PER_KEY + 10; i++) {
+      spanDataList.add(
+          sampleSpanData(
+              "test", ImmutableMap.of("id", AttributeValue.longAttributeValue((long) i))));
+    }
+
+    final List<Span> spans = handler.spanDataToJaegerThriftSpans(spanDataList);
+    final List<Span> moreSpans = handler.spanDataToJaegerThriftSpans(spanDataList);
+
+    for (int i = 0; i < spans.size(); i++) {
+      final Tag tag = spans.get(i).tags.get(0);
+      assertThat(tag).isEqualTo(new Tag("id", TagType.LONG).setVLong(i));
+      if (i < JaegerExporterHandler.MAX_CACHED_TAG_VALUES_PER_KEY) {
+        assertThat(moreSpans.get(i).tags.get(0)).isSameAs(tag);
+      } else {
+        assertThat(moreSpans.get(i).tags.get(0)).isNotSameAs(tag);
+        assertThat(moreSpans.get(i).tags.get(0)).isEqualTo(tag);
+      }
+    }
+  }
+
+  @Test
+  public void exportShouldSplitBatchesLargerThanMaxBatchBytes() throws Exception {
+    final RecordingSender sender = new RecordingSender();
+    final int spanBytes =
+        sender.getSize(
+            handler.spanDataToJaegerThriftSpans(singletonList(sampleSpanData("test"))).get(0));
+    final int maxBatchBytes = sender.getSize(process) + 2 * spanBytes;
+    final JaegerExporterHandler udpHandler =
+        new JaegerExporterHandler(sender, process, maxBatchBytes);
+
+    udpHandler.export(
+        Lists.newArrayList(
+            sampleSpanData("test"),
+            sampleSpanData("test"),
+            sampleSpanData("test"),
+            sampleSpanData("test"),
+            sampleSpanData("test")));
+
+    assertThat(sender.batches.size()).isEqualTo(3);
+    assertThat(sender.batches.get(0).size()).isEqualTo(2);
+    assertThat(sender.batches.get(1).size()).isEqualTo(2);
+    assertThat(sender.batches.get(2).size()).isEqualTo(1);
+  }
+
+  @Test
+  public void exportShouldDropSpansLargerThanMaxBatchBytes() throws Exception {
+    final RecordingSender sender = new RecordingSender();
+    final int maxBatchBytes = sender.getSize(process) + 500;
+    final JaegerExporterHandler udpHandler =
+        new JaegerExporterHandler(sender, process, maxBatchBytes);
+
+    udpHandler.export(
+        Lists.newArrayList(
+            sampleSpanData(
+                "large",
+                ImmutableMap.of(
+                    "large", AttributeValue.stringAttributeValue(Strings.repeat("x", 1000)))),
+            sampleSpanData("small", ImmutableMap.<String, AttributeValue>of())));
+
+    assertThat(sender.batches.size()).isEqualTo(1);
+    assertThat(sender.batches.get(0).size()).isEqualTo(1);
+    assertThat(sender.batches.get(0).get(0).operationName).isEqualTo("small");
+  }
+
+  @Test
+  public void exportShouldSupportConcurrentExports() throws Exception {
+    final RecordingSender sender = new RecordingSender();
+    final JaegerExporterHandler concurrentHandler = new JaegerExporterHandler(sender, process);
+    final int numThreads = 8;
+    final int numExports = 50;
+    final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      final List<Future<?>> futures = Lists.newArrayList();
+      for (int i = 0; i < numThreads; i++) {
+        final Runnable exportSpans =
+            new Runnable() {
+              @Override
+              public void run() {
+                for (int j = 0; j < numExports; j++) {
+                  concurrentHandler.export(singletonList(sampleSpanData("test")));
+                }
+              }
+            };
+        futures.add(executor.submit(exportSpans));
+      }
+      for (final Future<?> future : futures) {
+        future.get(10, SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(sender.batches.size()).isEqualTo(numThreads * numExports);
+    for (final List<Span> batch : sender.batches) {
+      final Span span = batch.get(0);
+      assertThat(span.spanId).isEqualTo(256L);
+      assertThat(span.traceIdHigh).isEqualTo(-72057594037927936L);
+      assertThat(span.traceIdLow).isEqualTo(1L);
+      assertThat(span.parentSpanId).isEqualTo(Long.MAX_VALUE);
+      assertThat(span.references.get(0).traceIdLow).isEqualTo(-256L);
+    }
+  }
+
+  @Test
+  public void exportShouldSendCompactThriftOverUdp() throws Exception {
+    final DatagramSocket agent = new DatagramSocket(0, InetAddress.getByName("localhost"));
+    try {
+      agent.setSoTimeout(10000);
+      final UdpSender sender = new UdpSender("localhost", agent.getLocalPort(), 0);
+      new JaegerExporterHandler(sender, process, 65000 - ThriftSenderBase.EMIT_BATCH_OVERHEAD)
+          .export(singletonList(sampleSpanData("test")));
+      sender.close();
+
+      final byte[] buffer = new byte[65000];
+      final DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+      agent.receive(packet);
+      final TProtocol protocol =
+          new TCompactProtocol(new TMemoryInputTransport(packet.getData(), 0, packet.getLength()));
+      final TMessage message = protocol.readMessageBegin();
+      assertThat(message.name).isEqualTo("emitBatch");
+      final Agent.emitBatch_args args = new Agent.emitBatch_args();
+      args.read(protocol);
+      assertThat(args.batch.process.serviceName).isEqualTo("test");
+      assertThat(args.batch.spans.size()).isEqualTo(1);
+      assertThat(args.batch.spans.get(0).operationName).isEqualTo("test");
+      assertThat(args.batch.spans.get(0).spanId).isEqualTo(256L);
+    } finally {
+      agent.close();
+    }
+  }
+
+  private static final class RecordingSender extends ThriftSender {
+    private final List<List<Span>> batches = new ArrayList<List<Span>>();
+
+    RecordingSender() {
+      super(ThriftSenderBase.ProtocolType.Compact, 0);
+    }
+
+    @Override
+    public void send(final Process process, final List<Span> spans) {
+      // Sends are serialized by the handler.
+      batches.add(new ArrayList<Span>(spans));
+    }
+  }
+
+  private static SpanData sampleSpanData(final String name) {
+    return sampleSpanData(name, sampleAttributes());
+  }
+
+  private static SpanData sampleSpanData(
+      final String name, final Map<String, AttributeValue> attributes) {
+    return SpanData.create(
+        sampleSpanContext(),
+        SpanId.fromBytes(new byte[] {(byte) 0x7F, FF, FF, FF, FF, FF, FF, FF}),
+        true,
+        name,
+        Timestamp.fromMillis(1519629870001L),
+        SpanData.Attributes.create(attributes, 0),
+        SpanData.TimedEvents.create(singletonList(sampleAnnotation()), 0),
+        SpanData.TimedEvents.create(singletonList(sampleMessageEvent()), 0),
+        SpanData.Links.create(sampleLinks(), 0),
+        0,
+        Status.OK,
+        Timestamp.fromMillis(1519630148002L));
+  }
+
   private static SpanContext sampleSpanContext() {
     return SpanContext.create(
         TraceId.fromBytes(new byte[] {FF, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1}),
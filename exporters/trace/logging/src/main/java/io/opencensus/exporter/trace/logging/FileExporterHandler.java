@@ -0,0 +1,172 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.exporter.trace.logging;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.opencensus.exporter.trace.logging.LoggingTraceConfiguration.Format;
+import io.opencensus.trace.export.SpanData;
+import io.opencensus.trace.export.SpanExporter.Handler;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A {@link Handler} that writes one line per span to a rotating file from a dedicated thread.
+ *
+ * <p>{@link #export} only adds the spans to a bounded queue, so it never blocks on the file system;
+ * spans exported while the queue is full are dropped. The writer thread encodes the spans and
+ * flushes the buffered lines to the file every flush interval.
+ */
+@ThreadSafe
+final class FileExporterHandler extends Handler {
+  private static final Logger logger = Logger.getLogger(FileExporterHandler.class.getName());
+  private static final int MAX_SPANS_PER_DRAIN = 512;
+
+  private final BlockingQueue<SpanData> queue;
+  private final Format format;
+  private final long flushIntervalNanos;
+  private final RotatingFileWriter writer;
+  private final Thread workerThread;
+  private final AtomicLong droppedSpans = new AtomicLong();
+  private volatile boolean stopped;
+
+  private FileExporterHandler(LoggingTraceConfiguration configuration) {
+    queue = new ArrayBlockingQueue<SpanData>(configuration.getMaxQueuedSpans());
+    format = configuration.getFormat();
+    flushIntervalNanos =
+        SECONDS.toNanos(configuration.getFlushInterval().getSeconds())
+            + configuration.getFlushInterval().getNanos();
+    writer =
+        new RotatingFileWriter(
+            configuration.getFile(),
+            configuration.getMaxFileSize(),
+            configuration.getMaxBackupFiles());
+    workerThread = new Thread(new Worker(), "OpenCensus.LoggingTraceExporter");
+    workerThread.setDaemon(true);
+  }
+
+  /** Creates a {@code FileExporterHandler} and starts its writer thread. */
+  static FileExporterHandler createAndStart(LoggingTraceConfiguration configuration) {
+    FileExporterHandler handler = new FileExporterHandler(configuration);
+    handler.workerThread.start();
+    return handler;
+  }
+
+  @Override
+  public void export(Collection<SpanData> spanDataList) {
+    for (SpanData spanData : spanDataList) {
+      if (!queue.offer(spanData)) {
+        droppedSpans.incrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Stops the writer thread after it wrote the queued spans, and closes the file. Spans exported
+   * after this call are not written.
+   */
+  void stop() {
+    stopped = true;
+    try {
+      workerThread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @VisibleForTesting
+  long getDroppedSpans() {
+    return droppedSpans.get();
+  }
+
+  // The writer thread is never interrupted, because interrupting a thread that is blocked on a
+  // FileChannel closes the channel.
+  private final class Worker implements Runnable {
+    private final StringBuilder line = new StringBuilder();
+    private final List<SpanData> spans = new ArrayList<SpanData>(MAX_SPANS_PER_DRAIN);
+    private long reportedDroppedSpans;
+
+    @Override
+    public void run() {
+      long nextFlushNanos = System.nanoTime() + flushIntervalNanos;
+      while (!stopped || !queue.isEmpty()) {
+        try {
+          SpanData spanData = queue.poll(nextFlushNanos - System.nanoTime(), NANOSECONDS);
+          if (spanData != null) {
+            spans.add(spanData);
+            queue.drainTo(spans, MAX_SPANS_PER_DRAIN - 1);
+            writeSpans();
+          }
+        } catch (InterruptedException e) {
+          // Not expected, see above; flush and keep going until stopped.
+        }
+        if (System.nanoTime() - nextFlushNanos >= 0) {
+          flush();
+          nextFlushNanos = System.nanoTime() + flushIntervalNanos;
+        }
+      }
+      try {
+        writer.close();
+      } catch (IOException e) {
+        logger.log(Level.WARNING, "Failed to close the span log file.", e);
+      }
+    }
+
+    private void writeSpans() {
+      try {
+        for (SpanData spanData : spans) {
+          line.setLength(0);
+          if (format == Format.LOGFMT) {
+            SpanDataLineEncoder.appendLogfmt(spanData, line);
+          } else {
+            SpanDataLineEncoder.appendJson(spanData, line);
+          }
+          writer.writeLine(line);
+        }
+      } catch (IOException e) {
+        logger.log(Level.WARNING, "Failed to write spans to the span log file.", e);
+      } finally {
+        spans.clear();
+      }
+    }
+
+    private void flush() {
+      try {
+        writer.flush();
+      } catch (IOException e) {
+        logger.log(Level.WARNING, "Failed to flush the span log file.", e);
+      }
+      long dropped = droppedSpans.get();
+      if (dropped != reportedDroppedSpans) {
+        logger.log(
+            Level.WARNING,
+            "Dropped " + (dropped - reportedDroppedSpans) + " spans because the queue was full.");
+        reportedDroppedSpans = dropped;
+      }
+    }
+  }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.exporter.trace.logging;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.base.Preconditions;
+import io.opencensus.common.Duration;
+import java.io.File;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Configurations for the file mode of the {@link LoggingTraceExporter}, which writes one line per
+ * span to a rotating file from a background thread.
+ *
+ * @since 0.16
+ */
+@AutoValue
+@Immutable
+public abstract class LoggingTraceConfiguration {
+
+  /**
+   * The encodings of the lines written by the exporter.
+   *
+   * @since 0.16
+   */
+  public enum Format {
+    /**
+     * One JSON object per line.
+     *
+     * @since 0.16
+     */
+    JSON,
+
+    /**
+     * One line of {@code key=value} pairs per span, as used by logfmt.
+     *
+     * @since 0.16
+     */
+    LOGFMT
+  }
+
+  /**
+   * The default interval between flushes of the buffered lines to the file.
+   *
+   * @since 0.16
+   */
+  public static final Duration DEFAULT_FLUSH_INTERVAL = Duration.create(1, 0);
+
+  /**
+   * The default size, in bytes, at which the file is rotated.
+   *
+   * @since 0.16
+   */
+  public static final long DEFAULT_MAX_FILE_SIZE = 64 * 1024 * 1024;
+
+  /**
+   * The default number of rotated files that are kept.
+   *
+   * @since 0.16
+   */
+  public static final int DEFAULT_MAX_BACKUP_FILES = 5;
+
+  /**
+   * The default number of spans that can wait to be written. Spans exported while the queue is full
+   * are dropped.
+   *
+   * @since 0.16
+   */
+  public static final int DEFAULT_MAX_QUEUED_SPANS = 8192;
+
+  private static final Duration ZERO = Duration.create(0, 0);
+
+  LoggingTraceConfiguration() {}
+
+  /**
+   * Returns the file the spans are written to.
+   *
+   * @return the file the spans are written to.
+   * @since 0.16
+   */
+  public abstract File getFile();
+
+  /**
+   * Returns the encoding of the lines.
+   *
+   * @return the encoding of the lines.
+   * @since 0.16
+   */
+  public abstract Format getFormat();
+
+  /**
+   * Returns the interval between flushes of the buffered lines to the file.
+   *
+   * @return the flush interval.
+   * @since 0.16
+   */
+  public abstract Duration getFlushInterval();
+
+  /**
+   * Returns the size, in bytes, at which the file is rotated.
+   *
+   * @return the size at which the file is rotated.
+   * @since 0.16
+   */
+  public abstract long getMaxFileSize();
+
+  /**
+   * Returns the number of rotated files that are kept, named {@code <file>.1} (the most recent) to
+   * {@code <file>.<maxBackupFiles>}.
+   *
+   * @return the number of rotated files that are kept.
+   * @since 0.16
+   */
+  public abstract int getMaxBackupFiles();
+
+  /**
+   * Returns the number of spans that can wait to be written.
+   *
+   * @return the number of spans that can wait to be written.
+   * @since 0.16
+   */
+  public abstract int getMaxQueuedSpans();
+
+  /**
+   * Returns a new {@link Builder}.
+   *
+   * @return a {@code Builder}.
+   * @since 0.16
+   */
+  public static Builder builder() {
+    return new AutoValue_LoggingTraceConfiguration.Builder()
+        .setFormat(Format.JSON)
+        .setFlushInterval(DEFAULT_FLUSH_INTERVAL)
+        .setMaxFileSize(DEFAULT_MAX_FILE_SIZE)
+        .setMaxBackupFiles(DEFAULT_MAX_BACKUP_FILES)
+        .setMaxQueuedSpans(DEFAULT_MAX_QUEUED_SPANS);
+  }
+
+  /**
+   * Builder for {@link LoggingTraceConfiguration}.
+   *
+   * @since 0.16
+   */
+  @AutoValue.Builder
+  public abstract static class Builder {
+
+    Builder() {}
+
+    /**
+     * Sets the file the spans are written to. Lines are appended if the file already exists.
+     *
+     * @param file the file the spans are written to.
+     * @return this.
+     * @since 0.16
+     */
+    public abstract Builder setFile(File file);
+
+    /**
+     * Sets the encoding of the lines.
+     *
+     * @param format the encoding of the lines.
+     * @return this.
+     * @since 0.16
+     */
+    public abstract Builder setFormat(Format format);
+
+    /**
+     * Sets the interval between flushes of the buffered lines to the file.
+     *
+     * @param flushInterval the flush interval.
+     * @return this.
+     * @since 0.16
+     */
+    public abstract Builder setFlushInterval(Duration flushInterval);
+
+    /**
+     * Sets the size, in bytes, at which the file is rotated.
+     *
+     * @param maxFileSize the size at which the file is rotated.
+     * @return this.
+     * @since 0.16
+     */
+    public abstract Builder setMaxFileSize(long maxFileSize);
+
+    /**
+     * Sets the number of rotated files that are kept. If zero, the file is truncated when it is
+     * rotated.
+     *
+     * @param maxBackupFiles the number of rotated files that are kept.
+     * @return this.
+     * @since 0.16
+     */
+    public abstract Builder setMaxBackupFiles(int maxBackupFiles);
+
+    /**
+     * Sets the number of spans that can wait to be written.
+     *
+     * @param maxQueuedSpans the number of spans that can wait to be written.
+     * @return this.
+     * @since 0.16
+     */
+    public abstract Builder setMaxQueuedSpans(int maxQueuedSpans);
+
+    abstract LoggingTraceConfiguration autoBuild();
+
+    /**
+     * Builds a new {@link LoggingTraceConfiguration} with current settings.
+     *
+     * @return a {@code LoggingTraceConfiguration}.
+     * @throws IllegalArgumentException if any of the settings is out of range.
+     * @since 0.16
+     */
+    public LoggingTraceConfiguration build() {
+      LoggingTraceConfiguration config = autoBuild();
+      Preconditions.checkArgument(
+          config.getFlushInterval().compareTo(ZERO) > 0, "Flush interval must be positive");
+      Preconditions.checkArgument(config.getMaxFileSize() > 0, "Max file size must be positive");
+      Preconditions.checkArgument(
+          config.getMaxBackupFiles() >= 0, "Max backup files must not be negative");
+      Preconditions.checkArgument(
+          config.getMaxQueuedSpans() > 0, "Max queued spans must be positive");
+      return config;
+    }
+  }
+}
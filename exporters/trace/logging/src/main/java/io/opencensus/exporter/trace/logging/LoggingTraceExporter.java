@@ -16,6 +16,9 @@
 
 package io.opencensus.exporter.trace.logging;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
 import com.google.common.annotations.VisibleForTesting;
 import io.opencensus.trace.Tracing;
 import io.opencensus.trace.export.SpanData;
@@ -24,6 +27,8 @@ import io.opencensus.trace.export.SpanExporter.Handler;
 import java.util.Collection;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
 /**
@@ -38,6 +43,14 @@ import javax.annotation.concurrent.ThreadSafe;
  * }
  * }</pre>
  *
+ * <p>For a high volume of spans, the exporter can instead write one JSON or logfmt line per span to
+ * a rotating file from a background thread:
+ *
+ * <pre>{@code
+ * LoggingTraceExporter.register(
+ *     LoggingTraceConfiguration.builder().setFile(new File("/tmp/spans.log")).build());
+ * }</pre>
+ *
  * @since 0.12
  */
 @ThreadSafe
@@ -45,6 +58,11 @@ public final class LoggingTraceExporter {
   private static final Logger logger = Logger.getLogger(LoggingTraceExporter.class.getName());
   private static final String REGISTER_NAME = LoggingTraceExporter.class.getName();
   private static final LoggingExporterHandler HANDLER = new LoggingExporterHandler();
+  private static final Object monitor = new Object();
+
+  @GuardedBy("monitor")
+  @Nullable
+  private static FileExporterHandler fileHandler = null;
 
   private LoggingTraceExporter() {}
 
@@ -54,7 +72,29 @@ public final class LoggingTraceExporter {
    * @since 0.12
    */
   public static void register() {
-    register(Tracing.getExportComponent().getSpanExporter());
+    synchronized (monitor) {
+      stopFileHandler();
+      register(Tracing.getExportComponent().getSpanExporter());
+    }
+  }
+
+  /**
+   * Registers the Logging exporter to the OpenCensus library in the file mode, which writes one
+   * line per span to the file of the {@code configuration} from a background thread instead of
+   * logging the spans.
+   *
+   * @param configuration the configuration of the file mode.
+   * @throws IllegalStateException if the Logging exporter is already registered in the file mode.
+   * @since 0.16
+   */
+  public static void register(LoggingTraceConfiguration configuration) {
+    checkNotNull(configuration, "configuration");
+    synchronized (monitor) {
+      checkState(fileHandler == null, "Logging exporter is already registered in the file mode.");
+      FileExporterHandler newHandler = FileExporterHandler.createAndStart(configuration);
+      fileHandler = newHandler;
+      Tracing.getExportComponent().getSpanExporter().registerHandler(REGISTER_NAME, newHandler);
+    }
   }
 
   /**
@@ -68,12 +108,16 @@ public final class LoggingTraceExporter {
   }
 
   /**
-   * Unregisters the Logging exporter from the OpenCensus library.
+   * Unregisters the Logging exporter from the OpenCensus library. In the file mode, this waits for
+   * the queued spans to be written and closes the file.
    *
    * @since 0.12
    */
   public static void unregister() {
-    unregister(Tracing.getExportComponent().getSpanExporter());
+    synchronized (monitor) {
+      unregister(Tracing.getExportComponent().getSpanExporter());
+      stopFileHandler();
+    }
   }
 
   /**
@@ -87,6 +131,15 @@ public final class LoggingTraceExporter {
     spanExporter.unregisterHandler(REGISTER_NAME);
   }
 
+  @GuardedBy("monitor")
+  private static void stopFileHandler() {
+    FileExporterHandler handler = fileHandler;
+    if (handler != null) {
+      fileHandler = null;
+      handler.stop();
+    }
+  }
+
   @VisibleForTesting
   static final class LoggingExporterHandler extends Handler {
     @Override
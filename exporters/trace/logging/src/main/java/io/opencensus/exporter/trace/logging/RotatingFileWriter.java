@@ -0,0 +1,170 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.exporter.trace.logging;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/*>>>
+import org.checkerframework.checker.nullness.qual.Nullable;
+*/
+
+/**
+ * Writes UTF-8 lines to a file through a {@link FileChannel}, buffering them in a direct {@link
+ * ByteBuffer} until the buffer is full or {@link #flush()} is called.
+ *
+ * <p>Once the file reaches {@code maxFileSize} bytes, it is renamed to {@code <file>.1}, the
+ * previous {@code <file>.1} to {@code <file>.2} and so on, keeping at most {@code maxBackupFiles}
+ * rotated files. Files are only rotated between lines, so a file can exceed {@code maxFileSize} by
+ * at most one line.
+ */
+@NotThreadSafe
+final class RotatingFileWriter implements Closeable, Flushable {
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final File file;
+  private final long maxFileSize;
+  private final int maxBackupFiles;
+  private final CharsetEncoder encoder =
+      UTF_8
+          .newEncoder()
+          .onMalformedInput(CodingErrorAction.REPLACE)
+          .onUnmappableCharacter(CodingErrorAction.REPLACE);
+  private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+  @Nullable private FileChannel channel;
+  // Size of the current file, including the bytes that are still buffered.
+  private long fileSize;
+
+  RotatingFileWriter(File file, long maxFileSize, int maxBackupFiles) {
+    this.file = file;
+    this.maxFileSize = maxFileSize;
+    this.maxBackupFiles = maxBackupFiles;
+  }
+
+  /** Writes the line followed by a line separator, rotating the file if it became too large. */
+  void writeLine(CharSequence line) throws IOException {
+    if (channel == null) {
+      open();
+    }
+    int startPosition = buffer.position();
+    CharBuffer chars = CharBuffer.wrap(line);
+    encoder.reset();
+    while (encoder.encode(chars, buffer, true).isOverflow()) {
+      startPosition -= writeBuffer();
+    }
+    while (encoder.flush(buffer).isOverflow()) {
+      startPosition -= writeBuffer();
+    }
+    if (!buffer.hasRemaining()) {
+      startPosition -= writeBuffer();
+    }
+    buffer.put((byte) '\n');
+    fileSize += buffer.position() - startPosition;
+    if (fileSize >= maxFileSize) {
+      rotate();
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (channel != null) {
+      writeBuffer();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (channel == null) {
+      return;
+    }
+    try {
+      writeBuffer();
+    } finally {
+      FileChannel channel = this.channel;
+      this.channel = null;
+      channel.close();
+    }
+  }
+
+  private void open() throws IOException {
+    FileOutputStream outputStream = new FileOutputStream(file, /* append= */ true);
+    channel = outputStream.getChannel();
+    fileSize = channel.size();
+  }
+
+  // Writes the buffered bytes to the channel and returns how many bytes were written.
+  private int writeBuffer() throws IOException {
+    FileChannel channel = this.channel;
+    if (channel == null) {
+      throw new IOException("The file " + file + " is not open.");
+    }
+    buffer.flip();
+    int written = buffer.remaining();
+    try {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    } finally {
+      buffer.clear();
+    }
+    return written;
+  }
+
+  private void rotate() throws IOException {
+    close();
+    if (maxBackupFiles == 0) {
+      deleteIfExists(file);
+      return;
+    }
+    deleteIfExists(backupFile(maxBackupFiles));
+    for (int i = maxBackupFiles - 1; i >= 1; i--) {
+      File backupFile = backupFile(i);
+      if (backupFile.exists()) {
+        renameTo(backupFile, backupFile(i + 1));
+      }
+    }
+    renameTo(file, backupFile(1));
+  }
+
+  private File backupFile(int index) {
+    return new File(file.getPath() + "." + index);
+  }
+
+  private static void deleteIfExists(File file) throws IOException {
+    if (file.exists() && !file.delete()) {
+      throw new IOException("Failed to delete " + file);
+    }
+  }
+
+  private static void renameTo(File from, File to) throws IOException {
+    if (!from.renameTo(to)) {
+      throw new IOException("Failed to rename " + from + " to " + to);
+    }
+  }
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.exporter.trace.logging;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import io.opencensus.common.Function;
+import io.opencensus.common.Timestamp;
+import io.opencensus.trace.Annotation;
+import io.opencensus.trace.AttributeValue;
+import io.opencensus.trace.Link;
+import io.opencensus.trace.MessageEvent;
+import io.opencensus.trace.SpanContext;
+import io.opencensus.trace.SpanId;
+import io.opencensus.trace.Status;
+import io.opencensus.trace.export.SpanData;
+import io.opencensus.trace.export.SpanData.TimedEvent;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes a {@link SpanData} as one line of JSON or logfmt, without the trailing line separator.
+ *
+ * <p>Timestamps are written as microseconds since the epoch.
+ */
+final class SpanDataLineEncoder {
+  private static final Function<Object, Object> IDENTITY =
+      new Function<Object, Object>() {
+        @Override
+        public Object apply(Object value) {
+          return value;
+        }
+      };
+
+  private static final char LINE_SEPARATOR = (char) 0x2028;
+  private static final char PARAGRAPH_SEPARATOR = (char) 0x2029;
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private SpanDataLineEncoder() {}
+
+  static void appendJson(SpanData spanData, StringBuilder sb) {
+    SpanContext context = spanData.getContext();
+    sb.append("{\"traceId\":\"").append(context.getTraceId().toLowerBase16());
+    sb.append("\",\"spanId\":\"").append(context.getSpanId().toLowerBase16()).append('"');
+    SpanId parentSpanId = spanData.getParentSpanId();
+    if (parentSpanId != null) {
+      sb.append(",\"parentSpanId\":\"").append(parentSpanId.toLowerBase16()).append('"');
+    }
+    sb.append(",\"name\":");
+    appendJsonString(spanData.getName(), sb);
+    if (spanData.getKind() != null) {
+      sb.append(",\"kind\":\"").append(spanData.getKind().name()).append('"');
+    }
+    sb.append(",\"sampled\":").append(context.getTraceOptions().isSampled());
+    Boolean hasRemoteParent = spanData.getHasRemoteParent();
+    if (hasRemoteParent != null) {
+      sb.append(",\"hasRemoteParent\":").append(hasRemoteParent.booleanValue());
+    }
+    sb.append(",\"startTime\":").append(toEpochMicros(spanData.getStartTimestamp()));
+    Timestamp endTimestamp = spanData.getEndTimestamp();
+    if (endTimestamp != null) {
+      sb.append(",\"endTime\":").append(toEpochMicros(endTimestamp));
+    }
+    Status status = spanData.getStatus();
+    if (status != null) {
+      sb.append(",\"status\":\"").append(status.getCanonicalCode().name()).append('"');
+      if (status.getDescription() != null) {
+        sb.append(",\"statusDescription\":");
+        appendJsonString(status.getDescription(), sb);
+      }
+    }
+    Map<String, AttributeValue> attributes = spanData.getAttributes().getAttributeMap();
+    if (!attributes.isEmpty()) {
+      sb.append(",\"attributes\":");
+      appendJsonAttributes(attributes, sb);
+    }
+    appendJsonDroppedCount(
+        "droppedAttributes", spanData.getAttributes().getDroppedAttributesCount(), sb);
+    List<TimedEvent<Annotation>> annotations = spanData.getAnnotations().getEvents();
+    if (!annotations.isEmpty()) {
+      sb.append(",\"annotations\":[");
+      for (int i = 0; i < annotations.size(); i++) {
+        TimedEvent<Annotation> annotation = annotations.get(i);
+        sb.append(i == 0 ? "{\"time\":" : ",{\"time\":");
+        sb.append(toEpochMicros(annotation.getTimestamp()));
+        sb.append(",\"description\":");
+        appendJsonString(annotation.getEvent().getDescription(), sb);
+        if (!annotation.getEvent().getAttributes().isEmpty()) {
+          sb.append(",\"attributes\":");
+          appendJsonAttributes(annotation.getEvent().getAttributes(), sb);
+        }
+        sb.append('}');
+      }
+      sb.append(']');
+    }
+    appendJsonDroppedCount(
+        "droppedAnnotations", spanData.getAnnotations().getDroppedEventsCount(), sb);
+    List<TimedEvent<MessageEvent>> messageEvents = spanData.getMessageEvents().getEvents();
+    if (!messageEvents.isEmpty()) {
+      sb.append(",\"messageEvents\":[");
+      for (int i = 0; i < messageEvents.size(); i++) {
+        TimedEvent<MessageEvent> messageEvent = messageEvents.get(i);
+        MessageEvent event = messageEvent.getEvent();
+        sb.append(i == 0 ? "{\"time\":" : ",{\"time\":");
+        sb.append(toEpochMicros(messageEvent.getTimestamp()));
+        sb.append(",\"type\":\"").append(event.getType().name());
+        sb.append("\",\"id\":").append(event.getMessageId());
+        sb.append(",\"uncompressedSize\":").append(event.getUncompressedMessageSize());
+        sb.append(",\"compressedSize\":").append(event.getCompressedMessageSize()).append('}');
+      }
+      sb.append(']');
+    }
+    appendJsonDroppedCount(
+        "droppedMessageEvents", spanData.getMessageEvents().getDroppedEventsCount(), sb);
+    List<Link> links = spanData.getLinks().getLinks();
+    if (!links.isEmpty()) {
+      sb.append(",\"links\":[");
+      for (int i = 0; i < links.size(); i++) {
+        Link link = links.get(i);
+        sb.append(i == 0 ? "{\"traceId\":\"" : ",{\"traceId\":\"");
+        sb.append(link.getTraceId().toLowerBase16());
+        sb.append("\",\"spanId\":\"").append(link.getSpanId().toLowerBase16());
+        sb.append("\",\"type\":\"").append(link.getType().name()).append('"');
+        if (!link.getAttributes().isEmpty()) {
+          sb.append(",\"attributes\":");
+          appendJsonAttributes(link.getAttributes(), sb);
+        }
+        sb.append('}');
+      }
+      sb.append(']');
+    }
+    appendJsonDroppedCount("droppedLinks", spanData.getLinks().getDroppedLinksCount(), sb);
+    Integer childSpanCount = spanData.getChildSpanCount();
+    if (childSpanCount != null) {
+      sb.append(",\"childSpanCount\":").append(childSpanCount.intValue());
+    }
+    sb.append('}');
+  }
+
+  static void appendLogfmt(SpanData spanData, StringBuilder sb) {
+    SpanContext context = spanData.getContext();
+    sb.append("traceId=").append(context.getTraceId().toLowerBase16());
+    sb.append(" spanId=").append(context.getSpanId().toLowerBase16());
+    SpanId parentSpanId = spanData.getParentSpanId();
+    if (parentSpanId != null) {
+      sb.append(" parentSpanId=").append(parentSpanId.toLowerBase16());
+    }
+    sb.append(" name=");
+    appendLogfmtValue(spanData.getName(), sb);
+    if (spanData.getKind() != null) {
+      sb.append(" kind=").append(spanData.getKind().name());
+    }
+    sb.append(" sampled=").append(context.getTraceOptions().isSampled());
+    sb.append(" startTime=").append(toEpochMicros(spanData.getStartTimestamp()));
+    Timestamp endTimestamp = spanData.getEndTimestamp();
+    if (endTimestamp != null) {
+      sb.append(" endTime=").append(toEpochMicros(endTimestamp));
+    }
+    Status status = spanData.getStatus();
+    if (status != null) {
+      sb.append(" status=").append(status.getCanonicalCode().name());
+      if (status.getDescription() != null) {
+        sb.append(" statusDescription=");
+        appendLogfmtValue(status.getDescription(), sb);
+      }
+    }
+    for (Map.Entry<String, AttributeValue> entry :
+        spanData.getAttributes().getAttributeMap().entrySet()) {
+      sb.append(" attributes.");
+      appendLogfmtKey(entry.getKey(), sb);
+      sb.append('=');
+      Object value = attributeValueToObject(entry.getValue());
+      if (value instanceof String) {
+        appendLogfmtValue((String) value, sb);
+      } else {
+        sb.append(value);
+      }
+    }
+    appendLogfmtCount("annotations", spanData.getAnnotations().getEvents().size(), sb);
+    appendLogfmtCount("messageEvents", spanData.getMessageEvents().getEvents().size(), sb);
+    appendLogfmtCount("links", spanData.getLinks().getLinks().size(), sb);
+  }
+
+  private static void appendJsonAttributes(
+      Map<String, AttributeValue> attributes, StringBuilder sb) {
+    sb.append('{');
+    boolean first = true;
+    for (Map.Entry<String, AttributeValue> entry : attributes.entrySet()) {
+      if (!first) {
+        sb.append(',');
+      }
+      first = false;
+      appendJsonString(entry.getKey(), sb);
+      sb.append(':');
+      Object value = attributeValueToObject(entry.getValue());
+      if (value instanceof String) {
+        appendJsonString((String) value, sb);
+      } else {
+        sb.append(value);
+      }
+    }
+    sb.append('}');
+  }
+
+  private static void appendJsonDroppedCount(String key, int count, StringBuilder sb) {
+    if (count > 0) {
+      sb.append(",\"").append(key).append("\":").append(count);
+    }
+  }
+
+  private static void appendLogfmtCount(String key, int count, StringBuilder sb) {
+    if (count > 0) {
+      sb.append(' ').append(key).append('=').append(count);
+    }
+  }
+
+  // Returns the String, Boolean or Long value of the attribute, or its string representation for
+  // other types.
+  private static Object attributeValueToObject(AttributeValue attributeValue) {
+    Object value = attributeValue.match(IDENTITY, IDENTITY, IDENTITY, IDENTITY);
+    if (value instanceof String || value instanceof Boolean || value instanceof Long) {
+      return value;
+    }
+    return String.valueOf(value);
+  }
+
+  private static void appendJsonString(String value, StringBuilder sb) {
+    sb.append('"');
+    appendEscaped(value, sb);
+    sb.append('"');
+  }
+
+  // Logfmt keys cannot contain spaces, quotes or '='.
+  private static void appendLogfmtKey(String key, StringBuilder sb) {
+    for (int i = 0; i < key.length(); i++) {
+      char c = key.charAt(i);
+      sb.append(c <= ' ' || c == '=' || c == '"' ? '_' : c);
+    }
+  }
+
+  private static void appendLogfmtValue(String value, StringBuilder sb) {
+    if (!value.isEmpty() && !needsLogfmtQuotes(value)) {
+      sb.append(value);
+      return;
+    }
+    appendJsonString(value, sb);
+  }
+
+  private static boolean needsLogfmtQuotes(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c <= ' ' || c == '=' || c == '"' || c == '\\') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Escapes the characters that are not allowed in a JSON string. Line separators are always
+  // escaped, so the encoded span never spans multiple lines.
+  private static void appendEscaped(String value, StringBuilder sb) {
+    int length = value.length();
+    int start = 0;
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c >= ' ' && c != '"' && c != '\\' && c != LINE_SEPARATOR && c != PARAGRAPH_SEPARATOR) {
+        continue;
+      }
+      sb.append(value, start, i);
+      start = i + 1;
+      switch (c) {
+        case '"':
+          sb.append("\\\"");
+          break;
+        case '\\':
+          sb.append("\\\\");
+          break;
+        case '\n':
+          sb.append("\\n");
+          break;
+        case '\r':
+          sb.append("\\r");
+          break;
+        case '\t':
+          sb.append("\\t");
+          break;
+        default:
+          sb.append("\\u")
+              .append(HEX_DIGITS[(c >> 12) & 0xF])
+              .append(HEX_DIGITS[(c >> 8) & 0xF])
+              .append(HEX_DIGITS[(c >> 4) & 0xF])
+              .append(HEX_DIGITS[c & 0xF]);
+      }
+    }
+    sb.append(value, start, length);
+  }
+
+  private static long toEpochMicros(Timestamp timestamp) {
+    return SECONDS.toMicros(timestamp.getSeconds()) + NANOSECONDS.toMicros(timestamp.getNanos());
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.exporter.trace.logging;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.io.Files;
+import io.opencensus.common.Duration;
+import io.opencensus.common.Timestamp;
+import io.opencensus.exporter.trace.logging.LoggingTraceConfiguration.Format;
+import io.opencensus.trace.Annotation;
+import io.opencensus.trace.AttributeValue;
+import io.opencensus.trace.Link;
+import io.opencensus.trace.MessageEvent;
+import io.opencensus.trace.SpanContext;
+import io.opencensus.trace.SpanId;
+import io.opencensus.trace.TraceId;
+import io.opencensus.trace.TraceOptions;
+import io.opencensus.trace.export.SpanData;
+import io.opencensus.trace.export.SpanData.Attributes;
+import io.opencensus.trace.export.SpanData.Links;
+import io.opencensus.trace.export.SpanData.TimedEvent;
+import io.opencensus.trace.export.SpanData.TimedEvents;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link FileExporterHandler}. */
+@RunWith(JUnit4.class)
+public class FileExporterHandlerTest {
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void exportWritesOneLinePerSpan() throws IOException {
+    File file = new File(tempFolder.getRoot(), "spans.log");
+    FileExporterHandler handler =
+        FileExporterHandler.createAndStart(
+            LoggingTraceConfiguration.builder().setFile(file).build());
+    handler.export(Arrays.asList(createSpanData("first"), createSpanData("second")));
+    handler.export(Collections.singletonList(createSpanData("third")));
+    handler.stop();
+
+    List<String> lines = Files.readLines(file, UTF_8);
+    assertThat(lines).hasSize(3);
+    assertThat(lines.get(0)).startsWith("{\"traceId\":");
+    assertThat(lines.get(0)).contains("\"name\":\"first\"");
+    assertThat(lines.get(1)).contains("\"name\":\"second\"");
+    assertThat(lines.get(2)).contains("\"name\":\"third\"");
+  }
+
+  @Test
+  public void exportWritesLogfmt() throws IOException {
+    File file = new File(tempFolder.getRoot(), "spans.log");
+    FileExporterHandler handler =
+        FileExporterHandler.createAndStart(
+            LoggingTraceConfiguration.builder().setFile(file).setFormat(Format.LOGFMT).build());
+    handler.export(Collections.singletonList(createSpanData("first")));
+    handler.stop();
+
+    List<String> lines = Files.readLines(file, UTF_8);
+    assertThat(lines).hasSize(1);
+    assertThat(lines.get(0)).startsWith("traceId=");
+    assertThat(lines.get(0)).contains(" name=first ");
+  }
+
+  @Test
+  public void flushesEveryFlushInterval() throws Exception {
+    File file = new File(tempFolder.getRoot(), "spans.log");
+    FileExporterHandler handler =
+        FileExporterHandler.createAndStart(
+            LoggingTraceConfiguration.builder()
+                .setFile(file)
+                .setFlushInterval(Duration.create(0, 10 * 1000 * 1000))
+                .build());
+    try {
+      handler.export(Collections.singletonList(createSpanData("first")));
+      long deadline = System.currentTimeMillis() + 10000;
+      while (!file.exists() || file.length() == 0) {
+        assertThat(System.currentTimeMillis()).isLessThan(deadline);
+        Thread.sleep(10);
+      }
+      assertThat(Files.toString(file, UTF_8)).contains("\"name\":\"first\"");
+    } finally {
+      handler.stop();
+    }
+  }
+
+  @Test
+  public void dropsSpansWhenQueueIsFull() throws IOException {
+    File file = new File(tempFolder.getRoot(), "spans.log");
+    FileExporterHandler handler =
+        FileExporterHandler.createAndStart(
+            LoggingTraceConfiguration.builder().setFile(file).setMaxQueuedSpans(1).build());
+    List<SpanData> spans = new ArrayList<SpanData>();
+    for (int i = 0; i < 10000; i++) {
+      spans.add(createSpanData("span" + i));
+    }
+    handler.export(spans);
+    handler.stop();
+
+    assertThat(handler.getDroppedSpans()).isGreaterThan(0L);
+    assertThat(Files.readLines(file, UTF_8).size() + handler.getDroppedSpans()).isEqualTo(10000L);
+  }
+
+  private static SpanData createSpanData(String name) {
+    return SpanData.create(
+        SpanContext.create(
+            TraceId.fromLowerBase16("d239036e7d5cec116b562147388b35bf"),
+            SpanId.fromLowerBase16("9cc1e3049173be09"),
+            TraceOptions.builder().setIsSampled(true).build()),
+        null,
+        null,
+        name,
+        null,
+        Timestamp.create(1505855794, 194009601),
+        Attributes.create(Collections.<String, AttributeValue>emptyMap(), 0),
+        TimedEvents.create(Collections.<TimedEvent<Annotation>>emptyList(), 0),
+        TimedEvents.create(Collections.<TimedEvent<MessageEvent>>emptyList(), 0),
+        Links.create(Collections.<Link>emptyList(), 0),
+        null,
+        null,
+        Timestamp.create(1505855799, 465726528));
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.exporter.trace.logging;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.opencensus.common.Duration;
+import io.opencensus.exporter.trace.logging.LoggingTraceConfiguration.Format;
+import java.io.File;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link LoggingTraceConfiguration}. */
+@RunWith(JUnit4.class)
+public class LoggingTraceConfigurationTest {
+  private static final File FILE = new File("spans.log");
+
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void defaultConfiguration() {
+    LoggingTraceConfiguration configuration =
+        LoggingTraceConfiguration.builder().setFile(FILE).build();
+    assertThat(configuration.getFile()).isEqualTo(FILE);
+    assertThat(configuration.getFormat()).isEqualTo(Format.JSON);
+    assertThat(configuration.getFlushInterval())
+        .isEqualTo(LoggingTraceConfiguration.DEFAULT_FLUSH_INTERVAL);
+    assertThat(configuration.getMaxFileSize())
+        .isEqualTo(LoggingTraceConfiguration.DEFAULT_MAX_FILE_SIZE);
+    assertThat(configuration.getMaxBackupFiles())
+        .isEqualTo(LoggingTraceConfiguration.DEFAULT_MAX_BACKUP_FILES);
+    assertThat(configuration.getMaxQueuedSpans())
+        .isEqualTo(LoggingTraceConfiguration.DEFAULT_MAX_QUEUED_SPANS);
+  }
+
+  @Test
+  public void disallowZeroFlushInterval() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("Flush interval must be positive");
+    LoggingTraceConfiguration.builder()
+        .setFile(FILE)
+        .setFlushInterval(Duration.create(0, 0))
+        .build();
+  }
+
+  @Test
+  public void disallowNegativeMaxBackupFiles() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("Max backup files must not be negative");
+    LoggingTraceConfiguration.builder().setFile(FILE).setMaxBackupFiles(-1).build();
+  }
+
+  @Test
+  public void disallowZeroMaxQueuedSpans() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("Max queued spans must be positive");
+    LoggingTraceConfiguration.builder().setFile(FILE).setMaxQueuedSpans(0).build();
+  }
+
+  @Test
+  public void requireFile() {
+    thrown.expect(IllegalStateException.class);
+    LoggingTraceConfiguration.builder().build();
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.exporter.trace.logging;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.base.Strings;
+import com.google.common.io.Files;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link RotatingFileWriter}. */
+@RunWith(JUnit4.class)
+public class RotatingFileWriterTest {
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void writeLines() throws IOException {
+    File file = new File(tempFolder.getRoot(), "spans.log");
+    RotatingFileWriter writer = new RotatingFileWriter(file, 1024 * 1024, 2);
+    writer.writeLine("first");
+    writer.writeLine("sécond €");
+    writer.flush();
+    assertThat(Files.toString(file, UTF_8)).isEqualTo("first\nsécond €\n");
+    writer.writeLine("third");
+    writer.close();
+    assertThat(Files.toString(file, UTF_8)).isEqualTo("first\nsécond €\nthird\n");
+  }
+
+  @Test
+  public void writeLines_AppendsToExistingFile() throws IOException {
+    File file = new File(tempFolder.getRoot(), "spans.log");
+    Files.write("existing\n", file, UTF_8);
+    RotatingFileWriter writer = new RotatingFileWriter(file, 1024 * 1024, 2);
+    writer.writeLine("new");
+    writer.close();
+    assertThat(Files.toString(file, UTF_8)).isEqualTo("existing\nnew\n");
+  }
+
+  @Test
+  public void writeLines_LargerThanBuffer() throws IOException {
+    File file = new File(tempFolder.getRoot(), "spans.log");
+    String line = Strings.repeat("é", 100 * 1024);
+    RotatingFileWriter writer = new RotatingFileWriter(file, 1024 * 1024, 2);
+    writer.writeLine(line);
+    writer.writeLine(line);
+    writer.close();
+    assertThat(Files.toString(file, UTF_8)).isEqualTo(line + "\n" + line + "\n");
+  }
+
+  @Test
+  public void rotate() throws IOException {
+    File file = new File(tempFolder.getRoot(), "spans.log");
+    RotatingFileWriter writer = new RotatingFileWriter(file, 10, 2);
+    writer.writeLine("line1");
+    writer.writeLine("line2"); // Reaches 12 bytes, rotated to spans.log.1.
+    writer.writeLine("line3");
+    writer.writeLine("line4"); // Rotated to spans.log.1, previous spans.log.1 to spans.log.2.
+    writer.writeLine("line5");
+    writer.writeLine("line6"); // Rotated, dropping the oldest file.
+    writer.writeLine("line7");
+    writer.close();
+    assertThat(Files.toString(file, UTF_8)).isEqualTo("line7\n");
+    assertThat(Files.toString(new File(file.getPath() + ".1"), UTF_8)).isEqualTo("line5\nline6\n");
+    assertThat(Files.toString(new File(file.getPath() + ".2"), UTF_8)).isEqualTo("line3\nline4\n");
+    assertThat(new File(file.getPath() + ".3").exists()).isFalse();
+  }
+
+  @Test
+  public void rotate_WithoutBackupFiles() throws IOException {
+    File file = new File(tempFolder.getRoot(), "spans.log");
+    RotatingFileWriter writer = new RotatingFileWriter(file, 10, 0);
+    writer.writeLine("line1");
+    writer.writeLine("line2");
+    writer.writeLine("line3");
+    writer.close();
+    assertThat(Files.toString(file, UTF_8)).isEqualTo("line3\n");
+    assertThat(new File(file.getPath() + ".1").exists()).isFalse();
+  }
+}
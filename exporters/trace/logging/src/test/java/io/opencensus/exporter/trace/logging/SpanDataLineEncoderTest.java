@@ -0,0 +1,210 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.exporter.trace.logging;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.opencensus.common.Timestamp;
+import io.opencensus.trace.Annotation;
+import io.opencensus.trace.AttributeValue;
+import io.opencensus.trace.Link;
+import io.opencensus.trace.MessageEvent;
+import io.opencensus.trace.MessageEvent.Type;
+import io.opencensus.trace.Span.Kind;
+import io.opencensus.trace.SpanContext;
+import io.opencensus.trace.SpanId;
+import io.opencensus.trace.Status;
+import io.opencensus.trace.TraceId;
+import io.opencensus.trace.TraceOptions;
+import io.opencensus.trace.export.SpanData;
+import io.opencensus.trace.export.SpanData.Attributes;
+import io.opencensus.trace.export.SpanData.Links;
+import io.opencensus.trace.export.SpanData.TimedEvent;
+import io.opencensus.trace.export.SpanData.TimedEvents;
+import java.util.Collections;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link SpanDataLineEncoder}. */
+@RunWith(JUnit4.class)
+public class SpanDataLineEncoderTest {
+  private static final String TRACE_ID = "d239036e7d5cec116b562147388b35bf";
+  private static final String SPAN_ID = "9cc1e3049173be09";
+  private static final String PARENT_SPAN_ID = "8b03ab423da481c5";
+  private static final SpanContext SPAN_CONTEXT =
+      SpanContext.create(
+          TraceId.fromLowerBase16(TRACE_ID),
+          SpanId.fromLowerBase16(SPAN_ID),
+          TraceOptions.builder().setIsSampled(true).build());
+
+  private static final SpanData FULL_SPAN =
+      SpanData.create(
+          SPAN_CONTEXT,
+          SpanId.fromLowerBase16(PARENT_SPAN_ID),
+          true,
+          "Recv.helloworld.Greeter.SayHello",
+          Kind.SERVER,
+          Timestamp.create(1505855794, 194009601),
+          Attributes.create(
+              ImmutableMap.of(
+                  "http.url", AttributeValue.stringAttributeValue("http://localhost/foo")),
+              1),
+          TimedEvents.create(
+              ImmutableList.of(
+                  TimedEvent.create(
+                      Timestamp.create(1505855799, 0),
+                      Annotation.fromDescriptionAndAttributes(
+                          "done",
+                          ImmutableMap.of("ok", AttributeValue.booleanAttributeValue(true))))),
+              0),
+          TimedEvents.create(
+              ImmutableList.of(
+                  TimedEvent.create(
+                      Timestamp.create(1505855799, 459486280),
+                      MessageEvent.builder(Type.SENT, 7)
+                          .setUncompressedMessageSize(20)
+                          .setCompressedMessageSize(13)
+                          .build())),
+              2),
+          Links.create(
+              ImmutableList.of(
+                  Link.fromSpanContext(
+                      SpanContext.create(
+                          TraceId.fromLowerBase16(TRACE_ID),
+                          SpanId.fromLowerBase16(PARENT_SPAN_ID),
+                          TraceOptions.DEFAULT),
+                      Link.Type.PARENT_LINKED_SPAN,
+                      ImmutableMap.of("size", AttributeValue.longAttributeValue(42)))),
+              0),
+          3,
+          Status.DEADLINE_EXCEEDED.withDescription("Too slow"),
+          Timestamp.create(1505855799, 465726528));
+
+  private static final SpanData MINIMAL_SPAN =
+      SpanData.create(
+          SPAN_CONTEXT,
+          null,
+          null,
+          "name",
+          null,
+          Timestamp.create(1505855794, 194009601),
+          Attributes.create(Collections.<String, AttributeValue>emptyMap(), 0),
+          TimedEvents.create(Collections.<TimedEvent<Annotation>>emptyList(), 0),
+          TimedEvents.create(Collections.<TimedEvent<MessageEvent>>emptyList(), 0),
+          Links.create(Collections.<Link>emptyList(), 0),
+          null,
+          null,
+          null);
+
+  @Test
+  public void appendJson() {
+    StringBuilder sb = new StringBuilder();
+    SpanDataLineEncoder.appendJson(FULL_SPAN, sb);
+    assertThat(sb.toString())
+        .isEqualTo(
+            "{\"traceId\":\"d239036e7d5cec116b562147388b35bf\",\"spanId\":\"9cc1e3049173be09\","
+                + "\"parentSpanId\":\"8b03ab423da481c5\","
+                + "\"name\":\"Recv.helloworld.Greeter.SayHello\",\"kind\":\"SERVER\","
+                + "\"sampled\":true,\"hasRemoteParent\":true,"
+                + "\"startTime\":1505855794194009,\"endTime\":1505855799465726,"
+                + "\"status\":\"DEADLINE_EXCEEDED\",\"statusDescription\":\"Too slow\","
+                + "\"attributes\":{\"http.url\":\"http://localhost/foo\"},\"droppedAttributes\":1,"
+                + "\"annotations\":[{\"time\":1505855799000000,\"description\":\"done\","
+                + "\"attributes\":{\"ok\":true}}],"
+                + "\"messageEvents\":[{\"time\":1505855799459486,\"type\":\"SENT\",\"id\":7,"
+                + "\"uncompressedSize\":20,\"compressedSize\":13}],\"droppedMessageEvents\":2,"
+                + "\"links\":[{\"traceId\":\"d239036e7d5cec116b562147388b35bf\","
+                + "\"spanId\":\"8b03ab423da481c5\",\"type\":\"PARENT_LINKED_SPAN\","
+                + "\"attributes\":{\"size\":42}}],"
+                + "\"childSpanCount\":3}");
+  }
+
+  @Test
+  public void appendJson_MinimalSpan() {
+    StringBuilder sb = new StringBuilder();
+    SpanDataLineEncoder.appendJson(MINIMAL_SPAN, sb);
+    assertThat(sb.toString())
+        .isEqualTo(
+            "{\"traceId\":\"d239036e7d5cec116b562147388b35bf\",\"spanId\":\"9cc1e3049173be09\","
+                + "\"name\":\"name\",\"sampled\":true,\"startTime\":1505855794194009}");
+  }
+
+  @Test
+  public void appendJson_EscapesStrings() {
+    StringBuilder sb = new StringBuilder();
+    SpanDataLineEncoder.appendJson(
+        SpanData.create(
+            SPAN_CONTEXT,
+            null,
+            null,
+            "a\"b\\c\nd\te\u0001f" + (char) 0x2028 + "é",
+            null,
+            Timestamp.create(1, 0),
+            Attributes.create(Collections.<String, AttributeValue>emptyMap(), 0),
+            TimedEvents.create(Collections.<TimedEvent<Annotation>>emptyList(), 0),
+            TimedEvents.create(Collections.<TimedEvent<MessageEvent>>emptyList(), 0),
+            Links.create(Collections.<Link>emptyList(), 0),
+            null,
+            null,
+            null),
+        sb);
+    assertThat(sb.toString()).contains("\"name\":\"a\\\"b\\\\c\\nd\\te\\u0001f\\u2028é\"");
+  }
+
+  @Test
+  public void appendLogfmt() {
+    StringBuilder sb = new StringBuilder();
+    SpanDataLineEncoder.appendLogfmt(FULL_SPAN, sb);
+    assertThat(sb.toString())
+        .isEqualTo(
+            "traceId=d239036e7d5cec116b562147388b35bf spanId=9cc1e3049173be09 "
+                + "parentSpanId=8b03ab423da481c5 name=Recv.helloworld.Greeter.SayHello "
+                + "kind=SERVER sampled=true startTime=1505855794194009 endTime=1505855799465726 "
+                + "status=DEADLINE_EXCEEDED statusDescription=\"Too slow\" "
+                + "attributes.http.url=http://localhost/foo annotations=1 messageEvents=1 "
+                + "links=1");
+  }
+
+  @Test
+  public void appendLogfmt_QuotesValuesAndSanitizesKeys() {
+    StringBuilder sb = new StringBuilder();
+    SpanDataLineEncoder.appendLogfmt(
+        SpanData.create(
+            SPAN_CONTEXT,
+            null,
+            null,
+            "",
+            null,
+            Timestamp.create(1, 0),
+            Attributes.create(
+                ImmutableMap.of("a key=", AttributeValue.stringAttributeValue("x=\"y\"")), 0),
+            TimedEvents.create(Collections.<TimedEvent<Annotation>>emptyList(), 0),
+            TimedEvents.create(Collections.<TimedEvent<MessageEvent>>emptyList(), 0),
+            Links.create(Collections.<Link>emptyList(), 0),
+            null,
+            null,
+            null),
+        sb);
+    assertThat(sb.toString())
+        .isEqualTo(
+            "traceId=d239036e7d5cec116b562147388b35bf spanId=9cc1e3049173be09 name=\"\" "
+                + "sampled=true startTime=1000000 attributes.a_key_=\"x=\\\"y\\\"\"");
+  }
+}
@@ -18,6 +18,9 @@ package io.opencensus.exporter.trace.stackdriver;
 
 import static com.google.api.client.util.Preconditions.checkNotNull;
 
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
 import com.google.api.gax.core.FixedCredentialsProvider;
 import com.google.auth.Credentials;
 import com.google.cloud.trace.v2.TraceServiceClient;
@@ -25,7 +28,9 @@ import com.google.cloud.trace.v2.TraceServiceSettings;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.io.BaseEncoding;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.devtools.cloudtrace.v2.AttributeValue;
+import com.google.devtools.cloudtrace.v2.BatchWriteSpansRequest;
 import com.google.devtools.cloudtrace.v2.ProjectName;
 import com.google.devtools.cloudtrace.v2.Span;
 import com.google.devtools.cloudtrace.v2.Span.Attributes;
@@ -35,6 +40,8 @@ import com.google.devtools.cloudtrace.v2.Span.TimeEvent;
 import com.google.devtools.cloudtrace.v2.Span.TimeEvent.MessageEvent;
 import com.google.devtools.cloudtrace.v2.SpanName;
 import com.google.devtools.cloudtrace.v2.TruncatableString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.Empty;
 import com.google.protobuf.Int32Value;
 import com.google.rpc.Status;
 import io.opencensus.common.Function;
@@ -67,16 +74,18 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-
-/*>>>
-import org.checkerframework.checker.nullness.qual.Nullable;
-*/
+import java.util.concurrent.Semaphore;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /** Exporter to Stackdriver Trace API v2. */
 final class StackdriverV2ExporterHandler extends SpanExporter.Handler {
+  private static final Logger logger =
+      Logger.getLogger(StackdriverV2ExporterHandler.class.getName());
   private static final Tracer tracer = Tracing.getTracer();
   private static final Sampler probabilitySampler = Samplers.probabilitySampler(0.0001);
   private static final String AGENT_LABEL_KEY = "g.co/agent";
@@ -105,14 +114,51 @@ final class StackdriverV2ExporterHandler extends SpanExporter.Handler {
   // Only initialize once.
   private static final Map<String, AttributeValue> RESOURCE_LABELS = getResourceLabels(RESOURCE);
 
+  // The default maximum size of a BatchWriteSpans request. Larger batches are split into multiple
+  // requests, so that a peak does not exceed the request size limit of the API and get rejected.
+  @VisibleForTesting static final int DEFAULT_MAX_REQUEST_BYTES = 4 * 1024 * 1024;
+
+  // The default maximum number of BatchWriteSpans requests in flight. When the limit is reached,
+  // export() waits for one of the requests to finish.
+  @VisibleForTesting static final int DEFAULT_MAX_IN_FLIGHT_WRITES = 4;
+
+  // The maximum number of entries in each of the proto caches.
+  @VisibleForTesting static final int MAX_CACHED_PROTOS = 1000;
+
+  private static final AttributeValue TRUE_ATTRIBUTE_VALUE =
+      AttributeValue.newBuilder().setBoolValue(true).build();
+  private static final AttributeValue FALSE_ATTRIBUTE_VALUE =
+      AttributeValue.newBuilder().setBoolValue(false).build();
+
+  // Span names and string attribute values usually come from a small set of constants, so their
+  // protos are built once and shared between spans. The least recently used entries are evicted,
+  // so high-cardinality values cycle through the caches without pushing the constants out.
+  private static final Map<String, TruncatableString> displayNameCache =
+      Collections.synchronizedMap(new ProtoCache<TruncatableString>(MAX_CACHED_PROTOS));
+  private static final Map<String, AttributeValue> stringAttributeValueCache =
+      Collections.synchronizedMap(new ProtoCache<AttributeValue>(MAX_CACHED_PROTOS));
+
   private final String projectId;
   private final TraceServiceClient traceServiceClient;
   private final ProjectName projectName;
+  private final int maxRequestBytes;
+  private final Semaphore inFlightWrites;
 
   @VisibleForTesting
   StackdriverV2ExporterHandler(String projectId, TraceServiceClient traceServiceClient) {
+    this(projectId, traceServiceClient, DEFAULT_MAX_REQUEST_BYTES, DEFAULT_MAX_IN_FLIGHT_WRITES);
+  }
+
+  @VisibleForTesting
+  StackdriverV2ExporterHandler(
+      String projectId,
+      TraceServiceClient traceServiceClient,
+      int maxRequestBytes,
+      int maxInFlightWrites) {
     this.projectId = checkNotNull(projectId, "projectId");
     this.traceServiceClient = traceServiceClient;
+    this.maxRequestBytes = maxRequestBytes;
+    this.inFlightWrites = new Semaphore(maxInFlightWrites);
     projectName = ProjectName.newBuilder().setProject(projectId).build();
 
     Tracing.getExportComponent()
@@ -146,8 +192,7 @@ final class StackdriverV2ExporterHandler extends SpanExporter.Handler {
         Span.newBuilder()
             .setName(spanName.toString())
             .setSpanId(encodeSpanId(context.getSpanId()))
-            .setDisplayName(
-                toTruncatableStringProto(toDisplayName(spanData.getName(), spanData.getKind())))
+            .setDisplayName(toDisplayNameProto(spanData.getName(), spanData.getKind()))
             .setStartTime(toTimestampProto(spanData.getStartTimestamp()))
             .setAttributes(toAttributesProto(spanData.getAttributes(), resourceLabels))
             .setTimeEvents(
@@ -390,6 +435,44 @@ final class StackdriverV2ExporterHandler extends SpanExporter.Handler {
     return TruncatableString.newBuilder().setValue(string).setTruncatedByteCount(0).build();
   }
 
+  private static TruncatableString toDisplayNameProto(String spanName, Kind spanKind) {
+    String displayName = toDisplayName(spanName, spanKind);
+    TruncatableString proto = displayNameCache.get(displayName);
+    if (proto == null) {
+      proto = toTruncatableStringProto(displayName);
+      displayNameCache.put(displayName, proto);
+    }
+    return proto;
+  }
+
+  private static AttributeValue toStringAttributeValueProtoCached(String value) {
+    AttributeValue proto = stringAttributeValueCache.get(value);
+    if (proto == null) {
+      proto = toStringAttributeValueProto(value);
+      stringAttributeValueCache.put(value, proto);
+    }
+    return proto;
+  }
+
+  // A map from strings to their protos that evicts the least recently used entry when it holds
+  // more than maxSize entries. Spans are converted by the single span exporter thread, so the
+  // synchronized wrappers are not contended.
+  @VisibleForTesting
+  static final class ProtoCache<V> extends LinkedHashMap<String, V> {
+    private static final long serialVersionUID = 0L;
+    private final int maxSize;
+
+    ProtoCache(int maxSize) {
+      super(16, 0.75f, /*accessOrder=*/ true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+      return size() > maxSize;
+    }
+  }
+
   private static com.google.protobuf.Timestamp toTimestampProto(Timestamp timestamp) {
     return com.google.protobuf.Timestamp.newBuilder()
         .setSeconds(timestamp.getSeconds())
@@ -399,31 +482,26 @@ final class StackdriverV2ExporterHandler extends SpanExporter.Handler {
 
   private static AttributeValue toAttributeValueProto(
       io.opencensus.trace.AttributeValue attributeValue) {
-    final AttributeValue.Builder attributeValueBuilder = AttributeValue.newBuilder();
-    attributeValue.match(
-        new Function<String, Void>() {
+    return attributeValue.match(
+        new Function<String, AttributeValue>() {
           @Override
-          public Void apply(String stringValue) {
-            attributeValueBuilder.setStringValue(toTruncatableStringProto(stringValue));
-            return null;
+          public AttributeValue apply(String stringValue) {
+            return toStringAttributeValueProtoCached(stringValue);
           }
         },
-        new Function<Boolean, Void>() {
+        new Function<Boolean, AttributeValue>() {
           @Override
-          public Void apply(Boolean booleanValue) {
-            attributeValueBuilder.setBoolValue(booleanValue);
-            return null;
+          public AttributeValue apply(Boolean booleanValue) {
+            return booleanValue ? TRUE_ATTRIBUTE_VALUE : FALSE_ATTRIBUTE_VALUE;
           }
         },
-        new Function<Long, Void>() {
+        new Function<Long, AttributeValue>() {
           @Override
-          public Void apply(Long longValue) {
-            attributeValueBuilder.setIntValue(longValue);
-            return null;
+          public AttributeValue apply(Long longValue) {
+            return AttributeValue.newBuilder().setIntValue(longValue).build();
           }
         },
-        Functions.</*@Nullable*/ Void>returnNull());
-    return attributeValueBuilder.build();
+        Functions.returnConstant(AttributeValue.getDefaultInstance()));
   }
 
   private static Link.Type toLinkTypeProto(io.opencensus.trace.Link.Type type) {
@@ -480,9 +558,65 @@ final class StackdriverV2ExporterHandler extends SpanExporter.Handler {
       for (SpanData spanData : spanDataList) {
         spans.add(generateSpan(spanData, RESOURCE_LABELS));
       }
-      // Sync call because it is already called for a batch of data, and on a separate thread.
-      // TODO(bdrutu): Consider to make this async in the future.
-      traceServiceClient.batchWriteSpans(projectName, spans);
+      for (BatchWriteSpansRequest request : createRequests(spans)) {
+        // Wait if too many requests are in flight, so that the exporter thread slows down instead
+        // of piling up requests.
+        try {
+          inFlightWrites.acquire();
+        } catch (InterruptedException e) {
+          // Preserve the interruption status as per guidance and stop doing any work.
+          Thread.currentThread().interrupt();
+          return;
+        }
+        ApiFuture<Empty> future;
+        try {
+          future = traceServiceClient.batchWriteSpansCallable().futureCall(request);
+        } catch (RuntimeException e) {
+          inFlightWrites.release();
+          throw e;
+        }
+        ApiFutures.addCallback(future, new WriteCallback(), MoreExecutors.directExecutor());
+      }
+    }
+  }
+
+  // Splits the spans into requests that don't exceed maxRequestBytes. A span that alone exceeds
+  // the limit is sent in its own request.
+  @VisibleForTesting
+  List<BatchWriteSpansRequest> createRequests(List<Span> spans) {
+    List<BatchWriteSpansRequest> requests = new ArrayList<>();
+    String name = projectName.toString();
+    int emptyRequestBytes =
+        CodedOutputStream.computeStringSize(BatchWriteSpansRequest.NAME_FIELD_NUMBER, name);
+    BatchWriteSpansRequest.Builder builder = BatchWriteSpansRequest.newBuilder().setName(name);
+    int requestBytes = emptyRequestBytes;
+    for (Span span : spans) {
+      int spanBytes =
+          CodedOutputStream.computeMessageSize(BatchWriteSpansRequest.SPANS_FIELD_NUMBER, span);
+      if (builder.getSpansCount() > 0 && requestBytes + spanBytes > maxRequestBytes) {
+        requests.add(builder.build());
+        builder = BatchWriteSpansRequest.newBuilder().setName(name);
+        requestBytes = emptyRequestBytes;
+      }
+      builder.addSpans(span);
+      requestBytes += spanBytes;
+    }
+    if (builder.getSpansCount() > 0) {
+      requests.add(builder.build());
+    }
+    return requests;
+  }
+
+  private final class WriteCallback implements ApiFutureCallback<Empty> {
+    @Override
+    public void onSuccess(Empty result) {
+      inFlightWrites.release();
+    }
+
+    @Override
+    public void onFailure(Throwable t) {
+      inFlightWrites.release();
+      logger.log(Level.WARNING, "Exception thrown when exporting spans to Stackdriver.", t);
     }
   }
 }
@@ -16,19 +16,46 @@
 
 package io.opencensus.exporter.trace.stackdriver;
 
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.google.api.core.ApiFutures;
+import com.google.api.core.SettableApiFuture;
+import com.google.api.gax.rpc.UnaryCallable;
 import com.google.cloud.trace.v2.TraceServiceClient;
 import com.google.cloud.trace.v2.stub.TraceServiceStub;
+import com.google.devtools.cloudtrace.v2.BatchWriteSpansRequest;
+import com.google.devtools.cloudtrace.v2.Span;
+import com.google.protobuf.Empty;
+import io.opencensus.common.Timestamp;
+import io.opencensus.trace.Annotation;
+import io.opencensus.trace.Link;
+import io.opencensus.trace.MessageEvent;
+import io.opencensus.trace.SpanContext;
+import io.opencensus.trace.SpanId;
+import io.opencensus.trace.TraceId;
+import io.opencensus.trace.TraceOptions;
 import io.opencensus.trace.export.SpanData;
+import io.opencensus.trace.export.SpanData.Attributes;
+import io.opencensus.trace.export.SpanData.Links;
+import io.opencensus.trace.export.SpanData.TimedEvents;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
@@ -38,6 +65,7 @@ public final class StackdriverV2ExporterHandlerExportTest {
   private static final String PROJECT_ID = "PROJECT_ID";
   // mock the service stub to provide a fake trace service.
   @Mock private TraceServiceStub traceServiceStub;
+  @Mock private UnaryCallable<BatchWriteSpansRequest, Empty> batchWriteSpansCallable;
   private TraceServiceClient traceServiceClient;
   @Rule public final ExpectedException thrown = ExpectedException.none();
 
@@ -52,13 +80,139 @@ public final class StackdriverV2ExporterHandlerExportTest {
     handler = new StackdriverV2ExporterHandler(PROJECT_ID, traceServiceClient);
   }
 
+  @Test
+  public void testConstants() {
+    assertThat(StackdriverV2ExporterHandler.DEFAULT_MAX_REQUEST_BYTES).isEqualTo(4 * 1024 * 1024);
+    assertThat(StackdriverV2ExporterHandler.DEFAULT_MAX_IN_FLIGHT_WRITES).isEqualTo(4);
+  }
+
   @Test
   public void export() {
     when(traceServiceStub.batchWriteSpansCallable())
         .thenThrow(new RuntimeException("TraceServiceStub called"));
-    Collection<SpanData> spanDataList = Collections.<SpanData>emptyList();
+    Collection<SpanData> spanDataList = Collections.singletonList(createSpanData(1));
     thrown.expect(RuntimeException.class);
     thrown.expectMessage("TraceServiceStub called");
     handler.export(spanDataList);
   }
+
+  @Test
+  public void export_EmptyList() {
+    handler.export(Collections.<SpanData>emptyList());
+    verify(traceServiceStub, never()).batchWriteSpansCallable();
+  }
+
+  @Test
+  public void export_SplitsLargeBatches() {
+    doReturn(batchWriteSpansCallable).when(traceServiceStub).batchWriteSpansCallable();
+    doReturn(ApiFutures.immediateFuture(Empty.getDefaultInstance()))
+        .when(batchWriteSpansCallable)
+        .futureCall(any(BatchWriteSpansRequest.class));
+    Span span =
+        handler.generateSpan(
+            createSpanData(1),
+            Collections.<String, com.google.devtools.cloudtrace.v2.AttributeValue>emptyMap());
+    // Room for two spans per request.
+    handler =
+        new StackdriverV2ExporterHandler(
+            PROJECT_ID,
+            traceServiceClient,
+            2 * span.getSerializedSize() + 100,
+            StackdriverV2ExporterHandler.DEFAULT_MAX_IN_FLIGHT_WRITES);
+    List<SpanData> spanDataList = new ArrayList<SpanData>();
+    for (int i = 1; i <= 5; i++) {
+      spanDataList.add(createSpanData(i));
+    }
+    handler.export(spanDataList);
+
+    ArgumentCaptor<BatchWriteSpansRequest> captor =
+        ArgumentCaptor.forClass(BatchWriteSpansRequest.class);
+    verify(batchWriteSpansCallable, times(3)).futureCall(captor.capture());
+    List<Integer> spansPerRequest = new ArrayList<Integer>();
+    for (BatchWriteSpansRequest request : captor.getAllValues()) {
+      assertThat(request.getName()).isEqualTo("projects/" + PROJECT_ID);
+      spansPerRequest.add(request.getSpansCount());
+    }
+    assertThat(spansPerRequest).containsExactly(2, 2, 1).inOrder();
+  }
+
+  @Test
+  public void createRequests_SpanLargerThanLimit() {
+    handler =
+        new StackdriverV2ExporterHandler(
+            PROJECT_ID,
+            traceServiceClient,
+            1,
+            StackdriverV2ExporterHandler.DEFAULT_MAX_IN_FLIGHT_WRITES);
+    Span span1 = Span.newBuilder().setSpanId("1").build();
+    Span span2 = Span.newBuilder().setSpanId("2").build();
+    List<BatchWriteSpansRequest> requests = handler.createRequests(Arrays.asList(span1, span2));
+    assertThat(requests).hasSize(2);
+    assertThat(requests.get(0).getSpansList()).containsExactly(span1);
+    assertThat(requests.get(1).getSpansList()).containsExactly(span2);
+  }
+
+  @Test
+  public void export_BoundsInFlightWrites() throws InterruptedException {
+    handler =
+        new StackdriverV2ExporterHandler(
+            PROJECT_ID, traceServiceClient, /* maxRequestBytes= */ 1, /* maxInFlightWrites= */ 1);
+    SettableApiFuture<Empty> firstWrite = SettableApiFuture.create();
+    doReturn(batchWriteSpansCallable).when(traceServiceStub).batchWriteSpansCallable();
+    doReturn(firstWrite)
+        .doReturn(ApiFutures.immediateFuture(Empty.getDefaultInstance()))
+        .when(batchWriteSpansCallable)
+        .futureCall(any(BatchWriteSpansRequest.class));
+    final List<SpanData> spanDataList = Arrays.asList(createSpanData(1), createSpanData(2));
+    Runnable export =
+        new Runnable() {
+          @Override
+          public void run() {
+            handler.export(spanDataList);
+          }
+        };
+    Thread exportThread = new Thread(export);
+    exportThread.start();
+    // The second request waits until the first one finishes.
+    exportThread.join(100);
+    assertThat(exportThread.isAlive()).isTrue();
+    verify(batchWriteSpansCallable, times(1)).futureCall(any(BatchWriteSpansRequest.class));
+
+    firstWrite.set(Empty.getDefaultInstance());
+    exportThread.join();
+    verify(batchWriteSpansCallable, times(2)).futureCall(any(BatchWriteSpansRequest.class));
+  }
+
+  @Test
+  public void export_FailedWriteReleasesPermit() {
+    handler =
+        new StackdriverV2ExporterHandler(
+            PROJECT_ID, traceServiceClient, /* maxRequestBytes= */ 1, /* maxInFlightWrites= */ 1);
+    doReturn(batchWriteSpansCallable).when(traceServiceStub).batchWriteSpansCallable();
+    doReturn(ApiFutures.immediateFailedFuture(new RuntimeException("write failed")))
+        .when(batchWriteSpansCallable)
+        .futureCall(any(BatchWriteSpansRequest.class));
+    handler.export(Arrays.asList(createSpanData(1), createSpanData(2), createSpanData(3)));
+    verify(batchWriteSpansCallable, times(3)).futureCall(any(BatchWriteSpansRequest.class));
+  }
+
+  private static SpanData createSpanData(int id) {
+    return SpanData.create(
+        SpanContext.create(
+            TraceId.fromLowerBase16("4bf92f3577b34da6a3ce929d0e0e4736"),
+            SpanId.fromLowerBase16(String.format("%016x", id)),
+            TraceOptions.DEFAULT),
+        null,
+        null,
+        "MySpanName",
+        null,
+        Timestamp.create(1505855794, 194009601),
+        Attributes.create(Collections.<String, io.opencensus.trace.AttributeValue>emptyMap(), 0),
+        TimedEvents.create(Collections.<SpanData.TimedEvent<Annotation>>emptyList(), 0),
+        TimedEvents.create(Collections.<SpanData.TimedEvent<MessageEvent>>emptyList(), 0),
+        Links.create(Collections.<Link>emptyList(), 0),
+        null,
+        null,
+        Timestamp.create(1505855799, 465726528));
+  }
 }
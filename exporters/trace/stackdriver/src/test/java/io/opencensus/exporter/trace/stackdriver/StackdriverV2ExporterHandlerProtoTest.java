@@ -489,4 +489,14 @@ public final class StackdriverV2ExporterHandlerProtoTest {
     assertThat(handler.generateSpan(spanData, EMPTY_RESOURCE_LABELS).getDisplayName().getValue())
         .isEqualTo("Sent." + SPAN_NAME);
   }
+
+  @Test
+  public void protoCacheEvictsLeastRecentlyUsed() {
+    Map<String, String> cache = new StackdriverV2ExporterHandler.ProtoCache<String>(2);
+    cache.put("a", "A");
+    cache.put("b", "B");
+    assertThat(cache.get("a")).isEqualTo("A");
+    cache.put("c", "C");
+    assertThat(cache).containsExactly("a", "A", "c", "C");
+  }
 }
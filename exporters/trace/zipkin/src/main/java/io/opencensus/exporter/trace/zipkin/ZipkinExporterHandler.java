@@ -19,6 +19,7 @@ package io.opencensus.exporter.trace.zipkin;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
+import com.google.common.annotations.VisibleForTesting;
 import io.opencensus.common.Scope;
 import io.opencensus.common.Timestamp;
 import io.opencensus.trace.Annotation;
@@ -59,11 +60,16 @@ final class ZipkinExporterHandler extends SpanExporter.Handler {
   private final SpanBytesEncoder encoder;
   private final Sender sender;
   private final Endpoint localEndpoint;
+  // Encodes the spans without building zipkin2.Span objects, or null if the encoder is not
+  // JSON_V2. Only used by the exporter thread.
+  @Nullable private final ZipkinJsonV2SpanEncoder jsonV2SpanEncoder;
 
   ZipkinExporterHandler(SpanBytesEncoder encoder, Sender sender, String serviceName) {
     this.encoder = encoder;
     this.sender = sender;
     this.localEndpoint = produceLocalEndpoint(serviceName);
+    this.jsonV2SpanEncoder =
+        encoder == SpanBytesEncoder.JSON_V2 ? new ZipkinJsonV2SpanEncoder(localEndpoint) : null;
   }
 
   /** Logic borrowed from brave.internal.Platform.produceLocalEndpoint */
@@ -169,6 +175,21 @@ final class ZipkinExporterHandler extends SpanExporter.Handler {
     return attributeValue.toString();
   }
 
+  @VisibleForTesting
+  List<byte[]> encodeSpans(Collection<SpanData> spanDataList) {
+    List<byte[]> encodedSpans = new ArrayList<byte[]>(spanDataList.size());
+    if (jsonV2SpanEncoder != null) {
+      for (SpanData spanData : spanDataList) {
+        encodedSpans.add(jsonV2SpanEncoder.encode(spanData));
+      }
+    } else {
+      for (SpanData spanData : spanDataList) {
+        encodedSpans.add(encoder.encode(generateSpan(spanData, localEndpoint)));
+      }
+    }
+    return encodedSpans;
+  }
+
   @Override
   public void export(Collection<SpanData> spanDataList) {
     // Start a new span with explicit 1/10000 sampling probability to avoid the case when user
@@ -177,10 +198,7 @@ final class ZipkinExporterHandler extends SpanExporter.Handler {
     Scope scope =
         tracer.spanBuilder("SendZipkinSpans").setSampler(probabilitySampler).startScopedSpan();
     try {
-      List<byte[]> encodedSpans = new ArrayList<byte[]>(spanDataList.size());
-      for (SpanData spanData : spanDataList) {
-        encodedSpans.add(encoder.encode(generateSpan(spanData, localEndpoint)));
-      }
+      List<byte[]> encodedSpans = encodeSpans(spanDataList);
       try {
         sender.sendSpans(encodedSpans).execute();
       } catch (IOException e) {
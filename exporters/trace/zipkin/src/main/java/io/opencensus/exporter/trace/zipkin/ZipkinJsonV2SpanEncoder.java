@@ -0,0 +1,419 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.exporter.trace.zipkin;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import io.opencensus.common.Timestamp;
+import io.opencensus.trace.Annotation;
+import io.opencensus.trace.AttributeValue;
+import io.opencensus.trace.MessageEvent;
+import io.opencensus.trace.Span.Kind;
+import io.opencensus.trace.SpanContext;
+import io.opencensus.trace.SpanId;
+import io.opencensus.trace.Status;
+import io.opencensus.trace.export.SpanData;
+import io.opencensus.trace.export.SpanData.TimedEvent;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import zipkin2.Endpoint;
+
+/**
+ * Encodes {@link SpanData} directly into the Zipkin JSON v2 format, producing the same bytes as
+ * {@code SpanBytesEncoder.JSON_V2} applied to the span returned by {@link
+ * ZipkinExporterHandler#generateSpan}, without building the intermediate {@code zipkin2.Span}.
+ *
+ * <p>The encoder reuses its buffers between spans, so it must only be used by one thread at a time.
+ */
+@NotThreadSafe
+final class ZipkinJsonV2SpanEncoder {
+  private static final int INITIAL_BUFFER_SIZE = 1024;
+  // Buffers that grew beyond this size for an unusually large span are not kept.
+  private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+  private static final String STATUS_CODE = "census.status_code";
+  private static final String STATUS_DESCRIPTION = "census.status_description";
+  private static final byte[] HEX_DIGITS = {
+    '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'
+  };
+
+  private final byte[] localEndpointJson;
+  private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+  private int position;
+  // Reused to sort the tags and the annotations of a span.
+  private String[] tagKeys = new String[8];
+  private long[] annotationTimestamps = new long[8];
+  private String[] annotationValues = new String[8];
+
+  ZipkinJsonV2SpanEncoder(Endpoint localEndpoint) {
+    position = 0;
+    writeEndpoint(localEndpoint);
+    localEndpointJson = Arrays.copyOf(buffer, position);
+  }
+
+  /**
+   * Returns the JSON v2 encoding of the given span.
+   *
+   * @param spanData the span to encode.
+   * @return the encoded span.
+   */
+  byte[] encode(SpanData spanData) {
+    position = 0;
+    SpanContext context = spanData.getContext();
+    writeAscii("{\"traceId\":\"");
+    writeHex(context.getTraceId().getBytes());
+    writeByte('"');
+    SpanId parentSpanId = spanData.getParentSpanId();
+    if (parentSpanId != null && parentSpanId.isValid()) {
+      writeAscii(",\"parentId\":\"");
+      writeHex(parentSpanId.getBytes());
+      writeByte('"');
+    }
+    writeAscii(",\"id\":\"");
+    writeHex(context.getSpanId().getBytes());
+    writeByte('"');
+    String kind = toSpanKind(spanData);
+    if (kind != null) {
+      writeAscii(",\"kind\":\"");
+      writeAscii(kind);
+      writeByte('"');
+    }
+    String name = spanData.getName();
+    if (!name.isEmpty()) {
+      writeAscii(",\"name\":\"");
+      writeEscapedUtf8(name.toLowerCase(Locale.ROOT));
+      writeByte('"');
+    }
+    long startTimestamp = toEpochMicros(spanData.getStartTimestamp());
+    if (startTimestamp > 0L) {
+      writeAscii(",\"timestamp\":");
+      writeLong(startTimestamp);
+    }
+    Timestamp end = spanData.getEndTimestamp();
+    long duration = end == null ? 0L : toEpochMicros(end) - startTimestamp;
+    if (duration > 0L) {
+      writeAscii(",\"duration\":");
+      writeLong(duration);
+    }
+    writeAscii(",\"localEndpoint\":");
+    writeBytes(localEndpointJson);
+    writeAnnotations(spanData);
+    writeTags(spanData);
+    writeByte('}');
+
+    byte[] result = Arrays.copyOf(buffer, position);
+    if (buffer.length > MAX_RETAINED_BUFFER_SIZE) {
+      buffer = new byte[INITIAL_BUFFER_SIZE];
+    }
+    return result;
+  }
+
+  // Annotations are written in the order of zipkin2.Annotation: by timestamp, then by value.
+  private void writeAnnotations(SpanData spanData) {
+    List<TimedEvent<Annotation>> annotations = spanData.getAnnotations().getEvents();
+    List<TimedEvent<MessageEvent>> messageEvents = spanData.getMessageEvents().getEvents();
+    int count = annotations.size() + messageEvents.size();
+    if (count == 0) {
+      return;
+    }
+    if (annotationTimestamps.length < count) {
+      annotationTimestamps = new long[Math.max(count, annotationTimestamps.length * 2)];
+      annotationValues = new String[annotationTimestamps.length];
+    }
+    int n = 0;
+    for (TimedEvent<Annotation> annotation : annotations) {
+      addAnnotation(
+          n++, toEpochMicros(annotation.getTimestamp()), annotation.getEvent().getDescription());
+    }
+    for (TimedEvent<MessageEvent> messageEvent : messageEvents) {
+      addAnnotation(
+          n++,
+          toEpochMicros(messageEvent.getTimestamp()),
+          messageEvent.getEvent().getType().name());
+    }
+    writeAscii(",\"annotations\":[");
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        writeByte(',');
+      }
+      writeAscii("{\"timestamp\":");
+      writeLong(annotationTimestamps[i]);
+      writeAscii(",\"value\":\"");
+      writeEscapedUtf8(annotationValues[i]);
+      writeAscii("\"}");
+      annotationValues[i] = null;
+    }
+    writeByte(']');
+  }
+
+  // Inserts the annotation at its sorted position among the first index annotations. Events are
+  // usually recorded in time order, so this rarely moves any element.
+  private void addAnnotation(int index, long timestamp, String value) {
+    int i = index;
+    while (i > 0
+        && compareAnnotations(
+                annotationTimestamps[i - 1], annotationValues[i - 1], timestamp, value)
+            > 0) {
+      annotationTimestamps[i] = annotationTimestamps[i - 1];
+      annotationValues[i] = annotationValues[i - 1];
+      i--;
+    }
+    annotationTimestamps[i] = timestamp;
+    annotationValues[i] = value;
+  }
+
+  private static int compareAnnotations(
+      long timestamp1, String value1, long timestamp2, String value2) {
+    if (timestamp1 != timestamp2) {
+      return timestamp1 < timestamp2 ? -1 : 1;
+    }
+    return value1.compareTo(value2);
+  }
+
+  // Tags are written in the order of their keys, with the status tags replacing attributes that
+  // have the same keys, like the TreeMap of zipkin2.Span.Builder.
+  private void writeTags(SpanData spanData) {
+    Map<String, AttributeValue> attributes = spanData.getAttributes().getAttributeMap();
+    Status status = spanData.getStatus();
+    String statusDescription = status == null ? null : status.getDescription();
+    int maxCount = attributes.size() + 2;
+    if (tagKeys.length < maxCount) {
+      tagKeys = new String[Math.max(maxCount, tagKeys.length * 2)];
+    }
+    int count = 0;
+    for (String key : attributes.keySet()) {
+      if (status != null
+          && (key.equals(STATUS_CODE)
+              || (statusDescription != null && key.equals(STATUS_DESCRIPTION)))) {
+        continue;
+      }
+      tagKeys[count++] = key;
+    }
+    if (status != null) {
+      tagKeys[count++] = STATUS_CODE;
+      if (statusDescription != null) {
+        tagKeys[count++] = STATUS_DESCRIPTION;
+      }
+    }
+    if (count == 0) {
+      return;
+    }
+    Arrays.sort(tagKeys, 0, count);
+    writeAscii(",\"tags\":{");
+    for (int i = 0; i < count; i++) {
+      String key = tagKeys[i];
+      tagKeys[i] = null;
+      String value;
+      if (status != null && key.equals(STATUS_CODE)) {
+        value = status.getCanonicalCode().toString();
+      } else if (statusDescription != null && key.equals(STATUS_DESCRIPTION)) {
+        value = statusDescription;
+      } else {
+        value = attributes.get(key).toString();
+      }
+      if (i > 0) {
+        writeByte(',');
+      }
+      writeByte('"');
+      writeEscapedUtf8(key);
+      writeAscii("\":\"");
+      writeEscapedUtf8(value);
+      writeByte('"');
+    }
+    writeByte('}');
+  }
+
+  private void writeEndpoint(Endpoint endpoint) {
+    writeByte('{');
+    boolean wroteField = false;
+    if (endpoint.serviceName() != null) {
+      writeAscii("\"serviceName\":\"");
+      writeEscapedUtf8(endpoint.serviceName());
+      writeByte('"');
+      wroteField = true;
+    }
+    if (endpoint.ipv4() != null) {
+      if (wroteField) {
+        writeByte(',');
+      }
+      writeAscii("\"ipv4\":\"");
+      writeAscii(endpoint.ipv4());
+      writeByte('"');
+      wroteField = true;
+    }
+    if (endpoint.ipv6() != null) {
+      if (wroteField) {
+        writeByte(',');
+      }
+      writeAscii("\"ipv6\":\"");
+      writeAscii(endpoint.ipv6());
+      writeByte('"');
+      wroteField = true;
+    }
+    if (endpoint.port() != null) {
+      if (wroteField) {
+        writeByte(',');
+      }
+      writeAscii("\"port\":");
+      writeLong(endpoint.port());
+    }
+    writeByte('}');
+  }
+
+  @Nullable
+  private static String toSpanKind(SpanData spanData) {
+    // This is a hack because the Span API did not have SpanKind.
+    if (spanData.getKind() == Kind.SERVER
+        || (spanData.getKind() == null && Boolean.TRUE.equals(spanData.getHasRemoteParent()))) {
+      return "SERVER";
+    }
+
+    // This is a hack because the Span API did not have SpanKind.
+    if (spanData.getKind() == Kind.CLIENT || spanData.getName().startsWith("Sent.")) {
+      return "CLIENT";
+    }
+
+    return null;
+  }
+
+  private static long toEpochMicros(Timestamp timestamp) {
+    return SECONDS.toMicros(timestamp.getSeconds()) + NANOSECONDS.toMicros(timestamp.getNanos());
+  }
+
+  private void ensureCapacity(int bytes) {
+    if (position + bytes > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(position + bytes, buffer.length * 2));
+    }
+  }
+
+  private void writeByte(char b) {
+    ensureCapacity(1);
+    buffer[position++] = (byte) b;
+  }
+
+  private void writeBytes(byte[] bytes) {
+    ensureCapacity(bytes.length);
+    System.arraycopy(bytes, 0, buffer, position, bytes.length);
+    position += bytes.length;
+  }
+
+  private void writeAscii(String value) {
+    int length = value.length();
+    ensureCapacity(length);
+    for (int i = 0; i < length; i++) {
+      buffer[position++] = (byte) value.charAt(i);
+    }
+  }
+
+  private void writeHex(byte[] bytes) {
+    ensureCapacity(bytes.length * 2);
+    for (byte b : bytes) {
+      buffer[position++] = HEX_DIGITS[(b >> 4) & 0xF];
+      buffer[position++] = HEX_DIGITS[b & 0xF];
+    }
+  }
+
+  private void writeLong(long value) {
+    writeAscii(Long.toString(value));
+  }
+
+  // Writes the string as UTF-8 with the escaping of zipkin2.internal.JsonEscaper. Unpaired
+  // surrogates are written as '?', like String.getBytes.
+  private void writeEscapedUtf8(String value) {
+    int length = value.length();
+    // Every char takes at most 6 bytes, either escaped or encoded.
+    ensureCapacity(length * 6);
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c < 0x80) {
+        if (c < 0x20 || c == '"' || c == '\\') {
+          writeEscapedAscii(c);
+        } else {
+          buffer[position++] = (byte) c;
+        }
+      } else if (c < 0x800) {
+        buffer[position++] = (byte) (0xC0 | (c >> 6));
+        buffer[position++] = (byte) (0x80 | (c & 0x3F));
+      } else if (c == '\u2028' || c == '\u2029') {
+        writeUnicodeEscape(c);
+      } else if (Character.isHighSurrogate(c)
+          && i + 1 < length
+          && Character.isLowSurrogate(value.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, value.charAt(++i));
+        buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+      } else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+        buffer[position++] = '?';
+      } else {
+        buffer[position++] = (byte) (0xE0 | (c >> 12));
+        buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        buffer[position++] = (byte) (0x80 | (c & 0x3F));
+      }
+    }
+  }
+
+  private void writeEscapedAscii(char c) {
+    switch (c) {
+      case '"':
+        buffer[position++] = '\\';
+        buffer[position++] = '"';
+        return;
+      case '\\':
+        buffer[position++] = '\\';
+        buffer[position++] = '\\';
+        return;
+      case '\t':
+        buffer[position++] = '\\';
+        buffer[position++] = 't';
+        return;
+      case '\b':
+        buffer[position++] = '\\';
+        buffer[position++] = 'b';
+        return;
+      case '\n':
+        buffer[position++] = '\\';
+        buffer[position++] = 'n';
+        return;
+      case '\r':
+        buffer[position++] = '\\';
+        buffer[position++] = 'r';
+        return;
+      case '\f':
+        buffer[position++] = '\\';
+        buffer[position++] = 'f';
+        return;
+      default:
+        writeUnicodeEscape(c);
+    }
+  }
+
+  private void writeUnicodeEscape(char c) {
+    buffer[position++] = '\\';
+    buffer[position++] = 'u';
+    buffer[position++] = HEX_DIGITS[(c >> 12) & 0xF];
+    buffer[position++] = HEX_DIGITS[(c >> 8) & 0xF];
+    buffer[position++] = HEX_DIGITS[(c >> 4) & 0xF];
+    buffer[position++] = HEX_DIGITS[c & 0xF];
+  }
+}
@@ -17,6 +17,7 @@
 package io.opencensus.exporter.trace.zipkin;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
 
 import com.google.common.collect.ImmutableList;
 import io.opencensus.common.Timestamp;
@@ -36,6 +37,7 @@ import io.opencensus.trace.export.SpanData.Attributes;
 import io.opencensus.trace.export.SpanData.Links;
 import io.opencensus.trace.export.SpanData.TimedEvent;
 import io.opencensus.trace.export.SpanData.TimedEvents;
+import java.nio.charset.Charset;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -44,6 +46,9 @@ import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 import zipkin2.Endpoint;
 import zipkin2.Span;
+import zipkin2.codec.SpanBytesDecoder;
+import zipkin2.codec.SpanBytesEncoder;
+import zipkin2.reporter.Sender;
 
 /** Unit tests for {@link ZipkinExporterHandler}. */
 @RunWith(JUnit4.class)
@@ -186,4 +191,41 @@ public class ZipkinExporterHandlerTest {
                 .putTag("census.status_code", "OK")
                 .build());
   }
+
+  @Test
+  public void encodeSpans_UsesConfiguredEncoding() {
+    SpanData data =
+        SpanData.create(
+            SpanContext.create(
+                TraceId.fromLowerBase16(TRACE_ID),
+                SpanId.fromLowerBase16(SPAN_ID),
+                TraceOptions.fromBytes(new byte[] {1} /* sampled */)),
+            SpanId.fromLowerBase16(PARENT_SPAN_ID),
+            true, /* hasRemoteParent */
+            "Sent.helloworld.Greeter.SayHello", /* name */
+            Kind.CLIENT, /* kind */
+            Timestamp.create(1505855794, 194009601) /* startTimestamp */,
+            Attributes.create(attributes, 0 /* droppedAttributesCount */),
+            TimedEvents.create(annotations, 0 /* droppedEventsCount */),
+            TimedEvents.create(messageEvents, 0 /* droppedEventsCount */),
+            Links.create(Collections.<Link>emptyList(), 0 /* droppedLinksCount */),
+            null, /* childSpanCount */
+            Status.OK,
+            Timestamp.create(1505855799, 465726528) /* endTimestamp */);
+    Sender sender = mock(Sender.class);
+
+    List<byte[]> jsonV2 =
+        new ZipkinExporterHandler(SpanBytesEncoder.JSON_V2, sender, "tweetiebird")
+            .encodeSpans(Collections.singletonList(data));
+    assertThat(jsonV2).hasSize(1);
+    assertThat(SpanBytesDecoder.JSON_V2.decodeOne(jsonV2.get(0)).name())
+        .isEqualTo("sent.helloworld.greeter.sayhello");
+
+    List<byte[]> jsonV1 =
+        new ZipkinExporterHandler(SpanBytesEncoder.JSON_V1, sender, "tweetiebird")
+            .encodeSpans(Collections.singletonList(data));
+    assertThat(jsonV1).hasSize(1);
+    assertThat(new String(jsonV1.get(0), Charset.forName("UTF-8")))
+        .contains("\"binaryAnnotations\"");
+  }
 }
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.exporter.trace.zipkin;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.opencensus.common.Timestamp;
+import io.opencensus.trace.Annotation;
+import io.opencensus.trace.AttributeValue;
+import io.opencensus.trace.Link;
+import io.opencensus.trace.MessageEvent;
+import io.opencensus.trace.MessageEvent.Type;
+import io.opencensus.trace.Span.Kind;
+import io.opencensus.trace.SpanContext;
+import io.opencensus.trace.SpanId;
+import io.opencensus.trace.Status;
+import io.opencensus.trace.TraceId;
+import io.opencensus.trace.TraceOptions;
+import io.opencensus.trace.export.SpanData;
+import io.opencensus.trace.export.SpanData.Attributes;
+import io.opencensus.trace.export.SpanData.Links;
+import io.opencensus.trace.export.SpanData.TimedEvent;
+import io.opencensus.trace.export.SpanData.TimedEvents;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import zipkin2.Endpoint;
+import zipkin2.codec.SpanBytesEncoder;
+
+/** Unit tests for {@link ZipkinJsonV2SpanEncoder}. */
+@RunWith(JUnit4.class)
+public class ZipkinJsonV2SpanEncoderTest {
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final Endpoint localEndpoint =
+      Endpoint.newBuilder().serviceName("tweetiebird").build();
+  private static final String TRACE_ID = "d239036e7d5cec116b562147388b35bf";
+  private static final String SPAN_ID = "9cc1e3049173be09";
+  private static final String PARENT_SPAN_ID = "8b03ab423da481c5";
+  private static final Map<String, AttributeValue> attributes =
+      ImmutableMap.of(
+          "http.url", AttributeValue.stringAttributeValue("http://localhost/foo"),
+          "error", AttributeValue.booleanAttributeValue(false),
+          "count", AttributeValue.longAttributeValue(42));
+  private static final List<TimedEvent<Annotation>> annotations =
+      ImmutableList.of(
+          TimedEvent.create(
+              Timestamp.create(1505855799, 459486280), Annotation.fromDescription("b")),
+          TimedEvent.create(
+              Timestamp.create(1505855799, 459486280), Annotation.fromDescription("a")));
+  private static final List<TimedEvent<MessageEvent>> messageEvents =
+      ImmutableList.of(
+          TimedEvent.create(
+              Timestamp.create(1505855799, 433901068),
+              MessageEvent.builder(Type.RECEIVED, 0).setCompressedMessageSize(7).build()),
+          TimedEvent.create(
+              Timestamp.create(1505855799, 459486280),
+              MessageEvent.builder(Type.SENT, 0).setCompressedMessageSize(13).build()));
+
+  private final ZipkinJsonV2SpanEncoder encoder = new ZipkinJsonV2SpanEncoder(localEndpoint);
+
+  @Test
+  public void encode_ServerSpan() {
+    assertSameAsZipkinEncoder(
+        encoder,
+        createSpanData(
+            "Recv.helloworld.Greeter.SayHello",
+            Kind.SERVER,
+            PARENT_SPAN_ID,
+            attributes,
+            Status.OK));
+  }
+
+  @Test
+  public void encode_ClientSpanWithoutParent() {
+    assertSameAsZipkinEncoder(
+        encoder,
+        createSpanData(
+            "Sent.helloworld.Greeter.SayHello",
+            null,
+            null,
+            Collections.<String, AttributeValue>emptyMap(),
+            Status.DEADLINE_EXCEEDED.withDescription("TooSlow")));
+  }
+
+  @Test
+  public void encode_NoStatusAndInvalidParent() {
+    assertSameAsZipkinEncoder(
+        encoder, createSpanData("name", Kind.CLIENT, "0000000000000000", attributes, null));
+  }
+
+  @Test
+  public void encode_StatusReplacesAttributesWithSameKeys() {
+    assertSameAsZipkinEncoder(
+        encoder,
+        createSpanData(
+            "name",
+            null,
+            PARENT_SPAN_ID,
+            ImmutableMap.of(
+                "census.status_code", AttributeValue.stringAttributeValue("code"),
+                "census.status_description", AttributeValue.stringAttributeValue("description")),
+            Status.OK));
+  }
+
+  @Test
+  public void encode_EscapesStrings() {
+    assertSameAsZipkinEncoder(
+        encoder,
+        createSpanData(
+            "Name \"with\" \\ \t\b\n\r\f\u0001 é€ 😀 ",
+            null,
+            PARENT_SPAN_ID,
+            ImmutableMap.of("kéy\n", AttributeValue.stringAttributeValue("v \"al\\ue")),
+            Status.OK.withDescription("\"quoted\"")));
+  }
+
+  @Test
+  public void encode_ReplacesUnpairedSurrogates() {
+    String name = "a" + Character.MIN_HIGH_SURROGATE + "b" + Character.MIN_LOW_SURROGATE;
+    assertThat(
+            new String(encoder.encode(createSpanData(name, null, null, attributes, null)), UTF_8))
+        .contains("\"name\":\"a?b?\"");
+  }
+
+  @Test
+  public void encode_EscapesLineSeparators() {
+    String name = "a" + (char) 0x2028 + "b" + (char) 0x2029;
+    assertThat(
+            new String(encoder.encode(createSpanData(name, null, null, attributes, null)), UTF_8))
+        .contains("\"name\":\"a\\u2028b\\u2029\"");
+  }
+
+  @Test
+  public void encode_EndpointWithAddressesAndPort() {
+    Endpoint endpoint =
+        Endpoint.newBuilder()
+            .serviceName("Service\"Name")
+            .ip("192.168.99.101")
+            .ip("2001:db8::c001")
+            .port(9411)
+            .build();
+    assertSameAsZipkinEncoder(
+        new ZipkinJsonV2SpanEncoder(endpoint),
+        endpoint,
+        createSpanData("name", Kind.SERVER, PARENT_SPAN_ID, attributes, Status.OK));
+  }
+
+  @Test
+  public void encode_ReusesBuffersBetweenSpans() {
+    SpanData large =
+        createSpanData(
+            "name",
+            null,
+            PARENT_SPAN_ID,
+            ImmutableMap.of(
+                "large", AttributeValue.stringAttributeValue(Strings.repeat("x", 100 * 1024))),
+            Status.OK);
+    SpanData small = createSpanData("name", Kind.SERVER, PARENT_SPAN_ID, attributes, Status.OK);
+    assertSameAsZipkinEncoder(encoder, small);
+    assertSameAsZipkinEncoder(encoder, large);
+    assertSameAsZipkinEncoder(encoder, small);
+  }
+
+  private static void assertSameAsZipkinEncoder(
+      ZipkinJsonV2SpanEncoder encoder, SpanData spanData) {
+    assertSameAsZipkinEncoder(encoder, localEndpoint, spanData);
+  }
+
+  private static void assertSameAsZipkinEncoder(
+      ZipkinJsonV2SpanEncoder encoder, Endpoint endpoint, SpanData spanData) {
+    byte[] expected =
+        SpanBytesEncoder.JSON_V2.encode(ZipkinExporterHandler.generateSpan(spanData, endpoint));
+    assertThat(new String(encoder.encode(spanData), UTF_8)).isEqualTo(new String(expected, UTF_8));
+    assertThat(encoder.encode(spanData)).isEqualTo(expected);
+  }
+
+  private static SpanData createSpanData(
+      String name,
+      @Nullable Kind kind,
+      @Nullable String parentSpanId,
+      Map<String, AttributeValue> attributes,
+      @Nullable Status status) {
+    return SpanData.create(
+        SpanContext.create(
+            TraceId.fromLowerBase16(TRACE_ID),
+            SpanId.fromLowerBase16(SPAN_ID),
+            TraceOptions.fromBytes(new byte[] {1} /* sampled */)),
+        parentSpanId == null ? null : SpanId.fromLowerBase16(parentSpanId),
+        true, /* hasRemoteParent */
+        name,
+        kind,
+        Timestamp.create(1505855794, 194009601) /* startTimestamp */,
+        Attributes.create(attributes, 0 /* droppedAttributesCount */),
+        TimedEvents.create(annotations, 0 /* droppedEventsCount */),
+        TimedEvents.create(messageEvents, 0 /* droppedEventsCount */),
+        Links.create(Collections.<Link>emptyList(), 0 /* droppedLinksCount */),
+        null, /* childSpanCount */
+        status,
+        Timestamp.create(1505855799, 465726528) /* endTimestamp */);
+  }
+}
@@ -32,10 +32,12 @@ import io.opencensus.stats.StatsCollectionState;
 import io.opencensus.stats.View;
 import io.opencensus.stats.ViewData;
 import io.opencensus.tags.TagContext;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -68,6 +70,12 @@ final class MeasureToViewMap {
   // unregistered.
   @javax.annotation.Nullable private volatile Set<View> exportedViews;
 
+  // The generation that rows recorded from now on are marked with. It is advanced every time a
+  // generation is handed out by getGeneration(), so that rows recorded afterwards are strictly
+  // newer than the returned generation.
+  @GuardedBy("this")
+  private long currentGeneration = 1;
+
   /** Returns a {@link ViewData} corresponding to the given {@link View.Name}. */
   @javax.annotation.Nullable
   synchronized ViewData getView(View.Name viewName, Clock clock, StatsCollectionState state) {
@@ -75,6 +83,34 @@ final class MeasureToViewMap {
     return view == null ? null : view.toViewData(clock.now(), state);
   }
 
+  /**
+   * Returns a {@link ViewData} corresponding to the given {@link View.Name}, with only the rows
+   * updated after the given generation.
+   */
+  @javax.annotation.Nullable
+  synchronized ViewData getViewUpdatedSince(
+      View.Name viewName, long generation, Clock clock, StatsCollectionState state) {
+    MutableViewData view = getMutableViewData(viewName);
+    return view == null ? null : view.toViewData(clock.now(), state, generation);
+  }
+
+  /** Returns the {@link ViewData}s of all the exported views, taken at the same time. */
+  synchronized List<ViewData> getExportedViewData(Clock clock, StatsCollectionState state) {
+    Timestamp now = clock.now();
+    List<ViewData> viewDataList = new ArrayList<ViewData>();
+    for (MutableViewData view : mutableMap.values()) {
+      if (view.getView().getWindow() instanceof View.AggregationWindow.Cumulative) {
+        viewDataList.add(view.toViewData(now, state));
+      }
+    }
+    return Collections.unmodifiableList(viewDataList);
+  }
+
+  // Returns the current generation, and starts a new one for the rows recorded from now on.
+  synchronized long getGeneration() {
+    return currentGeneration++;
+  }
+
   Set<View> getExportedViews() {
     Set<View> views = exportedViews;
     if (views == null) {
@@ -157,8 +193,8 @@ final class MeasureToViewMap {
       Collection<MutableViewData> views = mutableMap.get(measure.getName());
       for (MutableViewData view : views) {
         measurement.match(
-            new RecordDoubleValueFunc(tags, view, timestamp, attachments),
-            new RecordLongValueFunc(tags, view, timestamp, attachments),
+            new RecordDoubleValueFunc(tags, view, timestamp, attachments, currentGeneration),
+            new RecordLongValueFunc(tags, view, timestamp, attachments, currentGeneration),
             Functions.</*@Nullable*/ Void>throwAssertionError());
       }
     }
@@ -185,7 +221,7 @@ final class MeasureToViewMap {
   private static final class RecordDoubleValueFunc implements Function<MeasurementDouble, Void> {
     @Override
     public Void apply(MeasurementDouble arg) {
-      view.record(tags, arg.getValue(), timestamp, attachments);
+      view.record(tags, arg.getValue(), timestamp, attachments, generation);
       return null;
     }
 
@@ -193,23 +229,26 @@ final class MeasureToViewMap {
     private final MutableViewData view;
     private final Timestamp timestamp;
     private final Map<String, String> attachments;
+    private final long generation;
 
     private RecordDoubleValueFunc(
         TagContext tags,
         MutableViewData view,
         Timestamp timestamp,
-        Map<String, String> attachments) {
+        Map<String, String> attachments,
+        long generation) {
       this.tags = tags;
       this.view = view;
       this.timestamp = timestamp;
       this.attachments = attachments;
+      this.generation = generation;
     }
   }
 
   private static final class RecordLongValueFunc implements Function<MeasurementLong, Void> {
     @Override
     public Void apply(MeasurementLong arg) {
-      view.record(tags, arg.getValue(), timestamp, attachments);
+      view.record(tags, arg.getValue(), timestamp, attachments, generation);
       return null;
     }
 
@@ -217,16 +256,19 @@ final class MeasureToViewMap {
     private final MutableViewData view;
     private final Timestamp timestamp;
     private final Map<String, String> attachments;
+    private final long generation;
 
     private RecordLongValueFunc(
         TagContext tags,
         MutableViewData view,
         Timestamp timestamp,
-        Map<String, String> attachments) {
+        Map<String, String> attachments,
+        long generation) {
       this.tags = tags;
       this.view = view;
       this.timestamp = timestamp;
       this.attachments = attachments;
+      this.generation = generation;
     }
   }
 }
@@ -101,19 +101,40 @@ abstract class MutableViewData {
     return view;
   }
 
-  /** Record double stats with the given tags. */
+  /**
+   * Record double stats with the given tags. The updated row is marked as updated in the given
+   * generation.
+   */
   abstract void record(
-      TagContext context, double value, Timestamp timestamp, Map<String, String> attachments);
+      TagContext context,
+      double value,
+      Timestamp timestamp,
+      Map<String, String> attachments,
+      long generation);
 
-  /** Record long stats with the given tags. */
-  void record(TagContext tags, long value, Timestamp timestamp, Map<String, String> attachments) {
+  /**
+   * Record long stats with the given tags. The updated row is marked as updated in the given
+   * generation.
+   */
+  void record(
+      TagContext tags,
+      long value,
+      Timestamp timestamp,
+      Map<String, String> attachments,
+      long generation) {
     // TODO(songya): shall we check for precision loss here?
-    record(tags, (double) value, timestamp, attachments);
+    record(tags, (double) value, timestamp, attachments, generation);
   }
 
   /** Convert this {@link MutableViewData} to {@link ViewData}. */
   abstract ViewData toViewData(Timestamp now, StatsCollectionState state);
 
+  /**
+   * Convert this {@link MutableViewData} to {@link ViewData}, keeping only the rows updated in a
+   * generation after the given one.
+   */
+  abstract ViewData toViewData(Timestamp now, StatsCollectionState state, long sinceGeneration);
+
   // Clear recorded stats.
   abstract void clearStats();
 
@@ -121,17 +142,30 @@ abstract class MutableViewData {
   // bucket list (for InternalMutableViewData).
   abstract void resumeStatsCollection(Timestamp now);
 
+  // Returns the values of the given columns in the TagContext. The common case of a TagContextImpl
+  // is handled with lookups in its sorted arrays, without creating an intermediate Map.
+  private static List</*@Nullable*/ TagValue> getTagValuesOfContext(
+      TagContext ctx, List<? extends TagKey> columns) {
+    if (!(ctx instanceof TagContextImpl)) {
+      return getTagValues(getTagMap(ctx), columns);
+    }
+    TagContextImpl tags = (TagContextImpl) ctx;
+    List</*@Nullable*/ TagValue> tagValues = new ArrayList</*@Nullable*/ TagValue>(columns.size());
+    for (int i = 0; i < columns.size(); ++i) {
+      TagValue tagValue = tags.getValue(columns.get(i));
+      // replace not found key values by null.
+      tagValues.add(tagValue == null ? UNKNOWN_TAG_VALUE : tagValue);
+    }
+    return tagValues;
+  }
+
   private static Map<TagKey, TagValue> getTagMap(TagContext ctx) {
-    if (ctx instanceof TagContextImpl) {
-      return ((TagContextImpl) ctx).getTags();
-    } else {
-      Map<TagKey, TagValue> tags = Maps.newHashMap();
-      for (Iterator<Tag> i = InternalUtils.getTags(ctx); i.hasNext(); ) {
-        Tag tag = i.next();
-        tags.put(tag.getKey(), tag.getValue());
-      }
-      return tags;
+    Map<TagKey, TagValue> tags = Maps.newHashMap();
+    for (Iterator<Tag> i = InternalUtils.getTags(ctx); i.hasNext(); ) {
+      Tag tag = i.next();
+      tags.put(tag.getKey(), tag.getValue());
     }
+    return tags;
   }
 
   @VisibleForTesting
@@ -199,8 +233,7 @@ abstract class MutableViewData {
   private static final class CumulativeMutableViewData extends MutableViewData {
 
     private Timestamp start;
-    private final Map<List</*@Nullable*/ TagValue>, MutableAggregation> tagValueAggregationMap =
-        Maps.newHashMap();
+    private final Map<List</*@Nullable*/ TagValue>, CumulativeRow> rows = Maps.newHashMap();
 
     private CumulativeMutableViewData(View view, Timestamp start) {
       super(view);
@@ -209,23 +242,40 @@ abstract class MutableViewData {
 
     @Override
     void record(
-        TagContext context, double value, Timestamp timestamp, Map<String, String> attachments) {
+        TagContext context,
+        double value,
+        Timestamp timestamp,
+        Map<String, String> attachments,
+        long generation) {
       List</*@Nullable*/ TagValue> tagValues =
-          getTagValues(getTagMap(context), super.view.getColumns());
-      if (!tagValueAggregationMap.containsKey(tagValues)) {
-        tagValueAggregationMap.put(
-            tagValues, createMutableAggregation(super.view.getAggregation()));
+          getTagValuesOfContext(context, super.view.getColumns());
+      CumulativeRow row = rows.get(tagValues);
+      if (row == null) {
+        row = new CumulativeRow(createMutableAggregation(super.view.getAggregation()));
+        rows.put(tagValues, row);
       }
-      tagValueAggregationMap.get(tagValues).add(value, attachments, timestamp);
+      row.aggregation.add(value, attachments, timestamp);
+      row.generation = generation;
     }
 
     @Override
     ViewData toViewData(Timestamp now, StatsCollectionState state) {
+      return toViewData(now, state, Long.MIN_VALUE);
+    }
+
+    @Override
+    ViewData toViewData(Timestamp now, StatsCollectionState state, long sinceGeneration) {
       if (state == StatsCollectionState.ENABLED) {
+        Map<List</*@Nullable*/ TagValue>, AggregationData> map = Maps.newHashMap();
+        for (Entry<List</*@Nullable*/ TagValue>, CumulativeRow> entry : rows.entrySet()) {
+          CumulativeRow row = entry.getValue();
+          if (row.generation > sinceGeneration) {
+            map.put(
+                entry.getKey(), createAggregationData(row.aggregation, super.view.getMeasure()));
+          }
+        }
         return ViewData.create(
-            super.view,
-            createAggregationMap(tagValueAggregationMap, super.view.getMeasure()),
-            ViewData.AggregationWindowData.CumulativeData.create(start, now));
+            super.view, map, ViewData.AggregationWindowData.CumulativeData.create(start, now));
       } else {
         // If Stats state is DISABLED, return an empty ViewData.
         return ViewData.create(
@@ -237,13 +287,23 @@ abstract class MutableViewData {
 
     @Override
     void clearStats() {
-      tagValueAggregationMap.clear();
+      rows.clear();
     }
 
     @Override
     void resumeStatsCollection(Timestamp now) {
       start = now;
     }
+
+    // The aggregation of a row, and the generation in which it was last updated.
+    private static final class CumulativeRow {
+      private final MutableAggregation aggregation;
+      private long generation;
+
+      private CumulativeRow(MutableAggregation aggregation) {
+        this.aggregation = aggregation;
+      }
+    }
   }
 
   /*
@@ -304,9 +364,13 @@ abstract class MutableViewData {
 
     @Override
     void record(
-        TagContext context, double value, Timestamp timestamp, Map<String, String> attachments) {
+        TagContext context,
+        double value,
+        Timestamp timestamp,
+        Map<String, String> attachments,
+        long generation) {
       List</*@Nullable*/ TagValue> tagValues =
-          getTagValues(getTagMap(context), super.view.getColumns());
+          getTagValuesOfContext(context, super.view.getColumns());
       refreshBucketList(timestamp);
       // It is always the last bucket that does the recording.
       CheckerFrameworkUtils.castNonNull(buckets.peekLast())
@@ -330,6 +394,13 @@ abstract class MutableViewData {
       }
     }
 
+    @Override
+    ViewData toViewData(Timestamp now, StatsCollectionState state, long sinceGeneration) {
+      // The rows of an interval view change as the interval slides, even without any recording,
+      // so all of them are considered updated.
+      return toViewData(now, state);
+    }
+
     @Override
     void clearStats() {
       for (IntervalBucket bucket : buckets) {
@@ -30,6 +30,7 @@ public class StatsComponentImplBase extends StatsComponent {
 
   private final ViewManagerImpl viewManager;
   private final StatsRecorderImpl statsRecorder;
+  private final ViewDataExporterImpl viewDataExporter;
 
   /**
    * Creates a new {@code StatsComponentImplBase}.
@@ -41,6 +42,7 @@ public class StatsComponentImplBase extends StatsComponent {
     StatsManager statsManager = new StatsManager(queue, clock, state);
     this.viewManager = new ViewManagerImpl(statsManager);
     this.statsRecorder = new StatsRecorderImpl(statsManager);
+    this.viewDataExporter = new ViewDataExporterImpl(statsManager, clock);
   }
 
   @Override
@@ -53,6 +55,11 @@ public class StatsComponentImplBase extends StatsComponent {
     return statsRecorder;
   }
 
+  @Override
+  public ViewDataExporterImpl getViewDataExporter() {
+    return viewDataExporter;
+  }
+
   @Override
   public StatsCollectionState getState() {
     return state.get();
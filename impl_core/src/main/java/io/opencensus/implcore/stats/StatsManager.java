@@ -24,6 +24,7 @@ import io.opencensus.stats.StatsCollectionState;
 import io.opencensus.stats.View;
 import io.opencensus.stats.ViewData;
 import io.opencensus.tags.TagContext;
+import java.util.List;
 import java.util.Set;
 import javax.annotation.Nullable;
 
@@ -56,6 +57,19 @@ final class StatsManager {
     return measureToViewMap.getView(viewName, clock, state.getInternal());
   }
 
+  @Nullable
+  ViewData getViewUpdatedSince(View.Name viewName, long generation) {
+    return measureToViewMap.getViewUpdatedSince(viewName, generation, clock, state.getInternal());
+  }
+
+  List<ViewData> getExportedViewData() {
+    return measureToViewMap.getExportedViewData(clock, state.getInternal());
+  }
+
+  long getGeneration() {
+    return measureToViewMap.getGeneration();
+  }
+
   Set<View> getExportedViews() {
     return measureToViewMap.getExportedViews();
   }
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.implcore.stats;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.opencensus.common.Clock;
+import io.opencensus.common.Duration;
+import io.opencensus.common.Timestamp;
+import io.opencensus.implcore.internal.DaemonThreadFactory;
+import io.opencensus.stats.ViewData;
+import io.opencensus.stats.ViewDataExporter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Implementation of {@link ViewDataExporter}.
+ *
+ * <p>A single worker thread, started when the first handler is registered, sleeps until the next
+ * handler is due, takes one snapshot of all the exported views and passes it to every handler that
+ * is due at that time.
+ *
+ * <p>Export times are computed with {@link Clock#nowNanos()}, so changes of the wall clock do not
+ * delay or repeat exports. The wall clock is read once, when this is created, to align exports to
+ * multiples of the interval since the epoch.
+ */
+public final class ViewDataExporterImpl extends ViewDataExporter {
+  private static final Logger logger = Logger.getLogger(ViewDataExporterImpl.class.getName());
+  private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final StatsManager statsManager;
+  private final Clock clock;
+  private final boolean startWorkerThread;
+  // The difference between the nanoseconds since the epoch and clock.nowNanos(), when this was
+  // created.
+  private final long epochOffsetNanos;
+  private final Object monitor = new Object();
+
+  @GuardedBy("monitor")
+  private final Map<String, Registration> registrations = new HashMap<String, Registration>();
+
+  // Set when the registered handlers change, so that the worker thread recomputes its wait time.
+  @GuardedBy("monitor")
+  private boolean registrationsChanged;
+
+  @GuardedBy("monitor")
+  @javax.annotation.Nullable
+  private Thread workerThread;
+
+  ViewDataExporterImpl(StatsManager statsManager, Clock clock) {
+    this(statsManager, clock, true);
+  }
+
+  @VisibleForTesting
+  ViewDataExporterImpl(StatsManager statsManager, Clock clock, boolean startWorkerThread) {
+    this.statsManager = checkNotNull(statsManager, "statsManager");
+    this.clock = checkNotNull(clock, "clock");
+    this.startWorkerThread = startWorkerThread;
+    this.epochOffsetNanos = toNanos(clock.now()) - clock.nowNanos();
+  }
+
+  @Override
+  public void registerHandler(
+      String name, Handler handler, Duration exportInterval, boolean aligned) {
+    checkNotNull(name, "name");
+    checkNotNull(handler, "handler");
+    checkNotNull(exportInterval, "exportInterval");
+    long intervalNanos = toNanos(exportInterval);
+    checkArgument(intervalNanos > 0, "exportInterval must be positive.");
+    long nowNanos = clock.nowNanos();
+    synchronized (monitor) {
+      registrations.put(
+          name, new Registration(handler, intervalNanos, aligned, epochOffsetNanos, nowNanos));
+      registrationsChanged = true;
+      if (workerThread == null && startWorkerThread) {
+        workerThread =
+            new DaemonThreadFactory("ViewDataExporter.WorkerThread").newThread(new Worker());
+        workerThread.start();
+      }
+      // Wakes up the worker thread, since the new handler may be due before the others.
+      monitor.notifyAll();
+    }
+  }
+
+  @Override
+  public void unregisterHandler(String name) {
+    checkNotNull(name, "name");
+    synchronized (monitor) {
+      registrations.remove(name);
+    }
+  }
+
+  /**
+   * Exports a snapshot of the exported views to all the handlers that are due.
+   *
+   * @return the number of nanoseconds until the next handler is due, or {@code -1} if there is no
+   *     registered handler.
+   */
+  @VisibleForTesting
+  long exportDueHandlers() {
+    long nowNanos = clock.nowNanos();
+    List<Registration> due = new ArrayList<Registration>();
+    synchronized (monitor) {
+      registrationsChanged = false;
+      for (Registration registration : registrations.values()) {
+        if (registration.nextExportNanos <= nowNanos) {
+          due.add(registration);
+          registration.advance(nowNanos);
+        }
+      }
+    }
+    if (!due.isEmpty()) {
+      // One snapshot for all the handlers that are due, taken with a single pass over the views.
+      List<ViewData> viewDataList = statsManager.getExportedViewData();
+      for (Registration registration : due) {
+        // In case of any exception thrown by the service handlers continue to run.
+        try {
+          registration.handler.export(viewDataList);
+        } catch (Throwable e) {
+          logger.log(Level.WARNING, "Exception thrown by the stats exporter.", e);
+        }
+      }
+    }
+    synchronized (monitor) {
+      long nextExportNanos = Long.MAX_VALUE;
+      for (Registration registration : registrations.values()) {
+        nextExportNanos = Math.min(nextExportNanos, registration.nextExportNanos);
+      }
+      return nextExportNanos == Long.MAX_VALUE ? -1 : Math.max(0, nextExportNanos - nowNanos);
+    }
+  }
+
+  private static long toNanos(Duration duration) {
+    return duration.getSeconds() * NANOS_PER_SECOND + duration.getNanos();
+  }
+
+  private static long toNanos(Timestamp timestamp) {
+    return timestamp.getSeconds() * NANOS_PER_SECOND + timestamp.getNanos();
+  }
+
+  // A registered handler, and the time at which it is due next, as a value of clock.nowNanos().
+  private static final class Registration {
+    private final Handler handler;
+    private final long intervalNanos;
+    private final boolean aligned;
+    private final long epochOffsetNanos;
+    private long nextExportNanos;
+
+    private Registration(
+        Handler handler,
+        long intervalNanos,
+        boolean aligned,
+        long epochOffsetNanos,
+        long nowNanos) {
+      this.handler = handler;
+      this.intervalNanos = intervalNanos;
+      this.aligned = aligned;
+      this.epochOffsetNanos = epochOffsetNanos;
+      this.nextExportNanos = aligned ? nextMultiple(nowNanos) : nowNanos + intervalNanos;
+    }
+
+    // Moves the next export time past the given time. Exports that were missed, e.g. because a
+    // previous export took longer than the interval, are skipped.
+    private void advance(long nowNanos) {
+      if (aligned) {
+        nextExportNanos = nextMultiple(nowNanos);
+      } else {
+        while (nextExportNanos <= nowNanos) {
+          nextExportNanos += intervalNanos;
+        }
+      }
+    }
+
+    // Returns the first time strictly after the given time that is a multiple of the interval since
+    // the epoch.
+    private long nextMultiple(long nanos) {
+      long epochNanos = nanos + epochOffsetNanos;
+      return (epochNanos / intervalNanos + 1) * intervalNanos - epochOffsetNanos;
+    }
+  }
+
+  private final class Worker implements Runnable {
+    @Override
+    public void run() {
+      while (true) {
+        long waitNanos = exportDueHandlers();
+        synchronized (monitor) {
+          if (registrationsChanged) {
+            continue;
+          }
+          try {
+            if (waitNanos < 0) {
+              // No registered handler, waits for a registration.
+              monitor.wait();
+            } else if (waitNanos > 0) {
+              TimeUnit.NANOSECONDS.timedWait(monitor, waitNanos);
+            }
+          } catch (InterruptedException ie) {
+            // Preserve the interruption status as per guidance and stop doing any work.
+            Thread.currentThread().interrupt();
+            return;
+          }
+        }
+      }
+    }
+  }
+}
@@ -41,6 +41,17 @@ public final class ViewManagerImpl extends ViewManager {
     return statsManager.getView(viewName);
   }
 
+  @Override
+  @Nullable
+  public ViewData getViewUpdatedSince(View.Name viewName, long generation) {
+    return statsManager.getViewUpdatedSince(viewName, generation);
+  }
+
+  @Override
+  public long getGeneration() {
+    return statsManager.getGeneration();
+  }
+
   @Override
   public Set<View> getAllExportedViews() {
     return statsManager.getExportedViews();
@@ -22,39 +22,101 @@ import io.opencensus.common.Scope;
 import io.opencensus.tags.TagContextBuilder;
 import io.opencensus.tags.TagKey;
 import io.opencensus.tags.TagValue;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import javax.annotation.Nullable;
 
+// Builds a TagContextImpl by modifying a copy of the sorted key and value arrays. The arrays of the
+// parent TagContextImpl are shared until the first modification, so building a context without
+// changes returns the parent, and "parent + one tag" copies the arrays only once.
 final class TagContextBuilderImpl extends TagContextBuilder {
-  private final Map<TagKey, TagValue> tags;
+  // The parent whose arrays are shared, or null if the arrays are owned by this builder.
+  @Nullable private TagContextImpl parent;
+  private TagKey[] keys;
+  private TagValue[] values;
+  private int size;
 
-  TagContextBuilderImpl(Map<TagKey, TagValue> tags) {
-    this.tags = new HashMap<TagKey, TagValue>(tags);
+  TagContextBuilderImpl(TagContextImpl parent) {
+    this.parent = parent;
+    this.keys = parent.getKeysArray();
+    this.values = parent.getValuesArray();
+    this.size = parent.size();
   }
 
   TagContextBuilderImpl() {
-    this.tags = new HashMap<TagKey, TagValue>();
+    this(TagContextImpl.EMPTY);
   }
 
   @Override
   public TagContextBuilderImpl put(TagKey key, TagValue value) {
-    tags.put(checkNotNull(key, "key"), checkNotNull(value, "value"));
+    checkNotNull(key, "key");
+    checkNotNull(value, "value");
+    int index = TagContextImpl.indexOf(keys, size, key);
+    if (index >= 0) {
+      if (!values[index].equals(value)) {
+        ensureOwnedArrays(size);
+        values[index] = value;
+      }
+      return this;
+    }
+    int insertionPoint = -index - 1;
+    ensureOwnedArrays(size + 1);
+    System.arraycopy(keys, insertionPoint, keys, insertionPoint + 1, size - insertionPoint);
+    System.arraycopy(values, insertionPoint, values, insertionPoint + 1, size - insertionPoint);
+    keys[insertionPoint] = key;
+    values[insertionPoint] = value;
+    size++;
     return this;
   }
 
   @Override
   public TagContextBuilderImpl remove(TagKey key) {
-    tags.remove(checkNotNull(key, "key"));
+    int index = TagContextImpl.indexOf(keys, size, checkNotNull(key, "key"));
+    if (index < 0) {
+      return this;
+    }
+    ensureOwnedArrays(size);
+    System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+    System.arraycopy(values, index + 1, values, index, size - index - 1);
+    size--;
+    keys[size] = null;
+    values[size] = null;
     return this;
   }
 
   @Override
   public TagContextImpl build() {
-    return new TagContextImpl(tags);
+    if (parent != null) {
+      return parent;
+    }
+    TagContextImpl tags;
+    if (size == 0) {
+      tags = TagContextImpl.EMPTY;
+    } else {
+      tags =
+          new TagContextImpl(
+              keys.length == size ? keys : Arrays.copyOf(keys, size),
+              values.length == size ? values : Arrays.copyOf(values, size));
+    }
+    // The built TagContextImpl may own the arrays now, so further modifications must copy them.
+    parent = tags;
+    keys = tags.getKeysArray();
+    values = tags.getValuesArray();
+    return tags;
   }
 
   @Override
   public Scope buildScoped() {
     return CurrentTagContextUtils.withTagContext(build());
   }
+
+  // Makes sure that this builder owns arrays with room for at least minCapacity tags.
+  private void ensureOwnedArrays(int minCapacity) {
+    if (parent == null && keys.length >= minCapacity) {
+      return;
+    }
+    int capacity = Math.max(minCapacity, parent == null ? 2 * keys.length : size);
+    keys = Arrays.copyOf(keys, capacity);
+    values = Arrays.copyOf(values, capacity);
+    parent = null;
+  }
 }
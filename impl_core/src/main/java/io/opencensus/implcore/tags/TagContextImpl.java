@@ -20,61 +20,221 @@ import io.opencensus.tags.Tag;
 import io.opencensus.tags.TagContext;
 import io.opencensus.tags.TagKey;
 import io.opencensus.tags.TagValue;
+import io.opencensus.tags.propagation.TagContextSerializationException;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 
+/**
+ * Implementation of {@link TagContext} that stores the tags in two parallel arrays, sorted by the
+ * name of the {@link TagKey}.
+ *
+ * <p>Contexts typically contain only a few tags, so this is more compact than a {@code Map}, and
+ * {@link #getValue(TagKey)} does a binary search without allocating. {@link #size()}, {@link
+ * #getKey(int)} and {@link #getValue(int)} allow iterating over the tags without allocating a
+ * {@link Tag} per element.
+ */
 @Immutable
 public final class TagContextImpl extends TagContext {
 
-  public static final TagContextImpl EMPTY =
-      new TagContextImpl(Collections.<TagKey, TagValue>emptyMap());
+  private static final TagKey[] EMPTY_KEYS = new TagKey[0];
+  private static final TagValue[] EMPTY_VALUES = new TagValue[0];
+
+  public static final TagContextImpl EMPTY = new TagContextImpl(EMPTY_KEYS, EMPTY_VALUES);
+
+  // Orders TagKeys by name, which is also how TagKeys are compared for equality.
+  static final Comparator<TagKey> TAG_KEY_COMPARATOR =
+      new Comparator<TagKey>() {
+        @Override
+        public int compare(TagKey key1, TagKey key2) {
+          return key1.getName().compareTo(key2.getName());
+        }
+      };
+
+  // The keys sorted by TAG_KEY_COMPARATOR, and the value for each key at the same index. The arrays
+  // are never modified after construction.
+  private final TagKey[] keys;
+  private final TagValue[] values;
 
-  // The types of the TagKey and value must match for each entry.
-  private final Map<TagKey, TagValue> tags;
+  // Lazily computed on-the-wire representation. The same TagContext is usually propagated to many
+  // outgoing requests, so it is serialized only once. Races are benign because every thread
+  // computes the same bytes, and the array is never modified after it is published.
+  @Nullable private volatile byte[] serializedForm;
 
+  /**
+   * Creates a {@code TagContextImpl} containing the given tags.
+   *
+   * @param tags the tags of the new {@code TagContextImpl}.
+   */
   public TagContextImpl(Map<? extends TagKey, ? extends TagValue> tags) {
-    this.tags = Collections.unmodifiableMap(new HashMap<TagKey, TagValue>(tags));
+    int size = tags.size();
+    TagKey[] sortedKeys = tags.keySet().toArray(new TagKey[size]);
+    Arrays.sort(sortedKeys, TAG_KEY_COMPARATOR);
+    TagValue[] sortedValues = new TagValue[size];
+    for (int i = 0; i < size; i++) {
+      sortedValues[i] = tags.get(sortedKeys[i]);
+    }
+    this.keys = sortedKeys;
+    this.values = sortedValues;
+  }
+
+  // Takes ownership of the arrays, which must be sorted by key and must not be modified later.
+  TagContextImpl(TagKey[] keys, TagValue[] values) {
+    this.keys = keys;
+    this.values = values;
   }
 
+  /**
+   * Returns a new {@code Map} containing the tags of this {@code TagContextImpl}.
+   *
+   * @return a new {@code Map} containing the tags of this {@code TagContextImpl}.
+   */
   public Map<TagKey, TagValue> getTags() {
-    return tags;
+    Map<TagKey, TagValue> tags = new LinkedHashMap<TagKey, TagValue>(keys.length);
+    for (int i = 0; i < keys.length; i++) {
+      tags.put(keys[i], values[i]);
+    }
+    return Collections.unmodifiableMap(tags);
+  }
+
+  /**
+   * Returns the number of tags in this {@code TagContextImpl}.
+   *
+   * @return the number of tags in this {@code TagContextImpl}.
+   */
+  public int size() {
+    return keys.length;
+  }
+
+  /**
+   * Returns the key of the tag at the given index. The tags are sorted by the name of the key.
+   *
+   * @param index the index of the tag, between {@code 0} and {@code size() - 1}.
+   * @return the key of the tag at the given index.
+   */
+  public TagKey getKey(int index) {
+    return keys[index];
+  }
+
+  /**
+   * Returns the value of the tag at the given index. The tags are sorted by the name of the key.
+   *
+   * @param index the index of the tag, between {@code 0} and {@code size() - 1}.
+   * @return the value of the tag at the given index.
+   */
+  public TagValue getValue(int index) {
+    return values[index];
+  }
+
+  /**
+   * Returns the value for the given key, or {@code null} if this {@code TagContextImpl} does not
+   * contain the key.
+   *
+   * @param key the key to look up.
+   * @return the value for the given key, or {@code null}.
+   */
+  @Nullable
+  public TagValue getValue(TagKey key) {
+    int index = indexOf(keys, keys.length, key);
+    return index >= 0 ? values[index] : null;
+  }
+
+  // Returns the index of the key in the first size elements of the sorted array, or
+  // (-(insertion point) - 1) if the key is not present.
+  static int indexOf(TagKey[] sortedKeys, int size, TagKey key) {
+    return Arrays.binarySearch(sortedKeys, 0, size, key, TAG_KEY_COMPARATOR);
+  }
+
+  /**
+   * Returns the cached on-the-wire representation of this {@code TagContextImpl}, or {@code null}
+   * if it was not serialized yet. The returned array must not be modified.
+   *
+   * @return the cached on-the-wire representation, or {@code null}.
+   */
+  @Nullable
+  public byte[] getSerializedForm() {
+    return serializedForm;
+  }
+
+  /**
+   * Returns the on-the-wire representation of this {@code TagContextImpl}, encoding it with the
+   * given encoder the first time and caching it. The returned array must not be modified.
+   *
+   * @param encoder the encoder of the on-the-wire representation.
+   * @return the on-the-wire representation of this {@code TagContextImpl}.
+   * @throws TagContextSerializationException if the encoder fails.
+   */
+  public byte[] getSerializedForm(SerializedFormEncoder encoder)
+      throws TagContextSerializationException {
+    byte[] form = serializedForm;
+    if (form == null) {
+      form = encoder.encode(this);
+      serializedForm = form;
+    }
+    return form;
+  }
+
+  /** Encodes a {@link TagContextImpl} to its on-the-wire representation. */
+  public interface SerializedFormEncoder {
+
+    /**
+     * Returns the on-the-wire representation of the given tags. The caller takes ownership of the
+     * returned array.
+     *
+     * @param tags the tags to encode.
+     * @return the on-the-wire representation of the given tags.
+     * @throws TagContextSerializationException if the tags cannot be encoded.
+     */
+    byte[] encode(TagContextImpl tags) throws TagContextSerializationException;
+  }
+
+  // Used by TagContextBuilderImpl to share the arrays instead of copying them.
+  TagKey[] getKeysArray() {
+    return keys;
+  }
+
+  TagValue[] getValuesArray() {
+    return values;
   }
 
   @Override
   protected Iterator<Tag> getIterator() {
-    return new TagIterator(tags);
+    return new TagIterator();
   }
 
   @Override
   public boolean equals(@Nullable Object other) {
-    // Directly compare the tags when both objects are TagContextImpls, for efficiency.
+    // Directly compare the tags when both objects are TagContextImpls, for efficiency. The arrays
+    // are sorted by key, so equal contexts have equal arrays.
     if (other instanceof TagContextImpl) {
-      return getTags().equals(((TagContextImpl) other).getTags());
+      TagContextImpl otherTags = (TagContextImpl) other;
+      return Arrays.equals(keys, otherTags.keys) && Arrays.equals(values, otherTags.values);
     }
     return super.equals(other);
   }
 
-  private static final class TagIterator implements Iterator<Tag> {
-    Iterator<Map.Entry<TagKey, TagValue>> iterator;
-
-    TagIterator(Map<TagKey, TagValue> tags) {
-      iterator = tags.entrySet().iterator();
-    }
+  private final class TagIterator implements Iterator<Tag> {
+    private int index = 0;
 
     @Override
     public boolean hasNext() {
-      return iterator.hasNext();
+      return index < keys.length;
     }
 
     @Override
     public Tag next() {
-      final Entry<TagKey, TagValue> next = iterator.next();
-      return Tag.create(next.getKey(), next.getValue());
+      if (index >= keys.length) {
+        throw new NoSuchElementException();
+      }
+      Tag tag = Tag.create(keys[index], values[index]);
+      index++;
+      return tag;
     }
 
     @Override
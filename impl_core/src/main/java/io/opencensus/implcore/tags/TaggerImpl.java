@@ -99,7 +99,7 @@ public final class TaggerImpl extends Tagger {
   private static TagContextBuilderImpl toTagContextBuilderImpl(TagContext tags) {
     // Copy the tags more efficiently in the expected case, when the TagContext is a TagContextImpl.
     if (tags instanceof TagContextImpl) {
-      return new TagContextBuilderImpl(((TagContextImpl) tags).getTags());
+      return new TagContextBuilderImpl((TagContextImpl) tags);
     } else {
       TagContextBuilderImpl builder = new TagContextBuilderImpl();
       for (Iterator<Tag> i = InternalUtils.getTags(tags); i.hasNext(); ) {
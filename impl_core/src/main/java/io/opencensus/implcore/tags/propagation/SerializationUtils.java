@@ -18,8 +18,6 @@ package io.opencensus.implcore.tags.propagation;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Charsets;
-import com.google.common.io.ByteArrayDataOutput;
-import com.google.common.io.ByteStreams;
 import io.opencensus.implcore.internal.VarInt;
 import io.opencensus.implcore.tags.TagContextImpl;
 import io.opencensus.tags.InternalUtils;
@@ -29,11 +27,13 @@ import io.opencensus.tags.TagKey;
 import io.opencensus.tags.TagValue;
 import io.opencensus.tags.propagation.TagContextDeserializationException;
 import io.opencensus.tags.propagation.TagContextSerializationException;
+import java.nio.BufferOverflowException;
 import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import javax.annotation.Nullable;
 
 /**
  * Methods for serializing and deserializing {@link TagContext}s.
@@ -71,43 +71,109 @@ final class SerializationUtils {
   // This size limit only applies to the bytes representing tag keys and values.
   @VisibleForTesting static final int TAGCONTEXT_SERIALIZED_SIZE_LIMIT = 8192;
 
-  // Serializes a TagContext to the on-the-wire format.
-  // Encoded tags are of the form: <version_id><encoded_tags>
-  static byte[] serializeBinary(TagContext tags) throws TagContextSerializationException {
-    // Use a ByteArrayDataOutput to avoid needing to handle IOExceptions.
-    final ByteArrayDataOutput byteArrayDataOutput = ByteStreams.newDataOutput();
-    byteArrayDataOutput.write(VERSION_ID);
+  private static final TagContextImpl.SerializedFormEncoder ENCODER =
+      new TagContextImpl.SerializedFormEncoder() {
+        @Override
+        public byte[] encode(TagContextImpl tags) throws TagContextSerializationException {
+          return SerializationUtils.encode(tags);
+        }
+      };
+
+  // Returns the size of the on-the-wire format of the TagContext.
+  static int serializedSize(TagContext tags) throws TagContextSerializationException {
+    int size = 1; // The version_id.
     int totalChars = 0; // Here chars are equivalent to bytes, since we're using ascii chars.
     for (Iterator<Tag> i = InternalUtils.getTags(tags); i.hasNext(); ) {
       Tag tag = i.next();
-      totalChars += tag.getKey().getName().length();
-      totalChars += tag.getValue().asString().length();
-      encodeTag(tag, byteArrayDataOutput);
+      int keyLength = tag.getKey().getName().length();
+      int valueLength = tag.getValue().asString().length();
+      totalChars += keyLength + valueLength;
+      // <tag_field_id><tag_key_len><tag_key><tag_val_len><tag_val>
+      size += 1 + encodedStringSize(keyLength) + encodedStringSize(valueLength);
     }
     if (totalChars > TAGCONTEXT_SERIALIZED_SIZE_LIMIT) {
       throw new TagContextSerializationException(
           "Size of TagContext exceeds the maximum serialized size "
               + TAGCONTEXT_SERIALIZED_SIZE_LIMIT);
     }
-    return byteArrayDataOutput.toByteArray();
+    return size;
+  }
+
+  // Returns the size of the on-the-wire format of the TagContext, using the cached on-the-wire
+  // format if available.
+  static int getSerializedSize(TagContext tags) throws TagContextSerializationException {
+    byte[] serializedForm = getCachedSerializedForm(tags);
+    return serializedForm != null ? serializedForm.length : serializedSize(tags);
+  }
+
+  // Serializes a TagContext to the on-the-wire format.
+  // Encoded tags are of the form: <version_id><encoded_tags>
+  static byte[] serializeBinary(TagContext tags) throws TagContextSerializationException {
+    byte[] serializedForm = getOrCreateSerializedForm(tags);
+    // Return a copy, because the caller owns the returned array.
+    return tags instanceof TagContextImpl ? serializedForm.clone() : serializedForm;
+  }
+
+  // Serializes a TagContext to the on-the-wire format, starting at the current position of the
+  // buffer. Nothing is written if the buffer does not have enough space remaining.
+  static void serializeBinary(TagContext tags, ByteBuffer buffer)
+      throws TagContextSerializationException {
+    if (tags instanceof TagContextImpl) {
+      buffer.put(getOrCreateSerializedForm(tags));
+      return;
+    }
+    if (buffer.remaining() < serializedSize(tags)) {
+      throw new BufferOverflowException();
+    }
+    encodeTags(tags, buffer);
+  }
+
+  @Nullable
+  private static byte[] getCachedSerializedForm(TagContext tags) {
+    return tags instanceof TagContextImpl ? ((TagContextImpl) tags).getSerializedForm() : null;
+  }
+
+  // Returns the on-the-wire format of the TagContext. For a TagContextImpl the result is cached,
+  // so it must not be modified.
+  private static byte[] getOrCreateSerializedForm(TagContext tags)
+      throws TagContextSerializationException {
+    return tags instanceof TagContextImpl
+        ? ((TagContextImpl) tags).getSerializedForm(ENCODER)
+        : encode(tags);
+  }
+
+  // Returns a new array with the on-the-wire format of the TagContext.
+  private static byte[] encode(TagContext tags) throws TagContextSerializationException {
+    byte[] serializedForm = new byte[serializedSize(tags)];
+    encodeTags(tags, ByteBuffer.wrap(serializedForm));
+    return serializedForm;
   }
 
   // Deserializes input to TagContext based on the binary format standard.
   // The encoded tags are of the form: <version_id><encoded_tags>
   static TagContextImpl deserializeBinary(byte[] bytes) throws TagContextDeserializationException {
+    return deserializeBinary(ByteBuffer.wrap(bytes));
+  }
+
+  // Deserializes the bytes between the position and the limit of the buffer to TagContext based on
+  // the binary format standard. The position of the buffer is advanced to its limit.
+  // The encoded tags are of the form: <version_id><encoded_tags>
+  static TagContextImpl deserializeBinary(ByteBuffer buffer)
+      throws TagContextDeserializationException {
     try {
-      if (bytes.length == 0) {
+      if (!buffer.hasRemaining()) {
         // Does not allow empty byte array.
         throw new TagContextDeserializationException("Input byte[] can not be empty.");
       }
 
-      ByteBuffer buffer = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
       int versionId = buffer.get();
       if (versionId > VERSION_ID || versionId < 0) {
         throw new TagContextDeserializationException(
             "Wrong Version ID: " + versionId + ". Currently supports version up to: " + VERSION_ID);
       }
-      return new TagContextImpl(parseTags(buffer));
+      TagContextImpl tags = new TagContextImpl(parseTags(buffer));
+      buffer.position(buffer.limit());
+      return tags;
     } catch (BufferUnderflowException exn) {
       throw new TagContextDeserializationException(exn.toString()); // byte array format error.
     }
@@ -162,29 +228,47 @@ final class SerializationUtils {
     }
   }
 
-  private static final void encodeTag(Tag tag, ByteArrayDataOutput byteArrayDataOutput) {
-    byteArrayDataOutput.write(TAG_FIELD_ID);
-    encodeString(tag.getKey().getName(), byteArrayDataOutput);
-    encodeString(tag.getValue().asString(), byteArrayDataOutput);
+  private static final void encodeTags(TagContext tags, ByteBuffer buffer) {
+    buffer.put((byte) VERSION_ID);
+    for (Iterator<Tag> i = InternalUtils.getTags(tags); i.hasNext(); ) {
+      Tag tag = i.next();
+      buffer.put((byte) TAG_FIELD_ID);
+      encodeString(tag.getKey().getName(), buffer);
+      encodeString(tag.getValue().asString(), buffer);
+    }
   }
 
-  private static final void encodeString(String input, ByteArrayDataOutput byteArrayDataOutput) {
-    putVarInt(input.length(), byteArrayDataOutput);
-    byteArrayDataOutput.write(input.getBytes(Charsets.UTF_8));
+  private static final int encodedStringSize(int length) {
+    return VarInt.varIntSize(length) + length;
   }
 
-  private static final void putVarInt(int input, ByteArrayDataOutput byteArrayDataOutput) {
-    byte[] output = new byte[VarInt.varIntSize(input)];
-    VarInt.putVarInt(input, output, 0);
-    byteArrayDataOutput.write(output);
+  // Tag keys and values can only contain printable ASCII characters, so every char is encoded as
+  // exactly one byte and there is no need to allocate an encoded copy of the String.
+  private static final void encodeString(String input, ByteBuffer buffer) {
+    VarInt.putVarInt(input.length(), buffer);
+    for (int i = 0; i < input.length(); i++) {
+      buffer.put((byte) input.charAt(i));
+    }
   }
 
   private static final String decodeString(ByteBuffer buffer) {
     int length = VarInt.getVarInt(buffer);
-    StringBuilder builder = new StringBuilder();
+    if (length < 0 || length > buffer.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    int position = buffer.position();
+    if (buffer.hasArray()) {
+      // Each byte is decoded to the char with the same value, as the original byte by byte
+      // decoding did. Any char outside of the printable ASCII range is rejected later.
+      String value =
+          new String(buffer.array(), buffer.arrayOffset() + position, length, Charsets.ISO_8859_1);
+      buffer.position(position + length);
+      return value;
+    }
+    char[] chars = new char[length];
     for (int i = 0; i < length; i++) {
-      builder.append((char) buffer.get());
+      chars[i] = (char) (buffer.get() & 0xFF);
     }
-    return builder.toString();
+    return new String(chars);
   }
 }
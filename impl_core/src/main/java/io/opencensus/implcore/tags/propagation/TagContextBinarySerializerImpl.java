@@ -23,6 +23,7 @@ import io.opencensus.tags.TaggingState;
 import io.opencensus.tags.propagation.TagContextBinarySerializer;
 import io.opencensus.tags.propagation.TagContextDeserializationException;
 import io.opencensus.tags.propagation.TagContextSerializationException;
+import java.nio.ByteBuffer;
 
 final class TagContextBinarySerializerImpl extends TagContextBinarySerializer {
   private static final byte[] EMPTY_BYTE_ARRAY = {};
@@ -46,4 +47,28 @@ final class TagContextBinarySerializerImpl extends TagContextBinarySerializer {
         ? TagContextImpl.EMPTY
         : SerializationUtils.deserializeBinary(bytes);
   }
+
+  @Override
+  public int getSerializedSize(TagContext tags) throws TagContextSerializationException {
+    return state.getInternal() == TaggingState.DISABLED
+        ? 0
+        : SerializationUtils.getSerializedSize(tags);
+  }
+
+  @Override
+  public void toByteBuffer(TagContext tags, ByteBuffer buffer)
+      throws TagContextSerializationException {
+    if (state.getInternal() != TaggingState.DISABLED) {
+      SerializationUtils.serializeBinary(tags, buffer);
+    }
+  }
+
+  @Override
+  public TagContext fromByteBuffer(ByteBuffer buffer) throws TagContextDeserializationException {
+    if (state.getInternal() == TaggingState.DISABLED) {
+      buffer.position(buffer.limit());
+      return TagContextImpl.EMPTY;
+    }
+    return SerializationUtils.deserializeBinary(buffer);
+  }
 }
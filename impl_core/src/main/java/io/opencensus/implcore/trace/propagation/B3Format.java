@@ -28,6 +28,7 @@ import io.opencensus.trace.propagation.TextFormat;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import javax.annotation.Nullable;
 
 /*>>>
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -55,6 +56,8 @@ final class B3Format extends TextFormat {
   private static final String SAMPLED_VALUE = "1";
   // "Debug" sampled value.
   private static final String FLAGS_VALUE = "1";
+  private static final TraceOptions SAMPLED_OPTIONS =
+      TraceOptions.builder().setIsSampled(true).build();
 
   @Override
   public List<String> fields() {
@@ -79,33 +82,51 @@ final class B3Format extends TextFormat {
       throws SpanContextParseException {
     checkNotNull(carrier, "carrier");
     checkNotNull(getter, "getter");
+    String traceIdStr = getter.get(carrier, X_B3_TRACE_ID);
+    if (traceIdStr == null) {
+      throw new SpanContextParseException("Missing X_B3_TRACE_ID.");
+    }
+    String spanIdStr = getter.get(carrier, X_B3_SPAN_ID);
+    if (spanIdStr == null) {
+      throw new SpanContextParseException("Missing X_B3_SPAN_ID.");
+    }
     try {
-      TraceId traceId;
-      String traceIdStr = getter.get(carrier, X_B3_TRACE_ID);
-      if (traceIdStr != null) {
-        if (traceIdStr.length() == TraceId.SIZE) {
-          // This is an 8-byte traceID.
-          traceIdStr = UPPER_TRACE_ID + traceIdStr;
-        }
-        traceId = TraceId.fromLowerBase16(traceIdStr);
-      } else {
-        throw new SpanContextParseException("Missing X_B3_TRACE_ID.");
-      }
-      SpanId spanId;
-      String spanIdStr = getter.get(carrier, X_B3_SPAN_ID);
-      if (spanIdStr != null) {
-        spanId = SpanId.fromLowerBase16(spanIdStr);
-      } else {
-        throw new SpanContextParseException("Missing X_B3_SPAN_ID.");
-      }
-      TraceOptions traceOptions = TraceOptions.DEFAULT;
-      if (SAMPLED_VALUE.equals(getter.get(carrier, X_B3_SAMPLED))
-          || FLAGS_VALUE.equals(getter.get(carrier, X_B3_FLAGS))) {
-        traceOptions = TraceOptions.builder().setIsSampled(true).build();
-      }
-      return SpanContext.create(traceId, spanId, traceOptions);
+      return parse(carrier, getter, traceIdStr, spanIdStr);
     } catch (IllegalArgumentException e) {
       throw new SpanContextParseException("Invalid input.", e);
     }
   }
+
+  @Nullable
+  @Override
+  public <C /*>>> extends @NonNull Object*/> SpanContext tryExtract(C carrier, Getter<C> getter) {
+    checkNotNull(carrier, "carrier");
+    checkNotNull(getter, "getter");
+    String traceIdStr = getter.get(carrier, X_B3_TRACE_ID);
+    String spanIdStr = getter.get(carrier, X_B3_SPAN_ID);
+    if (traceIdStr == null || spanIdStr == null) {
+      return null;
+    }
+    try {
+      return parse(carrier, getter, traceIdStr, spanIdStr);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static <C /*>>> extends @NonNull Object*/> SpanContext parse(
+      C carrier, Getter<C> getter, String traceIdStr, String spanIdStr) {
+    if (traceIdStr.length() == TraceId.SIZE) {
+      // This is an 8-byte traceID.
+      traceIdStr = UPPER_TRACE_ID + traceIdStr;
+    }
+    TraceId traceId = TraceId.fromLowerBase16(traceIdStr);
+    SpanId spanId = SpanId.fromLowerBase16(spanIdStr);
+    TraceOptions traceOptions = TraceOptions.DEFAULT;
+    if (SAMPLED_VALUE.equals(getter.get(carrier, X_B3_SAMPLED))
+        || FLAGS_VALUE.equals(getter.get(carrier, X_B3_FLAGS))) {
+      traceOptions = SAMPLED_OPTIONS;
+    }
+    return SpanContext.create(traceId, spanId, traceOptions);
+  }
 }
@@ -25,6 +25,8 @@ import io.opencensus.trace.TraceId;
 import io.opencensus.trace.TraceOptions;
 import io.opencensus.trace.propagation.BinaryFormat;
 import io.opencensus.trace.propagation.SpanContextParseException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 
 /**
  * Implementation of the {@link BinaryFormat}.
@@ -93,23 +95,64 @@ final class BinaryFormatImpl extends BinaryFormat {
   public byte[] toByteArray(SpanContext spanContext) {
     checkNotNull(spanContext, "spanContext");
     byte[] bytes = new byte[ALL_FORMAT_LENGTH];
-    bytes[VERSION_ID_OFFSET] = VERSION_ID;
-    bytes[TRACE_ID_FIELD_ID_OFFSET] = TRACE_ID_FIELD_ID;
-    spanContext.getTraceId().copyBytesTo(bytes, TRACE_ID_OFFSET);
-    bytes[SPAN_ID_FIELD_ID_OFFSET] = SPAN_ID_FIELD_ID;
-    spanContext.getSpanId().copyBytesTo(bytes, SPAN_ID_OFFSET);
-    bytes[TRACE_OPTION_FIELD_ID_OFFSET] = TRACE_OPTION_FIELD_ID;
-    spanContext.getTraceOptions().copyBytesTo(bytes, TRACE_OPTIONS_OFFSET);
+    encode(spanContext, bytes, 0);
     return bytes;
   }
 
+  @Override
+  public void toByteBuffer(SpanContext spanContext, ByteBuffer buffer) {
+    checkNotNull(spanContext, "spanContext");
+    checkNotNull(buffer, "buffer");
+    if (buffer.remaining() < ALL_FORMAT_LENGTH) {
+      throw new BufferOverflowException();
+    }
+    if (buffer.hasArray()) {
+      // Heap buffers are written in place, without an intermediate array.
+      encode(spanContext, buffer.array(), buffer.arrayOffset() + buffer.position());
+      buffer.position(buffer.position() + ALL_FORMAT_LENGTH);
+    } else {
+      buffer.put(toByteArray(spanContext));
+    }
+  }
+
   @Override
   public SpanContext fromByteArray(byte[] bytes) throws SpanContextParseException {
     checkNotNull(bytes, "bytes");
-    if (bytes.length == 0 || bytes[0] != VERSION_ID) {
+    return decode(bytes, 0, bytes.length);
+  }
+
+  @Override
+  public SpanContext fromByteBuffer(ByteBuffer buffer) throws SpanContextParseException {
+    checkNotNull(buffer, "buffer");
+    int length = buffer.remaining();
+    if (buffer.hasArray()) {
+      // Heap buffers are parsed in place, without copying the remaining bytes.
+      int offset = buffer.arrayOffset() + buffer.position();
+      buffer.position(buffer.limit());
+      return decode(buffer.array(), offset, length);
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return decode(bytes, 0, length);
+  }
+
+  private static void encode(SpanContext spanContext, byte[] bytes, int offset) {
+    bytes[offset + VERSION_ID_OFFSET] = VERSION_ID;
+    bytes[offset + TRACE_ID_FIELD_ID_OFFSET] = TRACE_ID_FIELD_ID;
+    spanContext.getTraceId().copyBytesTo(bytes, offset + TRACE_ID_OFFSET);
+    bytes[offset + SPAN_ID_FIELD_ID_OFFSET] = SPAN_ID_FIELD_ID;
+    spanContext.getSpanId().copyBytesTo(bytes, offset + SPAN_ID_OFFSET);
+    bytes[offset + TRACE_OPTION_FIELD_ID_OFFSET] = TRACE_OPTION_FIELD_ID;
+    spanContext.getTraceOptions().copyBytesTo(bytes, offset + TRACE_OPTIONS_OFFSET);
+  }
+
+  // Decodes bytes[offset, offset + length). Positions in error messages are relative to offset.
+  private static SpanContext decode(byte[] bytes, int offset, int length)
+      throws SpanContextParseException {
+    if (length == 0 || bytes[offset] != VERSION_ID) {
       throw new SpanContextParseException("Unsupported version.");
     }
-    if (bytes.length < REQUIRED_FORMAT_LENGTH) {
+    if (length < REQUIRED_FORMAT_LENGTH) {
       throw new SpanContextParseException("Invalid input: truncated");
     }
     // TODO: the following logic assumes that fields are written in ID order. The spec does not say
@@ -118,15 +161,15 @@ final class BinaryFormatImpl extends BinaryFormat {
     SpanId spanId;
     TraceOptions traceOptions = TraceOptions.DEFAULT;
     int pos = 1;
-    if (bytes[pos] == TRACE_ID_FIELD_ID) {
-      traceId = TraceId.fromBytes(bytes, pos + ID_SIZE);
+    if (bytes[offset + pos] == TRACE_ID_FIELD_ID) {
+      traceId = TraceId.fromBytes(bytes, offset + pos + ID_SIZE);
       pos += ID_SIZE + TraceId.SIZE;
     } else {
       // TODO: update the spec to suggest that the trace ID is not actually optional
       throw new SpanContextParseException("Invalid input: expected trace ID at offset " + pos);
     }
-    if (bytes[pos] == SPAN_ID_FIELD_ID) {
-      spanId = SpanId.fromBytes(bytes, pos + ID_SIZE);
+    if (bytes[offset + pos] == SPAN_ID_FIELD_ID) {
+      spanId = SpanId.fromBytes(bytes, offset + pos + ID_SIZE);
       pos += ID_SIZE + SpanId.SIZE;
     } else {
       // TODO: update the spec to suggest that the span ID is not actually optional.
@@ -135,11 +178,11 @@ final class BinaryFormatImpl extends BinaryFormat {
     // Check to see if we are long enough to include an options field, and also that the next field
     // is an options field. Per spec we simply stop parsing at first unknown field instead of
     // failing.
-    if (bytes.length > pos && bytes[pos] == TRACE_OPTION_FIELD_ID) {
-      if (bytes.length < ALL_FORMAT_LENGTH) {
+    if (length > pos && bytes[offset + pos] == TRACE_OPTION_FIELD_ID) {
+      if (length < ALL_FORMAT_LENGTH) {
         throw new SpanContextParseException("Invalid input: truncated");
       }
-      traceOptions = TraceOptions.fromBytes(bytes, pos + ID_SIZE);
+      traceOptions = TraceOptions.fromBytes(bytes, offset + pos + ID_SIZE);
     }
     return SpanContext.create(traceId, spanId, traceOptions);
   }
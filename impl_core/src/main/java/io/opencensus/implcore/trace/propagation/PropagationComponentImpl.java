@@ -24,6 +24,7 @@ import io.opencensus.trace.propagation.TextFormat;
 public class PropagationComponentImpl extends PropagationComponent {
   private final BinaryFormat binaryFormat = new BinaryFormatImpl();
   private final B3Format b3Format = new B3Format();
+  private final TraceContextFormat traceContextFormat = new TraceContextFormat();
 
   @Override
   public BinaryFormat getBinaryFormat() {
@@ -34,4 +35,9 @@ public class PropagationComponentImpl extends PropagationComponent {
   public TextFormat getB3Format() {
     return b3Format;
   }
+
+  @Override
+  public TextFormat getTraceContextFormat() {
+    return traceContextFormat;
+  }
 }
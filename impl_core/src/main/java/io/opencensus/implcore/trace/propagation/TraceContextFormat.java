@@ -0,0 +1,218 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.implcore.trace.propagation;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.opencensus.trace.SpanContext;
+import io.opencensus.trace.SpanId;
+import io.opencensus.trace.TraceId;
+import io.opencensus.trace.TraceOptions;
+import io.opencensus.trace.propagation.SpanContextParseException;
+import io.opencensus.trace.propagation.TextFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/*>>>
+import org.checkerframework.checker.nullness.qual.NonNull;
+*/
+
+/**
+ * Implementation of the W3C Trace Context propagation protocol. See <a
+ * href=https://github.com/w3c/distributed-tracing>w3c/distributed-tracing</a>.
+ *
+ * <p>The {@code traceparent} header has a fixed layout ({@code
+ * version-traceid-spanid-traceoptions}), so it is decoded in a single pass over the header value
+ * and encoded into a per-thread char buffer, without any intermediate {@code String}.
+ *
+ * <p>The {@code tracestate} header is listed in {@link #fields()} so that carriers which forward
+ * the propagation fields keep it, but its vendor entries are not decoded because a {@link
+ * SpanContext} has nowhere to store them.
+ */
+final class TraceContextFormat extends TextFormat {
+  @VisibleForTesting static final String TRACEPARENT = "traceparent";
+  @VisibleForTesting static final String TRACESTATE = "tracestate";
+  private static final List<String> FIELDS =
+      Collections.unmodifiableList(Arrays.asList(TRACEPARENT, TRACESTATE));
+
+  private static final String VERSION = "00";
+  private static final int VERSION_SIZE = 2;
+  private static final char TRACEPARENT_DELIMITER = '-';
+  private static final int TRACE_ID_OFFSET = VERSION_SIZE + 1;
+  private static final int SPAN_ID_OFFSET = TRACE_ID_OFFSET + 2 * TraceId.SIZE + 1;
+  private static final int TRACE_OPTIONS_OFFSET = SPAN_ID_OFFSET + 2 * SpanId.SIZE + 1;
+  // Size of a version "00" header. Later versions may only append fields after another delimiter.
+  @VisibleForTesting
+  static final int TRACEPARENT_HEADER_SIZE = TRACE_OPTIONS_OFFSET + 2 * TraceOptions.SIZE;
+  // Version "ff" is forbidden by the specification.
+  private static final int INVALID_VERSION = 0xff;
+  private static final byte SAMPLED_FLAG = 0x1;
+
+  private static final TraceOptions SAMPLED = TraceOptions.builder().setIsSampled(true).build();
+  private static final TraceOptions NOT_SAMPLED = TraceOptions.DEFAULT;
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  // Scratch space reused by all calls on the same thread. Only the ids handed to TraceId and SpanId
+  // (which copy their input) and the final header String are allocated per call.
+  private static final ThreadLocal<Buffers> THREAD_BUFFERS =
+      new ThreadLocal<Buffers>() {
+        @Override
+        protected Buffers initialValue() {
+          return new Buffers();
+        }
+      };
+
+  @Override
+  public List<String> fields() {
+    return FIELDS;
+  }
+
+  @Override
+  public <C /*>>> extends @NonNull Object*/> void inject(
+      SpanContext spanContext, C carrier, Setter<C> setter) {
+    checkNotNull(spanContext, "spanContext");
+    checkNotNull(setter, "setter");
+    checkNotNull(carrier, "carrier");
+    Buffers buffers = THREAD_BUFFERS.get();
+    char[] chars = buffers.chars;
+    byte[] bytes = buffers.bytes;
+    VERSION.getChars(0, VERSION_SIZE, chars, 0);
+    chars[VERSION_SIZE] = TRACEPARENT_DELIMITER;
+    spanContext.getTraceId().copyBytesTo(bytes, 0);
+    encodeHex(bytes, 0, TraceId.SIZE, chars, TRACE_ID_OFFSET);
+    chars[SPAN_ID_OFFSET - 1] = TRACEPARENT_DELIMITER;
+    spanContext.getSpanId().copyBytesTo(bytes, 0);
+    encodeHex(bytes, 0, SpanId.SIZE, chars, SPAN_ID_OFFSET);
+    chars[TRACE_OPTIONS_OFFSET - 1] = TRACEPARENT_DELIMITER;
+    bytes[0] = spanContext.getTraceOptions().isSampled() ? SAMPLED_FLAG : 0;
+    encodeHex(bytes, 0, TraceOptions.SIZE, chars, TRACE_OPTIONS_OFFSET);
+    setter.put(carrier, TRACEPARENT, new String(chars, 0, TRACEPARENT_HEADER_SIZE));
+  }
+
+  @Override
+  public <C /*>>> extends @NonNull Object*/> SpanContext extract(C carrier, Getter<C> getter)
+      throws SpanContextParseException {
+    checkNotNull(carrier, "carrier");
+    checkNotNull(getter, "getter");
+    String traceparent = getter.get(carrier, TRACEPARENT);
+    if (traceparent == null) {
+      throw new SpanContextParseException("Missing traceparent.");
+    }
+    return parseTraceparent(traceparent);
+  }
+
+  @Nullable
+  @Override
+  public <C /*>>> extends @NonNull Object*/> SpanContext tryExtract(C carrier, Getter<C> getter) {
+    checkNotNull(carrier, "carrier");
+    checkNotNull(getter, "getter");
+    String traceparent = getter.get(carrier, TRACEPARENT);
+    if (traceparent == null) {
+      return null;
+    }
+    try {
+      return parseTraceparent(traceparent);
+    } catch (SpanContextParseException e) {
+      return null;
+    }
+  }
+
+  @VisibleForTesting
+  static SpanContext parseTraceparent(CharSequence traceparent) throws SpanContextParseException {
+    int length = traceparent.length();
+    if (length < TRACEPARENT_HEADER_SIZE) {
+      throw new SpanContextParseException("Invalid traceparent size: " + length);
+    }
+    int version = decodeHexByte(traceparent, 0);
+    if (version < 0 || version == INVALID_VERSION) {
+      throw new SpanContextParseException("Invalid traceparent version.");
+    }
+    // Version "00" has an exact size, later versions must keep the "00" layout as a prefix.
+    if (length > TRACEPARENT_HEADER_SIZE
+        && (version == 0 || traceparent.charAt(TRACEPARENT_HEADER_SIZE) != TRACEPARENT_DELIMITER)) {
+      throw new SpanContextParseException("Invalid traceparent size: " + length);
+    }
+    if (traceparent.charAt(TRACE_ID_OFFSET - 1) != TRACEPARENT_DELIMITER
+        || traceparent.charAt(SPAN_ID_OFFSET - 1) != TRACEPARENT_DELIMITER
+        || traceparent.charAt(TRACE_OPTIONS_OFFSET - 1) != TRACEPARENT_DELIMITER) {
+      throw new SpanContextParseException("Invalid traceparent delimiters.");
+    }
+    byte[] bytes = THREAD_BUFFERS.get().bytes;
+    if (!decodeHex(traceparent, TRACE_ID_OFFSET, bytes, 0, TraceId.SIZE)
+        || !decodeHex(traceparent, SPAN_ID_OFFSET, bytes, TraceId.SIZE, SpanId.SIZE)) {
+      throw new SpanContextParseException("Invalid traceparent ids.");
+    }
+    int traceOptions = decodeHexByte(traceparent, TRACE_OPTIONS_OFFSET);
+    if (traceOptions < 0) {
+      throw new SpanContextParseException("Invalid traceparent options.");
+    }
+    TraceId traceId = TraceId.fromBytes(bytes, 0);
+    SpanId spanId = SpanId.fromBytes(bytes, TraceId.SIZE);
+    if (!traceId.isValid() || !spanId.isValid()) {
+      throw new SpanContextParseException("Invalid traceparent ids.");
+    }
+    return SpanContext.create(
+        traceId, spanId, (traceOptions & SAMPLED_FLAG) != 0 ? SAMPLED : NOT_SAMPLED);
+  }
+
+  private static void encodeHex(byte[] src, int srcOffset, int size, char[] dest, int destOffset) {
+    for (int i = 0; i < size; i++) {
+      int b = src[srcOffset + i] & 0xff;
+      dest[destOffset + 2 * i] = HEX_DIGITS[b >>> 4];
+      dest[destOffset + 2 * i + 1] = HEX_DIGITS[b & 0xf];
+    }
+  }
+
+  // Returns false if any of the 2 * size characters is not a lowercase hex digit.
+  private static boolean decodeHex(
+      CharSequence src, int srcOffset, byte[] dest, int destOffset, int size) {
+    for (int i = 0; i < size; i++) {
+      int b = decodeHexByte(src, srcOffset + 2 * i);
+      if (b < 0) {
+        return false;
+      }
+      dest[destOffset + i] = (byte) b;
+    }
+    return true;
+  }
+
+  // Returns the byte encoded by the two characters at offset, or -1 if they are not lowercase hex.
+  private static int decodeHexByte(CharSequence src, int offset) {
+    int high = decodeHexDigit(src.charAt(offset));
+    int low = decodeHexDigit(src.charAt(offset + 1));
+    return (high | low) < 0 ? -1 : (high << 4) | low;
+  }
+
+  private static int decodeHexDigit(char c) {
+    if (c >= '0' && c <= '9') {
+      return c - '0';
+    }
+    if (c >= 'a' && c <= 'f') {
+      return c - 'a' + 10;
+    }
+    return -1;
+  }
+
+  private static final class Buffers {
+    private final char[] chars = new char[TRACEPARENT_HEADER_SIZE];
+    private final byte[] bytes = new byte[TraceId.SIZE + SpanId.SIZE];
+  }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.implcore.stats;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.opencensus.common.Clock;
+import io.opencensus.common.Duration;
+import io.opencensus.common.Timestamp;
+import io.opencensus.implcore.internal.SimpleEventQueue;
+import io.opencensus.stats.Aggregation.Sum;
+import io.opencensus.stats.Measure.MeasureDouble;
+import io.opencensus.stats.View;
+import io.opencensus.stats.View.AggregationWindow.Cumulative;
+import io.opencensus.stats.View.AggregationWindow.Interval;
+import io.opencensus.stats.ViewData;
+import io.opencensus.stats.ViewDataExporter.Handler;
+import io.opencensus.tags.TagKey;
+import io.opencensus.testing.common.TestClock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link ViewDataExporterImpl}. */
+@RunWith(JUnit4.class)
+public final class ViewDataExporterImplTest {
+
+  private static final MeasureDouble MEASURE = MeasureDouble.create("measure", "description", "1");
+  private static final View CUMULATIVE_VIEW =
+      View.create(
+          View.Name.create("cumulative"),
+          "description",
+          MEASURE,
+          Sum.create(),
+          Collections.<TagKey>emptyList(),
+          Cumulative.create());
+  private static final View INTERVAL_VIEW =
+      View.create(
+          View.Name.create("interval"),
+          "description",
+          MEASURE,
+          Sum.create(),
+          Collections.<TagKey>emptyList(),
+          Interval.create(Duration.create(60, 0)));
+  private static final Duration TEN_SECONDS = Duration.create(10, 0);
+  private static final long NANOS_PER_SECOND = 1000L * 1000 * 1000;
+
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  private final TestClock clock = TestClock.create(Timestamp.create(105, 0));
+  private final StatsManager statsManager =
+      new StatsManager(new SimpleEventQueue(), clock, new CurrentStatsState());
+  private final ViewDataExporterImpl viewDataExporter =
+      new ViewDataExporterImpl(statsManager, clock, false);
+  private final FakeHandler handler1 = new FakeHandler();
+  private final FakeHandler handler2 = new FakeHandler();
+
+  @Before
+  public void setUp() {
+    statsManager.registerView(CUMULATIVE_VIEW);
+    statsManager.registerView(INTERVAL_VIEW);
+  }
+
+  @Test
+  public void noRegisteredHandler() {
+    assertThat(viewDataExporter.exportDueHandlers()).isEqualTo(-1);
+  }
+
+  @Test
+  public void alignedHandler_ExportsAtMultiplesOfInterval() {
+    viewDataExporter.registerHandler("handler", handler1, TEN_SECONDS, true);
+    assertThat(viewDataExporter.exportDueHandlers()).isEqualTo(5 * NANOS_PER_SECOND);
+    assertThat(handler1.exported).isEmpty();
+
+    clock.setTime(Timestamp.create(110, 0));
+    assertThat(viewDataExporter.exportDueHandlers()).isEqualTo(10 * NANOS_PER_SECOND);
+    assertThat(handler1.exported).hasSize(1);
+    List<ViewData> snapshot = handler1.exported.get(0);
+    assertThat(snapshot).hasSize(1);
+    assertThat(snapshot.get(0).getView()).isEqualTo(CUMULATIVE_VIEW);
+    assertThat(snapshot.get(0).getEnd()).isEqualTo(Timestamp.create(110, 0));
+  }
+
+  @Test
+  public void unalignedHandler_ExportsIntervalAfterRegistration() {
+    viewDataExporter.registerHandler("handler", handler1, TEN_SECONDS, false);
+    assertThat(viewDataExporter.exportDueHandlers()).isEqualTo(10 * NANOS_PER_SECOND);
+    clock.setTime(Timestamp.create(115, 0));
+    assertThat(viewDataExporter.exportDueHandlers()).isEqualTo(10 * NANOS_PER_SECOND);
+    assertThat(handler1.exported).hasSize(1);
+  }
+
+  @Test
+  public void handlersDueAtTheSameTime_ShareSnapshot() {
+    viewDataExporter.registerHandler("handler1", handler1, TEN_SECONDS, true);
+    viewDataExporter.registerHandler("handler2", handler2, Duration.create(5, 0), true);
+    clock.setTime(Timestamp.create(110, 0));
+    viewDataExporter.exportDueHandlers();
+    assertThat(handler1.exported).hasSize(1);
+    assertThat(handler2.exported).hasSize(1);
+    assertThat(handler1.exported.get(0).get(0)).isSameAs(handler2.exported.get(0).get(0));
+
+    clock.setTime(Timestamp.create(115, 0));
+    viewDataExporter.exportDueHandlers();
+    assertThat(handler1.exported).hasSize(1);
+    assertThat(handler2.exported).hasSize(2);
+  }
+
+  @Test
+  public void missedExportsAreSkipped() {
+    viewDataExporter.registerHandler("handler", handler1, TEN_SECONDS, false);
+    clock.setTime(Timestamp.create(150, 0));
+    assertThat(viewDataExporter.exportDueHandlers()).isEqualTo(5 * NANOS_PER_SECOND);
+    assertThat(handler1.exported).hasSize(1);
+  }
+
+  @Test
+  public void unregisterHandler() {
+    viewDataExporter.registerHandler("handler", handler1, TEN_SECONDS, true);
+    viewDataExporter.unregisterHandler("handler");
+    clock.setTime(Timestamp.create(110, 0));
+    assertThat(viewDataExporter.exportDueHandlers()).isEqualTo(-1);
+    assertThat(handler1.exported).isEmpty();
+  }
+
+  @Test
+  public void exceptionInHandler_DoesNotPreventOtherExports() {
+    viewDataExporter.registerHandler(
+        "throwing",
+        new Handler() {
+          @Override
+          public void export(Collection<ViewData> viewDataList) {
+            throw new IllegalStateException("export failed");
+          }
+        },
+        TEN_SECONDS,
+        true);
+    viewDataExporter.registerHandler("handler", handler1, TEN_SECONDS, true);
+    clock.setTime(Timestamp.create(110, 0));
+    viewDataExporter.exportDueHandlers();
+    assertThat(handler1.exported).hasSize(1);
+  }
+
+  @Test
+  public void registerHandler_DisallowsNonPositiveInterval() {
+    thrown.expect(IllegalArgumentException.class);
+    viewDataExporter.registerHandler("handler", handler1, Duration.create(0, 0), true);
+  }
+
+  @Test
+  public void wallClockChange_DoesNotAffectSchedule() {
+    FakeClock fakeClock = new FakeClock(Timestamp.create(105, 0), 7);
+    ViewDataExporterImpl exporter =
+        new ViewDataExporterImpl(
+            new StatsManager(new SimpleEventQueue(), fakeClock, new CurrentStatsState()),
+            fakeClock,
+            false);
+    exporter.registerHandler("aligned", handler1, TEN_SECONDS, true);
+    exporter.registerHandler("unaligned", handler2, TEN_SECONDS, false);
+    fakeClock.wallTime = Timestamp.create(0, 0);
+    fakeClock.nanos += 5 * NANOS_PER_SECOND;
+    assertThat(exporter.exportDueHandlers()).isEqualTo(5 * NANOS_PER_SECOND);
+    assertThat(handler1.exported).hasSize(1);
+    assertThat(handler2.exported).isEmpty();
+
+    fakeClock.wallTime = Timestamp.create(1000, 0);
+    fakeClock.nanos += 5 * NANOS_PER_SECOND;
+    assertThat(exporter.exportDueHandlers()).isEqualTo(5 * NANOS_PER_SECOND);
+    assertThat(handler1.exported).hasSize(1);
+    assertThat(handler2.exported).hasSize(1);
+  }
+
+  // A clock whose wall time and nanoTime change independently.
+  private static final class FakeClock extends Clock {
+    private Timestamp wallTime;
+    private long nanos;
+
+    private FakeClock(Timestamp wallTime, long nanos) {
+      this.wallTime = wallTime;
+      this.nanos = nanos;
+    }
+
+    @Override
+    public Timestamp now() {
+      return wallTime;
+    }
+
+    @Override
+    public long nowNanos() {
+      return nanos;
+    }
+  }
+
+  private static final class FakeHandler extends Handler {
+    private final List<List<ViewData>> exported = new ArrayList<List<ViewData>>();
+
+    @Override
+    public void export(Collection<ViewData> viewDataList) {
+      exported.add(new ArrayList<ViewData>(viewDataList));
+    }
+  }
+}
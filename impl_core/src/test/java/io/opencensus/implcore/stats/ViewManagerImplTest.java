@@ -268,6 +268,56 @@ public class ViewManagerImplTest {
     assertThat(viewManager.getView(VIEW_NAME)).isNull();
   }
 
+  @Test
+  public void getViewUpdatedSince_OnlyReturnsUpdatedRows() {
+    View view = createCumulativeView(VIEW_NAME, MEASURE_DOUBLE, SUM, Arrays.asList(KEY));
+    viewManager.registerView(view);
+    TagContext tags1 = tagger.emptyBuilder().put(KEY, VALUE).build();
+    TagContext tags2 = tagger.emptyBuilder().put(KEY, VALUE_2).build();
+    statsRecorder.newMeasureMap().put(MEASURE_DOUBLE, 1.0).record(tags1);
+    statsRecorder.newMeasureMap().put(MEASURE_DOUBLE, 2.0).record(tags2);
+    assertThat(viewManager.getViewUpdatedSince(VIEW_NAME, 0).getAggregationMap())
+        .isEqualTo(viewManager.getView(VIEW_NAME).getAggregationMap());
+
+    long generation = viewManager.getGeneration();
+    assertThat(viewManager.getViewUpdatedSince(VIEW_NAME, generation).getAggregationMap())
+        .isEmpty();
+
+    statsRecorder.newMeasureMap().put(MEASURE_DOUBLE, 3.0).record(tags2);
+    ViewData updated = viewManager.getViewUpdatedSince(VIEW_NAME, generation);
+    assertThat(updated.getView()).isEqualTo(view);
+    StatsTestUtil.assertAggregationMapEquals(
+        updated.getAggregationMap(),
+        ImmutableMap.of(Arrays.asList(VALUE_2), SumDataDouble.create(5.0)),
+        EPSILON);
+    assertThat(viewManager.getView(VIEW_NAME).getAggregationMap()).hasSize(2);
+
+    long nextGeneration = viewManager.getGeneration();
+    assertThat(nextGeneration).isGreaterThan(generation);
+    assertThat(viewManager.getViewUpdatedSince(VIEW_NAME, nextGeneration).getAggregationMap())
+        .isEmpty();
+  }
+
+  @Test
+  public void getViewUpdatedSince_IntervalViewReturnsAllRows() {
+    View view =
+        View.create(VIEW_NAME, VIEW_DESCRIPTION, MEASURE_DOUBLE, SUM, Arrays.asList(KEY), INTERVAL);
+    clock.setTime(Timestamp.create(10, 0));
+    viewManager.registerView(view);
+    statsRecorder
+        .newMeasureMap()
+        .put(MEASURE_DOUBLE, 1.0)
+        .record(tagger.emptyBuilder().put(KEY, VALUE).build());
+    long generation = viewManager.getGeneration();
+    assertThat(viewManager.getViewUpdatedSince(VIEW_NAME, generation))
+        .isEqualTo(viewManager.getView(VIEW_NAME));
+  }
+
+  @Test
+  public void getViewUpdatedSince_NonexistentView() {
+    assertThat(viewManager.getViewUpdatedSince(VIEW_NAME, viewManager.getGeneration())).isNull();
+  }
+
   @Test
   public void testRecordDouble_distribution_cumulative() {
     testRecordCumulative(MEASURE_DOUBLE, DISTRIBUTION, 10.0, 20.0, 30.0, 40.0);
@@ -29,9 +29,11 @@ import io.opencensus.tags.TagContextBuilder;
 import io.opencensus.tags.TagKey;
 import io.opencensus.tags.TagValue;
 import io.opencensus.tags.Tagger;
+import io.opencensus.tags.propagation.TagContextSerializationException;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -49,6 +51,7 @@ public class TagContextImplTest {
 
   private static final TagKey K1 = TagKey.create("k1");
   private static final TagKey K2 = TagKey.create("k2");
+  private static final TagKey K3 = TagKey.create("k3");
 
   private static final TagValue V1 = TagValue.create("v1");
   private static final TagValue V2 = TagValue.create("v2");
@@ -67,6 +70,39 @@ public class TagContextImplTest {
     assertThat(tags.getTags()).containsExactly(K1, V1, K2, V2);
   }
 
+  @Test
+  public void getValue() {
+    TagContextImpl tags = new TagContextImpl(ImmutableMap.of(K2, V2, K1, V1));
+    assertThat(tags.size()).isEqualTo(2);
+    assertThat(tags.getValue(K1)).isEqualTo(V1);
+    assertThat(tags.getValue(K2)).isEqualTo(V2);
+    assertThat(tags.getValue(K3)).isNull();
+  }
+
+  @Test
+  public void tagsAreSortedByKeyName() {
+    TagContextImpl tags = new TagContextImpl(ImmutableMap.of(K3, V1, K1, V1, K2, V2));
+    assertThat(Arrays.asList(tags.getKey(0), tags.getKey(1), tags.getKey(2)))
+        .containsExactly(K1, K2, K3)
+        .inOrder();
+    assertThat(tags.getValue(1)).isEqualTo(V2);
+  }
+
+  @Test
+  public void toBuilder_UnmodifiedReturnsSameInstance() {
+    TagContextImpl tags = new TagContextImpl(ImmutableMap.of(K1, V1));
+    assertThat(tagger.toBuilder(tags).build()).isSameAs(tags);
+  }
+
+  @Test
+  public void toBuilder_ModificationDoesNotAffectParent() {
+    TagContextImpl parent = new TagContextImpl(ImmutableMap.of(K1, V1, K3, V1));
+    TagContextImpl child =
+        (TagContextImpl) tagger.toBuilder(parent).put(K2, V2).put(K1, V2).remove(K3).build();
+    assertThat(child.getTags()).containsExactly(K1, V2, K2, V2);
+    assertThat(parent.getTags()).containsExactly(K1, V1, K3, V1);
+  }
+
   @Test
   public void put_newKey() {
     TagContext tags = new TagContextImpl(ImmutableMap.of(K1, V1));
@@ -145,6 +181,26 @@ public class TagContextImplTest {
     i.remove();
   }
 
+  @Test
+  public void getSerializedForm_EncodesOnce() throws TagContextSerializationException {
+    TagContextImpl tags = new TagContextImpl(ImmutableMap.of(K1, V1));
+    final AtomicInteger encodeCount = new AtomicInteger();
+    TagContextImpl.SerializedFormEncoder encoder =
+        new TagContextImpl.SerializedFormEncoder() {
+          @Override
+          public byte[] encode(TagContextImpl tags) {
+            encodeCount.incrementAndGet();
+            return new byte[] {1, 2, 3};
+          }
+        };
+    assertThat(tags.getSerializedForm()).isNull();
+    byte[] serializedForm = tags.getSerializedForm(encoder);
+    assertThat(serializedForm).isEqualTo(new byte[] {1, 2, 3});
+    assertThat(tags.getSerializedForm(encoder)).isSameAs(serializedForm);
+    assertThat(tags.getSerializedForm()).isSameAs(serializedForm);
+    assertThat(encodeCount.get()).isEqualTo(1);
+  }
+
   @Test
   public void testEquals() {
     new EqualsTester()
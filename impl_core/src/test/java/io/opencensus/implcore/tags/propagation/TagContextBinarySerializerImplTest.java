@@ -18,7 +18,9 @@ package io.opencensus.implcore.tags.propagation;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import io.opencensus.implcore.tags.TagContextImpl;
 import io.opencensus.implcore.tags.TagsComponentImplBase;
 import io.opencensus.implcore.tags.TagsTestUtil;
 import io.opencensus.tags.Tag;
@@ -30,6 +32,7 @@ import io.opencensus.tags.TagsComponent;
 import io.opencensus.tags.propagation.TagContextBinarySerializer;
 import io.opencensus.tags.propagation.TagContextDeserializationException;
 import io.opencensus.tags.propagation.TagContextSerializationException;
+import java.nio.ByteBuffer;
 import java.util.Iterator;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -91,4 +94,61 @@ public final class TagContextBinarySerializerImplTest {
     tagsComponent.setState(TaggingState.ENABLED);
     assertThat(serializer.fromByteArray(serialized)).isEqualTo(tagContext);
   }
+
+  @Test
+  @SuppressWarnings("deprecation")
+  public void toByteBuffer_TaggingDisabled() throws TagContextSerializationException {
+    tagsComponent.setState(TaggingState.DISABLED);
+    assertThat(serializer.getSerializedSize(tagContext)).isEqualTo(0);
+    ByteBuffer buffer = ByteBuffer.allocate(20);
+    serializer.toByteBuffer(tagContext, buffer);
+    assertThat(buffer.position()).isEqualTo(0);
+  }
+
+  @Test
+  public void toByteBuffer_SameAsToByteArray() throws TagContextSerializationException {
+    byte[] serialized = serializer.toByteArray(tagContext);
+    assertThat(serializer.getSerializedSize(tagContext)).isEqualTo(serialized.length);
+    ByteBuffer buffer = ByteBuffer.allocate(serialized.length + 2);
+    buffer.put((byte) 7);
+    serializer.toByteBuffer(tagContext, buffer);
+    assertThat(buffer.position()).isEqualTo(serialized.length + 1);
+    byte[] written = new byte[serialized.length];
+    System.arraycopy(buffer.array(), 1, written, 0, serialized.length);
+    assertThat(written).isEqualTo(serialized);
+  }
+
+  @Test
+  @SuppressWarnings("deprecation")
+  public void fromByteBuffer_TaggingDisabled()
+      throws TagContextDeserializationException, TagContextSerializationException {
+    ByteBuffer buffer = ByteBuffer.wrap(serializer.toByteArray(tagContext));
+    tagsComponent.setState(TaggingState.DISABLED);
+    assertThat(TagsTestUtil.tagContextToList(serializer.fromByteBuffer(buffer))).isEmpty();
+    assertThat(buffer.hasRemaining()).isFalse();
+  }
+
+  @Test
+  public void toByteArray_CachesSerializedFormOfTagContextImpl()
+      throws TagContextSerializationException {
+    TagContextImpl tags =
+        new TagContextImpl(ImmutableMap.of(TagKey.create("key"), TagValue.create("value")));
+    byte[] serialized = serializer.toByteArray(tags);
+    assertThat(tags.getSerializedForm()).isEqualTo(serialized);
+    // The caller owns the returned array, so modifying it must not affect the cache.
+    serialized[serialized.length - 1] = 0;
+    assertThat(serializer.toByteArray(tags)).isEqualTo(serializer.toByteArray(tagContext));
+    assertThat(serializer.toByteArray(tags)).isNotSameAs(serializer.toByteArray(tags));
+  }
+
+  @Test
+  public void toByteBuffer_UsesCachedSerializedForm() throws TagContextSerializationException {
+    TagContextImpl tags =
+        new TagContextImpl(ImmutableMap.of(TagKey.create("key"), TagValue.create("value")));
+    byte[] serialized = serializer.toByteArray(tags);
+    assertThat(serializer.getSerializedSize(tags)).isEqualTo(serialized.length);
+    ByteBuffer buffer = ByteBuffer.allocate(serialized.length);
+    serializer.toByteBuffer(tags, buffer);
+    assertThat(buffer.array()).isEqualTo(serialized);
+  }
 }
@@ -17,6 +17,7 @@
 package io.opencensus.implcore.tags.propagation;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
 
 import io.opencensus.implcore.tags.TagsComponentImplBase;
 import io.opencensus.tags.TagContext;
@@ -26,6 +27,8 @@ import io.opencensus.tags.TagValue;
 import io.opencensus.tags.Tagger;
 import io.opencensus.tags.TagsComponent;
 import io.opencensus.tags.propagation.TagContextBinarySerializer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -77,9 +80,40 @@ public class TagContextRoundtripTest {
     testRoundtripSerialization(builder.build());
   }
 
+  @Test
+  public void testRoundtripSerialization_ByteBufferAtPosition() throws Exception {
+    TagContext expected = tagger.emptyBuilder().put(K1, V1).put(K2, V2).build();
+    int size = serializer.getSerializedSize(expected);
+    ByteBuffer buffer = ByteBuffer.allocate(size + 10);
+    buffer.position(10);
+    serializer.toByteBuffer(expected, buffer);
+    assertThat(buffer.position()).isEqualTo(size + 10);
+    buffer.flip().position(10);
+    assertThat(serializer.fromByteBuffer(buffer)).isEqualTo(expected);
+    assertThat(buffer.hasRemaining()).isFalse();
+  }
+
+  @Test
+  public void testToByteBuffer_InsufficientSpace() throws Exception {
+    TagContext tags = tagger.emptyBuilder().put(K1, V1).build();
+    ByteBuffer buffer = ByteBuffer.allocate(serializer.getSerializedSize(tags) - 1);
+    try {
+      serializer.toByteBuffer(tags, buffer);
+      fail("Should have thrown BufferOverflowException.");
+    } catch (BufferOverflowException e) {
+      // Nothing should have been written.
+      assertThat(buffer.position()).isEqualTo(0);
+    }
+  }
+
   private void testRoundtripSerialization(TagContext expected) throws Exception {
     byte[] bytes = serializer.toByteArray(expected);
     TagContext actual = serializer.fromByteArray(bytes);
     assertThat(actual).isEqualTo(expected);
+    assertThat(serializer.getSerializedSize(expected)).isEqualTo(bytes.length);
+    ByteBuffer directBuffer = ByteBuffer.allocateDirect(bytes.length);
+    serializer.toByteBuffer(expected, directBuffer);
+    directBuffer.flip();
+    assertThat(serializer.fromByteBuffer(directBuffer)).isEqualTo(expected);
   }
 }
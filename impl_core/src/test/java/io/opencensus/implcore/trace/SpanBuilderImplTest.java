@@ -22,6 +22,7 @@ import static org.mockito.Mockito.when;
 import io.opencensus.implcore.trace.SpanImpl.StartEndHandler;
 import io.opencensus.implcore.trace.internal.RandomHandler;
 import io.opencensus.testing.common.TestClock;
+import io.opencensus.trace.Sampler;
 import io.opencensus.trace.Span;
 import io.opencensus.trace.Span.Kind;
 import io.opencensus.trace.Span.Options;
@@ -34,6 +35,8 @@ import io.opencensus.trace.config.TraceParams;
 import io.opencensus.trace.export.SpanData;
 import io.opencensus.trace.samplers.Samplers;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Random;
 import org.junit.Before;
 import org.junit.Test;
@@ -202,6 +205,28 @@ public class SpanBuilderImplTest {
     assertThat(rootSpan.getContext().getTraceOptions().isSampled()).isTrue();
   }
 
+  @Test
+  public void startRootSpan_WithSpanNameDefaultSampler() {
+    Map<String, Sampler> exactNameSamplers = new HashMap<String, Sampler>();
+    exactNameSamplers.put("/healthz", Samplers.neverSample());
+    when(traceConfig.getActiveTraceParams())
+        .thenReturn(
+            TraceParams.DEFAULT
+                .toBuilder()
+                .setSampler(
+                    Samplers.spanNameSampler(
+                        Samplers.alwaysSample(),
+                        exactNameSamplers,
+                        Collections.<String, Sampler>emptyMap()))
+                .build());
+    Span healthzSpan =
+        SpanBuilderImpl.createWithParent("/healthz", null, spanBuilderOptions).startSpan();
+    assertThat(healthzSpan.getContext().getTraceOptions().isSampled()).isFalse();
+    Span rootSpan =
+        SpanBuilderImpl.createWithParent(SPAN_NAME, null, spanBuilderOptions).startSpan();
+    assertThat(rootSpan.getContext().getTraceOptions().isSampled()).isTrue();
+  }
+
   @Test
   public void startRemoteChildSpan_WithSpecifiedSampler() {
     Span rootSpan =
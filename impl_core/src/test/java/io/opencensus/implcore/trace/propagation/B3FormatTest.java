@@ -218,4 +218,29 @@ public class B3FormatTest {
         .containsExactly(
             X_B3_TRACE_ID, X_B3_SPAN_ID, X_B3_PARENT_SPAN_ID, X_B3_SAMPLED, X_B3_FLAGS);
   }
+
+  @Test
+  public void tryExtract_SampledContext() {
+    Map<String, String> headersSampled = new HashMap<String, String>();
+    headersSampled.put(X_B3_TRACE_ID, TRACE_ID_BASE16);
+    headersSampled.put(X_B3_SPAN_ID, SPAN_ID_BASE16);
+    headersSampled.put(X_B3_SAMPLED, "1");
+    assertThat(b3Format.tryExtract(headersSampled, getter))
+        .isEqualTo(SpanContext.create(TRACE_ID, SPAN_ID, TRACE_OPTIONS));
+  }
+
+  @Test
+  public void tryExtract_MissingSpanId() {
+    Map<String, String> invalidHeaders = new HashMap<String, String>();
+    invalidHeaders.put(X_B3_TRACE_ID, TRACE_ID_BASE16);
+    assertThat(b3Format.tryExtract(invalidHeaders, getter)).isNull();
+  }
+
+  @Test
+  public void tryExtract_InvalidTraceId() {
+    Map<String, String> invalidHeaders = new HashMap<String, String>();
+    invalidHeaders.put(X_B3_TRACE_ID, "abcdefghijklmnopabcdefghijklmnop");
+    invalidHeaders.put(X_B3_SPAN_ID, SPAN_ID_BASE16);
+    assertThat(b3Format.tryExtract(invalidHeaders, getter)).isNull();
+  }
 }
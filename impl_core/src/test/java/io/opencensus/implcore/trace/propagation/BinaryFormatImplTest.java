@@ -25,6 +25,9 @@ import io.opencensus.trace.TraceId;
 import io.opencensus.trace.TraceOptions;
 import io.opencensus.trace.propagation.BinaryFormat;
 import io.opencensus.trace.propagation.SpanContextParseException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -188,4 +191,70 @@ public class BinaryFormatImplTest {
     assertThat(extracted.isValid()).isTrue();
     assertThat(extracted.getTraceOptions()).isEqualTo(TraceOptions.DEFAULT);
   }
+
+  @Test
+  public void toByteBuffer_HeapBuffer() {
+    ByteBuffer buffer = ByteBuffer.allocate(EXAMPLE_BYTES.length + 4);
+    buffer.position(2);
+    binaryFormat.toByteBuffer(EXAMPLE_SPAN_CONTEXT, buffer.slice());
+    binaryFormat.toByteBuffer(EXAMPLE_SPAN_CONTEXT, buffer);
+    assertThat(buffer.position()).isEqualTo(EXAMPLE_BYTES.length + 2);
+    assertThat(Arrays.copyOfRange(buffer.array(), 2, buffer.position())).isEqualTo(EXAMPLE_BYTES);
+  }
+
+  @Test
+  public void toByteBuffer_DirectBuffer() {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(EXAMPLE_BYTES.length);
+    binaryFormat.toByteBuffer(EXAMPLE_SPAN_CONTEXT, buffer);
+    assertThat(buffer.hasRemaining()).isFalse();
+    buffer.flip();
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    assertThat(bytes).isEqualTo(EXAMPLE_BYTES);
+  }
+
+  @Test
+  public void toByteBuffer_InsufficientSpace() {
+    ByteBuffer buffer = ByteBuffer.allocate(EXAMPLE_BYTES.length - 1);
+    expectedException.expect(BufferOverflowException.class);
+    try {
+      binaryFormat.toByteBuffer(EXAMPLE_SPAN_CONTEXT, buffer);
+    } finally {
+      assertThat(buffer.position()).isEqualTo(0);
+    }
+  }
+
+  @Test
+  public void fromByteBuffer_HeapBufferAtPosition() throws SpanContextParseException {
+    ByteBuffer buffer = ByteBuffer.allocate(EXAMPLE_BYTES.length + 3);
+    buffer.position(3);
+    buffer.put(EXAMPLE_BYTES);
+    buffer.position(3);
+    assertThat(binaryFormat.fromByteBuffer(buffer.slice())).isEqualTo(EXAMPLE_SPAN_CONTEXT);
+    assertThat(binaryFormat.fromByteBuffer(buffer)).isEqualTo(EXAMPLE_SPAN_CONTEXT);
+    assertThat(buffer.hasRemaining()).isFalse();
+  }
+
+  @Test
+  public void fromByteBuffer_DirectBuffer() throws SpanContextParseException {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(EXAMPLE_BYTES.length);
+    buffer.put(EXAMPLE_BYTES);
+    buffer.flip();
+    assertThat(binaryFormat.fromByteBuffer(buffer)).isEqualTo(EXAMPLE_SPAN_CONTEXT);
+    assertThat(buffer.hasRemaining()).isFalse();
+  }
+
+  @Test
+  public void fromByteBuffer_ReadOnlyBuffer() throws SpanContextParseException {
+    assertThat(binaryFormat.fromByteBuffer(ByteBuffer.wrap(EXAMPLE_BYTES).asReadOnlyBuffer()))
+        .isEqualTo(EXAMPLE_SPAN_CONTEXT);
+  }
+
+  @Test
+  public void fromByteBuffer_Truncated() throws SpanContextParseException {
+    ByteBuffer buffer = ByteBuffer.wrap(EXAMPLE_BYTES, 0, 10);
+    expectedException.expect(SpanContextParseException.class);
+    expectedException.expectMessage("Invalid input: truncated");
+    binaryFormat.fromByteBuffer(buffer);
+  }
 }
@@ -18,7 +18,17 @@ package io.opencensus.implcore.trace.propagation;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import io.opencensus.trace.SpanContext;
+import io.opencensus.trace.SpanId;
+import io.opencensus.trace.TraceId;
+import io.opencensus.trace.TraceOptions;
 import io.opencensus.trace.propagation.PropagationComponent;
+import io.opencensus.trace.propagation.TextFormat;
+import io.opencensus.trace.propagation.TextFormat.Getter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -26,6 +36,15 @@ import org.junit.runners.JUnit4;
 /** Unit tests for {@link PropagationComponentImpl}. */
 @RunWith(JUnit4.class)
 public class PropagationComponentImplTest {
+  private static final Getter<Map<String, String>> MAP_GETTER =
+      new Getter<Map<String, String>>() {
+        @Nullable
+        @Override
+        public String get(Map<String, String> carrier, String key) {
+          return carrier.get(key);
+        }
+      };
+
   private final PropagationComponent propagationComponent = new PropagationComponentImpl();
 
   @Test
@@ -37,4 +56,27 @@ public class PropagationComponentImplTest {
   public void implementationOfB3Format() {
     assertThat(propagationComponent.getB3Format()).isInstanceOf(B3Format.class);
   }
+
+  @Test
+  public void implementationOfTraceContextFormat() {
+    assertThat(propagationComponent.getTraceContextFormat()).isInstanceOf(TraceContextFormat.class);
+  }
+
+  @Test
+  public void compositeTextFormat_SkipsTraceContextWithoutTraceparent() {
+    TextFormat textFormat =
+        propagationComponent.newCompositeTextFormat(
+            Arrays.asList(
+                propagationComponent.getTraceContextFormat(), propagationComponent.getB3Format()));
+    Map<String, String> carrier = new HashMap<String, String>();
+    carrier.put(TraceContextFormat.TRACESTATE, "foo=bar");
+    carrier.put(B3Format.X_B3_TRACE_ID, "ff000000000000000000000000000041");
+    carrier.put(B3Format.X_B3_SPAN_ID, "ff00000000000041");
+    assertThat(textFormat.tryExtract(carrier, MAP_GETTER))
+        .isEqualTo(
+            SpanContext.create(
+                TraceId.fromLowerBase16("ff000000000000000000000000000041"),
+                SpanId.fromLowerBase16("ff00000000000041"),
+                TraceOptions.DEFAULT));
+  }
 }
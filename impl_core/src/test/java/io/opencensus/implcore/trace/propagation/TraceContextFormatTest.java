@@ -0,0 +1,243 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.implcore.trace.propagation;
+
+import static com.google.common.truth.Truth.assertThat;
+import static io.opencensus.implcore.trace.propagation.TraceContextFormat.TRACEPARENT;
+import static io.opencensus.implcore.trace.propagation.TraceContextFormat.TRACESTATE;
+
+import io.opencensus.trace.SpanContext;
+import io.opencensus.trace.SpanId;
+import io.opencensus.trace.TraceId;
+import io.opencensus.trace.TraceOptions;
+import io.opencensus.trace.propagation.SpanContextParseException;
+import io.opencensus.trace.propagation.TextFormat.Getter;
+import io.opencensus.trace.propagation.TextFormat.Setter;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link TraceContextFormat}. */
+@RunWith(JUnit4.class)
+public class TraceContextFormatTest {
+  private static final String TRACE_ID_BASE16 = "ff000000000000000000000000000041";
+  private static final TraceId TRACE_ID = TraceId.fromLowerBase16(TRACE_ID_BASE16);
+  private static final String SPAN_ID_BASE16 = "ff00000000000041";
+  private static final SpanId SPAN_ID = SpanId.fromLowerBase16(SPAN_ID_BASE16);
+  private static final TraceOptions SAMPLED_TRACE_OPTIONS =
+      TraceOptions.builder().setIsSampled(true).build();
+  private static final String TRACEPARENT_SAMPLED =
+      "00-" + TRACE_ID_BASE16 + "-" + SPAN_ID_BASE16 + "-01";
+  private static final String TRACEPARENT_NOT_SAMPLED =
+      "00-" + TRACE_ID_BASE16 + "-" + SPAN_ID_BASE16 + "-00";
+  private final TraceContextFormat traceContextFormat = new TraceContextFormat();
+  @Rule public ExpectedException thrown = ExpectedException.none();
+  private final Setter<Map<String, String>> setter =
+      new Setter<Map<String, String>>() {
+        @Override
+        public void put(Map<String, String> carrier, String key, String value) {
+          carrier.put(key, value);
+        }
+      };
+  private final Getter<Map<String, String>> getter =
+      new Getter<Map<String, String>>() {
+        @Nullable
+        @Override
+        public String get(Map<String, String> carrier, String key) {
+          return carrier.get(key);
+        }
+      };
+
+  @Test
+  public void serialize_SampledContext() {
+    Map<String, String> carrier = new HashMap<String, String>();
+    traceContextFormat.inject(
+        SpanContext.create(TRACE_ID, SPAN_ID, SAMPLED_TRACE_OPTIONS), carrier, setter);
+    assertThat(carrier).containsExactly(TRACEPARENT, TRACEPARENT_SAMPLED);
+  }
+
+  @Test
+  public void serialize_NotSampledContext() {
+    Map<String, String> carrier = new HashMap<String, String>();
+    traceContextFormat.inject(
+        SpanContext.create(TRACE_ID, SPAN_ID, TraceOptions.DEFAULT), carrier, setter);
+    assertThat(carrier).containsExactly(TRACEPARENT, TRACEPARENT_NOT_SAMPLED);
+  }
+
+  @Test
+  public void serialize_ReusesBufferAcrossCalls() {
+    Map<String, String> carrier = new HashMap<String, String>();
+    traceContextFormat.inject(
+        SpanContext.create(TRACE_ID, SPAN_ID, SAMPLED_TRACE_OPTIONS), carrier, setter);
+    String first = carrier.get(TRACEPARENT);
+    traceContextFormat.inject(
+        SpanContext.create(TRACE_ID, SPAN_ID, TraceOptions.DEFAULT), carrier, setter);
+    assertThat(first).isEqualTo(TRACEPARENT_SAMPLED);
+    assertThat(carrier.get(TRACEPARENT)).isEqualTo(TRACEPARENT_NOT_SAMPLED);
+  }
+
+  @Test
+  public void parseSampledContext() throws SpanContextParseException {
+    Map<String, String> carrier = new HashMap<String, String>();
+    carrier.put(TRACEPARENT, TRACEPARENT_SAMPLED);
+    assertThat(traceContextFormat.extract(carrier, getter))
+        .isEqualTo(SpanContext.create(TRACE_ID, SPAN_ID, SAMPLED_TRACE_OPTIONS));
+  }
+
+  @Test
+  public void parseNotSampledContext() throws SpanContextParseException {
+    Map<String, String> carrier = new HashMap<String, String>();
+    carrier.put(TRACEPARENT, TRACEPARENT_NOT_SAMPLED);
+    assertThat(traceContextFormat.extract(carrier, getter))
+        .isEqualTo(SpanContext.create(TRACE_ID, SPAN_ID, TraceOptions.DEFAULT));
+  }
+
+  @Test
+  public void parseIgnoresUnknownTraceOptions() throws SpanContextParseException {
+    assertThat(
+            TraceContextFormat.parseTraceparent(
+                "00-" + TRACE_ID_BASE16 + "-" + SPAN_ID_BASE16 + "-03"))
+        .isEqualTo(SpanContext.create(TRACE_ID, SPAN_ID, SAMPLED_TRACE_OPTIONS));
+  }
+
+  @Test
+  public void parseFutureVersionWithExtraFields() throws SpanContextParseException {
+    assertThat(
+            TraceContextFormat.parseTraceparent(
+                "01-" + TRACE_ID_BASE16 + "-" + SPAN_ID_BASE16 + "-01-extra"))
+        .isEqualTo(SpanContext.create(TRACE_ID, SPAN_ID, SAMPLED_TRACE_OPTIONS));
+  }
+
+  @Test
+  public void parseIgnoresTracestate() throws SpanContextParseException {
+    Map<String, String> carrier = new HashMap<String, String>();
+    carrier.put(TRACEPARENT, TRACEPARENT_SAMPLED);
+    carrier.put(TRACESTATE, "congo=t61rcWkgMzE");
+    assertThat(traceContextFormat.extract(carrier, getter))
+        .isEqualTo(SpanContext.create(TRACE_ID, SPAN_ID, SAMPLED_TRACE_OPTIONS));
+  }
+
+  @Test
+  public void parseMissingTraceparent() throws SpanContextParseException {
+    Map<String, String> invalidHeaders = new HashMap<String, String>();
+    thrown.expect(SpanContextParseException.class);
+    thrown.expectMessage("Missing traceparent.");
+    traceContextFormat.extract(invalidHeaders, getter);
+  }
+
+  @Test
+  public void parseInvalidVersion() throws SpanContextParseException {
+    thrown.expect(SpanContextParseException.class);
+    thrown.expectMessage("Invalid traceparent version.");
+    TraceContextFormat.parseTraceparent("ff-" + TRACE_ID_BASE16 + "-" + SPAN_ID_BASE16 + "-01");
+  }
+
+  @Test
+  public void parseTooShort() throws SpanContextParseException {
+    thrown.expect(SpanContextParseException.class);
+    thrown.expectMessage("Invalid traceparent size: 54");
+    TraceContextFormat.parseTraceparent("00-" + TRACE_ID_BASE16 + "-" + SPAN_ID_BASE16 + "-0");
+  }
+
+  @Test
+  public void parseVersionZeroTooLong() throws SpanContextParseException {
+    thrown.expect(SpanContextParseException.class);
+    thrown.expectMessage("Invalid traceparent size: 56");
+    TraceContextFormat.parseTraceparent(TRACEPARENT_SAMPLED + "-");
+  }
+
+  @Test
+  public void parseFutureVersionWithoutDelimiter() throws SpanContextParseException {
+    thrown.expect(SpanContextParseException.class);
+    thrown.expectMessage("Invalid traceparent size: 56");
+    TraceContextFormat.parseTraceparent("01-" + TRACE_ID_BASE16 + "-" + SPAN_ID_BASE16 + "-01x");
+  }
+
+  @Test
+  public void parseInvalidDelimiter() throws SpanContextParseException {
+    thrown.expect(SpanContextParseException.class);
+    thrown.expectMessage("Invalid traceparent delimiters.");
+    TraceContextFormat.parseTraceparent("00-" + TRACE_ID_BASE16 + "_" + SPAN_ID_BASE16 + "-01");
+  }
+
+  @Test
+  public void parseUpperCaseTraceId() throws SpanContextParseException {
+    thrown.expect(SpanContextParseException.class);
+    thrown.expectMessage("Invalid traceparent ids.");
+    TraceContextFormat.parseTraceparent(
+        "00-" + TRACE_ID_BASE16.toUpperCase() + "-" + SPAN_ID_BASE16 + "-01");
+  }
+
+  @Test
+  public void parseInvalidSpanIdCharacter() throws SpanContextParseException {
+    thrown.expect(SpanContextParseException.class);
+    thrown.expectMessage("Invalid traceparent ids.");
+    TraceContextFormat.parseTraceparent("00-" + TRACE_ID_BASE16 + "-ff0000000000004g-01");
+  }
+
+  @Test
+  public void parseInvalidTraceOptions() throws SpanContextParseException {
+    thrown.expect(SpanContextParseException.class);
+    thrown.expectMessage("Invalid traceparent options.");
+    TraceContextFormat.parseTraceparent("00-" + TRACE_ID_BASE16 + "-" + SPAN_ID_BASE16 + "-0x");
+  }
+
+  @Test
+  public void parseAllZeroTraceId() throws SpanContextParseException {
+    thrown.expect(SpanContextParseException.class);
+    thrown.expectMessage("Invalid traceparent ids.");
+    TraceContextFormat.parseTraceparent(
+        "00-00000000000000000000000000000000-" + SPAN_ID_BASE16 + "-01");
+  }
+
+  @Test
+  public void parseAllZeroSpanId() throws SpanContextParseException {
+    thrown.expect(SpanContextParseException.class);
+    thrown.expectMessage("Invalid traceparent ids.");
+    TraceContextFormat.parseTraceparent("00-" + TRACE_ID_BASE16 + "-0000000000000000-01");
+  }
+
+  @Test
+  public void fieldsList() {
+    assertThat(traceContextFormat.fields()).containsExactly(TRACEPARENT, TRACESTATE);
+  }
+
+  @Test
+  public void tryExtractSampledContext() {
+    Map<String, String> carrier = new HashMap<String, String>();
+    carrier.put(TRACEPARENT, TRACEPARENT_SAMPLED);
+    assertThat(traceContextFormat.tryExtract(carrier, getter))
+        .isEqualTo(SpanContext.create(TRACE_ID, SPAN_ID, SAMPLED_TRACE_OPTIONS));
+  }
+
+  @Test
+  public void tryExtractMissingTraceparent() {
+    assertThat(traceContextFormat.tryExtract(new HashMap<String, String>(), getter)).isNull();
+  }
+
+  @Test
+  public void tryExtractInvalidTraceparent() {
+    Map<String, String> carrier = new HashMap<String, String>();
+    carrier.put(TRACEPARENT, "ff-" + TRACE_ID_BASE16 + "-" + SPAN_ID_BASE16 + "-01");
+    assertThat(traceContextFormat.tryExtract(carrier, getter)).isNull();
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.testing.trace;
+
+import io.opencensus.trace.Annotation;
+import io.opencensus.trace.AttributeValue;
+import io.opencensus.trace.EndSpanOptions;
+import io.opencensus.trace.Link;
+import io.opencensus.trace.MessageEvent;
+import io.opencensus.trace.Span;
+import io.opencensus.trace.SpanContext;
+import io.opencensus.trace.Status;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A {@link Span} that keeps everything recorded on it, for testing instrumentation that is given
+ * spans by a mocked {@link io.opencensus.trace.SpanBuilder}.
+ *
+ * @since 0.16
+ */
+@ThreadSafe
+public final class TestSpan extends Span {
+
+  @GuardedBy("this")
+  private final Map<String, AttributeValue> attributes = new HashMap<String, AttributeValue>();
+
+  @GuardedBy("this")
+  private final List<Annotation> annotations = new ArrayList<Annotation>();
+
+  @GuardedBy("this")
+  private final List<MessageEvent> messageEvents = new ArrayList<MessageEvent>();
+
+  @GuardedBy("this")
+  private final List<Link> links = new ArrayList<Link>();
+
+  @GuardedBy("this")
+  @Nullable
+  private Status status;
+
+  @GuardedBy("this")
+  private boolean ended;
+
+  private TestSpan(SpanContext context, boolean recordEvents) {
+    super(context, recordEvents ? EnumSet.of(Options.RECORD_EVENTS) : null);
+  }
+
+  /**
+   * Creates a span with the given context.
+   *
+   * @param context the context of the span.
+   * @param recordEvents whether the span has the {@link Span.Options#RECORD_EVENTS} option.
+   * @return a new {@code TestSpan}.
+   * @since 0.16
+   */
+  public static TestSpan create(SpanContext context, boolean recordEvents) {
+    return new TestSpan(context, recordEvents);
+  }
+
+  @Override
+  public synchronized void putAttributes(Map<String, AttributeValue> attributes) {
+    this.attributes.putAll(attributes);
+  }
+
+  @Override
+  public synchronized void addAnnotation(
+      String description, Map<String, AttributeValue> attributes) {
+    annotations.add(Annotation.fromDescriptionAndAttributes(description, attributes));
+  }
+
+  @Override
+  public synchronized void addAnnotation(Annotation annotation) {
+    annotations.add(annotation);
+  }
+
+  @Override
+  public synchronized void addMessageEvent(MessageEvent messageEvent) {
+    messageEvents.add(messageEvent);
+  }
+
+  @Override
+  public synchronized void addLink(Link link) {
+    links.add(link);
+  }
+
+  @Override
+  public synchronized void setStatus(Status status) {
+    this.status = status;
+  }
+
+  @Override
+  public synchronized void end(EndSpanOptions options) {
+    ended = true;
+  }
+
+  /**
+   * Returns the attributes put on this span.
+   *
+   * @return the attributes put on this span.
+   * @since 0.16
+   */
+  public synchronized Map<String, AttributeValue> getAttributes() {
+    return Collections.unmodifiableMap(new HashMap<String, AttributeValue>(attributes));
+  }
+
+  /**
+   * Returns the annotations added to this span, in order.
+   *
+   * @return the annotations added to this span.
+   * @since 0.16
+   */
+  public synchronized List<Annotation> getAnnotations() {
+    return Collections.unmodifiableList(new ArrayList<Annotation>(annotations));
+  }
+
+  /**
+   * Returns the message events added to this span, in order.
+   *
+   * @return the message events added to this span.
+   * @since 0.16
+   */
+  public synchronized List<MessageEvent> getMessageEvents() {
+    return Collections.unmodifiableList(new ArrayList<MessageEvent>(messageEvents));
+  }
+
+  /**
+   * Returns the links added to this span, in order.
+   *
+   * @return the links added to this span.
+   * @since 0.16
+   */
+  public synchronized List<Link> getLinks() {
+    return Collections.unmodifiableList(new ArrayList<Link>(links));
+  }
+
+  /**
+   * Returns the last status set on this span, or {@code null} if none was set.
+   *
+   * @return the last status set on this span, or {@code null} if none was set.
+   * @since 0.16
+   */
+  @Nullable
+  public synchronized Status getStatus() {
+    return status;
+  }
+
+  /**
+   * Returns {@code true} if this span was ended.
+   *
+   * @return {@code true} if this span was ended.
+   * @since 0.16
+   */
+  public synchronized boolean isEnded() {
+    return ended;
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2018, OpenCensus Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opencensus.testing.trace;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.opencensus.trace.AttributeValue;
+import io.opencensus.trace.Link;
+import io.opencensus.trace.MessageEvent;
+import io.opencensus.trace.Span;
+import io.opencensus.trace.SpanContext;
+import io.opencensus.trace.Status;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link TestSpan}. */
+@RunWith(JUnit4.class)
+public final class TestSpanTest {
+
+  @Test
+  public void recordsEverything() {
+    TestSpan span = TestSpan.create(SpanContext.INVALID, true);
+    assertThat(span.getOptions()).containsExactly(Span.Options.RECORD_EVENTS);
+    span.putAttribute("key", AttributeValue.stringAttributeValue("value"));
+    span.addAnnotation("annotation");
+    MessageEvent messageEvent = MessageEvent.builder(MessageEvent.Type.SENT, 1).build();
+    span.addMessageEvent(messageEvent);
+    Link link = Link.fromSpanContext(SpanContext.INVALID, Link.Type.PARENT_LINKED_SPAN);
+    span.addLink(link);
+    span.setStatus(Status.NOT_FOUND);
+    assertThat(span.isEnded()).isFalse();
+    span.end();
+
+    assertThat(span.getAttributes())
+        .containsExactly("key", AttributeValue.stringAttributeValue("value"));
+    assertThat(span.getAnnotations()).hasSize(1);
+    assertThat(span.getAnnotations().get(0).getDescription()).isEqualTo("annotation");
+    assertThat(span.getMessageEvents()).containsExactly(messageEvent);
+    assertThat(span.getLinks()).containsExactly(link);
+    assertThat(span.getStatus()).isEqualTo(Status.NOT_FOUND);
+    assertThat(span.isEnded()).isTrue();
+  }
+
+  @Test
+  public void notRecordingEvents() {
+    TestSpan span = TestSpan.create(SpanContext.INVALID, false);
+    assertThat(span.getOptions()).isEmpty();
+    assertThat(span.getStatus()).isNull();
+  }
+}